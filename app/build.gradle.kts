@@ -331,8 +331,45 @@ android {
 
 
 greendao {
-    schemaVersion(18)
+    schemaVersion(23)
 }
 
 
 
+
+// Prebuilt taxonomies of each flavor, imported on first run (see PrebuiltTaxonomies).
+// `./gradlew generateOffTaxonomySnapshot` downloads the taxonomies on the connected device or emulator
+// and writes them to src/off/assets/taxonomies.db. Run again before a release to ship fresher taxonomies.
+listOf("off", "obf", "opff", "opf").forEach { flavor ->
+    val variantName = "${flavor.capitalize()}Debug"
+    tasks.register("generate${flavor.capitalize()}TaxonomySnapshot") {
+        group = "taxonomies"
+        description = "Builds the prebuilt taxonomies of the $flavor flavor on the connected device."
+        dependsOn("install$variantName", "install${variantName}AndroidTest")
+        doLast {
+            val adb = android.adbExecutable.absolutePath
+            val testVariant = android.testVariants.first { it.testedVariant.name == "${flavor}Debug" }
+            val appId = testVariant.testedVariant.applicationId
+            val result = java.io.ByteArrayOutputStream()
+            exec {
+                commandLine(adb, "shell", "am", "instrument", "-w",
+                    "-e", "class", "openfoodfacts.github.scrachx.openfood.repositories.PrebuiltTaxonomiesExporter",
+                    "-e", "exportTaxonomies", "true",
+                    "${testVariant.applicationId}/${android.defaultConfig.testInstrumentationRunner}")
+                standardOutput = result
+            }
+            // am instrument does not fail when the tests fail
+            if (!result.toString().contains("OK (1 test)")) {
+                throw GradleException("Could not build the taxonomies of $flavor:\n$result")
+            }
+            val snapshot = file("src/$flavor/assets/taxonomies.db")
+            snapshot.parentFile.mkdirs()
+            snapshot.outputStream().use { out ->
+                exec {
+                    commandLine(adb, "exec-out", "run-as", appId, "cat", "files/taxonomies.db")
+                    standardOutput = out
+                }
+            }
+        }
+    }
+}
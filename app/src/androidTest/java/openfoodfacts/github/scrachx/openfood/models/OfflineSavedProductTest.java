@@ -1,5 +1,7 @@
 package openfoodfacts.github.scrachx.openfood.models;
 
+import android.util.Base64;
+
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 
@@ -7,6 +9,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -15,6 +20,7 @@ import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
 
 /**
  * Tests for {@link OfflineSavedProduct}
@@ -91,4 +97,29 @@ public class OfflineSavedProductTest {
         assertEquals(productDetails, offlineSavedProduct.getProductDetailsMap());
     }
 
+    @Test
+    public void getProductDetailsMap_returnsCopy() {
+        Map<String, String> productDetails = new HashMap<>();
+        productDetails.put(ApiFields.Keys.PRODUCT_NAME, PRODUCT_NAME);
+        offlineSavedProduct.setProductDetailsMap(productDetails);
+        offlineSavedProduct.getProductDetailsMap().remove(ApiFields.Keys.PRODUCT_NAME);
+        assertEquals(productDetails, offlineSavedProduct.getProductDetailsMap());
+    }
+
+    @Test
+    public void setProductDetails_decodesLegacyFormat() throws IOException {
+        Map<String, String> productDetails = new HashMap<>();
+        productDetails.put(ApiFields.Keys.LANG, LANG);
+        productDetails.put(ApiFields.Keys.QUANTITY, QUANTITY);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            out.writeObject(new HashMap<>(productDetails));
+        }
+        offlineSavedProduct.setProductDetails(Base64.encodeToString(bos.toByteArray(), Base64.DEFAULT));
+        assertEquals(productDetails, offlineSavedProduct.getProductDetailsMap());
+
+        offlineSavedProduct.setProductDetails(OfflineSavedProduct.encodeDetails(productDetails));
+        assertTrue(OfflineSavedProduct.isJsonDetails(offlineSavedProduct.getProductDetails()));
+        assertEquals(productDetails, offlineSavedProduct.getProductDetailsMap());
+    }
 }
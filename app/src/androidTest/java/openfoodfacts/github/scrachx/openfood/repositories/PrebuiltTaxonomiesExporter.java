@@ -0,0 +1,70 @@
+package openfoodfacts.github.scrachx.openfood.repositories;
+
+import android.content.SharedPreferences;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.greenrobot.greendao.database.Database;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import io.reactivex.Completable;
+import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
+import openfoodfacts.github.scrachx.openfood.features.splash.SplashController;
+import openfoodfacts.github.scrachx.openfood.jobs.LoadTaxonomiesWorker;
+import openfoodfacts.github.scrachx.openfood.models.DaoMaster;
+import openfoodfacts.github.scrachx.openfood.models.DaoSession;
+import openfoodfacts.github.scrachx.openfood.utils.Utils;
+
+import static junit.framework.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Builds the prebuilt taxonomies of the flavor, see {@link PrebuiltTaxonomies}.
+ * <p>
+ * It downloads every taxonomy into an emptied database, so it only runs with the {@value #ARG_EXPORT}
+ * instrumentation argument, given by the generate&lt;Flavor&gt;TaxonomySnapshot Gradle tasks
+ * which then pull the snapshot from the files of the app.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class PrebuiltTaxonomiesExporter {
+    private static final String ARG_EXPORT = "exportTaxonomies";
+
+    @Test
+    public void exportSnapshot() {
+        assumeTrue(Boolean.parseBoolean(InstrumentationRegistry.getArguments().getString(ARG_EXPORT)));
+
+        OFFApplication application = OFFApplication.getInstance();
+        SharedPreferences settings = application.getSharedPreferences("prefs", 0);
+        DaoSession daoSession = OFFApplication.getDaoSession();
+        Database db = daoSession.getDatabase();
+        ProductRepository productRepository = ProductRepository.getInstance();
+
+        // Start from an empty database so that every taxonomy is downloaded in full
+        DaoMaster.dropAllTables(db, true);
+        DaoMaster.createAllTables(db, false);
+        daoSession.clear();
+        productRepository.clearTaxonomyCaches();
+        SharedPreferences.Editor editor = settings.edit();
+        for (Taxonomy taxonomy : Taxonomy.values()) {
+            editor.remove(taxonomy.getLastDownloadTimeStampPreferenceId())
+                .remove(taxonomy.getLastCheckTimeStampPreferenceId());
+        }
+        editor.putBoolean(Utils.FORCE_REFRESH_TAXONOMIES, false).commit();
+
+        SplashController.activateDownloads(settings);
+        Completable.merge(LoadTaxonomiesWorker.getSyncObservables(productRepository)).blockingAwait();
+
+        for (Taxonomy taxonomy : Taxonomy.values()) {
+            if (settings.getBoolean(taxonomy.getDownloadActivatePreferencesId(), false)) {
+                assertTrue("Could not download " + taxonomy, settings.getLong(taxonomy.getLastDownloadTimeStampPreferenceId(), 0L) > 0L);
+            }
+        }
+        PrebuiltTaxonomies.exportSnapshot(db, settings, new File(application.getFilesDir(), PrebuiltTaxonomies.ASSET_NAME));
+    }
+}
@@ -0,0 +1,101 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Base64;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.greenrobot.greendao.database.Database;
+import org.greenrobot.greendao.database.StandardDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import openfoodfacts.github.scrachx.openfood.models.DaoMaster;
+import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
+import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProductDao;
+import openfoodfacts.github.scrachx.openfood.network.ApiFields;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests for the migrations of {@link OFFDatabaseHelper}
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class OFFDatabaseHelperTest {
+    private static final String CORRUPT_DETAILS = "rO0ABXNyABFqYXZhLnV0aWwuSGFzaE1hcAUH2sHDFmDRAwAC";
+    private SQLiteDatabase sqLiteDatabase;
+    private Database db;
+    private OfflineSavedProductDao dao;
+
+    @Before
+    public void setup() {
+        sqLiteDatabase = SQLiteDatabase.create(null);
+        db = new StandardDatabase(sqLiteDatabase);
+        OfflineSavedProductDao.createTable(db, false);
+        dao = new DaoMaster(db).newSession().getOfflineSavedProductDao();
+    }
+
+    @After
+    public void close() {
+        sqLiteDatabase.close();
+    }
+
+    @Test
+    public void migrateOfflineProductDetailsToJson_legacyDetails_json() throws IOException {
+        Map<String, String> details = new HashMap<>();
+        details.put(ApiFields.Keys.PRODUCT_NAME, "product name");
+        insert(1, legacyDetails(details));
+
+        OFFDatabaseHelper.migrateOfflineProductDetailsToJson(db);
+
+        String migrated = getDetails(1);
+        assertTrue(OfflineSavedProduct.isJsonDetails(migrated));
+        assertEquals(details, OfflineSavedProduct.decodeDetails(migrated));
+    }
+
+    @Test
+    public void migrateOfflineProductDetailsToJson_corruptDetails_leftUntouched() throws IOException {
+        Map<String, String> details = new HashMap<>();
+        details.put(ApiFields.Keys.PRODUCT_NAME, "product name");
+        insert(1, CORRUPT_DETAILS);
+        insert(2, legacyDetails(details));
+
+        OFFDatabaseHelper.migrateOfflineProductDetailsToJson(db);
+
+        assertEquals(CORRUPT_DETAILS, getDetails(1));
+        assertEquals(details, OfflineSavedProduct.decodeDetails(getDetails(2)));
+    }
+
+    private void insert(long id, String details) {
+        dao.insert(new OfflineSavedProduct(id, "888888888" + id, details, false, 0, 0));
+    }
+
+    private String getDetails(long id) {
+        try (Cursor cursor = db.rawQuery(String.format("SELECT %s FROM %s WHERE %s = ?",
+            OfflineSavedProductDao.Properties.ProductDetails.columnName, OfflineSavedProductDao.TABLENAME,
+            OfflineSavedProductDao.Properties.Id.columnName), new String[]{String.valueOf(id)})) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getString(0);
+        }
+    }
+
+    private static String legacyDetails(Map<String, String> details) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            out.writeObject(new HashMap<>(details));
+        }
+        return Base64.encodeToString(bos.toByteArray(), Base64.DEFAULT);
+    }
+}
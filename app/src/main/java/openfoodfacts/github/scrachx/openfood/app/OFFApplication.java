@@ -30,6 +30,7 @@ import io.reactivex.plugins.RxJavaPlugins;
 import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.dagger.component.AppComponent;
 import openfoodfacts.github.scrachx.openfood.dagger.module.AppModule;
+import openfoodfacts.github.scrachx.openfood.images.ImageLoader;
 import openfoodfacts.github.scrachx.openfood.models.DaoMaster;
 import openfoodfacts.github.scrachx.openfood.models.DaoSession;
 import openfoodfacts.github.scrachx.openfood.utils.AnalyticsService;
@@ -101,6 +102,8 @@ public class OFFApplication extends MultiDexApplication {
 
         setDaoSession(new DaoMaster(new OFFDatabaseHelper(this, dbName).getWritableDb()).newSession());
 
+        ImageLoader.install(this);
+
         // DEBUG
         QueryBuilder.LOG_VALUES = DEBUG;
         QueryBuilder.LOG_SQL = DEBUG;
@@ -137,4 +140,13 @@ public class OFFApplication extends MultiDexApplication {
             Log.w(LOG_TAG, "Undeliverable exception received, not sure what to do", e);
         });
     }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (BuildConfig.DEBUG) {
+            ImageLoader.logStats();
+        }
+        ImageLoader.trimMemory(level);
+    }
 }
@@ -13,8 +13,8 @@ import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.category.CategoryRepository;
 import openfoodfacts.github.scrachx.openfood.category.mapper.CategoryMapper;
 import openfoodfacts.github.scrachx.openfood.category.network.CategoryNetworkService;
+import openfoodfacts.github.scrachx.openfood.network.HttpClientManager;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
-import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.jackson.JacksonConverterFactory;
@@ -23,7 +23,6 @@ import static openfoodfacts.github.scrachx.openfood.dagger.Qualifiers.ForApplica
 
 @Module
 public class AppModule {
-    private static final OkHttpClient httpClient = Utils.httpClientBuilder();
     private final OFFApplication application;
 
     public AppModule(OFFApplication application) {
@@ -45,7 +44,13 @@ public class AppModule {
 
     @Provides
     @Singleton
-    Retrofit provideRetrofit() {
+    OkHttpClient provideHttpClient() {
+        return HttpClientManager.getHttpClient();
+    }
+
+    @Provides
+    @Singleton
+    Retrofit provideRetrofit(OkHttpClient httpClient) {
         return new Retrofit.Builder()
                 .baseUrl(BuildConfig.OFWEBSITE)
                 .client(httpClient)
@@ -67,7 +72,7 @@ public class AppModule {
 
     @Provides
     @Singleton
-    ProductsAPI provideOpenFactsApiClient() {
+    ProductsAPI provideOpenFactsApiClient(OkHttpClient httpClient) {
         return new Retrofit.Builder()
             .baseUrl(BuildConfig.HOST)
             .client(httpClient)
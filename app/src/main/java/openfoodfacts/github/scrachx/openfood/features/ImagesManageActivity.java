@@ -36,6 +36,7 @@ import androidx.core.content.ContextCompat;
 
 import com.github.chrisbanes.photoview.PhotoViewAttacher;
 import com.squareup.picasso.Callback;
+import com.squareup.picasso.Picasso;
 import com.theartofdev.edmodo.cropper.CropImage;
 import com.theartofdev.edmodo.cropper.CropImageActivity;
 
@@ -66,6 +67,7 @@ import openfoodfacts.github.scrachx.openfood.utils.FileDownloader;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeDetector;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import pl.aprilapps.easyphotopicker.EasyImage;
@@ -103,6 +105,9 @@ public class ImagesManageActivity extends BaseActivity {
     protected void onDestroy() {
         super.onDestroy();
         disp.dispose();
+        if (isFinishing()) {
+            ProductRegistry.release(getIntent().getExtras(), ImageKeyHelper.PRODUCT);
+        }
         binding = null;
     }
 
@@ -150,9 +155,7 @@ public class ImagesManageActivity extends BaseActivity {
             startShowCase(getString(R.string.title_image_type), getString(R.string.content_image_type), R.id.comboImageType, 1);
         }
 
-        Intent intent = getIntent();
-
-        Product product = (Product) intent.getSerializableExtra(ImageKeyHelper.PRODUCT);
+        Product product = getProduct();
         boolean canEdit = product != null;
         binding.btnEditImage.setVisibility(canEdit ? View.VISIBLE : View.INVISIBLE);
         binding.btnUnselectImage.setVisibility(binding.btnEditImage.getVisibility());
@@ -349,7 +352,7 @@ public class ImagesManageActivity extends BaseActivity {
                 url = "file://" + url;
             }
             startRefresh(getString(R.string.txtLoading));
-            Utils.picassoBuilder(this)
+            Picasso.get()
                 .load(url)
                 .into(binding.imageViewFullScreen, new Callback() {
                     @Override
@@ -390,7 +393,7 @@ public class ImagesManageActivity extends BaseActivity {
                 if (newStateProduct != null) {
                     updateToolbarTitle(newStateProduct);
                     String imageUrl = getCurrentImageUrl();
-                    getIntent().putExtra(ImageKeyHelper.PRODUCT, newStateProduct);
+                    setProduct(newStateProduct);
                     final String newImageUrl = getImageUrlToDisplay(newStateProduct);
                     loadLanguage();
                     if (imageUrl == null || !imageUrl.equals(newImageUrl)) {
@@ -421,7 +424,7 @@ public class ImagesManageActivity extends BaseActivity {
             client.getProductImages(product.getCode(), newState -> {
                 final Product newStateProduct = newState.getProduct();
                 if (newStateProduct != null) {
-                    getIntent().putExtra(ImageKeyHelper.PRODUCT, newStateProduct);
+                    setProduct(newStateProduct);
                 }
                 if (toDoAfter != null) {
                     toDoAfter.run();
@@ -572,7 +575,12 @@ public class ImagesManageActivity extends BaseActivity {
     }
 
     private Product getProduct() {
-        return (Product) getIntent().getSerializableExtra(ImageKeyHelper.PRODUCT);
+        return ProductRegistry.getInstance().getProduct(getIntent().getParcelableExtra(ImageKeyHelper.PRODUCT));
+    }
+
+    private void setProduct(@NonNull Product product) {
+        ProductRegistry.release(getIntent().getExtras(), ImageKeyHelper.PRODUCT);
+        ProductRegistry.putProduct(getIntent(), ImageKeyHelper.PRODUCT, product);
     }
 
     private void onLanguageChanged() {
@@ -27,6 +27,8 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.GridLayoutManager;
 
+import com.squareup.picasso.Picasso;
+
 import java.util.List;
 
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -97,7 +99,7 @@ public class ImagesSelectActivity extends BaseActivity {
     private void setSelectedImage(int selectedPosition) {
         if (selectedPosition >= 0) {
             String finalUrlString = adapter.getImageUrl(selectedPosition);
-            Utils.picassoBuilder(this).load(finalUrlString).resize(400, 400).centerInside().into(binding.expandedImage);
+            Picasso.get().load(finalUrlString).resize(400, 400).centerInside().into(binding.expandedImage);
             binding.zoomContainer.setVisibility(View.VISIBLE);
             binding.imagesRecycler.setVisibility(View.INVISIBLE);
         }
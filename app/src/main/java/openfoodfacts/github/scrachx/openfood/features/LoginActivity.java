@@ -49,6 +49,7 @@ import openfoodfacts.github.scrachx.openfood.customtabs.CustomTabsHelper;
 import openfoodfacts.github.scrachx.openfood.customtabs.WebViewFallback;
 import openfoodfacts.github.scrachx.openfood.databinding.ActivityLoginBinding;
 import openfoodfacts.github.scrachx.openfood.features.shared.BaseActivity;
+import openfoodfacts.github.scrachx.openfood.network.HttpClientManager;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import retrofit2.Retrofit;
@@ -216,7 +217,7 @@ public class LoginActivity extends BaseActivity {
 
         apiClient = new Retrofit.Builder()
             .baseUrl(BuildConfig.HOST)
-            .client(Utils.httpClientBuilder())
+            .client(HttpClientManager.getHttpClient())
             .addCallAdapterFactory(RxJava2CallAdapterFactory.createWithScheduler(Schedulers.io()))
             .build()
             .create(ProductsAPI.class);
@@ -47,6 +47,7 @@ import androidx.work.WorkInfo;
 import androidx.work.WorkManager;
 
 import com.afollestad.materialdialogs.MaterialDialog;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.apache.commons.lang.StringUtils;
 import org.greenrobot.greendao.async.AsyncSession;
@@ -61,6 +62,7 @@ import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
 import openfoodfacts.github.scrachx.openfood.AppFlavors;
+import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.customtabs.CustomTabActivityHelper;
@@ -74,6 +76,7 @@ import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.A
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfigDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.country.CountryName;
 import openfoodfacts.github.scrachx.openfood.models.entities.country.CountryNameDao;
+import openfoodfacts.github.scrachx.openfood.network.metrics.NetworkMetrics;
 import openfoodfacts.github.scrachx.openfood.utils.INavigationItem;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.NavigationDrawerListener;
@@ -271,6 +274,12 @@ public class PreferencesFragment extends PreferenceFragmentCompat implements INa
             Log.e(PreferencesFragment.class.getSimpleName(), "onCreatePreferences", e);
         }
 
+        if (BuildConfig.DEBUG) {
+            Preference networkMetricsPref = requirePreference("export_network_metrics");
+            networkMetricsPref.setVisible(true);
+            networkMetricsPref.setOnPreferenceClickListener(preference -> exportNetworkMetrics());
+        }
+
         if (AppFlavors.isFlavors(AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF)) {
             getAnalysisTagConfigs(daoSession);
         } else {
@@ -279,6 +288,21 @@ public class PreferencesFragment extends PreferenceFragmentCompat implements INa
         }
     }
 
+    /**
+     * Shares the metrics of the network calls, to find out which ones are slow.
+     */
+    private boolean exportNetworkMetrics() {
+        try {
+            Intent sendIntent = new Intent(Intent.ACTION_SEND)
+                .putExtra(Intent.EXTRA_TEXT, NetworkMetrics.getInstance().toJson())
+                .setType("application/json");
+            startActivity(Intent.createChooser(sendIntent, getString(R.string.export_network_metrics)));
+        } catch (JsonProcessingException e) {
+            Log.e(PreferencesFragment.class.getSimpleName(), "exportNetworkMetrics", e);
+        }
+        return true;
+    }
+
     @NonNull
     private <T extends Preference> T requirePreference(@NonNull String key) {
         return PreferencesUtils.requirePreference(this, key);
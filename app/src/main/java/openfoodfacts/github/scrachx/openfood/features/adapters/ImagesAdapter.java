@@ -16,6 +16,8 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.squareup.picasso.Picasso;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -70,7 +72,7 @@ public class ImagesAdapter extends RecyclerView.Adapter<ImagesAdapter.CustomView
         String finalUrlString = ImageKeyHelper.getImageUrl(barcode, imageName, ImageKeyHelper.IMAGE_EDIT_SIZE_FILE);
 
         Log.d(LOG_TAG, String.format("Loading image %s...", finalUrlString));
-        Utils.picassoBuilder(context).load(finalUrlString).resize(400, 400).centerInside().into(imageView);
+        Picasso.get().load(finalUrlString).resize(400, 400).centerInside().into(imageView);
 
         if (!isLoggedIn) {
             menuButton.setVisibility(View.INVISIBLE);
@@ -10,12 +10,13 @@ import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.squareup.picasso.Picasso;
+
 import java.util.List;
 import java.util.function.Consumer;
 
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.images.ImageKeyHelper;
-import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 /**
  * Created by prajwalm on 10/09/18.
@@ -72,7 +73,7 @@ public class ProductImagesSelectionAdapter extends RecyclerView.Adapter<ProductI
         } else {
             viewGroup.setBackgroundColor(0);
         }
-        Utils.picassoBuilder(context).load(finalUrlString).resize(400, 400).centerInside().into(imageView);
+        Picasso.get().load(finalUrlString).resize(400, 400).centerInside().into(imageView);
     }
 
     @Override
@@ -20,6 +20,8 @@ import java.util.List;
 
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.features.productlist.ProductListActivity;
+import openfoodfacts.github.scrachx.openfood.images.ImageLoader;
+import openfoodfacts.github.scrachx.openfood.images.ImageSize;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
@@ -76,8 +78,8 @@ public class ProductsRecyclerViewAdapter extends RecyclerView.Adapter<ProductsRe
 
         // Load Image if isLowBatteryMode is false
         if (!isLowBatteryMode) {
-            Utils.picassoBuilder(context)
-                .load(imageSmallUrl)
+            Picasso.get()
+                .load(ImageLoader.getUrlForSize(imageSmallUrl, ImageSize.SMALL))
                 .placeholder(R.drawable.placeholder_thumb)
                 .error(R.drawable.error_image)
                 .fit()
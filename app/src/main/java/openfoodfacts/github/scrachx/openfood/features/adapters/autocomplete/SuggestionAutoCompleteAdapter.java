@@ -0,0 +1,178 @@
+package openfoodfacts.github.scrachx.openfood.features.adapters.autocomplete;
+
+import android.content.Context;
+import android.util.Log;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import openfoodfacts.github.scrachx.openfood.utils.SuggestionIndex;
+
+/**
+ * Suggests the names of a {@link SuggestionIndex} matching the typed text, without any query on each keystroke.
+ * <p>
+ * When the index has too few suggestions for the text, they can be completed from the server: the requests are only
+ * sent once the user stopped typing for {@link #REMOTE_DEBOUNCE_MS}, and the response for a text which is not the
+ * current one anymore is dropped. This adapter must then be disposed with its view.
+ */
+public class SuggestionAutoCompleteAdapter extends ArrayAdapter<String> implements Filterable, Disposable {
+    private static final String LOG_TAG = SuggestionAutoCompleteAdapter.class.getSimpleName();
+    static final int MAX_SUGGESTIONS = 20;
+    /**
+     * The server is asked when there are less local suggestions
+     */
+    static final int MIN_LOCAL_SUGGESTIONS = 5;
+    static final long REMOTE_DEBOUNCE_MS = 300;
+    private final SuggestionIndex index;
+    private final List<String> suggestions = new ArrayList<>();
+    @Nullable
+    private final PublishSubject<String> remoteTerms;
+    @Nullable
+    private final Disposable remoteDisposable;
+    /**
+     * The text of the displayed suggestions, accessed on the main thread only
+     */
+    @Nullable
+    private String currentTerm;
+
+    public SuggestionAutoCompleteAdapter(Context context, int textViewResourceId, @NonNull SuggestionIndex index) {
+        this(context, textViewResourceId, index, null);
+    }
+
+    /**
+     * @param remoteSuggestions the suggestions of the server for a text, or null to only use the index
+     */
+    public SuggestionAutoCompleteAdapter(Context context, int textViewResourceId, @NonNull SuggestionIndex index,
+                                         @Nullable Function<String, Single<? extends List<String>>> remoteSuggestions) {
+        super(context, textViewResourceId);
+        this.index = index;
+        if (remoteSuggestions != null) {
+            remoteTerms = PublishSubject.create();
+            remoteDisposable = remoteTerms
+                .debounce(REMOTE_DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+                .switchMapSingle(term -> remoteSuggestions.apply(term)
+                    .subscribeOn(Schedulers.io())
+                    .map(list -> new RemoteSuggestions(term, list))
+                    .onErrorReturn(throwable -> {
+                        Log.w(LOG_TAG, "Could not get the suggestions for " + term, throwable);
+                        return new RemoteSuggestions(term, Collections.emptyList());
+                    }))
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::addRemoteSuggestions);
+        } else {
+            remoteTerms = null;
+            remoteDisposable = null;
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return suggestions.size();
+    }
+
+    @Override
+    public String getItem(int position) {
+        if (position < 0 || position >= suggestions.size()) {
+            return StringUtils.EMPTY;
+        }
+        return suggestions.get(position);
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return new Filter() {
+            @Override
+            protected FilterResults performFiltering(CharSequence constraint) {
+                FilterResults filterResults = new FilterResults();
+                List<String> list = index.find(constraint, MAX_SUGGESTIONS);
+                filterResults.values = list;
+                filterResults.count = list.size();
+                return filterResults;
+            }
+
+            @Override
+            protected void publishResults(CharSequence constraint, FilterResults results) {
+                currentTerm = constraint != null ? constraint.toString() : null;
+                suggestions.clear();
+                if (results != null && results.count > 0) {
+                    //noinspection unchecked
+                    suggestions.addAll((List<String>) results.values);
+                    notifyDataSetChanged();
+                } else {
+                    notifyDataSetInvalidated();
+                }
+                if (remoteTerms != null && !StringUtils.isBlank(currentTerm)
+                    && suggestions.size() < MIN_LOCAL_SUGGESTIONS) {
+                    remoteTerms.onNext(currentTerm);
+                }
+            }
+        };
+    }
+
+    private void addRemoteSuggestions(RemoteSuggestions remote) {
+        if (!remote.term.equals(currentTerm)) {
+            return;
+        }
+        boolean changed = false;
+        for (String suggestion : remote.suggestions) {
+            if (suggestions.size() >= MAX_SUGGESTIONS) {
+                break;
+            }
+            if (!StringUtils.isBlank(suggestion) && !containsIgnoreCase(suggestions, suggestion)) {
+                suggestions.add(suggestion);
+                changed = true;
+            }
+        }
+        if (changed) {
+            notifyDataSetChanged();
+        }
+    }
+
+    private static boolean containsIgnoreCase(List<String> list, String value) {
+        for (String item : list) {
+            if (item.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void dispose() {
+        if (remoteDisposable != null) {
+            remoteDisposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return remoteDisposable == null || remoteDisposable.isDisposed();
+    }
+
+    private static class RemoteSuggestions {
+        private final String term;
+        private final List<String> suggestions;
+
+        RemoteSuggestions(String term, List<String> suggestions) {
+            this.term = term;
+            this.suggestions = suggestions;
+        }
+    }
+}
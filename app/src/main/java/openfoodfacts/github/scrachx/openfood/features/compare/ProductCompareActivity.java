@@ -23,6 +23,7 @@ import openfoodfacts.github.scrachx.openfood.features.scan.ContinuousScanActivit
 import openfoodfacts.github.scrachx.openfood.features.shared.BaseActivity;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 public class ProductCompareActivity extends BaseActivity {
@@ -33,6 +34,9 @@ public class ProductCompareActivity extends BaseActivity {
 
     @Override
     protected void onDestroy() {
+        if (isFinishing()) {
+            ProductRegistry.releaseAll(getIntent().getExtras(), "products_to_compare");
+        }
         super.onDestroy();
         binding = null;
     }
@@ -54,7 +58,7 @@ public class ProductCompareActivity extends BaseActivity {
         photoReceiverHandler = new PhotoReceiverHandler(newPhotoFile -> ((ProductCompareAdapter) productComparisonAdapter).setImageOnPhotoReturn(newPhotoFile));
 
         if (getIntent().getExtras() != null && getIntent().getBooleanExtra("product_found", false)) {
-            products = (ArrayList<Product>) getIntent().getExtras().getSerializable("products_to_compare");
+            products = ProductRegistry.getProducts(getIntent().getExtras(), "products_to_compare");
             if (getIntent().getBooleanExtra("product_already_exists", false)) {
                 Toast.makeText(this, getString(R.string.product_already_exists_in_comparison), Toast.LENGTH_SHORT).show();
             }
@@ -83,7 +87,7 @@ public class ProductCompareActivity extends BaseActivity {
                 } else {
                     Intent intent = new Intent(ProductCompareActivity.this, ContinuousScanActivity.class);
                     intent.putExtra("compare_product", true);
-                    intent.putExtra("products_to_compare", products);
+                    ProductRegistry.putProducts(intent, "products_to_compare", products);
                     startActivity(intent);
                 }
             }
@@ -45,13 +45,13 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.afollestad.materialdialogs.MaterialDialog;
 
+import com.squareup.picasso.Picasso;
+
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import io.reactivex.Observable;
-import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
@@ -65,7 +65,6 @@ import openfoodfacts.github.scrachx.openfood.models.NutrientLevels;
 import openfoodfacts.github.scrachx.openfood.models.NutrimentLevel;
 import openfoodfacts.github.scrachx.openfood.models.Nutriments;
 import openfoodfacts.github.scrachx.openfood.models.Product;
-import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveName;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
 import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
@@ -155,7 +154,7 @@ public class ProductCompareAdapter extends RecyclerView.Adapter<ProductCompareAd
             }
             // Load Image if isLowBatteryMode is false
             if (!isLowBatteryMode) {
-                Utils.picassoBuilder(context)
+                Picasso.get()
                     .load(imageUrl)
                     .into(holder.productComparisonImage);
             } else {
@@ -291,17 +290,7 @@ public class ProductCompareAdapter extends RecyclerView.Adapter<ProductCompareAd
         }
         final String languageCode = LocaleHelper.getLanguage(v.getContext());
         disp.add(
-            Observable.fromArray(additivesTags.toArray(new String[0]))
-                .flatMapSingle(tag -> repository.getAdditiveByTagAndLanguageCode(tag, languageCode)
-                    .flatMap(categoryName -> {
-                        if (categoryName.isNull()) {
-                            return repository.getAdditiveByTagAndDefaultLanguageCode(tag);
-                        } else {
-                            return Single.just(categoryName);
-                        }
-                    }))
-                .filter(AdditiveName::isNotNull)
-                .toList()
+            repository.getAdditiveNames(additivesTags, languageCode)
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(additives -> {
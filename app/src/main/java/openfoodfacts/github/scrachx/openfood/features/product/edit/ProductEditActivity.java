@@ -66,6 +66,7 @@ import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
 import openfoodfacts.github.scrachx.openfood.utils.OfflineProductService;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 import static openfoodfacts.github.scrachx.openfood.utils.Utils.isExternalStorageWritable;
@@ -157,7 +158,7 @@ public class ProductEditActivity extends AppCompatActivity {
 
     public static void start(Context context, @Nullable ProductState state, boolean sendUpdated, boolean performOcr) {
         Intent starter = new Intent(context, ProductEditActivity.class);
-        starter.putExtra(KEY_STATE, state);
+        ProductRegistry.putState(starter, KEY_STATE, state);
         if (sendUpdated) {
             starter.putExtra(KEY_SEND_UPDATED, true);
         }
@@ -261,9 +262,9 @@ public class ProductEditActivity extends AppCompatActivity {
         }
         mToUploadProductDao = Utils.getDaoSession().getToUploadProductDao();
         mOfflineSavedProductDao = Utils.getDaoSession().getOfflineSavedProductDao();
-        final ProductState productState = (ProductState) getIntent().getSerializableExtra(KEY_STATE);
+        final ProductState productState = ProductRegistry.getState(getIntent().getExtras(), KEY_STATE);
         OfflineSavedProduct offlineSavedProduct = (OfflineSavedProduct) getIntent().getSerializableExtra(KEY_EDIT_OFFLINE_PRODUCT);
-        Product mEditProduct = (Product) getIntent().getSerializableExtra(KEY_EDIT_PRODUCT);
+        Product mEditProduct = ProductRegistry.getProduct(getIntent().getExtras(), KEY_EDIT_PRODUCT);
 
         if (getIntent().getBooleanExtra(KEY_PERFORM_OCR, false)) {
             fragmentsBundle.putBoolean(KEY_PERFORM_OCR, true);
@@ -307,6 +308,10 @@ public class ProductEditActivity extends AppCompatActivity {
         super.onDestroy();
 
         disp.dispose();
+        if (isFinishing()) {
+            ProductRegistry.release(getIntent().getExtras(), KEY_STATE);
+            ProductRegistry.release(getIntent().getExtras(), KEY_EDIT_PRODUCT);
+        }
 
         clearCameraCachedPics(this);
         binding = null;
@@ -315,7 +320,8 @@ public class ProductEditActivity extends AppCompatActivity {
     private void setupViewPager(ViewPager2 viewPager) {
         // Initialize fragments
         ProductFragmentPagerAdapter adapterResult = new ProductFragmentPagerAdapter(this);
-        fragmentsBundle.putSerializable("product", mProduct);
+        // The fragments share the handle of the intent, released when this activity finishes
+        fragmentsBundle.putParcelable("product", getIntent().getParcelableExtra(editingMode ? KEY_EDIT_PRODUCT : KEY_STATE));
 
         productEditOverviewFragment.setArguments(fragmentsBundle);
         productEditIngredientsFragment.setArguments(fragmentsBundle);
@@ -651,7 +657,7 @@ public class ProductEditActivity extends AppCompatActivity {
         @Override
         public Intent createIntent(@NonNull Context context, Product product) {
             Intent intent = new Intent(context, ProductEditActivity.class);
-            intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, product);
+            ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, product);
             intent.putExtra(KEY_PERFORM_OCR, true);
             return intent;
         }
@@ -668,7 +674,7 @@ public class ProductEditActivity extends AppCompatActivity {
         public Intent createIntent(@NonNull Context context, Product product) {
             Intent intent = new Intent(context, ProductEditActivity.class);
             intent.putExtra(KEY_SEND_UPDATED, true);
-            intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, product);
+            ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, product);
             return intent;
         }
 
@@ -66,6 +66,7 @@ import openfoodfacts.github.scrachx.openfood.utils.FileDownloader;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 import static com.hootsuite.nachos.terminator.ChipTerminatorHandler.BEHAVIOR_CHIPIFY_CURRENT_TOKEN;
@@ -148,7 +149,7 @@ public class ProductEditIngredientsFragment extends BaseFragment {
         Bundle b = getArguments();
         if (b != null) {
             mAllergenNameDao = Utils.getDaoSession().getAllergenNameDao();
-            product = (Product) b.getSerializable("product");
+            product = ProductRegistry.getProduct(b, "product");
             mOfflineSavedProduct = (OfflineSavedProduct) b.getSerializable("edit_offline_product");
             editProduct = b.getBoolean(ProductEditActivity.KEY_IS_EDITING);
             if (product != null) {
@@ -235,7 +236,7 @@ public class ProductEditIngredientsFragment extends BaseFragment {
         if (newImageIngredientsUrl != null && !newImageIngredientsUrl.isEmpty()) {
             binding.imageProgress.setVisibility(View.VISIBLE);
             imagePath = newImageIngredientsUrl;
-            Utils.picassoBuilder(activity)
+            Picasso.get()
                 .load(newImageIngredientsUrl)
                 .resize(dps50ToPixels(), dps50ToPixels())
                 .centerInside()
@@ -308,7 +309,7 @@ public class ProductEditIngredientsFragment extends BaseFragment {
         if (productDetails != null) {
             if (getImageIngredients() != null) {
                 binding.imageProgress.setVisibility(View.VISIBLE);
-                Utils.picassoBuilder(activity)
+                Picasso.get()
                     .load(FileUtils.LOCALE_FILE_SCHEME + getImageIngredients())
                     .resize(dps50ToPixels(), dps50ToPixels())
                     .centerInside()
@@ -79,6 +79,7 @@ import openfoodfacts.github.scrachx.openfood.utils.FileDownloader;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
 import openfoodfacts.github.scrachx.openfood.utils.Modifier;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.QuantityParserUtil;
 import openfoodfacts.github.scrachx.openfood.utils.Stringi18nUtils;
 import openfoodfacts.github.scrachx.openfood.utils.UnitUtils;
@@ -221,7 +222,7 @@ public class ProductEditNutritionFactsFragment extends BaseFragment {
         lastEditText = binding.alcohol;
         if (b != null) {
             boolean productEdited;
-            product = (Product) b.getSerializable("product");
+            product = ProductRegistry.getProduct(b, "product");
             mOfflineSavedProduct = (OfflineSavedProduct) b.getSerializable("edit_offline_product");
             productEdited = b.getBoolean(ProductEditActivity.KEY_IS_EDITING);
             if (product != null) {
@@ -487,7 +488,7 @@ public class ProductEditNutritionFactsFragment extends BaseFragment {
      * @param path path of the image
      */
     private void loadNutritionsImage(String path) {
-        Utils.picassoBuilder(activity)
+        Picasso.get()
             .load(path)
             .resize(Utils.dpsToPixel(50, getActivity()), Utils.dpsToPixel(50, getActivity()))
             .centerInside()
@@ -27,7 +27,6 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -47,7 +46,6 @@ import com.squareup.picasso.Picasso;
 import com.theartofdev.edmodo.cropper.CropImage;
 
 import org.apache.commons.lang.StringUtils;
-import org.greenrobot.greendao.async.AsyncSession;
 import org.jetbrains.annotations.Contract;
 
 import java.io.File;
@@ -65,16 +63,13 @@ import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
 import openfoodfacts.github.scrachx.openfood.AppFlavors;
 import openfoodfacts.github.scrachx.openfood.R;
-import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.customtabs.CustomTabActivityHelper;
 import openfoodfacts.github.scrachx.openfood.customtabs.CustomTabsHelper;
 import openfoodfacts.github.scrachx.openfood.customtabs.WebViewFallback;
 import openfoodfacts.github.scrachx.openfood.databinding.FragmentAddProductOverviewBinding;
-import openfoodfacts.github.scrachx.openfood.features.adapters.autocomplete.EmbCodeAutoCompleteAdapter;
-import openfoodfacts.github.scrachx.openfood.features.adapters.autocomplete.PeriodAfterOpeningAutoCompleteAdapter;
+import openfoodfacts.github.scrachx.openfood.features.adapters.autocomplete.SuggestionAutoCompleteAdapter;
 import openfoodfacts.github.scrachx.openfood.features.shared.BaseFragment;
 import openfoodfacts.github.scrachx.openfood.images.ProductImage;
-import openfoodfacts.github.scrachx.openfood.models.DaoSession;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryName;
@@ -87,11 +82,16 @@ import openfoodfacts.github.scrachx.openfood.models.entities.tag.Tag;
 import openfoodfacts.github.scrachx.openfood.models.entities.tag.TagDao;
 import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 import openfoodfacts.github.scrachx.openfood.network.CommonApiManager;
+import openfoodfacts.github.scrachx.openfood.network.ProductFieldsProfile;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
+import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
+import openfoodfacts.github.scrachx.openfood.repositories.Taxonomy;
 import openfoodfacts.github.scrachx.openfood.utils.EditTextUtils;
 import openfoodfacts.github.scrachx.openfood.utils.FileDownloader;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
+import openfoodfacts.github.scrachx.openfood.utils.SuggestionIndex;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 import static com.hootsuite.nachos.terminator.ChipTerminatorHandler.BEHAVIOR_CHIPIFY_CURRENT_TOKEN;
@@ -106,10 +106,8 @@ public class ProductEditOverviewFragment extends BaseFragment {
     private Activity activity;
     private FragmentAddProductOverviewBinding binding;
     private String appLanguageCode;
-    private final List<String> categories = new ArrayList<>();
     private String barcode;
     private ProductsAPI client;
-    private final List<String> countries = new ArrayList<>();
     private boolean editionMode;
     private boolean isFrontImagePresent;
     private final CompositeDisposable disp = new CompositeDisposable();
@@ -120,7 +118,6 @@ public class ProductEditOverviewFragment extends BaseFragment {
     private LabelNameDao labelNameDao;
     private OfflineSavedProduct savedProduct;
     private TagDao tagDao;
-    private final List<String> labels = new ArrayList<>();
     private File photoFile;
     private PhotoReceiverHandler photoReceiverHandler;
     private Product product;
@@ -190,7 +187,7 @@ public class ProductEditOverviewFragment extends BaseFragment {
         appLanguageCode = LocaleHelper.getLanguage(activity);
         Bundle args = getArguments();
         if (args != null) {
-            product = (Product) args.getSerializable("product");
+            product = ProductRegistry.getProduct(args, "product");
             savedProduct = (OfflineSavedProduct) args.getSerializable("edit_offline_product");
             editionMode = args.getBoolean(ProductEditActivity.KEY_IS_EDITING);
             binding.barcode.setText(R.string.txtBarcode);
@@ -427,7 +424,7 @@ public class ProductEditOverviewFragment extends BaseFragment {
             frontImageUrl = imageFrontUrl;
             binding.imageProgress.setVisibility(View.VISIBLE);
             binding.btnEditImgFront.setVisibility(View.INVISIBLE);
-            Utils.picassoBuilder(activity)
+            Picasso.get()
                 .load(imageFrontUrl)
                 .resize(Utils.dpsToPixel(50, getActivity()), Utils.dpsToPixel(50, getActivity()))
                 .centerInside()
@@ -573,58 +570,44 @@ public class ProductEditOverviewFragment extends BaseFragment {
     /**
      * Auto load suggestions into various NachoTextViews
      */
-    @SuppressWarnings("unchecked")
     private void setupAutoSuggestion() {
-        DaoSession daoSession = OFFApplication.getDaoSession();
-        AsyncSession asyncSessionCountries = daoSession.startAsyncSession();
-        AsyncSession asyncSessionLabels = daoSession.startAsyncSession();
-        AsyncSession asyncSessionCategories = daoSession.startAsyncSession();
-        LabelNameDao labelNameDao = daoSession.getLabelNameDao();
-        CountryNameDao countryNameDao = daoSession.getCountryNameDao();
-        CategoryNameDao categoryNameDao = daoSession.getCategoryNameDao();
-
-        asyncSessionCountries.queryList(countryNameDao.queryBuilder()
-            .where(CountryNameDao.Properties.LanguageCode.eq(appLanguageCode))
-            .orderDesc(CountryNameDao.Properties.Name).build());
-        asyncSessionLabels.queryList(labelNameDao.queryBuilder()
-            .where(LabelNameDao.Properties.LanguageCode.eq(appLanguageCode))
-            .orderDesc(LabelNameDao.Properties.Name).build());
-        asyncSessionCategories.queryList(categoryNameDao.queryBuilder()
-            .where(CategoryNameDao.Properties.LanguageCode.eq(appLanguageCode))
-            .orderDesc(CategoryNameDao.Properties.Name).build());
-
-        asyncSessionCountries.setListenerMainThread(operation -> {
-            countries.clear();
-            for (CountryName name : (List<CountryName>) operation.getResult()) {
-                countries.add(name.getName());
-            }
-            ArrayAdapter<String> adapter = new ArrayAdapter<>(activity,
-                android.R.layout.simple_dropdown_item_1line, countries);
-            EmbCodeAutoCompleteAdapter embAdapter = new EmbCodeAutoCompleteAdapter(activity, android.R.layout.simple_dropdown_item_1line);
-            binding.originOfIngredients.setAdapter(adapter);
-            binding.countryWherePurchased.setAdapter(adapter);
-            binding.countriesWhereSold.setAdapter(adapter);
-            binding.embCode.setAdapter(embAdapter);
-        });
-        asyncSessionLabels.setListenerMainThread(operation -> {
-            labels.clear();
-            for (LabelName name : (List<LabelName>) operation.getResult()) {
-                labels.add(name.getName());
-            }
-            binding.label.setAdapter(new ArrayAdapter<>(activity,
-                android.R.layout.simple_dropdown_item_1line, labels));
-        });
-        asyncSessionCategories.setListenerMainThread(operation -> {
-            categories.clear();
-            for (CategoryName name : (List<CategoryName>) operation.getResult()) {
-                categories.add(name.getName());
-            }
-            binding.categories.setAdapter(new ArrayAdapter<>(activity,
-                android.R.layout.simple_dropdown_item_1line, categories));
-        });
+        ProductRepository repository = ProductRepository.getInstance();
+        disp.add(repository.getSuggestionIndex(Taxonomy.COUNTRY, appLanguageCode)
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(index -> {
+                SuggestionAutoCompleteAdapter adapter = new SuggestionAutoCompleteAdapter(activity,
+                    android.R.layout.simple_dropdown_item_1line, index);
+                binding.originOfIngredients.setAdapter(adapter);
+                binding.countryWherePurchased.setAdapter(adapter);
+                binding.countriesWhereSold.setAdapter(adapter);
+            }, throwable -> Log.e(ProductEditOverviewFragment.class.getSimpleName(), "Could not load the countries", throwable)));
+        disp.add(repository.getSuggestionIndex(Taxonomy.TAGS, appLanguageCode)
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(index -> {
+                SuggestionAutoCompleteAdapter embAdapter = new SuggestionAutoCompleteAdapter(activity,
+                    android.R.layout.simple_dropdown_item_1line, index, client::getEMBCodeSuggestions);
+                disp.add(embAdapter);
+                binding.embCode.setAdapter(embAdapter);
+            }, throwable -> Log.e(ProductEditOverviewFragment.class.getSimpleName(), "Could not load the packager codes", throwable)));
+        disp.add(repository.getSuggestionIndex(Taxonomy.LABEL, appLanguageCode)
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(index -> binding.label.setAdapter(new SuggestionAutoCompleteAdapter(activity,
+                    android.R.layout.simple_dropdown_item_1line, index)),
+                throwable -> Log.e(ProductEditOverviewFragment.class.getSimpleName(), "Could not load the labels", throwable)));
+        disp.add(repository.getSuggestionIndex(Taxonomy.CATEGORY, appLanguageCode)
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(index -> binding.categories.setAdapter(new SuggestionAutoCompleteAdapter(activity,
+                    android.R.layout.simple_dropdown_item_1line, index)),
+                throwable -> Log.e(ProductEditOverviewFragment.class.getSimpleName(), "Could not load the categories", throwable)));
         if (AppFlavors.isFlavors(AppFlavors.OBF)) {
             binding.periodOfTimeAfterOpeningTil.setVisibility(View.VISIBLE);
-            PeriodAfterOpeningAutoCompleteAdapter customAdapter = new PeriodAfterOpeningAutoCompleteAdapter(activity, android.R.layout.simple_dropdown_item_1line);
+            SuggestionAutoCompleteAdapter customAdapter = new SuggestionAutoCompleteAdapter(activity,
+                android.R.layout.simple_dropdown_item_1line, SuggestionIndex.EMPTY, client::getPeriodAfterOpeningSuggestions);
+            disp.add(customAdapter);
             binding.periodOfTimeAfterOpening.setAdapter(customAdapter);
         }
     }
@@ -644,7 +627,7 @@ public class ProductEditOverviewFragment extends BaseFragment {
         }
         if (editionMode) {
             loadFrontImage(lang);
-            String fields = "ingredients_text_" + lang + ",product_name_" + lang;
+            String fields = ProductFieldsProfile.EDIT.getFields(activity, lang);
             disp.add(client.getProductByBarcodeSingle(product.getCode(), fields, Utils.getUserAgent(Utils.HEADER_USER_AGENT_SEARCH))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
@@ -43,6 +43,7 @@ import openfoodfacts.github.scrachx.openfood.images.ProductImage;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import pl.aprilapps.easyphotopicker.EasyImage;
 
@@ -85,7 +86,7 @@ public class ProductEditPhotosFragment extends BaseFragment {
         });
         Bundle b = getArguments();
         if (b != null) {
-            Product product = (Product) b.getSerializable("product");
+            Product product = ProductRegistry.getProduct(b, "product");
             OfflineSavedProduct offlineSavedProduct = (OfflineSavedProduct) b.getSerializable("edit_offline_product");
             boolean editionMode = b.getBoolean(ProductEditActivity.KEY_IS_EDITING);
             if (product != null) {
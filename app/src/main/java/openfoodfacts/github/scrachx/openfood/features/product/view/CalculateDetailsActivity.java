@@ -26,8 +26,10 @@ import openfoodfacts.github.scrachx.openfood.models.HeaderNutrimentListItem;
 import openfoodfacts.github.scrachx.openfood.models.NutrimentListItem;
 import openfoodfacts.github.scrachx.openfood.models.Nutriments;
 import openfoodfacts.github.scrachx.openfood.models.Product;
+import openfoodfacts.github.scrachx.openfood.models.ProductHandle;
 import openfoodfacts.github.scrachx.openfood.models.Units;
 import openfoodfacts.github.scrachx.openfood.utils.Modifier;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.ProductUtils;
 import openfoodfacts.github.scrachx.openfood.utils.UnitUtils;
 
@@ -63,7 +65,7 @@ public class CalculateDetailsActivity extends BaseActivity {
 
     public static void start(@NonNull Context context, @NonNull Product product, @NonNull String spinnerValue, float weight) {
         Intent starter = new Intent(context, CalculateDetailsActivity.class);
-        starter.putExtra(KEY_SAMPLE_OBJECT, product);
+        ProductRegistry.putProduct(starter, KEY_SAMPLE_OBJECT, product);
         starter.putExtra(KEY_SPINNER_VALUE, spinnerValue);
         starter.putExtra(KEY_WEIGHT, weight);
         context.startActivity(starter);
@@ -86,7 +88,9 @@ public class CalculateDetailsActivity extends BaseActivity {
 
         final Intent intent = getIntent();
 
-        product = (Product) intent.getSerializableExtra(KEY_SAMPLE_OBJECT);
+        ProductHandle handle = intent.getParcelableExtra(KEY_SAMPLE_OBJECT);
+        // The stub left after the process was killed has no nutriments to compute
+        product = ProductRegistry.getInstance().isRegistered(handle) ? ProductRegistry.getInstance().getProduct(handle) : null;
         spinnerValue = intent.getStringExtra(KEY_SPINNER_VALUE);
         weight = intent.getFloatExtra(KEY_WEIGHT, -1);
         if (product == null || spinnerValue == null || weight == -1) {
@@ -215,17 +219,25 @@ public class CalculateDetailsActivity extends BaseActivity {
     }
 
     private String calculateCalories(float weight, String unit) {
-        float caloriePer100g = Float.parseFloat(product.getNutriments().get(ENERGY_KCAL).getFor100gInUnits());
+        float caloriePer100g = product.getNutriments().get(ENERGY_KCAL).getValueFor100gInUnits();
         float weightInG = UnitUtils.convertToGrams(weight, unit);
         return Float.toString(((caloriePer100g / 100) * weightInG));
     }
 
     private String calculateKj(float weight, String unit) {
-        float caloriePer100g = Float.parseFloat(product.getNutriments().get(ENERGY_KJ).getFor100gInUnits());
+        float caloriePer100g = product.getNutriments().get(ENERGY_KJ).getValueFor100gInUnits();
         float weightInG = UnitUtils.convertToGrams(weight, unit);
         return Float.toString(((caloriePer100g / 100) * weightInG));
     }
 
+    @Override
+    protected void onDestroy() {
+        if (isFinishing()) {
+            ProductRegistry.release(getIntent().getExtras(), KEY_SAMPLE_OBJECT);
+        }
+        super.onDestroy();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         // Respond to the action bar's Up/Home button
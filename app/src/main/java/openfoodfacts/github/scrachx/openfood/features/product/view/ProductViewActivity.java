@@ -55,10 +55,12 @@ import openfoodfacts.github.scrachx.openfood.features.product.view.nutrition.Nut
 import openfoodfacts.github.scrachx.openfood.features.product.view.summary.SummaryProductFragment;
 import openfoodfacts.github.scrachx.openfood.features.shared.BaseActivity;
 import openfoodfacts.github.scrachx.openfood.models.Nutriments;
+import openfoodfacts.github.scrachx.openfood.models.ProductHandle;
 import openfoodfacts.github.scrachx.openfood.models.ProductState;
 import openfoodfacts.github.scrachx.openfood.models.eventbus.ProductNeedsRefreshEvent;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
 import openfoodfacts.github.scrachx.openfood.utils.FragmentUtils;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 import static openfoodfacts.github.scrachx.openfood.features.product.view.ProductViewActivity.ShowIngredientsAction.PERFORM_OCR;
@@ -75,24 +77,28 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
 
     public static void start(Context context, @NonNull ProductState productState) {
         Intent starter = new Intent(context, ProductViewActivity.class);
-        starter.putExtra(STATE_KEY, productState);
+        ProductRegistry.putState(starter, STATE_KEY, productState);
         context.startActivity(starter);
     }
 
     /**
      * CAREFUL ! YOU MUST INSTANTIATE YOUR OWN ADAPTERRESULT BEFORE CALLING THIS METHOD
+     *
+     * @param handle the handle of the product of the caller, shared with the fragments so that it is released
+     *     with the caller
      */
     @NonNull
     public static ProductFragmentPagerAdapter setupViewPager(@NonNull ViewPager2 viewPager,
                                                              @NonNull ProductFragmentPagerAdapter adapter,
-                                                             @NonNull ProductState productState,
+                                                             @NonNull ProductHandle handle,
                                                              @NonNull Activity activity) {
 
         String[] menuTitles = activity.getResources().getStringArray(R.array.nav_drawer_items_product);
         String[] newMenuTitles = activity.getResources().getStringArray(R.array.nav_drawer_new_items_product);
 
+        final ProductState productState = ProductRegistry.getInstance().getState(handle);
         Bundle fBundle = new Bundle();
-        fBundle.putSerializable(STATE_KEY, productState);
+        fBundle.putParcelable(STATE_KEY, handle);
 
         adapter.addFragment(FragmentUtils.applyBundle(new SummaryProductFragment(), fBundle), menuTitles[0]);
         SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(activity);
@@ -153,7 +159,8 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
 
         client = new OpenFoodAPIClient(this);
 
-        productState = (ProductState) getIntent().getSerializableExtra(STATE_KEY);
+        ProductHandle handle = getIntent().getParcelableExtra(STATE_KEY);
+        productState = ProductRegistry.getInstance().getState(handle);
 
         if (Intent.ACTION_VIEW.equals(getIntent().getAction())) {
             // handle opening the app via product page url
@@ -165,6 +172,9 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
             //no state-> we can't display anything. we go back to home.
             final Intent intent = new Intent(getApplicationContext(), MainActivity.class);
             startActivity(intent);
+        } else if (!ProductRegistry.getInstance().isRegistered(handle)) {
+            // The process was killed meanwhile and only a stub of the product is left
+            loadProductDataFromUrl(handle.getCode());
         } else {
             initViews();
         }
@@ -177,11 +187,13 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
      */
     private void loadProductDataFromUrl(String barcode) {
 
-        disp.add(client.getProductStateFull(barcode, Utils.HEADER_USER_AGENT_SCAN)
+        disp.add(client.getProductStateCacheFirst(barcode, Utils.HEADER_USER_AGENT_SCAN)
             .observeOn(AndroidSchedulers.mainThread())
             .subscribe(state -> {
                 productState = state;
-                getIntent().putExtra(STATE_KEY, state);
+                if (state != null) {
+                    ProductRegistry.updateState(getIntent(), STATE_KEY, state);
+                }
                 //Adding check on productState.getProduct() to avoid null pointer exception (happens in setViewPager()) when product not found
                 if (productState != null && productState.getProduct() != null) {
                     initViews();
@@ -201,7 +213,7 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
         if (requestCode == LOGIN_ACTIVITY_REQUEST_CODE && resultCode == RESULT_OK) {
             // Open product editing after successful login
             Intent intent = new Intent(ProductViewActivity.this, ProductEditActivity.class);
-            intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, productState.getProduct());
+            ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, productState.getProduct());
             startActivity(intent);
         }
     }
@@ -222,7 +234,7 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
     }
 
     private ProductFragmentPagerAdapter setupViewPager(ViewPager2 viewPager) {
-        return setupViewPager(viewPager, new ProductFragmentPagerAdapter(this), productState, this);
+        return setupViewPager(viewPager, new ProductFragmentPagerAdapter(this), getIntent().getParcelableExtra(STATE_KEY), this);
     }
 
     private static boolean isPhotoMode(Activity activity) {
@@ -257,8 +269,15 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
     @Override
     protected void onNewIntent(Intent intent) {
         super.onNewIntent(intent);
+        // The fragments keep the handle of the first intent, which then gets the new product
+        final ProductHandle handle = getIntent().getParcelableExtra(STATE_KEY);
+        productState = ProductRegistry.getState(intent.getExtras(), STATE_KEY);
+        ProductRegistry.release(intent.getExtras(), STATE_KEY);
+        intent.putExtra(STATE_KEY, handle);
         setIntent(intent);
-        productState = (ProductState) intent.getSerializableExtra(STATE_KEY);
+        if (productState != null) {
+            ProductRegistry.updateState(intent, STATE_KEY, productState);
+        }
         adapterResult.refresh(productState);
     }
 
@@ -277,6 +296,9 @@ public class ProductViewActivity extends BaseActivity implements OnRefreshListen
     @Override
     protected void onDestroy() {
         disp.dispose();
+        if (isFinishing()) {
+            ProductRegistry.release(getIntent().getExtras(), STATE_KEY);
+        }
         super.onDestroy();
     }
 
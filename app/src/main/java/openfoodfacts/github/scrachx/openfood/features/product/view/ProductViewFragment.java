@@ -28,6 +28,7 @@ import openfoodfacts.github.scrachx.openfood.features.product.view.ingredients.I
 import openfoodfacts.github.scrachx.openfood.features.product.view.summary.SummaryProductFragment;
 import openfoodfacts.github.scrachx.openfood.models.ProductState;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 
 import static android.app.Activity.RESULT_OK;
 import static openfoodfacts.github.scrachx.openfood.features.product.view.ProductViewActivity.ShowIngredientsAction.PERFORM_OCR;
@@ -45,7 +46,7 @@ public class ProductViewFragment extends Fragment implements OnRefreshListener {
     public static ProductViewFragment newInstance(@NonNull ProductState productState) {
 
         Bundle args = new Bundle();
-        args.putSerializable(ProductViewActivity.STATE_KEY, productState);
+        ProductRegistry.putState(args, ProductViewActivity.STATE_KEY, productState);
 
         ProductViewFragment fragment = new ProductViewFragment();
         fragment.setArguments(args);
@@ -55,6 +56,9 @@ public class ProductViewFragment extends Fragment implements OnRefreshListener {
     @Override
     public void onDestroy() {
         disp.dispose();
+        if (isRemoving() || requireActivity().isFinishing()) {
+            ProductRegistry.release(getArguments(), ProductViewActivity.STATE_KEY);
+        }
         super.onDestroy();
     }
 
@@ -70,7 +74,7 @@ public class ProductViewFragment extends Fragment implements OnRefreshListener {
 
         client = new OpenFoodAPIClient(requireActivity());
 
-        productState = (ProductState) requireArguments().getSerializable(ProductViewActivity.STATE_KEY);
+        productState = ProductRegistry.getState(requireArguments(), ProductViewActivity.STATE_KEY);
 
         adapterResult = setupViewPager(binding.pager);
 
@@ -92,13 +96,14 @@ public class ProductViewFragment extends Fragment implements OnRefreshListener {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == LOGIN_ACTIVITY_REQUEST_CODE && resultCode == RESULT_OK) {
             Intent intent = new Intent(getActivity(), ProductEditActivity.class);
-            intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, getProductState().getProduct());
+            ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, getProductState().getProduct());
             startActivity(intent);
         }
     }
 
     private ProductFragmentPagerAdapter setupViewPager(ViewPager2 viewPager) {
-        return ProductViewActivity.setupViewPager(viewPager, new ProductFragmentPagerAdapter(requireActivity()), getProductState(), requireActivity());
+        return ProductViewActivity.setupViewPager(viewPager, new ProductFragmentPagerAdapter(requireActivity()),
+            requireArguments().getParcelable(ProductViewActivity.STATE_KEY), requireActivity());
     }
 
     @Override
@@ -112,6 +117,7 @@ public class ProductViewFragment extends Fragment implements OnRefreshListener {
             .observeOn(AndroidSchedulers.mainThread())
             .subscribe(newState -> {
                 productState = newState;
+                ProductRegistry.updateState(requireArguments(), ProductViewActivity.STATE_KEY, newState);
                 adapterResult.refresh(newState);
             }, throwable ->
                 adapterResult.refresh(productState))
@@ -49,9 +49,9 @@ import org.apache.commons.lang.StringUtils;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import io.reactivex.disposables.CompositeDisposable;
 import openfoodfacts.github.scrachx.openfood.AppFlavors;
@@ -80,6 +80,7 @@ import openfoodfacts.github.scrachx.openfood.utils.BottomScreenCommon;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
 import openfoodfacts.github.scrachx.openfood.utils.FragmentUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
+import openfoodfacts.github.scrachx.openfood.utils.MultiPatternMatcher;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
 import openfoodfacts.github.scrachx.openfood.utils.ProductInfoState;
 import openfoodfacts.github.scrachx.openfood.utils.SearchType;
@@ -91,7 +92,6 @@ import static openfoodfacts.github.scrachx.openfood.utils.Utils.bold;
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 
 public class IngredientsProductFragment extends BaseFragment implements IIngredientsProductPresenter.View {
-    public static final Pattern INGREDIENT_PATTERN = Pattern.compile("[\\p{L}\\p{Nd}(),.-]+");
     private FragmentIngredientsProductBinding binding;
     private AllergenNameDao mAllergenNameDao;
     private OpenFoodAPIClient client;
@@ -220,7 +220,7 @@ public class IngredientsProductFragment extends BaseFragment implements IIngredi
 
             // Load Image if isLowBatteryMode is false
             if (!isLowBatteryMode) {
-                Utils.picassoBuilder(getContext())
+                Picasso.get()
                     .load(product.getImageIngredientsUrl(langCode))
                     .into(binding.imageViewIngredients);
             } else {
@@ -236,25 +236,8 @@ public class IngredientsProductFragment extends BaseFragment implements IIngredi
             Picasso.get().load(FileUtils.LOCALE_FILE_SCHEME + mUrlImage).config(Bitmap.Config.RGB_565).into(binding.imageViewIngredients);
         }
 
-        List<String> allergens = getAllergens();
-
-        if (activityProductState != null && StringUtils.isNotEmpty(product.getIngredientsText(langCode))) {
-            binding.cvTextIngredientProduct.setVisibility(View.VISIBLE);
-            SpannableStringBuilder txtIngredients = new SpannableStringBuilder(product.getIngredientsText(langCode).replace("_", ""));
-            txtIngredients = setSpanBoldBetweenTokens(txtIngredients, allergens);
-            if (TextUtils.isEmpty(product.getIngredientsText(langCode))) {
-                binding.extractIngredientsPrompt.setVisibility(View.VISIBLE);
-            }
-            int ingredientsListAt = Math.max(0, txtIngredients.toString().indexOf(":"));
-            if (!txtIngredients.toString().substring(ingredientsListAt).trim().isEmpty()) {
-                binding.textIngredientProduct.setText(txtIngredients);
-            }
-        } else {
-            binding.cvTextIngredientProduct.setVisibility(View.GONE);
-            if (isNotBlank(product.getImageIngredientsUrl(langCode))) {
-                binding.extractIngredientsPrompt.setVisibility(View.VISIBLE);
-            }
-        }
+        // The allergens are highlighted again with their names in the language once they are loaded
+        showIngredientsText(product, langCode, Collections.emptyList());
         presenter.loadAllergens();
 
         if (!StringUtils.isBlank(product.getTraces())) {
@@ -362,26 +345,32 @@ public class IngredientsProductFragment extends BaseFragment implements IIngredi
         return string.substring(3);
     }
 
-    private SpannableStringBuilder setSpanBoldBetweenTokens(CharSequence text, List<String> allergens) {
+    private void showIngredientsText(@NonNull Product product, String langCode, @NonNull List<AllergenName> allergenNames) {
+        if (activityProductState != null && StringUtils.isNotEmpty(product.getIngredientsText(langCode))) {
+            binding.cvTextIngredientProduct.setVisibility(View.VISIBLE);
+            SpannableStringBuilder txtIngredients = new SpannableStringBuilder(product.getIngredientsText(langCode).replace("_", ""));
+            txtIngredients = setSpanBoldBetweenTokens(txtIngredients, getAllergenNames(getAllergens(), allergenNames), langCode);
+            if (TextUtils.isEmpty(product.getIngredientsText(langCode))) {
+                binding.extractIngredientsPrompt.setVisibility(View.VISIBLE);
+            }
+            int ingredientsListAt = Math.max(0, txtIngredients.toString().indexOf(":"));
+            if (!txtIngredients.toString().substring(ingredientsListAt).trim().isEmpty()) {
+                binding.textIngredientProduct.setText(txtIngredients);
+            }
+        } else {
+            binding.cvTextIngredientProduct.setVisibility(View.GONE);
+            if (isNotBlank(product.getImageIngredientsUrl(langCode))) {
+                binding.extractIngredientsPrompt.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
+    private SpannableStringBuilder setSpanBoldBetweenTokens(CharSequence text, Set<String> allergenNames, String langCode) {
         final SpannableStringBuilder ssb = new SpannableStringBuilder(text);
-        Matcher m = INGREDIENT_PATTERN.matcher(ssb);
-        while (m.find()) {
-            final String tm = m.group();
-            final String allergenValue = tm.replaceAll("[(),.-]+", "");
-
-            for (String allergen : allergens) {
-                if (allergen.equalsIgnoreCase(allergenValue)) {
-                    int start = m.start();
-                    int end = m.end();
-
-                    if (tm.contains("(")) {
-                        start += 1;
-                    } else if (tm.contains(")")) {
-                        end -= 1;
-                    }
-
-                    ssb.setSpan(new StyleSpan(Typeface.BOLD), start, end, SPAN_EXCLUSIVE_EXCLUSIVE);
-                }
+        if (!allergenNames.isEmpty()) {
+            MultiPatternMatcher matcher = MultiPatternMatcher.forPatterns(allergenNames, langCode);
+            for (MultiPatternMatcher.Match match : matcher.findAll(ssb)) {
+                ssb.setSpan(new StyleSpan(Typeface.BOLD), match.getStart(), match.getEnd(), SPAN_EXCLUSIVE_EXCLUSIVE);
             }
         }
         ssb.insert(0, Utils.bold(getString(R.string.txtIngredients) + ' '));
@@ -421,6 +410,9 @@ public class IngredientsProductFragment extends BaseFragment implements IIngredi
                 binding.textSubstanceProduct.append(", ");
             }
         }
+        if (activityProductState != null && activityProductState.getProduct() != null) {
+            showIngredientsText(activityProductState.getProduct(), LocaleHelper.getLanguage(getContext()), allergens);
+        }
     }
 
     @Override
@@ -476,6 +468,29 @@ public class IngredientsProductFragment extends BaseFragment implements IIngredi
         }
     }
 
+    /**
+     * @param allergenTags like "en:milk" or "en:sesame-seeds"
+     * @param allergenNames the names of the allergens in the language of the ingredients, like "Lait" in french
+     * @return the names of the allergens as written in ingredient lists, like "lait", and the english names from
+     * the tags, like "milk" or "sesame seeds"
+     */
+    @NonNull
+    static Set<String> getAllergenNames(@NonNull List<String> allergenTags, @NonNull List<AllergenName> allergenNames) {
+        Set<String> names = new HashSet<>();
+        for (AllergenName allergenName : allergenNames) {
+            String name = allergenName.getName();
+            // The names which are not found are replaced by their tag
+            if (isNotBlank(name) && !name.equals(allergenName.getAllergenTag())) {
+                names.add(name.trim());
+            }
+        }
+        for (String tag : allergenTags) {
+            int languageEnd = tag.indexOf(':');
+            names.add(tag.substring(languageEnd + 1).replace('-', ' '));
+        }
+        return names;
+    }
+
     private List<String> getAllergens() {
         List<String> allergens = activityProductState.getProduct().getAllergensTags();
         if (activityProductState.getProduct() == null || allergens == null || allergens.isEmpty()) {
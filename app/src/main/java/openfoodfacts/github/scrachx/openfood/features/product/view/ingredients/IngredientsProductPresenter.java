@@ -20,14 +20,11 @@ import android.util.Log;
 
 import java.util.List;
 
-import io.reactivex.Observable;
-import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.models.Product;
-import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveName;
 import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.ProductInfoState;
@@ -54,17 +51,7 @@ public class IngredientsProductPresenter implements IIngredientsProductPresenter
         if (additivesTags != null && !additivesTags.isEmpty()) {
             final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
             disposable.add(
-                    Observable.fromArray(additivesTags.toArray(new String[0]))
-                            .flatMapSingle(tag -> repository.getAdditiveByTagAndLanguageCode(tag, languageCode)
-                                    .flatMap(categoryName -> {
-                                        if (categoryName.isNull()) {
-                                            return repository.getAdditiveByTagAndDefaultLanguageCode(tag);
-                                        } else {
-                                            return Single.just(categoryName);
-                                        }
-                                    }))
-                            .filter(AdditiveName::isNotNull)
-                            .toList()
+                    repository.getAdditiveNames(additivesTags, languageCode)
                             .subscribeOn(Schedulers.io())
                             .observeOn(AndroidSchedulers.mainThread())
                             .doOnSubscribe(d -> view.showAdditivesState(ProductInfoState.LOADING))
@@ -90,16 +77,7 @@ public class IngredientsProductPresenter implements IIngredientsProductPresenter
         if (allergenTags != null && !allergenTags.isEmpty()) {
             final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
             disposable.add(
-                Observable.fromArray(allergenTags.toArray(new String[0]))
-                              .flatMapSingle(tag -> repository.getAllergenByTagAndLanguageCode(tag, languageCode)
-                                                              .flatMap(allergenName -> {
-                                                                  if (allergenName.isNull()) {
-                                                                      return repository.getAllergenByTagAndDefaultLanguageCode(tag);
-                                                                  } else {
-                                                                      return Single.just(allergenName);
-                                                                  }
-                                                              }))
-                              .toList()
+                repository.getAllergenNames(allergenTags, languageCode)
                               .subscribeOn(Schedulers.io())
                               .observeOn(AndroidSchedulers.mainThread())
                               .doOnSubscribe(d -> view.showAllergensState(ProductInfoState.LOADING))
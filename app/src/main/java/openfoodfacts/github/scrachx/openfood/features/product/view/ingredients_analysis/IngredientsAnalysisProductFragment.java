@@ -39,6 +39,7 @@ import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.models.ProductState;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
 import openfoodfacts.github.scrachx.openfood.utils.FragmentUtils;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 
 public class IngredientsAnalysisProductFragment extends BaseFragment {
     private FragmentIngredientsAnalysisProductBinding binding;
@@ -83,8 +84,9 @@ public class IngredientsAnalysisProductFragment extends BaseFragment {
         );
 
         Intent intent = requireActivity().getIntent();
-        if (intent != null && intent.getExtras() != null) {
-            refreshView((ProductState) intent.getExtras().getSerializable(ProductViewActivity.STATE_KEY));
+        ProductState activityState = intent != null ? ProductRegistry.getState(intent.getExtras(), ProductViewActivity.STATE_KEY) : null;
+        if (activityState != null) {
+            refreshView(activityState);
         }
     }
 
@@ -25,21 +25,24 @@ import androidx.browser.customtabs.CustomTabsIntent;
 import androidx.fragment.app.DialogFragment;
 import androidx.preference.PreferenceManager;
 
+import com.squareup.picasso.Picasso;
+
 import org.apache.commons.lang.StringUtils;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.customtabs.CustomTabActivityHelper;
 import openfoodfacts.github.scrachx.openfood.features.product.view.ProductViewActivity;
 import openfoodfacts.github.scrachx.openfood.features.scan.ContinuousScanActivity;
+import openfoodfacts.github.scrachx.openfood.models.AnalyzedIngredient;
+import openfoodfacts.github.scrachx.openfood.models.IngredientAnalysis;
+import openfoodfacts.github.scrachx.openfood.models.IngredientAnalysisStatus;
 import openfoodfacts.github.scrachx.openfood.models.Product;
+import openfoodfacts.github.scrachx.openfood.models.ProductIngredients;
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfig;
-import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 public class IngredientsWithTagDialogFragment extends DialogFragment {
     private static final String TAG_KEY = "tag";
@@ -66,7 +69,8 @@ public class IngredientsWithTagDialogFragment extends DialogFragment {
         args.putString(NAME_KEY, config.getName().getName());
         args.putString(INGREDIENTS_IMAGE_URL_KEY, product.getImageIngredientsUrl());
 
-        if (product.getIngredients() == null || product.getIngredients().isEmpty()) {
+        final ProductIngredients ingredients = product.getIngredients();
+        if (ingredients.isEmpty()) {
             final List<String> statesTags = product.getStatesTags();
             boolean ingredientsToBeCompleted = false;
             boolean photosToBeValidated = false;
@@ -87,49 +91,56 @@ public class IngredientsWithTagDialogFragment extends DialogFragment {
         } else {
             String showIngredients = config.getName().getShowIngredients();
             if (showIngredients != null) {
-                args.putSerializable(INGREDIENTS_KEY, getMatchingIngredientsText(product, showIngredients.split(":")));
+                args.putSerializable(INGREDIENTS_KEY, getMatchingIngredientsText(ingredients, showIngredients.split(":")));
             }
-            List<String> ambiguousIngredient = product.getIngredients().stream()
-                .filter(ingredientList -> ingredientList.containsKey(config.getType()) && ingredientList.containsValue("maybe"))
-                .filter(ingredient -> ingredient.containsKey("text")).map(ingredient -> ingredient.get("text"))
-                .collect(Collectors.toList());
-            if (!ambiguousIngredient.isEmpty()) {
-                args.putString(AMBIGUOUS_INGREDIENT_KEY, StringUtils.join(ambiguousIngredient, ","));
+            IngredientAnalysis analysis = IngredientAnalysis.fromKey(config.getType());
+            if (analysis != null) {
+                List<String> ambiguousIngredient = getTexts(ingredients.getIngredients(analysis, IngredientAnalysisStatus.MAYBE));
+                if (!ambiguousIngredient.isEmpty()) {
+                    args.putString(AMBIGUOUS_INGREDIENT_KEY, StringUtils.join(ambiguousIngredient, ","));
+                }
             }
         }
         frag.setArguments(args);
         return frag;
     }
 
-    private static String getMatchingIngredientsText(Product product, String[] showIngredients) {
-        ArrayList<String> matchingIngredients = new ArrayList<>();
-        List<LinkedHashMap<String, String>> ingredients = product.getIngredients();
-        for (LinkedHashMap<String, String> ingredient :
-            ingredients) {
-            if (showIngredients[1].equals(ingredient.get(showIngredients[0]))) {
-                final String text = ingredient.get("text");
-                if (text != null) {
-                    matchingIngredients.add(text.toLowerCase().replace("_", ""));
-                }
-            }
+    /**
+     * @param showIngredients the key of an {@link IngredientAnalysis} and a {@link IngredientAnalysisStatus}
+     */
+    @Nullable
+    private static String getMatchingIngredientsText(ProductIngredients ingredients, String[] showIngredients) {
+        IngredientAnalysis analysis = IngredientAnalysis.fromKey(showIngredients[0]);
+        if (analysis == null || showIngredients.length < 2) {
+            return null;
         }
-
+        List<String> matchingIngredients = getTexts(ingredients.getIngredients(analysis, IngredientAnalysisStatus.fromJson(showIngredients[1])));
         if (matchingIngredients.isEmpty()) {
             return null;
         }
 
         StringBuilder text = new StringBuilder(128);
         text.append(" <b>");
-        text.append(matchingIngredients.get(0));
+        text.append(matchingIngredients.get(0).toLowerCase().replace("_", ""));
         for (int i = 1; i < matchingIngredients.size(); ++i) {
             text.append(", ");
-            text.append(matchingIngredients.get(i));
+            text.append(matchingIngredients.get(i).toLowerCase().replace("_", ""));
         }
         text.append("</b>");
 
         return text.toString();
     }
 
+    private static List<String> getTexts(List<AnalyzedIngredient> ingredients) {
+        List<String> texts = new ArrayList<>(ingredients.size());
+        for (AnalyzedIngredient ingredient : ingredients) {
+            if (ingredient.getText() != null) {
+                texts.add(ingredient.getText());
+            }
+        }
+        return texts;
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -154,7 +165,7 @@ public class IngredientsWithTagDialogFragment extends DialogFragment {
         String ambiguousIngredient = arguments.getString(AMBIGUOUS_INGREDIENT_KEY);
 
         AppCompatImageView icon = rootView.findViewById(R.id.icon);
-        Utils.picassoBuilder(getActivity())
+        Picasso.get()
             .load(iconUrl)
             .into(icon);
         Drawable background = getResources().getDrawable(R.drawable.rounded_button);
@@ -183,7 +194,7 @@ public class IngredientsWithTagDialogFragment extends DialogFragment {
             helpNeeded.setVisibility(View.GONE);
         } else if (showHelpTranslate && arguments.getBoolean(MISSING_INGREDIENTS_KEY, false)) {
             String ingredientsImageUrl = arguments.getString(INGREDIENTS_IMAGE_URL_KEY);
-            Utils.picassoBuilder(getActivity())
+            Picasso.get()
                 .load(ingredientsImageUrl)
                 .into(image);
             image.setOnClickListener(v -> goToExtract());
@@ -87,6 +87,7 @@ import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
 import openfoodfacts.github.scrachx.openfood.utils.FragmentUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.ProductUtils;
 import openfoodfacts.github.scrachx.openfood.utils.UnitUtils;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
@@ -264,14 +265,14 @@ public class NutritionProductFragment extends BaseFragment implements CustomTabA
 
             // Load Image if isLowBatteryMode is false
             if (!isLowBatteryMode) {
-                Utils.picassoBuilder(getContext())
+                Picasso.get()
                     .load(product.getImageNutritionUrl(langCode))
                     .into(binding.imageViewNutrition);
             } else {
 
                 binding.imageViewNutrition.setVisibility(View.GONE);
             }
-            Utils.picassoBuilder(getContext())
+            Picasso.get()
                 .load(product.getImageNutritionUrl(langCode))
                 .into(binding.imageViewNutrition);
 
@@ -642,7 +643,7 @@ public class NutritionProductFragment extends BaseFragment implements CustomTabA
 
     private void startEditProduct() {
         Intent intent = new Intent(getActivity(), ProductEditActivity.class);
-        intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, product);
+        ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, product);
         //adds the information about the prompt when navigating the user to the edit the product
         intent.putExtra(ProductEditActivity.MODIFY_CATEGORY_PROMPT, showCategoryPrompt);
         intent.putExtra(ProductEditActivity.MODIFY_NUTRITION_PROMPT, showNutritionPrompt);
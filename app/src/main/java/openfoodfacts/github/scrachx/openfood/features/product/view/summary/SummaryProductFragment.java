@@ -52,6 +52,7 @@ import org.apache.commons.lang.StringUtils;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -106,6 +107,7 @@ import openfoodfacts.github.scrachx.openfood.utils.FragmentUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.PhotoReceiverHandler;
 import openfoodfacts.github.scrachx.openfood.utils.ProductInfoState;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.ProductUtils;
 import openfoodfacts.github.scrachx.openfood.utils.QuestionActionListeners;
 import openfoodfacts.github.scrachx.openfood.utils.QuestionDialog;
@@ -316,7 +318,7 @@ public class SummaryProductFragment extends BaseFragment implements CustomTabAct
 
             // Load Image if isLowBatteryMode is false
             if (!isLowBatteryMode) {
-                Utils.picassoBuilder(getContext())
+                Picasso.get()
                     .load(imageUrl)
                     .into(binding.imageViewFront);
             } else {
@@ -828,7 +830,7 @@ public class SummaryProductFragment extends BaseFragment implements CustomTabAct
 
     private void editProductNutriscore() {
         Intent intent = new Intent(getActivity(), ProductEditActivity.class);
-        intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, product);
+        ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, product);
         //adds the information about the prompt when navigating the user to the edit the product
         intent.putExtra(ProductEditActivity.MODIFY_CATEGORY_PROMPT, showCategoryPrompt);
         intent.putExtra(ProductEditActivity.MODIFY_NUTRITION_PROMPT, showNutrientPrompt);
@@ -838,9 +840,7 @@ public class SummaryProductFragment extends BaseFragment implements CustomTabAct
     private void onCompareProductButtonClick() {
         Intent intent = new Intent(getActivity(), ProductCompareActivity.class);
         intent.putExtra("product_found", true);
-        ArrayList<Product> productsToCompare = new ArrayList<>();
-        productsToCompare.add(product);
-        intent.putExtra("products_to_compare", productsToCompare);
+        ProductRegistry.putProducts(intent, "products_to_compare", Collections.singletonList(product));
         startActivity(intent);
     }
 
@@ -866,7 +866,7 @@ public class SummaryProductFragment extends BaseFragment implements CustomTabAct
 
     private void editProduct() {
         Intent intent = new Intent(getActivity(), ProductEditActivity.class);
-        intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, product);
+        ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, product);
         startActivityForResult(intent, EDIT_REQUEST_CODE);
     }
 
@@ -900,7 +900,7 @@ public class SummaryProductFragment extends BaseFragment implements CustomTabAct
         final TextView addToNewList = dialogView.findViewById(R.id.tvAddToNewList);
         addToNewList.setOnClickListener(view -> {
             Intent intent = new Intent(activity, ProductListsActivity.class);
-            intent.putExtra("product", product);
+            ProductRegistry.putProduct(intent, "product", product);
             activity.startActivity(intent);
         });
     }
@@ -20,8 +20,6 @@ import android.util.Log;
 
 import java.util.List;
 
-import io.reactivex.Observable;
-import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
@@ -29,8 +27,6 @@ import openfoodfacts.github.scrachx.openfood.AppFlavors;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.models.AnnotationAnswer;
 import openfoodfacts.github.scrachx.openfood.models.Product;
-import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveName;
-import openfoodfacts.github.scrachx.openfood.models.entities.label.LabelName;
 import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.ProductInfoState;
@@ -55,17 +51,7 @@ public class SummaryProductPresenter implements ISummaryProductPresenter.Actions
         if (additivesTags != null && !additivesTags.isEmpty()) {
             final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
             disposable.add(
-                Observable.fromArray(additivesTags.toArray(new String[0]))
-                    .flatMapSingle(tag -> repository.getAdditiveByTagAndLanguageCode(tag, languageCode)
-                        .flatMap(categoryName -> {
-                            if (categoryName.isNull()) {
-                                return repository.getAdditiveByTagAndDefaultLanguageCode(tag);
-                            } else {
-                                return Single.just(categoryName);
-                            }
-                        }))
-                    .filter(AdditiveName::isNotNull)
-                    .toList()
+                repository.getAdditiveNames(additivesTags, languageCode)
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
                     .doOnSubscribe(d -> view.showAdditivesState(ProductInfoState.LOADING))
@@ -107,16 +93,7 @@ public class SummaryProductPresenter implements ISummaryProductPresenter.Actions
         if (categoriesTags != null && !categoriesTags.isEmpty()) {
             final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
             disposable.add(
-                Observable.fromArray(categoriesTags.toArray(new String[0]))
-                    .flatMapSingle(tag -> repository.getCategoryByTagAndLanguageCode(tag, languageCode)
-                        .flatMap(categoryName -> {
-                            if (categoryName.isNull()) {
-                                return repository.getCategoryByTagAndDefaultLanguageCode(tag);
-                            } else {
-                                return Single.just(categoryName);
-                            }
-                        }))
-                    .toList()
+                repository.getCategoryNames(categoriesTags, languageCode)
                     .doOnSubscribe(d -> view.showCategoriesState(ProductInfoState.LOADING))
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
@@ -142,17 +119,7 @@ public class SummaryProductPresenter implements ISummaryProductPresenter.Actions
         if (labelsTags != null && !labelsTags.isEmpty()) {
             final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
             disposable.add(
-                Observable.fromArray(labelsTags.toArray(new String[0]))
-                    .flatMapSingle(tag -> repository.getLabelByTagAndLanguageCode(tag, languageCode)
-                        .flatMap(labelName -> {
-                            if (labelName.isNull()) {
-                                return repository.getLabelByTagAndDefaultLanguageCode(tag);
-                            } else {
-                                return Single.just(labelName);
-                            }
-                        }))
-                    .filter(LabelName::isNotNull)
-                    .toList()
+                repository.getLabelNames(labelsTags, languageCode)
                     .doOnSubscribe(d -> view.showLabelsState(ProductInfoState.LOADING))
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
@@ -191,9 +158,7 @@ public class SummaryProductPresenter implements ISummaryProductPresenter.Actions
         List<String> analysisTags = product.getIngredientsAnalysisTags();
         final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
         if (analysisTags != null && !analysisTags.isEmpty()) {
-            disposable.add(Observable.fromIterable(analysisTags)
-                .flatMapMaybe(tag -> repository.getAnalysisTagConfigByTagAndLanguageCode(tag, languageCode))
-                .toList()
+            disposable.add(repository.getAnalysisTagConfigs(analysisTags, languageCode)
                 .doOnSubscribe(d -> view.showLabelsState(ProductInfoState.LOADING))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
@@ -29,15 +29,11 @@ import com.afollestad.materialdialogs.MaterialDialog;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.greenrobot.greendao.query.QueryBuilder;
-import org.greenrobot.greendao.query.WhereCondition;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -50,7 +46,6 @@ import openfoodfacts.github.scrachx.openfood.features.listeners.CommonBottomList
 import openfoodfacts.github.scrachx.openfood.features.scan.ContinuousScanActivity;
 import openfoodfacts.github.scrachx.openfood.features.shared.BaseActivity;
 import openfoodfacts.github.scrachx.openfood.models.HistoryItem;
-import openfoodfacts.github.scrachx.openfood.models.HistoryProduct;
 import openfoodfacts.github.scrachx.openfood.models.HistoryProductDao;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.models.entities.ProductLists;
@@ -59,6 +54,8 @@ import openfoodfacts.github.scrachx.openfood.models.entities.YourListedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.YourListedProductDao;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
+import openfoodfacts.github.scrachx.openfood.utils.ProductSortType;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeController;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeControllerActions;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
@@ -67,11 +64,14 @@ import static org.apache.commons.lang.StringUtils.capitalize;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
 
 public class ProductListActivity extends BaseActivity implements SwipeControllerActions {
+    /**
+     * Followed by the id of the list
+     */
+    private static final String PREF_SORT_TYPE = "product_list_sort_type_";
     private ActivityYourListedProductsBinding binding;
     private ProductLists thisProductList;
     private List<YourListedProduct> products;
     private YourListedProductDao yourListedProductDao;
-    private HistoryProductDao historyProductDao;
     private Long listID;
     private ProductListAdapter adapter;
     private Boolean isLowBatteryMode = false;
@@ -79,10 +79,13 @@ public class ProductListActivity extends BaseActivity implements SwipeController
     private String listName;
     private Boolean emptyList = false;
     private Boolean isEatenList = false;
-    private String sortType = "none";
+    private ProductSortType sortType = ProductSortType.NONE;
 
     @Override
     protected void onDestroy() {
+        if (isFinishing()) {
+            ProductRegistry.release(getIntent().getExtras(), "product");
+        }
         super.onDestroy();
         binding = null;
     }
@@ -158,7 +161,6 @@ public class ProductListActivity extends BaseActivity implements SwipeController
         }
         ProductListsDao productListsDao = Utils.getDaoSession().getProductListsDao();
         yourListedProductDao = Utils.getDaoSession().getYourListedProductDao();
-        historyProductDao = Utils.getDaoSession().getHistoryProductDao();
 
         // Get listid and add product to list if bundle is present
         Bundle bundle = getIntent().getExtras();
@@ -166,7 +168,7 @@ public class ProductListActivity extends BaseActivity implements SwipeController
             listID = bundle.getLong("listId");
             listName = bundle.getString("listName");
             setTitle(listName);
-            prodToAdd = (Product) bundle.get("product");
+            prodToAdd = ProductRegistry.getProduct(bundle, "product");
         }
         String locale = LocaleHelper.getLanguage(this);
         if (prodToAdd != null && prodToAdd.getCode() != null && prodToAdd.getProductName() != null
@@ -197,7 +199,8 @@ public class ProductListActivity extends BaseActivity implements SwipeController
         }
         binding.rvYourListedProducts.setLayoutManager(new LinearLayoutManager(this));
         binding.rvYourListedProducts.setHasFixedSize(false);
-        products = thisProductList.getProducts();
+        sortType = ProductSortType.fromKey(getSharedPreferences("prefs", 0).getString(PREF_SORT_TYPE + listID, null));
+        products = loadSortedProducts();
 
         if (products.isEmpty()) {
             emptyList = true;
@@ -219,97 +222,41 @@ public class ProductListActivity extends BaseActivity implements SwipeController
         CommonBottomListenerInstaller.install(this, binding.bottomNavigation.bottomNavigation);
     }
 
-    private void sortProducts() {
+    /**
+     * Loads the products of the list in the selected order. The sort is done by the database,
+     * joined with the scan history for the grade and time sorts.
+     */
+    private List<YourListedProduct> loadSortedProducts() {
+        final String id = "T." + YourListedProductDao.Properties.Id.columnName;
+        final String joinHistory = String.format(" LEFT JOIN %s H ON H.%s = T.%s", HistoryProductDao.TABLENAME,
+            HistoryProductDao.Properties.Barcode.columnName, YourListedProductDao.Properties.Barcode.columnName);
+        String join = "";
+        String orderBy;
         switch (sortType) {
-            case "title":
-                Collections.sort(products, (p1, p2) -> p1.getProductName().compareToIgnoreCase(p2.getProductName()));
+            case TITLE:
+                orderBy = "T." + YourListedProductDao.Properties.ProductName.columnName + " COLLATE NOCASE";
                 break;
-
-            case "brand":
-                Collections.sort(products, (p1, p2) -> p1.getProductDetails().compareToIgnoreCase(p2.getProductDetails()));
+            case BRAND:
+                orderBy = "T." + YourListedProductDao.Properties.ProductDetails.columnName + " COLLATE NOCASE";
                 break;
-
-            case "barcode":
-                Collections.sort(products, (p1, p2) -> p1.getBarcode().compareToIgnoreCase(p2.getBarcode()));
+            case BARCODE:
+                orderBy = "T." + YourListedProductDao.Properties.Barcode.columnName + " COLLATE NOCASE";
                 break;
-
-            case "grade":
-
-                //get list of HistoryProduct items for the YourListProduct items
-                WhereCondition[] conditions = new WhereCondition[products.size()];
-                int i = 0;
-                for (YourListedProduct p : products) {
-                    conditions[i] = HistoryProductDao.Properties.Barcode.eq(p.getBarcode());
-                    i++;
-                }
-                List<HistoryProduct> historyProductsGrade;
-                QueryBuilder<HistoryProduct> qbGrade = historyProductDao.queryBuilder();
-                if (conditions.length > 1) {
-                    qbGrade.whereOr(conditions[0], conditions[1], Arrays.copyOfRange(conditions, 2, conditions.length));
-                } else {
-                    qbGrade.where(conditions[0]);
-                }
-                historyProductsGrade = qbGrade.list();
-
-                Collections.sort(products, (p1, p2) -> {
-
-                    String g1 = "E";
-                    String g2 = "E";
-
-                    for (HistoryProduct h : historyProductsGrade) {
-                        if (h.getBarcode().equals(p1.getBarcode())) {
-                            if (h.getNutritionGrade() != null) {
-                                g1 = h.getNutritionGrade();
-                            }
-                        }
-                        if (h.getBarcode().equals(p2.getBarcode())) {
-                            if (h.getNutritionGrade() != null) {
-                                g2 = h.getNutritionGrade();
-                            }
-                        }
-                    }
-                    return g1.compareToIgnoreCase(g2);
-                });
+            case GRADE:
+                join = joinHistory;
+                orderBy = String.format("COALESCE(H.%s, '%s') COLLATE NOCASE", HistoryProductDao.Properties.NutritionGrade.columnName,
+                    ProductSortType.DEFAULT_GRADE);
                 break;
-
-            case "time":
-                //get list of HistoryProduct items for the YourListProduct items
-                WhereCondition[] conditionsTime = new WhereCondition[products.size()];
-                int j = 0;
-                for (YourListedProduct p : products) {
-                    conditionsTime[j] = HistoryProductDao.Properties.Barcode.eq(p.getBarcode());
-                    j++;
-                }
-                List<HistoryProduct> historyProductsTime;
-                QueryBuilder<HistoryProduct> qbTime = historyProductDao.queryBuilder();
-                qbTime.whereOr(conditionsTime[0], conditionsTime[1], Arrays.copyOfRange(conditionsTime, 2, conditionsTime.length));
-                historyProductsTime = qbTime.list();
-
-                Collections.sort(products, (p1, p2) -> {
-
-                    Date d1 = new Date(0);
-                    Date d2 = new Date(0);
-
-                    for (HistoryProduct h : historyProductsTime) {
-                        if (h.getBarcode().equals(p1.getBarcode())) {
-                            if (h.getLastSeen() != null) {
-                                d1 = h.getLastSeen();
-                            }
-                        }
-                        if (h.getBarcode().equals(p2.getBarcode())) {
-                            if (h.getLastSeen() != null) {
-                                d2 = h.getLastSeen();
-                            }
-                        }
-                    }
-                    //compare d2 to d1 because its recently viewed list, so items with later(higher) date come first in the list
-                    return d2.compareTo(d1);
-                });
+            case TIME:
+                // Recently viewed list, so items with later date come first
+                join = joinHistory;
+                orderBy = String.format("COALESCE(H.%s, 0) DESC", HistoryProductDao.Properties.LastSeen.columnName);
                 break;
-
             default:
-                Collections.sort(products, (p1, p2) -> 0);
+                orderBy = id;
         }
+        return yourListedProductDao.queryRaw(String.format("%s WHERE T.%s = ? ORDER BY %s, %s", join,
+            YourListedProductDao.Properties.ListId.columnName, orderBy, id), String.valueOf(listID));
     }
 
     @Override
@@ -352,31 +299,32 @@ public class ProductListActivity extends BaseActivity implements SwipeController
                     switch (position) {
 
                         case 0:
-                            sortType = "title";
+                            sortType = ProductSortType.TITLE;
                             break;
 
                         case 1:
-                            sortType = "brand";
+                            sortType = ProductSortType.BRAND;
                             break;
 
                         case 2:
                             if (AppFlavors.isFlavors(AppFlavors.OFF)) {
-                                sortType = "grade";
+                                sortType = ProductSortType.GRADE;
                             } else {
-                                sortType = "time";
+                                sortType = ProductSortType.TIME;
                             }
                             break;
 
                         case 3:
-                            sortType = "barcode";
+                            sortType = ProductSortType.BARCODE;
                             break;
 
                         default:
-                            sortType = "time";
+                            sortType = ProductSortType.TIME;
                             break;
                     }
 
-                    sortProducts();
+                    getSharedPreferences("prefs", 0).edit().putString(PREF_SORT_TYPE + listID, sortType.getKey()).apply();
+                    products = loadSortedProducts();
                     adapter = new ProductListAdapter(this, products, isLowBatteryMode);
                     binding.rvYourListedProducts.setAdapter(adapter);
                 });
@@ -20,6 +20,8 @@ import com.squareup.picasso.Picasso;
 import java.util.List;
 
 import openfoodfacts.github.scrachx.openfood.R;
+import openfoodfacts.github.scrachx.openfood.images.ImageLoader;
+import openfoodfacts.github.scrachx.openfood.images.ImageSize;
 import openfoodfacts.github.scrachx.openfood.models.entities.YourListedProduct;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
 import openfoodfacts.github.scrachx.openfood.utils.CustomTextView;
@@ -55,7 +57,7 @@ public class ProductListAdapter extends RecyclerView.Adapter<ProductListAdapter.
 
         if (!isLowBatteryMode) {
             Picasso.get()
-                .load(products.get(position).getImageUrl())
+                .load(ImageLoader.getUrlForSize(products.get(position).getImageUrl(), ImageSize.SMALL))
                 .placeholder(R.drawable.placeholder_thumb)
                 .error(R.drawable.ic_no_red_24dp)
                 .fit()
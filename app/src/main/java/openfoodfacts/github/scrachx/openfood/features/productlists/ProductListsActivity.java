@@ -61,6 +61,7 @@ import openfoodfacts.github.scrachx.openfood.models.entities.ProductLists;
 import openfoodfacts.github.scrachx.openfood.models.entities.ProductListsDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.YourListedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.YourListedProductDao;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeController;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeControllerActions;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
@@ -93,6 +94,9 @@ public class ProductListsActivity extends BaseActivity implements SwipeControlle
     @Override
     protected void onDestroy() {
         disp.dispose();
+        if (isFinishing()) {
+            ProductRegistry.release(getIntent().getExtras(), "product");
+        }
         super.onDestroy();
     }
 
@@ -119,7 +123,7 @@ public class ProductListsActivity extends BaseActivity implements SwipeControlle
 
         Bundle bundle = getIntent().getExtras();
         if (bundle != null) {
-            Product productToAdd = (Product) bundle.get("product");
+            Product productToAdd = ProductRegistry.getProduct(bundle, "product");
 
             showCreateListDialog(productToAdd);
         }
@@ -173,7 +177,7 @@ public class ProductListsActivity extends BaseActivity implements SwipeControlle
                     Intent intent = new Intent(ProductListsActivity.this, ProductListActivity.class);
                     intent.putExtra("listId", id);
                     intent.putExtra("listName", listName);
-                    intent.putExtra("product", productToAdd);
+                    ProductRegistry.putProduct(intent, "product", productToAdd);
                     startActivityForResult(intent, 1);
                 } else {
                     dialog.dismiss();
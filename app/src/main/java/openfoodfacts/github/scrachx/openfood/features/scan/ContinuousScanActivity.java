@@ -68,9 +68,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Completable;
+import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
@@ -89,20 +91,21 @@ import openfoodfacts.github.scrachx.openfood.features.product.view.ingredients_a
 import openfoodfacts.github.scrachx.openfood.features.product.view.summary.IngredientAnalysisTagsAdapter;
 import openfoodfacts.github.scrachx.openfood.features.product.view.summary.SummaryProductPresenter;
 import openfoodfacts.github.scrachx.openfood.features.product.view.summary.SummaryProductPresenterView;
-import openfoodfacts.github.scrachx.openfood.models.InvalidBarcode;
-import openfoodfacts.github.scrachx.openfood.models.InvalidBarcodeDao;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.models.ProductState;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
-import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProductDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.allergen.AllergenHelper;
 import openfoodfacts.github.scrachx.openfood.models.entities.allergen.AllergenName;
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfig;
 import openfoodfacts.github.scrachx.openfood.models.eventbus.ProductNeedsRefreshEvent;
 import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
+import openfoodfacts.github.scrachx.openfood.network.ProductFieldsProfile;
+import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
+import openfoodfacts.github.scrachx.openfood.utils.InvalidBarcodeFilter;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
 import openfoodfacts.github.scrachx.openfood.utils.OfflineProductService;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.ProductUtils;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
@@ -142,12 +145,24 @@ public class ContinuousScanActivity extends AppCompatActivity {
     @NonNull
     private VectorDrawableCompat errorDrawable;
     private Disposable productDisp;
+    /**
+     * Loads all the fields of the product when the quick view is expanded.
+     */
+    private Disposable fullProductDisp;
+    /**
+     * Called once the full product is loaded, only the last action asked while loading is kept.
+     */
+    @Nullable
+    private Runnable onFullProductLoaded;
+    private boolean isFullProductLoaded;
     private boolean isAnalysisTagsEmpty = true;
     private String lastBarcode;
     private boolean autoFocusActive;
     private boolean beepActive;
-    private InvalidBarcodeDao mInvalidBarcodeDao;
-    private OfflineSavedProductDao mOfflineSavedProductDao;
+    /**
+     * Empty until the invalid barcodes are loaded in memory
+     */
+    private InvalidBarcodeFilter invalidBarcodeFilter = InvalidBarcodeFilter.EMPTY;
     private OfflineSavedProduct offlineSavedProduct;
     private Product product;
     private ProductViewFragment productViewFragment;
@@ -203,26 +218,41 @@ public class ContinuousScanActivity extends AppCompatActivity {
         if (productDisp != null && !productDisp.isDisposed()) {
             productDisp.dispose();
         }
+        if (fullProductDisp != null) {
+            fullProductDisp.dispose();
+        }
         if (summaryProductPresenter != null) {
             summaryProductPresenter.dispose();
         }
+        isFullProductLoaded = false;
+        onFullProductLoaded = null;
 
-        // First, try to show if we have an offline saved product in the db
-        offlineSavedProduct = OfflineProductService.getOfflineProductByBarcode(barcode);
-        if (offlineSavedProduct != null) {
-            showOfflineSavedDetails(offlineSavedProduct);
-        }
+        // Products added to a comparison need all their fields, the quick view only needs a few
+        final boolean isComparing = getIntent().getBooleanExtra(INTENT_KEY_COMPARE, false);
+        final ProductFieldsProfile fieldsProfile = isComparing ? ProductFieldsProfile.FULL : ProductFieldsProfile.QUICK_VIEW;
 
-        // Then query the online db
-        productDisp = client.getProductStateFull(barcode, Utils.HEADER_USER_AGENT_SCAN)
+        // First, try to show if we have an offline saved product in the db
+        offlineSavedProduct = null;
+        productDisp = Single.fromCallable(() -> Optional.ofNullable(OfflineProductService.getOfflineProductByBarcode(barcode)))
+            .subscribeOn(Schedulers.io())
             .observeOn(AndroidSchedulers.mainThread())
-            .doOnSubscribe(disposable -> {
-                hideAllViews();
-                bottomSheetBehavior.setState(BottomSheetBehavior.STATE_COLLAPSED);
-                binding.quickView.setOnClickListener(null);
-                binding.quickViewProgress.setVisibility(VISIBLE);
-                binding.quickViewProgressText.setVisibility(VISIBLE);
-                binding.quickViewProgressText.setText(getString(R.string.loading_product, barcode));
+            .flatMap(offlineProduct -> {
+                offlineSavedProduct = offlineProduct.orElse(null);
+                if (offlineSavedProduct != null) {
+                    showOfflineSavedDetails(offlineSavedProduct);
+                }
+
+                // Then query the online db
+                return client.getProductStateCacheFirst(barcode, fieldsProfile, Utils.HEADER_USER_AGENT_SCAN)
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .doOnSubscribe(disposable -> {
+                        hideAllViews();
+                        bottomSheetBehavior.setState(BottomSheetBehavior.STATE_COLLAPSED);
+                        binding.quickView.setOnClickListener(null);
+                        binding.quickViewProgress.setVisibility(VISIBLE);
+                        binding.quickViewProgressText.setVisibility(VISIBLE);
+                        binding.quickViewProgressText.setText(getString(R.string.loading_product, barcode));
+                    });
             })
             .subscribe((ProductState productState) -> {
                 //clear product tags
@@ -238,16 +268,16 @@ public class ContinuousScanActivity extends AppCompatActivity {
                     product = productState.getProduct();
 
                     // If we're here from comparison -> add product, return to comparison activity
-                    if (getIntent().getBooleanExtra(INTENT_KEY_COMPARE, false)) {
+                    if (isComparing) {
                         Intent intent = new Intent(ContinuousScanActivity.this, ProductCompareActivity.class);
                         intent.putExtra("product_found", true);
-                        ArrayList<Product> productsToCompare = (ArrayList<Product>) getIntent().getExtras().getSerializable(INTENT_KEY_PRODUCTS_TO_COMPARE);
+                        ArrayList<Product> productsToCompare = ProductRegistry.getProducts(getIntent().getExtras(), INTENT_KEY_PRODUCTS_TO_COMPARE);
                         if (productsToCompare.contains(product)) {
                             intent.putExtra("product_already_exists", true);
                         } else {
                             productsToCompare.add(product);
                         }
-                        intent.putExtra(INTENT_KEY_PRODUCTS_TO_COMPARE, productsToCompare);
+                        ProductRegistry.putProducts(intent, INTENT_KEY_PRODUCTS_TO_COMPARE, productsToCompare);
                         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
                         startActivity(intent);
                     }
@@ -326,32 +356,23 @@ public class ContinuousScanActivity extends AppCompatActivity {
                         binding.quickViewCo2Icon.setVisibility(VISIBLE);
                     }
 
-                    // Create the product view fragment and add it to the layout
-                    ProductViewFragment newProductViewFragment = ProductViewFragment.newInstance(productState);
-
-                    getSupportFragmentManager()
-                        .beginTransaction()
-                        .replace(R.id.frame_layout, newProductViewFragment)
-                        .setTransition(FragmentTransaction.TRANSIT_FRAGMENT_FADE)
-                        .commit();
-                    productViewFragment = newProductViewFragment;
+                    if (fieldsProfile.isCacheable()) {
+                        showProductViewFragment(productState);
+                    } else {
+                        removeProductViewFragment();
+                    }
                 }
             }, (Throwable e) -> {
                 try {
                     // A network error happened
                     if (e instanceof IOException) {
                         hideAllViews();
-                        OfflineSavedProduct offlineSavedProduct = mOfflineSavedProductDao.queryBuilder()
-                            .where(OfflineSavedProductDao.Properties.Barcode.eq(barcode))
-                            .unique();
                         tryDisplayOffline(offlineSavedProduct, barcode, R.string.addProductOffline);
                         binding.quickView.setOnClickListener(v -> navigateToProductAddition(barcode));
                     } else {
                         binding.quickViewProgress.setVisibility(GONE);
                         binding.quickViewProgressText.setVisibility(GONE);
-                        final Toast errorMessage = Toast.makeText(this, R.string.txtConnectionError, Toast.LENGTH_LONG);
-                        errorMessage.setGravity(Gravity.CENTER, 0, 0);
-                        errorMessage.show();
+                        showConnectionError();
                         Log.i(LOG_TAG, e.getMessage(), e);
                     }
                 } catch (Exception err) {
@@ -360,6 +381,84 @@ public class ContinuousScanActivity extends AppCompatActivity {
             });
     }
 
+    /**
+     * Loads all the fields of the shown product if only the quick view ones were loaded, then shows them.
+     *
+     * @param onLoaded called once the full product is loaded, replaces the one of a load in progress
+     */
+    private void loadFullProduct(@Nullable Runnable onLoaded) {
+        if (isFullProductLoaded) {
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+            return;
+        }
+        if (onLoaded != null) {
+            onFullProductLoaded = onLoaded;
+        }
+        if (product == null || (fullProductDisp != null && !fullProductDisp.isDisposed())) {
+            return;
+        }
+        final String barcode = product.getCode();
+        fullProductDisp = client.getProductStateCacheFirst(barcode, Utils.HEADER_USER_AGENT_SCAN)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(productState -> {
+                Runnable callback = onFullProductLoaded;
+                onFullProductLoaded = null;
+                if (product == null || !barcode.equals(product.getCode())) {
+                    return;
+                }
+                if (productState.getStatus() == 0) {
+                    showConnectionError();
+                    return;
+                }
+                product = productState.getProduct();
+                showProductViewFragment(productState);
+                if (callback != null) {
+                    // The callback may use the fragment which was just added
+                    getSupportFragmentManager().executePendingTransactions();
+                    callback.run();
+                }
+            }, e -> {
+                Log.w(LOG_TAG, "Could not load the full product " + barcode, e);
+                // The action asked is dropped, it needs the full product
+                onFullProductLoaded = null;
+                showConnectionError();
+            });
+    }
+
+    private void showConnectionError() {
+        final Toast errorMessage = Toast.makeText(this, R.string.txtConnectionError, Toast.LENGTH_LONG);
+        errorMessage.setGravity(Gravity.CENTER, 0, 0);
+        errorMessage.show();
+    }
+
+    private void showProductViewFragment(@NonNull ProductState productState) {
+        isFullProductLoaded = true;
+        // Create the product view fragment and add it to the layout
+        ProductViewFragment newProductViewFragment = ProductViewFragment.newInstance(productState);
+
+        getSupportFragmentManager()
+            .beginTransaction()
+            .replace(R.id.frame_layout, newProductViewFragment)
+            .setTransition(FragmentTransaction.TRANSIT_FRAGMENT_FADE)
+            .commit();
+        productViewFragment = newProductViewFragment;
+    }
+
+    /**
+     * Removes the details of the previous product, they are shown again once the full product is loaded.
+     */
+    private void removeProductViewFragment() {
+        if (productViewFragment != null) {
+            getSupportFragmentManager()
+                .beginTransaction()
+                .remove(productViewFragment)
+                .commit();
+            productViewFragment = null;
+        }
+    }
+
     private void tryDisplayOffline(@Nullable OfflineSavedProduct offlineSavedProduct, @NonNull String barcode, @StringRes int errorMsg) {
         if (offlineSavedProduct != null) {
             showOfflineSavedDetails(offlineSavedProduct);
@@ -406,13 +505,14 @@ public class ContinuousScanActivity extends AppCompatActivity {
                 isAnalysisTagsEmpty = false;
 
                 IngredientAnalysisTagsAdapter adapter = new IngredientAnalysisTagsAdapter(ContinuousScanActivity.this, analysisTags);
-                adapter.setOnItemClickListener((view, position) -> {
+                adapter.setOnItemClickListener((view, position) -> loadFullProduct(() -> {
+                    // The ingredients are not in the quick view
                     IngredientsWithTagDialogFragment fragment = IngredientsWithTagDialogFragment
-                        .newInstance(product, (AnalysisTagConfig) view.getTag(R.id.analysis_tag_config));
+                        .newInstance(ContinuousScanActivity.this.product, (AnalysisTagConfig) view.getTag(R.id.analysis_tag_config));
                     fragment.show(getSupportFragmentManager(), "fragment_ingredients_with_tag");
 
                     fragment.setOnDismissListener(dialog -> adapter.filterVisibleTags());
-                });
+                }));
                 binding.quickViewTags.setAdapter(adapter);
             }
         });
@@ -463,7 +563,7 @@ public class ContinuousScanActivity extends AppCompatActivity {
 
     private void navigateToProductAddition(Product product) {
         Intent intent = new Intent(ContinuousScanActivity.this, ProductEditActivity.class);
-        intent.putExtra(ProductEditActivity.KEY_EDIT_PRODUCT, product);
+        ProductRegistry.putProduct(intent, ProductEditActivity.KEY_EDIT_PRODUCT, product);
         productActivityResultLauncher.launch(intent);
     }
 
@@ -506,10 +606,16 @@ public class ContinuousScanActivity extends AppCompatActivity {
         if (productDisp != null) {
             productDisp.dispose();
         }
+        if (fullProductDisp != null) {
+            fullProductDisp.dispose();
+        }
         if (hintBarcodeDisp != null) {
             hintBarcodeDisp.dispose();
         }
         commonDisp.dispose();
+        if (isFinishing()) {
+            ProductRegistry.releaseAll(getIntent().getExtras(), INTENT_KEY_PRODUCTS_TO_COMPARE);
+        }
 
         // Remove bottom sheet callback as it uses binding
         bottomSheetBehavior.removeBottomSheetCallback(bottomSheetCallback);
@@ -619,8 +725,10 @@ public class ContinuousScanActivity extends AppCompatActivity {
         bottomSheetCallback = new QuickViewCallback();
         bottomSheetBehavior.addBottomSheetCallback(bottomSheetCallback);
 
-        mInvalidBarcodeDao = Utils.getDaoSession().getInvalidBarcodeDao();
-        mOfflineSavedProductDao = Utils.getDaoSession().getOfflineSavedProductDao();
+        commonDisp.add(ProductRepository.getInstance().getInvalidBarcodeFilter()
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(filter -> invalidBarcodeFilter = filter, e -> Log.e(LOG_TAG, "Cannot load invalid barcodes", e)));
 
         cameraPref = getSharedPreferences("camera", 0);
         beepActive = cameraPref.getBoolean(SETTING_RING, false);
@@ -790,7 +898,7 @@ public class ContinuousScanActivity extends AppCompatActivity {
         if (requestCode == ImagesManageActivity.REQUEST_EDIT_IMAGE && (resultCode == RESULT_OK || resultCode == RESULT_CANCELED)) {
             setShownProduct(lastBarcode);
         } else if (resultCode == RESULT_OK && requestCode == LOGIN_ACTIVITY_REQUEST_CODE) {
-            navigateToProductAddition(product);
+            loadFullProduct(() -> navigateToProductAddition(product));
         }
     }
 
@@ -804,7 +912,7 @@ public class ContinuousScanActivity extends AppCompatActivity {
         if (bottomSheetBehavior != null) {
             bottomSheetBehavior.setState(BottomSheetBehavior.STATE_EXPANDED);
         }
-        productViewFragment.showIngredientsTab(action);
+        loadFullProduct(() -> productViewFragment.showIngredientsTab(action));
     }
 
     private class QuickViewCallback extends BottomSheetBehavior.BottomSheetCallback {
@@ -851,6 +959,9 @@ public class ContinuousScanActivity extends AppCompatActivity {
                     binding.quickViewDetails.setVisibility(GONE);
                     binding.quickViewTags.setVisibility(GONE);
                     binding.barcodeScanner.pause();
+                    if (slideDelta > 0) {
+                        loadFullProduct(null);
+                    }
                     if (slideDelta > 0 && productViewFragment != null) {
                         productViewFragment.bottomSheetWillGrow();
                         binding.bottomNavigation.bottomNavigation.setVisibility(GONE);
@@ -915,9 +1026,7 @@ public class ContinuousScanActivity extends AppCompatActivity {
                 // Prevent duplicate scans
                 return;
             }
-            InvalidBarcode invalidBarcode = mInvalidBarcodeDao.queryBuilder()
-                .where(InvalidBarcodeDao.Properties.Barcode.eq(result.getText())).unique();
-            if (invalidBarcode != null) {
+            if (invalidBarcodeFilter.contains(result.getText())) {
                 // scanned barcode is in the list of invalid barcodes, do nothing
                 return;
             }
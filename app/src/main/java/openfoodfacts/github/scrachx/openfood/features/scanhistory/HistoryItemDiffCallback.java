@@ -0,0 +1,48 @@
+package openfoodfacts.github.scrachx.openfood.features.scanhistory;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.List;
+import java.util.Objects;
+
+import openfoodfacts.github.scrachx.openfood.models.HistoryItem;
+
+/**
+ * Compares two loads of the scan history, a product being identified by its barcode.
+ */
+class HistoryItemDiffCallback extends DiffUtil.Callback {
+    private final List<HistoryItem> oldItems;
+    private final List<HistoryItem> newItems;
+
+    HistoryItemDiffCallback(List<HistoryItem> oldItems, List<HistoryItem> newItems) {
+        this.oldItems = oldItems;
+        this.newItems = newItems;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldItems.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newItems.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        return Objects.equals(oldItems.get(oldItemPosition).getBarcode(), newItems.get(newItemPosition).getBarcode());
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        HistoryItem oldItem = oldItems.get(oldItemPosition);
+        HistoryItem newItem = newItems.get(newItemPosition);
+        return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+            && Objects.equals(oldItem.getBrands(), newItem.getBrands())
+            && Objects.equals(oldItem.getUrl(), newItem.getUrl())
+            && Objects.equals(oldItem.getTime(), newItem.getTime())
+            && Objects.equals(oldItem.getQuantity(), newItem.getQuantity())
+            && Objects.equals(oldItem.getNutritionGrade(), newItem.getNutritionGrade());
+    }
+}
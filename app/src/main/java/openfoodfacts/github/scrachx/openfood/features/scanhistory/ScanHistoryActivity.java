@@ -25,13 +25,14 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.app.NavUtils;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
+import androidx.core.util.Pair;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.afollestad.materialdialogs.MaterialDialog;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -40,18 +41,14 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
-import io.reactivex.Completable;
-import io.reactivex.CompletableSource;
 import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
 import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.R;
@@ -64,21 +61,29 @@ import openfoodfacts.github.scrachx.openfood.models.HistoryItem;
 import openfoodfacts.github.scrachx.openfood.models.HistoryProduct;
 import openfoodfacts.github.scrachx.openfood.models.HistoryProductDao;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
+import openfoodfacts.github.scrachx.openfood.utils.ProductSortType;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeController;
 import openfoodfacts.github.scrachx.openfood.utils.SwipeControllerActions;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 public class ScanHistoryActivity extends BaseActivity implements SwipeControllerActions {
+    private static final String PREF_SORT_TYPE = "history_sort_type";
+    /**
+     * Number of products loaded at once, the next page is loaded when the user scrolls near the end of the list.
+     */
+    private static final int PAGE_SIZE = 50;
     private ActivityHistoryScanBinding binding;
     private List<HistoryItem> productItems;
     private boolean emptyHistory;
     private HistoryProductDao mHistoryProductDao;
     private ScanHistoryAdapter adapter;
     private Disposable disposable;
-    private List<HistoryProduct> listHistoryProducts;
+    private Disposable pageDisposable;
+    private boolean isLoadingPage;
+    private boolean hasMorePages;
     //boolean to determine if image should be loaded or not
     private boolean isLowBatteryMode = false;
-    private static String SORT_TYPE = "none";
+    private ProductSortType sortType = ProductSortType.NONE;
 
     public static void start(Context context) {
         Intent starter = new Intent(context, ScanHistoryActivity.class);
@@ -107,12 +112,24 @@ public class ScanHistoryActivity extends BaseActivity implements SwipeController
 
         mHistoryProductDao = Utils.getDaoSession().getHistoryProductDao();
         productItems = new ArrayList<>();
+        sortType = ProductSortType.fromKey(getSharedPreferences("prefs", 0).getString(PREF_SORT_TYPE, null));
         setInfo(binding.emptyHistoryInfo);
 
+        adapter = new ScanHistoryAdapter(productItems, this, isLowBatteryMode);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        binding.listHistoryScan.setLayoutManager(layoutManager);
+        binding.listHistoryScan.setAdapter(adapter);
+        new ItemTouchHelper(new SwipeController(this, this)).attachToRecyclerView(binding.listHistoryScan);
+        binding.listHistoryScan.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= productItems.size() - PAGE_SIZE / 2) {
+                    loadNextPage();
+                }
+            }
+        });
+
         binding.srRefreshHistoryScanList.setOnRefreshListener(() -> {
-            mHistoryProductDao = Utils.getDaoSession().getHistoryProductDao();
-            productItems = new ArrayList<>();
-            setInfo(binding.emptyHistoryInfo);
             fillView();
             binding.srRefreshHistoryScanList.setRefreshing(false);
         });
@@ -129,17 +146,13 @@ public class ScanHistoryActivity extends BaseActivity implements SwipeController
 
     @Override
     public void onRightClicked(int position) {
-        if (CollectionUtils.isNotEmpty(listHistoryProducts)) {
-            mHistoryProductDao.delete(listHistoryProducts.get(position));
-        }
-        adapter.remove(productItems.get(position));
-        adapter.notifyItemRemoved(position);
-        adapter.notifyItemRangeChanged(position, adapter.getItemCount());
-
-        if (adapter.getItemCount() == 0) {
-            binding.emptyHistoryInfo.setVisibility(View.VISIBLE);
-            binding.scanFirst.setVisibility(View.VISIBLE);
-        }
+        HistoryItem item = productItems.get(position);
+        mHistoryProductDao.queryBuilder()
+            .where(HistoryProductDao.Properties.Barcode.eq(item.getBarcode()))
+            .buildDelete()
+            .executeDeleteWithoutDetachingEntities();
+        adapter.remove(item);
+        updateEmptyState();
     }
 
     public void exportCSV() {
@@ -192,7 +205,12 @@ public class ScanHistoryActivity extends BaseActivity implements SwipeController
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        disposable.dispose();
+        if (disposable != null) {
+            disposable.dispose();
+        }
+        if (pageDisposable != null) {
+            pageDisposable.dispose();
+        }
         binding = null;
     }
 
@@ -210,12 +228,9 @@ public class ScanHistoryActivity extends BaseActivity implements SwipeController
                     .onPositive((dialog, which) -> {
                         mHistoryProductDao.deleteAll();
                         productItems.clear();
-                        final RecyclerView.Adapter adapter = binding.listHistoryScan.getAdapter();
-                        if (adapter != null) {
-                            adapter.notifyDataSetChanged();
-                        }
-                        binding.emptyHistoryInfo.setVisibility(View.VISIBLE);
-                        binding.scanFirst.setVisibility(View.VISIBLE);
+                        adapter.notifyDataSetChanged();
+                        hasMorePages = false;
+                        updateEmptyState();
                     })
                     .positiveText(R.string.txtYes)
                     .negativeText(R.string.txtNo)
@@ -254,33 +269,28 @@ public class ScanHistoryActivity extends BaseActivity implements SwipeController
                     switch (position) {
 
                         case 0:
-                            SORT_TYPE = "title";
-                            fillView();
+                            setSortType(ProductSortType.TITLE);
                             break;
 
                         case 1:
-                            SORT_TYPE = "brand";
-                            fillView();
+                            setSortType(ProductSortType.BRAND);
                             break;
 
                         case 2:
 
                             if (BuildConfig.FLAVOR.equals("off")) {
-                                SORT_TYPE = "grade";
+                                setSortType(ProductSortType.GRADE);
                             } else {
-                                SORT_TYPE = "time";
+                                setSortType(ProductSortType.TIME);
                             }
-                            fillView();
                             break;
 
                         case 3:
-                            SORT_TYPE = "barcode";
-                            fillView();
+                            setSortType(ProductSortType.BARCODE);
                             break;
 
                         default:
-                            SORT_TYPE = "time";
-                            fillView();
+                            setSortType(ProductSortType.TIME);
                             break;
                     }
                 });
@@ -361,134 +371,126 @@ public class ScanHistoryActivity extends BaseActivity implements SwipeController
     }
 
     /**
-     * Function to compare history items based on title, brand, barcode, time and nutrition grade
-     *
-     * @param sortType String to determine type of sorting
-     * @param productItems List of history items to be sorted
+     * Loads a page of the history sorted by title, brand, barcode, time or nutrition grade.
+     * The sort is done by the database, products with the same key stay sorted by time.
      */
-    private void sort(String sortType, List<HistoryItem> productItems) {
-
+    private List<HistoryProduct> loadSortedHistory(int offset, int limit) {
+        final String lastSeenDesc = "T." + HistoryProductDao.Properties.LastSeen.columnName + " DESC";
+        String orderBy;
+        String[] args = new String[0];
         switch (sortType) {
-
-            case "title":
-
-                Collections.sort(productItems, (historyItem, t1) -> {
-                    if (TextUtils.isEmpty(historyItem.getTitle())) {
-                        historyItem.setTitle(getResources().getString(R.string.no_title));
-                    }
-                    if (TextUtils.isEmpty(t1.getTitle())) {
-                        t1.setTitle(getResources().getString(R.string.no_title));
-                    }
-                    return historyItem.getTitle().compareToIgnoreCase(t1.getTitle());
-                });
-
+            case TITLE:
+                orderBy = String.format("COALESCE(NULLIF(T.%s, ''), ?) COLLATE NOCASE, %s",
+                    HistoryProductDao.Properties.Title.columnName, lastSeenDesc);
+                args = new String[]{getString(R.string.no_title)};
                 break;
-
-            case "brand":
-
-                Collections.sort(productItems, (historyItem, t1) -> {
-                    if (TextUtils.isEmpty(historyItem.getBrands())) {
-                        historyItem.setBrands(getResources().getString(R.string.no_brand));
-                    }
-                    if (TextUtils.isEmpty(t1.getBrands())) {
-                        t1.setBrands(getResources().getString(R.string.no_brand));
-                    }
-                    return historyItem.getBrands().compareToIgnoreCase(t1.getBrands());
-                });
-
+            case BRAND:
+                orderBy = String.format("COALESCE(NULLIF(T.%s, ''), ?) COLLATE NOCASE, %s",
+                    HistoryProductDao.Properties.Brands.columnName, lastSeenDesc);
+                args = new String[]{getString(R.string.no_brand)};
                 break;
-
-            case "barcode":
-
-                Collections.sort(productItems, (historyItem, t1) -> historyItem.getBarcode().compareTo(t1.getBarcode()));
+            case BARCODE:
+                orderBy = String.format("T.%s, %s", HistoryProductDao.Properties.Barcode.columnName, lastSeenDesc);
                 break;
-
-            case "grade":
-                Collections.sort(productItems, (historyItem, t1) -> {
-                    String nGrade1;
-                    String nGrade2;
-                    if (historyItem.getNutritionGrade() == null) {
-                        nGrade1 = "E";
-                    } else {
-                        nGrade1 = historyItem.getNutritionGrade();
-                    }
-                    if (t1.getNutritionGrade() == null) {
-                        nGrade2 = "E";
-                    } else {
-                        nGrade2 = t1.getNutritionGrade();
-                    }
-                    return nGrade1.compareToIgnoreCase(nGrade2);
-                });
-
+            case GRADE:
+                orderBy = String.format("COALESCE(T.%s, '%s') COLLATE NOCASE, %s",
+                    HistoryProductDao.Properties.NutritionGrade.columnName, ProductSortType.DEFAULT_GRADE, lastSeenDesc);
                 break;
-
             default:
+                orderBy = lastSeenDesc;
+                break;
+        }
+        return mHistoryProductDao.queryRaw(String.format(Locale.ROOT, "ORDER BY %s LIMIT %d OFFSET %d", orderBy, limit, offset), args);
+    }
 
-                Collections.sort(productItems, (historyItem, t1) -> 0);
+    private List<HistoryItem> toHistoryItems(List<HistoryProduct> historyProducts) {
+        List<HistoryItem> items = new ArrayList<>(historyProducts.size());
+        for (HistoryProduct historyProduct : historyProducts) {
+            HistoryItem historyItem = new HistoryItem(historyProduct.getTitle(), historyProduct.getBrands(), historyProduct.getUrl(), historyProduct
+                .getBarcode(), historyProduct.getLastSeen(), historyProduct.getQuantity(), historyProduct.getNutritionGrade());
+            // Show the name they were sorted with
+            if (sortType == ProductSortType.TITLE && TextUtils.isEmpty(historyItem.getTitle())) {
+                historyItem.setTitle(getString(R.string.no_title));
+            } else if (sortType == ProductSortType.BRAND && TextUtils.isEmpty(historyItem.getBrands())) {
+                historyItem.setBrands(getString(R.string.no_brand));
+            }
+            items.add(historyItem);
         }
+        return items;
     }
 
+    private void setSortType(ProductSortType sortType) {
+        this.sortType = sortType;
+        getSharedPreferences("prefs", 0).edit().putString(PREF_SORT_TYPE, sortType.getKey()).apply();
+        fillView();
+    }
+
+    /**
+     * Reloads as many products as are shown (at least a page) and only updates the rows which changed.
+     */
     private void fillView() {
         if (disposable != null) {
             disposable.dispose();
         }
+        if (pageDisposable != null) {
+            pageDisposable.dispose();
+        }
+        isLoadingPage = false;
+        if (productItems.isEmpty() && !binding.srRefreshHistoryScanList.isRefreshing()) {
+            binding.historyProgressbar.setVisibility(View.VISIBLE);
+        }
+        final List<HistoryItem> oldItems = new ArrayList<>(productItems);
+        final int limit = Math.max(PAGE_SIZE, oldItems.size());
         Log.i(ScanHistoryActivity.class.getSimpleName(), "task fillview started...");
-        disposable = getFillViewCompletable().subscribe(() ->
-            Log.i(ScanHistoryActivity.class.getSimpleName(), "task fillview ended"));
+        disposable = Single.fromCallable(() -> {
+            List<HistoryItem> newItems = toHistoryItems(loadSortedHistory(0, limit));
+            return Pair.create(newItems, DiffUtil.calculateDiff(new HistoryItemDiffCallback(oldItems, newItems)));
+        })
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(result -> {
+                productItems.clear();
+                productItems.addAll(result.first);
+                result.second.dispatchUpdatesTo(adapter);
+                hasMorePages = result.first.size() == limit;
+                binding.historyProgressbar.setVisibility(View.GONE);
+                updateEmptyState();
+                Log.i(ScanHistoryActivity.class.getSimpleName(), "task fillview ended");
+            }, throwable -> Log.e(ScanHistoryActivity.class.getSimpleName(), "could not load the history", throwable));
     }
 
-    @Override
-    public void onPause() {
-        super.onPause();
+    private void loadNextPage() {
+        if (isLoadingPage || !hasMorePages) {
+            return;
+        }
+        isLoadingPage = true;
+        final int offset = productItems.size();
+        pageDisposable = Single.fromCallable(() -> toHistoryItems(loadSortedHistory(offset, PAGE_SIZE)))
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(items -> {
+                isLoadingPage = false;
+                hasMorePages = items.size() == PAGE_SIZE;
+                productItems.addAll(items);
+                adapter.notifyItemRangeInserted(offset, items.size());
+            }, throwable -> {
+                isLoadingPage = false;
+                Log.e(ScanHistoryActivity.class.getSimpleName(), "could not load the next history page", throwable);
+            });
     }
 
-    private Completable getFillViewCompletable() {
-        final Completable refreshAct = Completable.fromAction(() -> {
-            if (binding.srRefreshHistoryScanList.isRefreshing()) {
-                binding.historyProgressbar.setVisibility(View.GONE);
-            } else {
-                binding.historyProgressbar.setVisibility(View.VISIBLE);
-            }
-        });
-        final Single<List<HistoryProduct>> dbSingle = Single.fromCallable(() -> {
-            productItems.clear();
-            List<HistoryProduct> historyProducts = mHistoryProductDao.queryBuilder().orderDesc(HistoryProductDao.Properties.LastSeen).list();
-            for (HistoryProduct historyProduct : historyProducts) {
-                productItems.add(new HistoryItem(historyProduct.getTitle(), historyProduct.getBrands(), historyProduct.getUrl(), historyProduct
-                    .getBarcode(), historyProduct.getLastSeen(), historyProduct.getQuantity(), historyProduct.getNutritionGrade()));
-            }
-            return historyProducts;
-        });
-        final Function<List<HistoryProduct>, CompletableSource> updateUiFunc = historyProducts -> {
-            if (historyProducts.isEmpty()) {
-                emptyHistory = true;
-                binding.historyProgressbar.setVisibility(View.GONE);
-                binding.emptyHistoryInfo.setVisibility(View.VISIBLE);
-                binding.scanFirst.setVisibility(View.VISIBLE);
-                invalidateOptionsMenu();
-                return Completable.complete();
-            }
-
-            sort(SORT_TYPE, productItems);
-
-            adapter = new ScanHistoryAdapter(productItems, ScanHistoryActivity.this, isLowBatteryMode);
-            binding.listHistoryScan.setAdapter(adapter);
-            binding.listHistoryScan.setLayoutManager(new LinearLayoutManager(ScanHistoryActivity.this));
-            binding.historyProgressbar.setVisibility(View.GONE);
-
-            SwipeController swipeController = new SwipeController(ScanHistoryActivity.this, ScanHistoryActivity.this);
-            ItemTouchHelper itemTouchhelper = new ItemTouchHelper(swipeController);
-            itemTouchhelper.attachToRecyclerView(binding.listHistoryScan);
-
-            return Completable.complete();
-        };
-
-        return refreshAct.subscribeOn(AndroidSchedulers.mainThread()) // Change ui on main thread
-
-            .observeOn(Schedulers.io()) // Switch for db operations
-            .andThen(dbSingle)
+    private void updateEmptyState() {
+        boolean empty = productItems.isEmpty();
+        if (empty != emptyHistory) {
+            emptyHistory = empty;
+            invalidateOptionsMenu();
+        }
+        binding.emptyHistoryInfo.setVisibility(empty ? View.VISIBLE : View.INVISIBLE);
+        binding.scanFirst.setVisibility(empty ? View.VISIBLE : View.INVISIBLE);
+    }
 
-            .observeOn(AndroidSchedulers.mainThread()) // Change ui on main thread
-            .flatMapCompletable(updateUiFunc);
+    @Override
+    public void onPause() {
+        super.onPause();
     }
 }
@@ -11,6 +11,7 @@ import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.squareup.picasso.Callback;
+import com.squareup.picasso.Picasso;
 
 import java.util.Collections;
 import java.util.Date;
@@ -20,6 +21,8 @@ import java.util.concurrent.TimeUnit;
 import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.features.productlist.ProductListActivity;
+import openfoodfacts.github.scrachx.openfood.images.ImageLoader;
+import openfoodfacts.github.scrachx.openfood.images.ImageSize;
 import openfoodfacts.github.scrachx.openfood.models.HistoryItem;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
@@ -68,8 +71,8 @@ public class ScanHistoryAdapter extends RecyclerView.Adapter<ScanHistoryHolder>
 
         // Load Image if isBatteryLoad is false
         if (!isLowBatteryMode) {
-            Utils.picassoBuilder(mActivity)
-                .load(item.getUrl())
+            Picasso.get()
+                .load(ImageLoader.getUrlForSize(item.getUrl(), ImageSize.SMALL))
                 .placeholder(R.drawable.placeholder_thumb)
                 .error(R.drawable.ic_no_red_24dp)
                 .fit()
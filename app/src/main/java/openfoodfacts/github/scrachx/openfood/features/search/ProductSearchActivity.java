@@ -32,6 +32,7 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -65,6 +66,10 @@ public class ProductSearchActivity extends BaseActivity {
      * Must be public to be visible by TakeScreenshotIncompleteProductsTest class.
      */
     public static final String SEARCH_INFO = "search_info";
+    /**
+     * Part of a page the user scrolls past before the next page is fetched in the background.
+     */
+    static final float PREFETCH_FRACTION = 0.5f;
     private OpenFoodAPIClient client;
     private ActivityProductBrowsingListBinding binding;
     private int contributionType;
@@ -77,6 +82,13 @@ public class ProductSearchActivity extends BaseActivity {
     private List<Product> mProducts;
     private SearchInfo mSearchInfo;
     private int pageAddress = 1;
+    /**
+     * Fetches a page of the current search, null if its pages cannot be cached.
+     */
+    @Nullable
+    private IntFunction<Single<Search>> pageLoader;
+    private int pageSize;
+    private int prefetchedPage;
     private boolean setupDone = false;
 
     /**
@@ -361,6 +373,7 @@ public class ProductSearchActivity extends BaseActivity {
         binding.offlineCloudLinearLayout.setVisibility(View.INVISIBLE);
         binding.textCountProduct.setVisibility(View.INVISIBLE);
         pageAddress = 1;
+        prefetchedPage = 0;
         binding.noResultsLayout.setVisibility(View.INVISIBLE);
         loadDataFromAPI();
     }
@@ -393,69 +406,110 @@ public class ProductSearchActivity extends BaseActivity {
 
         switch (mSearchInfo.getSearchType()) {
             case BRAND:
-                startSearch(client.getProductsByBrand(searchQuery, pageAddress), R.string.txt_no_matching_brand_products);
+                startSearch(page -> client.getProductsByBrand(searchQuery, page), R.string.txt_no_matching_brand_products);
                 break;
             case COUNTRY:
-                startSearch(client.getProductsByCountry(searchQuery, pageAddress), R.string.txt_no_matching_country_products);
+                startSearch(page -> client.getProductsByCountry(searchQuery, page), R.string.txt_no_matching_country_products);
                 break;
             case ORIGIN:
-                startSearch(client.getProductsByOrigin(searchQuery, pageAddress), R.string.txt_no_matching_country_products);
+                startSearch(page -> client.getProductsByOrigin(searchQuery, page), R.string.txt_no_matching_country_products);
                 break;
             case MANUFACTURING_PLACE:
-                startSearch(client.getProductsByManufacturingPlace(searchQuery, pageAddress), R.string.txt_no_matching_country_products);
+                startSearch(page -> client.getProductsByManufacturingPlace(searchQuery, page), R.string.txt_no_matching_country_products);
                 break;
             case ADDITIVE:
-                startSearch(client.getProductsByAdditive(searchQuery, pageAddress), R.string.txt_no_matching_additive_products);
+                startSearch(page -> client.getProductsByAdditive(searchQuery, page), R.string.txt_no_matching_additive_products);
                 break;
             case STORE:
-                startSearch(client.getProductsByStore(searchQuery, pageAddress), R.string.txt_no_matching_store_products);
+                startSearch(page -> client.getProductsByStore(searchQuery, page), R.string.txt_no_matching_store_products);
                 break;
             case PACKAGING:
-                startSearch(client.getProductsByPackaging(searchQuery, pageAddress), R.string.txt_no_matching_packaging_products);
+                startSearch(page -> client.getProductsByPackaging(searchQuery, page), R.string.txt_no_matching_packaging_products);
                 break;
             case SEARCH:
                 if (ProductUtils.isBarcodeValid(searchQuery)) {
                     client.openProduct(searchQuery, this);
                 } else {
-                    startSearch(client.searchProductsByName(searchQuery, pageAddress), R.string.txt_no_matching_products, R.string.txt_broaden_search);
+                    startSearch(page -> client.searchProductsByName(searchQuery, page), R.string.txt_no_matching_products, R.string.txt_broaden_search);
                 }
                 break;
             case LABEL:
-                startSearch(client.getProductsByLabel(searchQuery, pageAddress), R.string.txt_no_matching_label_products);
+                startSearch(page -> client.getProductsByLabel(searchQuery, page), R.string.txt_no_matching_label_products);
                 break;
             case CATEGORY:
-                startSearch(client.getProductsByCategory(searchQuery, pageAddress), R.string.txt_no_matching__category_products);
+                startSearch(page -> client.getProductsByCategory(searchQuery, page), R.string.txt_no_matching__category_products);
                 break;
             case ALLERGEN:
-                startSearch(client.getProductsByAllergen(searchQuery, pageAddress), R.string.txt_no_matching_allergen_products);
+                startSearch(page -> client.getProductsByAllergen(searchQuery, page), R.string.txt_no_matching_allergen_products);
                 break;
             case CONTRIBUTOR:
                 loadDataForContributor(searchQuery);
                 break;
             case STATE:
-                startSearch(client.getProductsByStates(searchQuery, pageAddress), R.string.txt_no_matching_allergen_products);
+                startSearch(page -> client.getProductsByStates(searchQuery, page), R.string.txt_no_matching_allergen_products);
                 break;
             case INCOMPLETE_PRODUCT:
                 // Get Products to be completed data and input it to loadData function
-                startSearch(client.getIncompleteProducts(pageAddress), R.string.txt_no_matching_incomplete_products);
+                startSearch(page -> client.getIncompleteProducts(page), R.string.txt_no_matching_incomplete_products);
                 break;
             default:
                 Log.e("Products Browsing", "No match case found for " + mSearchInfo.getSearchType());
         }
     }
 
-    private void startSearch(@NonNull Single<Search> searchSingle, @StringRes int noMatchTextRes) {
-        startSearch(searchSingle, noMatchTextRes, -1);
+    private void startSearch(@NonNull IntFunction<Single<Search>> pageLoader, @StringRes int noMatchTextRes) {
+        startSearch(pageLoader, noMatchTextRes, -1);
     }
 
-    private void startSearch(@NonNull Single<Search> searchSingle, @StringRes int noMatchMsg, @StringRes int extendedMsg) {
-        disp.add(searchSingle
+    /**
+     * @param pageLoader fetches a page of the current search, its pages are cached by {@link SearchPageCache}
+     */
+    private void startSearch(@NonNull IntFunction<Single<Search>> pageLoader, @StringRes int noMatchMsg, @StringRes int extendedMsg) {
+        this.pageLoader = pageLoader;
+        disp.add(getPage(pageAddress)
             .observeOn(AndroidSchedulers.mainThread())
             .subscribe((search, throwable) ->
                 displaySearch(throwable == null, search, noMatchMsg, extendedMsg)));
     }
 
+    @NonNull
+    private Single<Search> getPage(int page) {
+        final IntFunction<Single<Search>> loader = pageLoader;
+        return SearchPageCache.getInstance().get(getPageKey(page), () -> loader.apply(page));
+    }
+
+    @NonNull
+    private SearchPageCache.Key getPageKey(int page) {
+        String query = mSearchInfo.getSearchQuery() == null ? "" : mSearchInfo.getSearchQuery();
+        return new SearchPageCache.Key(mSearchInfo.getSearchType(), query, contributionType, page, LocaleHelper.getLanguage(this));
+    }
+
+    /**
+     * Fetches the next page in the background once the user has scrolled past {@link #PREFETCH_FRACTION} of the
+     * last loaded page, so that it is ready when the end of the list is reached.
+     */
+    private void prefetchNextPage(int lastVisibleItemPosition) {
+        if (pageLoader == null || pageSize <= 0 || mProducts == null || mProducts.size() >= mCountProducts) {
+            return;
+        }
+        final int nextPage = pageAddress + 1;
+        if (prefetchedPage >= nextPage) {
+            return;
+        }
+        int lastPageStart = (pageAddress - 1) * pageSize;
+        if (lastVisibleItemPosition >= lastPageStart + pageSize * PREFETCH_FRACTION) {
+            prefetchedPage = nextPage;
+            disp.add(getPage(nextPage).subscribe((search, throwable) -> {
+                if (throwable != null) {
+                    Log.w(ProductSearchActivity.class.getSimpleName(), "Could not prefetch page " + nextPage, throwable);
+                }
+            }));
+        }
+    }
+
     private void loadDataForContributor(String searchQuery) {
+        // Only the searches going through startSearch are cached and prefetched
+        pageLoader = null;
         switch (contributionType) {
 
             case 1:
@@ -479,12 +533,12 @@ public class ProductSearchActivity extends BaseActivity {
                 break;
 
             case 5:
-                startSearch(client.getInfoAddedIncompleteProductsSingle(searchQuery, pageAddress), R.string.txt_no_matching_contributor_products);
+                startSearch(page -> client.getInfoAddedIncompleteProductsSingle(searchQuery, page), R.string.txt_no_matching_contributor_products);
                 break;
 
             case 0:
             default:
-                startSearch(client.getProductsByContributor(searchQuery, pageAddress), R.string.txt_no_matching_contributor_products);
+                startSearch(page -> client.getProductsByContributor(searchQuery, page), R.string.txt_no_matching_contributor_products);
                 break;
         }
     }
@@ -493,6 +547,7 @@ public class ProductSearchActivity extends BaseActivity {
         if (isResponseOk && response != null) {
             mCountProducts = Integer.parseInt(response.getCount());
             if (pageAddress == 1) {
+                pageSize = response.getProducts().size();
                 binding.textCountProduct.setText(
                     getResources().getString(R.string.number_of_results)
                         + NumberFormat.getInstance(getResources().getConfiguration().locale)
@@ -602,6 +657,12 @@ public class ProductSearchActivity extends BaseActivity {
             // Retain an instance so that you can call `resetState()` for fresh searches
             // Adds the scroll listener to RecyclerView
             binding.productsRecyclerView.addOnScrollListener(new EndlessRecyclerViewScrollListener(mLayoutManager) {
+                @Override
+                public void onScrolled(RecyclerView view, int dx, int dy) {
+                    super.onScrolled(view, dx, dy);
+                    prefetchNextPage(((LinearLayoutManager) view.getLayoutManager()).findLastVisibleItemPosition());
+                }
+
                 @Override
                 public void onLoadMore(int page, int totalItemsCount, RecyclerView view1) {
                     if (mProducts.size() < mCountProducts) {
@@ -651,6 +712,7 @@ public class ProductSearchActivity extends BaseActivity {
 
             binding.swipeRefresh.setOnRefreshListener(() -> {
 
+                SearchPageCache.getInstance().invalidate(getPageKey(1));
                 mProducts.clear();
                 adapter.notifyDataSetChanged();
                 binding.textCountProduct.setText(getResources().getString(R.string.number_of_results));
@@ -665,6 +727,7 @@ public class ProductSearchActivity extends BaseActivity {
         setupDone = true;
         binding.swipeRefresh.setOnRefreshListener(() -> {
             binding.swipeRefresh.setRefreshing(true);
+            SearchPageCache.getInstance().invalidate(getPageKey(1));
             pageAddress = 1;
             setup();
         });
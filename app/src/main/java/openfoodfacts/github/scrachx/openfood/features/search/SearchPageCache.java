@@ -0,0 +1,145 @@
+package openfoodfacts.github.scrachx.openfood.features.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import io.reactivex.Single;
+import openfoodfacts.github.scrachx.openfood.models.Search;
+import openfoodfacts.github.scrachx.openfood.utils.SearchType;
+
+/**
+ * Keeps the pages of search results in memory for a few minutes, so that they are shown at once when the search
+ * activity is recreated or opened again, and so that the next page can be fetched before the user reaches it.
+ * <p>
+ * A page being fetched is shared by all its callers, so a prefetched page is only requested once.
+ */
+public class SearchPageCache {
+    static final long TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    static final int MAX_PAGES = 30;
+    private static SearchPageCache instance;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final Map<Key, Entry> entries;
+
+    SearchPageCache(long ttlMs, int maxPages, @NonNull LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    public static synchronized SearchPageCache getInstance() {
+        if (instance == null) {
+            instance = new SearchPageCache(TTL_MS, MAX_PAGES, System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * @param loader fetches the page if it is not cached, or if it has expired
+     * @return the cached page, or the page fetched by the loader, which is cached unless it fails
+     */
+    @NonNull
+    public synchronized Single<Search> get(@NonNull Key key, @NonNull Callable<Single<Search>> loader) {
+        final long now = clock.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.createdAt < ttlMs) {
+            return entry.page;
+        }
+        final Entry newEntry = new Entry(now);
+        newEntry.page = Single.defer(loader)
+            .doOnError(e -> remove(key, newEntry))
+            .cache();
+        entries.put(key, newEntry);
+        return newEntry.page;
+    }
+
+    /**
+     * Removes all the pages of a search, for it to be fetched again.
+     */
+    public synchronized void invalidate(@NonNull Key key) {
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().isSameSearch(key)) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private synchronized void remove(@NonNull Key key, @NonNull Entry entry) {
+        if (entries.get(key) == entry) {
+            entries.remove(key);
+        }
+    }
+
+    private static class Entry {
+        final long createdAt;
+        Single<Search> page;
+
+        Entry(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Identifies a page of results.
+     */
+    public static class Key {
+        @NonNull
+        private final SearchType searchType;
+        @NonNull
+        private final String query;
+        /**
+         * Distinguishes the searches of the same type and query, like the kinds of contributions.
+         */
+        private final int variant;
+        private final int page;
+        @NonNull
+        private final String languageCode;
+
+        public Key(@NonNull SearchType searchType, @NonNull String query, int variant, int page, @NonNull String languageCode) {
+            this.searchType = searchType;
+            this.query = query;
+            this.variant = variant;
+            this.page = page;
+            this.languageCode = languageCode;
+        }
+
+        boolean isSameSearch(@NonNull Key other) {
+            return searchType == other.searchType && query.equals(other.query) && variant == other.variant
+                && languageCode.equals(other.languageCode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return page == key.page && isSameSearch(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(searchType, query, variant, page, languageCode);
+        }
+    }
+}
@@ -20,12 +20,16 @@ import android.content.SharedPreferences;
 import android.os.Handler;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 import androidx.work.OneTimeWorkRequest;
 import androidx.work.WorkInfo;
 import androidx.work.WorkManager;
 
 import openfoodfacts.github.scrachx.openfood.AppFlavors;
+import openfoodfacts.github.scrachx.openfood.jobs.ImportTaxonomiesWorker;
 import openfoodfacts.github.scrachx.openfood.jobs.LoadTaxonomiesWorker;
+import openfoodfacts.github.scrachx.openfood.repositories.PrebuiltTaxonomies;
 import openfoodfacts.github.scrachx.openfood.repositories.Taxonomy;
 
 /**
@@ -42,27 +46,34 @@ public class SplashController implements ISplashActivity.Controller {
         this.activity = activity;
     }
 
-    private void activateDownload(@NonNull Taxonomy taxonomy) {
+    private static void activateDownload(@NonNull SharedPreferences settings, @NonNull Taxonomy taxonomy) {
         settings.edit().putBoolean(taxonomy.getDownloadActivatePreferencesId(), true).apply();
     }
 
-    private void activateDownload(@NonNull Taxonomy taxonomy, String... flavors) {
+    private static void activateDownload(@NonNull SharedPreferences settings, @NonNull Taxonomy taxonomy, String... flavors) {
         if (AppFlavors.isFlavors(flavors)) {
-            activateDownload(taxonomy);
+            activateDownload(settings, taxonomy);
         }
     }
 
+    /**
+     * Activates the download of the taxonomies used by the current flavor.
+     */
+    public static void activateDownloads(@NonNull SharedPreferences settings) {
+        activateDownload(settings, Taxonomy.CATEGORY);
+        activateDownload(settings, Taxonomy.TAGS);
+        activateDownload(settings, Taxonomy.INVALID_BARCODES);
+        activateDownload(settings, Taxonomy.ADDITIVE, AppFlavors.OFF, AppFlavors.OBF);
+        activateDownload(settings, Taxonomy.COUNTRY, AppFlavors.OFF, AppFlavors.OBF);
+        activateDownload(settings, Taxonomy.LABEL, AppFlavors.OFF, AppFlavors.OBF);
+        activateDownload(settings, Taxonomy.ALLERGEN, AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF);
+        activateDownload(settings, Taxonomy.ANALYSIS_TAGS, AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF);
+        activateDownload(settings, Taxonomy.ANALYSIS_TAG_CONFIG, AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF);
+    }
+
     @Override
     public void refreshData() {
-        activateDownload(Taxonomy.CATEGORY);
-        activateDownload(Taxonomy.TAGS);
-        activateDownload(Taxonomy.INVALID_BARCODES);
-        activateDownload(Taxonomy.ADDITIVE, AppFlavors.OFF, AppFlavors.OBF);
-        activateDownload(Taxonomy.COUNTRY, AppFlavors.OFF, AppFlavors.OBF);
-        activateDownload(Taxonomy.LABEL, AppFlavors.OFF, AppFlavors.OBF);
-        activateDownload(Taxonomy.ALLERGEN, AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF);
-        activateDownload(Taxonomy.ANALYSIS_TAGS, AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF);
-        activateDownload(Taxonomy.ANALYSIS_TAG_CONFIG, AppFlavors.OFF, AppFlavors.OBF, AppFlavors.OPFF);
+        activateDownloads(settings);
 
         //first run ever off this application, whatever the version
         boolean firstRun = settings.getBoolean("firstRun", true);
@@ -74,7 +85,14 @@ public class SplashController implements ISplashActivity.Controller {
         // The service will load server resources only if newer than already downloaded...
         OneTimeWorkRequest request = OneTimeWorkRequest.from(LoadTaxonomiesWorker.class);
         WorkManager manager = WorkManager.getInstance(activity);
-        manager.enqueue(request);
+        boolean hasPrebuiltTaxonomies = firstRun && PrebuiltTaxonomies.hasSnapshot(activity);
+        OneTimeWorkRequest importRequest = null;
+        if (hasPrebuiltTaxonomies) {
+            importRequest = OneTimeWorkRequest.from(ImportTaxonomiesWorker.class);
+            manager.beginWith(importRequest).then(request).enqueue();
+        } else {
+            manager.enqueue(request);
+        }
         manager.getWorkInfoByIdLiveData(request.getId()).observe(activity, workInfo -> {
             if (workInfo != null && workInfo.getState() == WorkInfo.State.RUNNING) {
                 view.showLoading();
@@ -82,8 +100,20 @@ public class SplashController implements ISplashActivity.Controller {
                 view.hideLoading(workInfo.getState() == WorkInfo.State.FAILED);
             }
         });
-        // The 6000 delay is to show one loop of the multilingual logo. I asked for it ~ Pierre
-        if (firstRun) {
+        if (hasPrebuiltTaxonomies) {
+            // The prebuilt taxonomies are enough to start, the newer ones are downloaded in the background
+            LiveData<WorkInfo> importInfo = manager.getWorkInfoByIdLiveData(importRequest.getId());
+            importInfo.observe(activity, new Observer<WorkInfo>() {
+                @Override
+                public void onChanged(WorkInfo workInfo) {
+                    if (workInfo != null && workInfo.getState().isFinished()) {
+                        importInfo.removeObserver(this);
+                        view.navigateToMainActivity();
+                    }
+                }
+            });
+        } else if (firstRun) {
+            // The 6000 delay is to show one loop of the multilingual logo. I asked for it ~ Pierre
             new Handler().postDelayed(view::navigateToMainActivity, 6000);
         } else {
             view.navigateToMainActivity();
@@ -34,7 +34,6 @@ import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.features.viewmodel.BaseViewModel;
-import openfoodfacts.github.scrachx.openfood.models.entities.category.Category;
 import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryName;
 import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
@@ -80,8 +79,9 @@ public class CategoryFragmentViewModel extends BaseViewModel {
             })
             .flatMap(categoryNames -> {
                 if (categoryNames.isEmpty()) {
+                    // Categories are downloaded straight into the database, read them back from there
                     return repository.getCategories()
-                        .flatMap(categories -> Single.just(extractCategoriesNames(categories)));
+                        .flatMap(ignored -> repository.getAllCategoriesByLanguageCode(LocaleHelper.getLanguage(OFFApplication.getInstance())));
                 } else {
                     return Single.just(categoryNames);
                 }
@@ -102,26 +102,6 @@ public class CategoryFragmentViewModel extends BaseViewModel {
                 }));
     }
 
-    /**
-     * Generate a new array which lists all the category names
-     *
-     * @param categories list of all the categories loaded using API
-     */
-    private List<CategoryName> extractCategoriesNames(List<Category> categories) {
-        List<CategoryName> categoryNames = new ArrayList<>();
-        final String languageCode = LocaleHelper.getLanguage(OFFApplication.getInstance());
-        for (Category category : categories) {
-            for (CategoryName categoryName : category.getNames()) {
-                if (categoryName.getLanguageCode().equals(languageCode)) {
-                    categoryNames.add(categoryName);
-                }
-            }
-        }
-
-        Collections.sort(categoryNames, (o1, o2) -> o1.getName().compareTo(o2.getName()));
-        return categoryNames;
-    }
-
     public ObservableField<List<CategoryName>> getFilteredCategories() {
         return filteredCategories;
     }
@@ -5,6 +5,7 @@ import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.models.Product;
 import openfoodfacts.github.scrachx.openfood.models.ProductImageField;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import org.apache.commons.lang.StringUtils;
 
 public class ImageKeyHelper {
@@ -42,7 +43,7 @@ public class ImageKeyHelper {
         bundle.putString(ImageKeyHelper.IMAGE_URL, imageUrl);
         if (product != null) {
 
-            bundle.putSerializable(ImageKeyHelper.PRODUCT, product);
+            ProductRegistry.putProduct(bundle, ImageKeyHelper.PRODUCT, product);
             bundle.putSerializable(ImageKeyHelper.IMAGE_TYPE, imageType);
             bundle.putString(ImageKeyHelper.LANGUAGE, language);
         }
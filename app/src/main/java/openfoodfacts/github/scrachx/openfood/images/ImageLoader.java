@@ -0,0 +1,143 @@
+package openfoodfacts.github.scrachx.openfood.images;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.OkHttp3Downloader;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.StatsSnapshot;
+
+import java.io.File;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Cache;
+import openfoodfacts.github.scrachx.openfood.network.HttpClientManager;
+
+/**
+ * Configures the {@link Picasso} instance shared by the whole app, returned by {@link Picasso#get()}.
+ * <p>
+ * Its memory cache is sized from the memory class of the device and the images are cached on disk by a client
+ * derived from the shared {@link okhttp3.OkHttpClient}, so the rows of the lists are served from memory when they are
+ * bound again and from the disk when the app is restarted.
+ */
+public final class ImageLoader {
+    /**
+     * Maximum size of the disk cache of the images.
+     */
+    public static final long DISK_CACHE_MAX_SIZE = 50L * 1024 * 1024;
+    private static final String LOG_TAG = ImageLoader.class.getSimpleName();
+    private static final String DISK_CACHE_DIR = "picasso-cache";
+    /**
+     * Part of the heap of the app used by the memory cache, Picasso uses about 1/7 by default.
+     */
+    private static final int MEMORY_CACHE_HEAP_DIVISOR = 6;
+    /**
+     * Size suffix of the urls of the product images, like front_fr.12.400.jpg or front_fr.12.full.jpg
+     */
+    private static final Pattern PRODUCT_IMAGE_SIZE = Pattern.compile("\\.(\\d+|full)\\.jpg$");
+    private static LruCache memoryCache;
+    private static boolean installed;
+
+    private ImageLoader() {
+        // utility class
+    }
+
+    /**
+     * Installs the shared {@link Picasso} instance, to be called once when the application is created.
+     */
+    public static synchronized void install(@NonNull Context context) {
+        if (installed) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        memoryCache = new LruCache(calculateMemoryCacheSize(appContext));
+        Cache diskCache = new Cache(new File(appContext.getCacheDir(), DISK_CACHE_DIR), DISK_CACHE_MAX_SIZE);
+        Picasso picasso = new Picasso.Builder(appContext)
+            .memoryCache(memoryCache)
+            .downloader(new OkHttp3Downloader(HttpClientManager.getHttpClient().newBuilder().cache(diskCache).build()))
+            .build();
+        try {
+            Picasso.setSingletonInstance(picasso);
+            installed = true;
+        } catch (IllegalStateException e) {
+            // Picasso.get() was called before, the default instance is kept
+            Log.w(LOG_TAG, "Picasso was already initialized", e);
+            picasso.shutdown();
+        }
+    }
+
+    /**
+     * @return the url of the same product image in the given size, or the url unchanged if it is not a product image
+     */
+    @Nullable
+    public static String getUrlForSize(@Nullable String url, @NonNull ImageSize size) {
+        if (url == null) {
+            return null;
+        }
+        Matcher matcher = PRODUCT_IMAGE_SIZE.matcher(url);
+        if (!matcher.find()) {
+            return url;
+        }
+        return url.substring(0, matcher.start()) + "." + getPixels(size) + ".jpg";
+    }
+
+    /**
+     * @return the largest dimension of the images of this size generated by the server
+     */
+    public static int getPixels(@NonNull ImageSize size) {
+        switch (size) {
+            case THUMB:
+                return 100;
+            case SMALL:
+                return 200;
+            case DISPLAY:
+            default:
+                return 400;
+        }
+    }
+
+    /**
+     * Empties the memory cache when the system needs memory.
+     *
+     * @param level as given to {@link ComponentCallbacks2#onTrimMemory(int)}
+     */
+    public static synchronized void trimMemory(int level) {
+        if (memoryCache == null) {
+            return;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            memoryCache.clear();
+        }
+    }
+
+    /**
+     * @return the part of the requests served from the memory cache, between 0 and 1
+     */
+    public static float getMemoryCacheHitRate() {
+        StatsSnapshot stats = Picasso.get().getSnapshot();
+        long requests = stats.cacheHits + stats.cacheMisses;
+        return requests == 0 ? 0 : (float) stats.cacheHits / requests;
+    }
+
+    public static void logStats() {
+        StatsSnapshot stats = Picasso.get().getSnapshot();
+        Log.d(LOG_TAG, String.format("memory cache: %d/%d bytes, %d hits, %d misses (%.0f%%), %d decoded, %d downloaded bytes",
+            stats.size, stats.maxSize, stats.cacheHits, stats.cacheMisses, getMemoryCacheHitRate() * 100,
+            stats.originalBitmapCount, stats.totalDownloadSize));
+    }
+
+    private static int calculateMemoryCacheSize(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean largeHeap = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_LARGE_HEAP) != 0;
+        int memoryClass = largeHeap ? activityManager.getLargeMemoryClass() : activityManager.getMemoryClass();
+        return (int) (1024L * 1024L * memoryClass / MEMORY_CACHE_HEAP_DIVISOR);
+    }
+}
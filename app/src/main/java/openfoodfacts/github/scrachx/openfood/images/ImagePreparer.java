@@ -0,0 +1,213 @@
+package openfoodfacts.github.scrachx.openfood.images;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
+
+/**
+ * Turns the photos taken by the user into the images which are uploaded: decoded with a sample size to bound the
+ * memory used, scaled down to {@link #MAX_IMAGE_SIZE}, rotated as told by their EXIF orientation and encoded as JPEG.
+ * <p>
+ * The prepared images are kept in the cache directory, so that an upload which is retried does not prepare its image
+ * again.
+ */
+public final class ImagePreparer {
+    /**
+     * Largest dimension of the uploaded images, the server does not use more for display or OCR.
+     */
+    public static final int MAX_IMAGE_SIZE = 2000;
+    static final int JPEG_QUALITY = 85;
+    private static final String LOG_TAG = ImagePreparer.class.getSimpleName();
+    private static final String CACHE_DIR = "upload-images";
+    /**
+     * Prepared images not used for this long are deleted.
+     */
+    private static final long CACHE_MAX_AGE_MS = TimeUnit.DAYS.toMillis(7);
+
+    private ImagePreparer() {
+        // utility class
+    }
+
+    /**
+     * Prepares a photo for its upload, must not be called on the main thread.
+     *
+     * @return the prepared image, or the photo itself if it could not be prepared
+     */
+    @NonNull
+    public static File prepare(@NonNull File photo) {
+        Context context = OFFApplication.getInstance();
+        if (context == null) {
+            return photo;
+        }
+        return prepare(photo, new File(context.getCacheDir(), CACHE_DIR));
+    }
+
+    /**
+     * Synchronized so that a single photo is decoded at a time, even when several images are uploaded at once.
+     */
+    @NonNull
+    static synchronized File prepare(@NonNull File photo, @NonNull File cacheDir) {
+        if (!photo.isFile()) {
+            return photo;
+        }
+        File prepared = new File(cacheDir, getCacheName(photo));
+        if (prepared.isFile()) {
+            return prepared;
+        }
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            Log.w(LOG_TAG, "Could not create " + cacheDir);
+            return photo;
+        }
+        deleteOldFiles(cacheDir);
+
+        Bitmap bitmap = decode(photo);
+        if (bitmap == null) {
+            return photo;
+        }
+        File tmp = new File(cacheDir, prepared.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Could not write " + tmp, e);
+            tmp.delete();
+            return photo;
+        } finally {
+            bitmap.recycle();
+        }
+        // A prepared image is never seen half written, even if the app is killed meanwhile
+        if (!tmp.renameTo(prepared)) {
+            tmp.delete();
+            return photo;
+        }
+        // Never upload something bigger than the photo
+        if (prepared.length() >= photo.length()) {
+            prepared.delete();
+            return photo;
+        }
+        Log.d(LOG_TAG, String.format("Prepared %s: %d -> %d bytes", photo.getName(), photo.length(), prepared.length()));
+        return prepared;
+    }
+
+    @Nullable
+    private static Bitmap decode(@NonNull File photo) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(photo.getPath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            Log.w(LOG_TAG, "Not an image: " + photo);
+            return null;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, MAX_IMAGE_SIZE);
+        Bitmap sampled;
+        try {
+            sampled = BitmapFactory.decodeFile(photo.getPath(), options);
+        } catch (OutOfMemoryError e) {
+            Log.e(LOG_TAG, "Not enough memory to decode " + photo, e);
+            return null;
+        }
+        if (sampled == null) {
+            return null;
+        }
+
+        Matrix matrix = new Matrix();
+        float scale = getScale(sampled.getWidth(), sampled.getHeight(), MAX_IMAGE_SIZE);
+        if (scale < 1) {
+            matrix.postScale(scale, scale);
+        }
+        matrix.postRotate(getRotation(photo));
+        if (matrix.isIdentity()) {
+            return sampled;
+        }
+        Bitmap transformed = Bitmap.createBitmap(sampled, 0, 0, sampled.getWidth(), sampled.getHeight(), matrix, true);
+        if (transformed != sampled) {
+            sampled.recycle();
+        }
+        return transformed;
+    }
+
+    /**
+     * @return the largest power of 2 which keeps the decoded image at least as large as maxSize
+     */
+    static int calculateInSampleSize(int width, int height, int maxSize) {
+        int largest = Math.max(width, height);
+        int sampleSize = 1;
+        while (largest / (sampleSize * 2) >= maxSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @return the scale which fits the image in maxSize, 1 if it already fits
+     */
+    static float getScale(int width, int height, int maxSize) {
+        int largest = Math.max(width, height);
+        return largest <= maxSize ? 1 : (float) maxSize / largest;
+    }
+
+    private static int getRotation(@NonNull File photo) {
+        try {
+            ExifInterface exif = new ExifInterface(photo.getPath());
+            return getRotation(exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL));
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Could not read the orientation of " + photo, e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return the clockwise rotation in degrees for an EXIF orientation, the mirroring of the transposed ones is ignored
+     */
+    static int getRotation(int exifOrientation) {
+        switch (exifOrientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return a name which changes when the photo is replaced
+     */
+    @NonNull
+    static String getCacheName(@NonNull File photo) {
+        return Integer.toHexString(photo.getAbsolutePath().hashCode()) + "_" + Long.toHexString(photo.length())
+            + "_" + Long.toHexString(photo.lastModified()) + ".jpg";
+    }
+
+    private static void deleteOldFiles(@NonNull File cacheDir) {
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - CACHE_MAX_AGE_MS;
+        for (File file : files) {
+            if (file.lastModified() < oldest) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package openfoodfacts.github.scrachx.openfood.images;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Uploads a photo once prepared by {@link ImagePreparer}. The photo is only prepared when the request is sent, so
+ * that the body can be created on the main thread.
+ */
+class PreparedImageRequestBody extends RequestBody {
+    private static final MediaType MEDIA_TYPE = MediaType.parse("image/*");
+    private final File photo;
+    private File prepared;
+
+    PreparedImageRequestBody(@NonNull File photo) {
+        this.photo = photo;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public long contentLength() {
+        return getPrepared().length();
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        try (Source source = Okio.source(getPrepared())) {
+            sink.writeAll(source);
+        }
+    }
+
+    @NonNull
+    private synchronized File getPrepared() {
+        if (prepared == null) {
+            prepared = ImagePreparer.prepare(photo);
+        }
+        return prepared;
+    }
+}
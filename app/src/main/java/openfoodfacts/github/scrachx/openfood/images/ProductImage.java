@@ -73,8 +73,11 @@ public class ProductImage {
         return language;
     }
 
+    /**
+     * @return a body which uploads the image prepared by {@link ImagePreparer}, prepared on the thread of the request
+     */
     public static RequestBody createImageRequest(File image) {
-        return RequestBody.create(MediaType.parse("image/*"), image);
+        return new PreparedImageRequestBody(image);
     }
 
     public RequestBody getCode() {
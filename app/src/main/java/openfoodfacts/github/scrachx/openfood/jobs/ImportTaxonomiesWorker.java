@@ -0,0 +1,36 @@
+package openfoodfacts.github.scrachx.openfood.jobs;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.work.RxWorker;
+import androidx.work.WorkerParameters;
+
+import io.reactivex.Single;
+import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
+import openfoodfacts.github.scrachx.openfood.repositories.PrebuiltTaxonomies;
+import openfoodfacts.github.scrachx.openfood.repositories.ProductRepository;
+
+/**
+ * Imports the prebuilt taxonomies of the flavor, see {@link PrebuiltTaxonomies}.
+ * To be run before {@link LoadTaxonomiesWorker}, which then only downloads the taxonomies changed since the snapshot.
+ */
+public class ImportTaxonomiesWorker extends RxWorker {
+    public ImportTaxonomiesWorker(@NonNull Context appContext, @NonNull WorkerParameters workerParams) {
+        super(appContext, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        SharedPreferences settings = OFFApplication.getInstance().getSharedPreferences("prefs", 0);
+        return Single.fromCallable(() -> {
+            if (PrebuiltTaxonomies.importIfNeeded(getApplicationContext(), OFFApplication.getDaoSession().getDatabase(), settings) > 0) {
+                ProductRepository.getInstance().clearTaxonomyCaches();
+            }
+            // If the import failed, the taxonomies are downloaded as before
+            return Result.success();
+        });
+    }
+}
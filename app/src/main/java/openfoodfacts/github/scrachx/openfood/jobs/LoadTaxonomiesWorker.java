@@ -52,6 +52,21 @@ public class LoadTaxonomiesWorker extends RxWorker {
         ProductRepository productRepository = ProductRepository.getInstance();
         SharedPreferences settings = OFFApplication.getInstance().getSharedPreferences("prefs", 0);
 
+        return Completable.merge(getSyncObservables(productRepository))
+            .toSingle(() -> {
+                settings.edit().putBoolean(Utils.FORCE_REFRESH_TAXONOMIES, false).apply();
+                return Result.success();
+            }).onErrorReturn(throwable -> {
+                Log.e(LOG_TAG, "Cannot download taxonomies from server.", throwable);
+                return Result.failure();
+            });
+    }
+
+    /**
+     * @return the downloads of every taxonomy activated for the flavor
+     */
+    @NonNull
+    public static List<CompletableSource> getSyncObservables(@NonNull ProductRepository productRepository) {
         // We use completable because we only care about state (error or completed), not returned value
         List<CompletableSource> syncObservables = new ArrayList<>();
         syncObservables.add(productRepository.reloadLabelsFromServer().subscribeOn(Schedulers.io()).ignoreElement());
@@ -64,14 +79,6 @@ public class LoadTaxonomiesWorker extends RxWorker {
         syncObservables.add(productRepository.reloadCountriesFromServer().subscribeOn(Schedulers.io()).ignoreElement());
         syncObservables.add(productRepository.reloadAdditivesFromServer().subscribeOn(Schedulers.io()).ignoreElement());
         syncObservables.add(productRepository.reloadCategoriesFromServer().subscribeOn(Schedulers.io()).ignoreElement());
-
-        return Completable.merge(syncObservables)
-            .toSingle(() -> {
-                settings.edit().putBoolean(Utils.FORCE_REFRESH_TAXONOMIES, false).apply();
-                return Result.success();
-            }).onErrorReturn(throwable -> {
-                Log.e(LOG_TAG, "Cannot download taxonomies from server.", throwable);
-                return Result.failure();
-            });
+        return syncObservables;
     }
 }
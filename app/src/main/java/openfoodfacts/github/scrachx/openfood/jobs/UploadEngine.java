@@ -0,0 +1,149 @@
+package openfoodfacts.github.scrachx.openfood.jobs;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import openfoodfacts.github.scrachx.openfood.models.entities.Uploadable;
+
+/**
+ * Uploads a list of items with at most {@link #getParallelism()} of them at the same time.
+ * <p>
+ * The upload of an item is expected to save its progress after each step, so that it resumes where it stopped when
+ * the app is restarted. An item which fails is retried with an exponential backoff, which is saved with the item.
+ *
+ * @param <T> type of the items
+ */
+public class UploadEngine<T extends Uploadable> {
+    /**
+     * Items uploaded at the same time, enough to fill a good connection without saturating a weak one.
+     */
+    public static final int DEFAULT_PARALLELISM = 3;
+    static final long INITIAL_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+    static final long MAX_BACKOFF_MS = TimeUnit.HOURS.toMillis(6);
+    private static final String LOG_TAG = UploadEngine.class.getSimpleName();
+    private final int parallelism;
+    private final Function<T, Completable> uploader;
+    private final Consumer<T> saver;
+
+    /**
+     * @param uploader uploads what is left of an item, and completes once it is fully uploaded
+     * @param saver saves the backoff of an item
+     */
+    public UploadEngine(int parallelism, @NonNull Function<T, Completable> uploader, @NonNull Consumer<T> saver) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.uploader = uploader;
+        this.saver = saver;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Uploads the items which are not waiting for their backoff to end.
+     */
+    @NonNull
+    public Single<Result> upload(@NonNull List<T> items) {
+        final long now = System.currentTimeMillis();
+        final List<T> ready = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (item.getNextUploadAttempt() <= now) {
+                ready.add(item);
+            }
+        }
+        final int deferred = items.size() - ready.size();
+        return Flowable.fromIterable(ready)
+            .flatMapSingle(item -> Completable.defer(() -> uploader.apply(item))
+                .subscribeOn(Schedulers.io())
+                .toSingleDefault(true)
+                .onErrorReturn(e -> {
+                    Log.w(LOG_TAG, "Upload failed: " + item, e);
+                    onFailure(item, System.currentTimeMillis());
+                    saver.accept(item);
+                    return false;
+                }), false, parallelism)
+            .reduce(new Result(0, 0, deferred), (result, uploaded) -> result.add(uploaded));
+    }
+
+    /**
+     * Schedules the next attempt of an item which failed.
+     */
+    static void onFailure(@NonNull Uploadable item, long now) {
+        int attempts = item.getUploadAttempts() + 1;
+        item.setUploadAttempts(attempts);
+        item.setNextUploadAttempt(now + getBackoff(attempts));
+    }
+
+    /**
+     * @return the delay before the next attempt, doubled after each failure
+     */
+    static long getBackoff(int attempts) {
+        if (attempts <= 0) {
+            return 0;
+        }
+        // Shifting by more than this would go past the maximum anyway
+        int exponent = Math.min(attempts - 1, 20);
+        return Math.min(INITIAL_BACKOFF_MS << exponent, MAX_BACKOFF_MS);
+    }
+
+    /**
+     * Outcome of an upload run.
+     */
+    public static class Result {
+        private final int uploaded;
+        private final int failed;
+        private final int deferred;
+
+        Result(int uploaded, int failed, int deferred) {
+            this.uploaded = uploaded;
+            this.failed = failed;
+            this.deferred = deferred;
+        }
+
+        Result add(boolean isUploaded) {
+            return isUploaded ? new Result(uploaded + 1, failed, deferred) : new Result(uploaded, failed + 1, deferred);
+        }
+
+        public int getUploaded() {
+            return uploaded;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the number of items which were not tried as they are waiting for their backoff
+         */
+        public int getDeferred() {
+            return deferred;
+        }
+
+        /**
+         * @return true if some items are left to upload
+         */
+        public boolean hasRemaining() {
+            return failed > 0 || deferred > 0;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Result{uploaded=" + uploaded + ", failed=" + failed + ", deferred=" + deferred + '}';
+        }
+    }
+}
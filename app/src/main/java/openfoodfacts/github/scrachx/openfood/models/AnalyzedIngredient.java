@@ -0,0 +1,95 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ingredient of a product as analysed by the server, with its own ingredients if it is a compound one.
+ * <p>
+ * It is only built by deserializing the product, and is not modified afterwards.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AnalyzedIngredient implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @JsonProperty("id")
+    private String id;
+    @JsonProperty("text")
+    private String text;
+    @JsonProperty("percent")
+    private String percent;
+    @JsonProperty("vegan")
+    private IngredientAnalysisStatus vegan;
+    @JsonProperty("vegetarian")
+    private IngredientAnalysisStatus vegetarian;
+    @JsonProperty("from_palm_oil")
+    private IngredientAnalysisStatus fromPalmOil;
+    @JsonProperty("ingredients")
+    private List<AnalyzedIngredient> ingredients;
+
+    @Nullable
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the percent of this ingredient in the product, when it is given on the package
+     */
+    @Nullable
+    public String getPercent() {
+        return percent;
+    }
+
+    @NonNull
+    public IngredientAnalysisStatus getStatus(@NonNull IngredientAnalysis analysis) {
+        final IngredientAnalysisStatus status;
+        switch (analysis) {
+            case VEGAN:
+                status = vegan;
+                break;
+            case VEGETARIAN:
+                status = vegetarian;
+                break;
+            case FROM_PALM_OIL:
+                status = fromPalmOil;
+                break;
+            default:
+                status = null;
+                break;
+        }
+        return status != null ? status : IngredientAnalysisStatus.UNKNOWN;
+    }
+
+    /**
+     * @return the ingredients of this ingredient, empty if it is not a compound one
+     */
+    @NonNull
+    public List<AnalyzedIngredient> getIngredients() {
+        return ingredients != null ? Collections.unmodifiableList(ingredients) : Collections.emptyList();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "AnalyzedIngredient{" +
+            "id='" + id + '\'' +
+            ", text='" + text + '\'' +
+            ", percent='" + percent + '\'' +
+            ", vegan=" + vegan +
+            ", vegetarian=" + vegetarian +
+            ", fromPalmOil=" + fromPalmOil +
+            ", ingredients=" + ingredients +
+            '}';
+    }
+}
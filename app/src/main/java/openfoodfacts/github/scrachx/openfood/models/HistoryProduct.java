@@ -8,7 +8,8 @@ import org.greenrobot.greendao.annotation.Index;
 import java.util.Date;
 
 @Entity(indexes = {
-        @Index(value = "barcode", unique = true)
+        @Index(value = "barcode", unique = true),
+        @Index(value = "lastSeen DESC", name = "IDX_HISTORY_PRODUCT_LAST_SEEN")
 })
 public class HistoryProduct {
 
@@ -0,0 +1,37 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The analyses done by the server on each ingredient of a product, with the key of their result in the ingredient.
+ *
+ * @see AnalyzedIngredient#getStatus(IngredientAnalysis)
+ */
+public enum IngredientAnalysis {
+    VEGAN("vegan"), VEGETARIAN("vegetarian"), FROM_PALM_OIL("from_palm_oil");
+
+    private final String key;
+
+    IngredientAnalysis(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return the analysis with the given key, null if there is none
+     */
+    @Nullable
+    public static IngredientAnalysis fromKey(@Nullable String key) {
+        for (IngredientAnalysis analysis : values()) {
+            if (analysis.key.equals(key)) {
+                return analysis;
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,39 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Result of an {@link IngredientAnalysis} for an ingredient.
+ */
+public enum IngredientAnalysisStatus {
+    YES, NO, MAYBE, UNKNOWN;
+
+    /**
+     * @return {@link #UNKNOWN} if the value is missing or is not one of the others
+     */
+    @JsonCreator
+    @NonNull
+    public static IngredientAnalysisStatus fromJson(@Nullable String value) {
+        if (value != null) {
+            for (IngredientAnalysisStatus status : values()) {
+                if (status.toString().equals(value)) {
+                    return status;
+                }
+            }
+        }
+        return UNKNOWN;
+    }
+
+    @JsonValue
+    @NonNull
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,202 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import openfoodfacts.github.scrachx.openfood.network.ApiFields;
+import openfoodfacts.github.scrachx.openfood.utils.Modifier;
+
+/**
+ * Fields of the known nutriments of a product, stored in arrays indexed by {@link #indexOf(String)}, with their values
+ * parsed once when they are set.
+ * <p>
+ * The units and the modifiers are stored as their position in {@link #UNITS} and {@link #MODIFIERS} plus one, 0 meaning
+ * there is none and {@link #IN_MAP} that it has another value, which is then kept by the caller.
+ */
+final class NutrimentTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    static final byte IN_MAP = -1;
+    private static final String[] NAMES = Nutriments.KNOWN_NUTRIMENTS;
+    private static final Map<String, Integer> INDEXES = new HashMap<>();
+    private static final String[] UNITS = {
+        Units.UNIT_GRAM, Units.UNIT_MILLIGRAM, Units.UNIT_MICROGRAM, Units.ENERGY_KCAL, "kJ", Units.ENERGY_KJ, "%",
+        Units.UNIT_DV, "IU", Units.UNIT_LITER, Units.UNIT_DECILITRE, Units.UNIT_CENTILITRE, Units.UNIT_MILLILITRE
+    };
+    private static final String[] MODIFIERS = Modifier.MODIFIERS;
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            INDEXES.put(NAMES[i], i);
+        }
+    }
+
+    private final String[] values = new String[NAMES.length];
+    private final String[] values100g = new String[NAMES.length];
+    private final String[] valuesServing = new String[NAMES.length];
+    private final float[] parsed100g = new float[NAMES.length];
+    private final float[] parsedServing = new float[NAMES.length];
+    private final byte[] units = new byte[NAMES.length];
+    private final byte[] modifiers = new byte[NAMES.length];
+
+    NutrimentTable() {
+        Arrays.fill(parsed100g, Float.NaN);
+        Arrays.fill(parsedServing, Float.NaN);
+    }
+
+    /**
+     * @return the index of a known nutriment, -1 for the others
+     */
+    static int indexOf(@Nullable String nutrimentName) {
+        Integer index = INDEXES.get(nutrimentName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param key a nutriment name, or a nutriment name followed by one of the {@link ApiFields.Suffix}
+     * @return false if the field is not stored by this table, and must be kept by the caller
+     */
+    boolean set(@NonNull String key, @Nullable Object value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = toString(value);
+            return true;
+        }
+        int separator = key.lastIndexOf('_');
+        if (separator <= 0 || (index = indexOf(key.substring(0, separator))) < 0) {
+            return false;
+        }
+        String suffix = key.substring(separator);
+        String string = toString(value);
+        switch (suffix) {
+            case ApiFields.Suffix.VALUE_100G:
+                values100g[index] = string;
+                parsed100g[index] = parse(value);
+                return true;
+            case ApiFields.Suffix.SERVING:
+                valuesServing[index] = string;
+                parsedServing[index] = parse(value);
+                return true;
+            case ApiFields.Suffix.UNIT:
+                units[index] = encode(string, UNITS);
+                return units[index] != IN_MAP;
+            case ApiFields.Suffix.MODIFIER:
+                modifiers[index] = encode(string, MODIFIERS);
+                return modifiers[index] != IN_MAP;
+            default:
+                return false;
+        }
+    }
+
+    @Nullable
+    String getValue(int index) {
+        return values[index];
+    }
+
+    @Nullable
+    String get100g(int index) {
+        return values100g[index];
+    }
+
+    @Nullable
+    String getServing(int index) {
+        return valuesServing[index];
+    }
+
+    /**
+     * @return {@link Float#NaN} if there is no value or if it is not a number
+     */
+    float get100gValue(int index) {
+        return parsed100g[index];
+    }
+
+    /**
+     * @return {@link Float#NaN} if there is no value or if it is not a number
+     */
+    float getServingValue(int index) {
+        return parsedServing[index];
+    }
+
+    byte getUnitCode(int index) {
+        return units[index];
+    }
+
+    /**
+     * @return null if there is no unit or if it is kept by the caller
+     */
+    @Nullable
+    String getUnit(int index) {
+        return decode(units[index], UNITS);
+    }
+
+    byte getModifierCode(int index) {
+        return modifiers[index];
+    }
+
+    /**
+     * @return null if there is no modifier or if it is kept by the caller
+     */
+    @Nullable
+    String getModifier(int index) {
+        return decode(modifiers[index], MODIFIERS);
+    }
+
+    /**
+     * Puts all the fields of this table in the map, as they were set.
+     */
+    void putAll(@NonNull Map<String, Object> map) {
+        for (int i = 0; i < NAMES.length; i++) {
+            putIfNotNull(map, NAMES[i], values[i]);
+            putIfNotNull(map, NAMES[i] + ApiFields.Suffix.VALUE_100G, values100g[i]);
+            putIfNotNull(map, NAMES[i] + ApiFields.Suffix.SERVING, valuesServing[i]);
+            putIfNotNull(map, NAMES[i] + ApiFields.Suffix.UNIT, getUnit(i));
+            putIfNotNull(map, NAMES[i] + ApiFields.Suffix.MODIFIER, getModifier(i));
+        }
+    }
+
+    private static void putIfNotNull(@NonNull Map<String, Object> map, @NonNull String key, @Nullable String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    @Nullable
+    private static String toString(@Nullable Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static float parse(@Nullable Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        if (value == null) {
+            return Float.NaN;
+        }
+        try {
+            return Float.parseFloat(value.toString());
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    private static byte encode(@Nullable String value, @NonNull String[] table) {
+        if (value == null) {
+            return 0;
+        }
+        for (int i = 0; i < table.length; i++) {
+            if (table[i].equals(value)) {
+                return (byte) (i + 1);
+            }
+        }
+        return IN_MAP;
+    }
+
+    @Nullable
+    private static String decode(byte code, @NonNull String[] table) {
+        return code > 0 ? table[code - 1] : null;
+    }
+}
@@ -131,6 +131,23 @@ public class Nutriments implements Serializable {
     public static final String PHOSPHORUS = "phosphorus";
     public static final String IRON = "iron";
     public static final String MAGNESIUM = "magnesium";
+    /**
+     * Nutriments whose fields are stored in arrays rather than in a map, see {@link NutrimentTable}
+     */
+    static final String[] KNOWN_NUTRIMENTS = {
+        ENERGY_KCAL, ENERGY_KJ, ENERGY_FROM_FAT, FAT, SATURATED_FAT, BUTYRIC_ACID, CAPROIC_ACID, CAPRYLIC_ACID, CAPRIC_ACID,
+        LAURIC_ACID, MYRISTIC_ACID, PALMITIC_ACID, STEARIC_ACID, ARACHIDIC_ACID, BEHENIC_ACID, LIGNOCERIC_ACID, CEROTIC_ACID,
+        MONTANIC_ACID, MELISSIC_ACID, MONOUNSATURATED_FAT, POLYUNSATURATED_FAT, OMEGA_3_FAT, ALPHA_LINOLENIC_ACID,
+        EICOSAPENTAENOIC_ACID, DOCOSAHEXAENOIC_ACID, OMEGA_6_FAT, LINOLEIC_ACID, ARACHIDONIC_ACID, GAMMA_LINOLENIC_ACID,
+        DIHOMO_GAMMA_LINOLENIC_ACID, OMEGA_9_FAT, OLEIC_ACID, ELAIDIC_ACID, GONDOIC_ACID, MEAD_ACID, ERUCIC_ACID,
+        NERVONIC_ACID, TRANS_FAT, CHOLESTEROL, CARBOHYDRATES, SUGARS, SUCROSE, GLUCOSE, FRUCTOSE, LACTOSE, MALTOSE,
+        MALTODEXTRINS, STARCH, POLYOLS, FIBER, PROTEINS, CASEIN, SERUM_PROTEINS, NUCLEOTIDES, SALT, SODIUM, ALCOHOL, VITAMIN_A,
+        BETA_CAROTENE, VITAMIN_D, VITAMIN_E, VITAMIN_K, VITAMIN_C, VITAMIN_B1, VITAMIN_B2, VITAMIN_PP, VITAMIN_B6, VITAMIN_B9,
+        WATER_HARDNESS, GLYCEMIC_INDEX, NUTRITION_SCORE_UK, NUTRITION_SCORE_FR, CARBON_FOOTPRINT, CHLOROPHYL, COCOA,
+        COLLAGEN_MEAT_PROTEIN_RATIO, FRUITS_VEGETABLES_NUTS, PH, TAURINE, CAFFEINE, IODINE, MOLYBDENUM, CHROMIUM, SELENIUM,
+        FLUORIDE, MANGANESE, COPPER, ZINC, VITAMIN_B12, BIOTIN, PANTOTHENIC_ACID, SILICA, BICARBONATE, POTASSIUM, CHLORIDE,
+        CALCIUM, PHOSPHORUS, IRON, MAGNESIUM
+    };
     public static final Map<String, Integer> MINERALS_MAP = new HashMap<>();
     public static final Map<String, Integer> FAT_MAP = new HashMap<>();
     public static final Map<String, Integer> CARBO_MAP = new HashMap<>();
@@ -199,7 +216,15 @@ public class Nutriments implements Serializable {
         VITAMINS_MAP.put(Nutriments.PANTOTHENIC_ACID, R.string.pantothenic_acid);
     }
 
+    private final NutrimentTable table = new NutrimentTable();
+    /**
+     * Fields not stored by the {@link #table}.
+     */
     private final Map<String, Object> additionalProperties = new HashMap<>();
+    /**
+     * Nutriments already returned by {@link #get(String)}, by index in the {@link #table}.
+     */
+    private transient Nutriment[] knownNutriments;
     private boolean containsMinerals;
     private boolean containsVitamins;
 
@@ -223,6 +248,34 @@ public class Nutriments implements Serializable {
 
     @Nullable
     public Nutriment get(@NonNull String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index < 0) {
+            return getUnknown(nutrimentName);
+        }
+        final String value = table.getValue(index);
+        if (value == null) {
+            return null;
+        }
+        if (knownNutriments == null) {
+            knownNutriments = new Nutriment[KNOWN_NUTRIMENTS.length];
+        }
+        Nutriment nutriment = knownNutriments[index];
+        if (nutriment == null) {
+            nutriment = new Nutriment(nutrimentName,
+                value,
+                StringUtils.defaultString(table.get100g(index)),
+                table.get100gValue(index),
+                StringUtils.defaultString(table.getServing(index)),
+                table.getServingValue(index),
+                getUnit(nutrimentName),
+                getModifier(nutrimentName));
+            knownNutriments[index] = nutriment;
+        }
+        return nutriment;
+    }
+
+    @Nullable
+    private Nutriment getUnknown(@NonNull String nutrimentName) {
         if (nutrimentName.isEmpty() || additionalProperties.get(nutrimentName) == null) {
             return null;
         }
@@ -248,6 +301,10 @@ public class Nutriments implements Serializable {
      */
     @NonNull
     public String getServing(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0) {
+            return StringUtils.defaultString(table.getServing(index));
+        }
         return getAdditionalProperty(nutrimentName, ApiFields.Suffix.SERVING);
     }
 
@@ -257,16 +314,51 @@ public class Nutriments implements Serializable {
      */
     @NonNull
     public String get100g(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0) {
+            return StringUtils.defaultString(table.get100g(index));
+        }
         return getAdditionalProperty(nutrimentName, ApiFields.Suffix.VALUE_100G);
     }
 
+    /**
+     * @return the value per 100g in the unit of the nutriment, {@link Float#NaN} if there is none or if it is not a number
+     */
+    public float get100gValue(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0) {
+            return table.get100gValue(index);
+        }
+        return parseFloat(get100g(nutrimentName));
+    }
+
+    /**
+     * @return the value per serving in the unit of the nutriment, {@link Float#NaN} if there is none or if it is not a
+     *     number
+     */
+    public float getServingValue(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0) {
+            return table.getServingValue(index);
+        }
+        return parseFloat(getServing(nutrimentName));
+    }
+
     @NonNull
     public String getUnit(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0 && table.getUnitCode(index) != NutrimentTable.IN_MAP) {
+            return StringUtils.defaultString(table.getUnit(index), DEFAULT_UNIT);
+        }
         return getAdditionalProperty(nutrimentName, ApiFields.Suffix.UNIT, DEFAULT_UNIT);
     }
 
     @NonNull
     public String getModifier(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0 && table.getModifierCode(index) != NutrimentTable.IN_MAP) {
+            return StringUtils.defaultString(table.getModifier(index), Modifier.DEFAULT_MODIFIER);
+        }
         return getAdditionalProperty(nutrimentName, ApiFields.Suffix.MODIFIER, Modifier.DEFAULT_MODIFIER);
     }
 
@@ -293,6 +385,10 @@ public class Nutriments implements Serializable {
     }
 
     public boolean contains(String nutrimentName) {
+        final int index = NutrimentTable.indexOf(nutrimentName);
+        if (index >= 0) {
+            return table.getValue(index) != null;
+        }
         return additionalProperties.containsKey(nutrimentName);
     }
 
@@ -304,14 +400,22 @@ public class Nutriments implements Serializable {
         return containsMinerals;
     }
 
+    /**
+     * @return all the fields, in a new map as most of them are not kept in a map
+     */
     @JsonAnyGetter
     public Map<String, Object> getAdditionalProperties() {
-        return this.additionalProperties;
+        Map<String, Object> properties = new HashMap<>(additionalProperties);
+        table.putAll(properties);
+        return properties;
     }
 
     @JsonAnySetter
     public void setAdditionalProperty(String name, Object value) {
-        this.additionalProperties.put(name, value);
+        if (!table.set(name, value)) {
+            this.additionalProperties.put(name, value);
+        }
+        knownNutriments = null;
 
         if (VITAMINS_MAP.containsKey(name)) {
             containsVitamins = true;
@@ -320,9 +424,29 @@ public class Nutriments implements Serializable {
         }
     }
 
+    private static float parseFloat(@Nullable String value) {
+        if (StringUtils.isBlank(value)) {
+            return Float.NaN;
+        }
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    /**
+     * A nutriment of a product, with its values converted in its unit once when it is created.
+     */
     public static class Nutriment {
         private final String for100g;
         private final String forServing;
+        private final String for100gInUnits;
+        private final String forServingInUnits;
+        /**
+         * {@link #for100gInUnits} as a number, {@link Float#NaN} if it is not one
+         */
+        private final float value100gInUnits;
         private final String key;
         @NonNull
         private final String modifier;
@@ -331,12 +455,24 @@ public class Nutriments implements Serializable {
         private final String unit;
 
         Nutriment(@NonNull String key, String name, String for100g, String forServing, @NonNull String unit, @NonNull String modifier) {
+            this(key, name, for100g, parseFloat(for100g), forServing, parseFloat(forServing), unit, modifier);
+        }
+
+        /**
+         * @param value100g {@code for100g} already parsed, {@link Float#NaN} if it is not a number
+         * @param valueServing {@code forServing} already parsed, {@link Float#NaN} if it is not a number
+         */
+        Nutriment(@NonNull String key, String name, String for100g, float value100g, String forServing, float valueServing,
+                  @NonNull String unit, @NonNull String modifier) {
             this.key = key;
             this.name = name;
             this.for100g = for100g;
             this.forServing = forServing;
             this.modifier = modifier;
             this.unit = getRealUnit(unit);
+            this.for100gInUnits = getValueInUnits(for100g, value100g, this.unit);
+            this.forServingInUnits = getValueInUnits(forServing, valueServing, this.unit);
+            this.value100gInUnits = this.unit.equals(Units.UNIT_GRAM) ? value100g : parseFloat(for100gInUnits);
         }
 
         @NonNull
@@ -359,7 +495,7 @@ public class Nutriments implements Serializable {
          * @param unit the initial unit
          * @return if the unit is % DV, the api gives the value in g
          */
-        private String getRealUnit(String unit) {
+        private static String getRealUnit(String unit) {
             if (unit.contains("%")) {
                 return Units.UNIT_GRAM;
             }
@@ -375,7 +511,16 @@ public class Nutriments implements Serializable {
          * of product in the units stored in {@link Nutriment#unit}
          */
         public String getFor100gInUnits() {
-            return getValueInUnits(for100g, unit);
+            return for100gInUnits;
+        }
+
+        /**
+         * Returns the amount of nutriment per 100g of product in the units stored in {@link Nutriment#unit}, as a number
+         *
+         * @return {@link Float#NaN} if there is no value or if it is not a number
+         */
+        public float getValueFor100gInUnits() {
+            return value100gInUnits;
         }
 
         /**
@@ -383,23 +528,21 @@ public class Nutriments implements Serializable {
          * of product in the units stored in {@link Nutriment#unit}
          */
         public String getForServingInUnits() {
-            return getValueInUnits(forServing, unit);
+            return forServingInUnits;
         }
 
         public String getUnit() {
             return unit;
         }
 
-        private String getValueInUnits(String valueInGramOrMl, String unit) {
+        private static String getValueInUnits(String valueInGramOrMl, float value, String unit) {
             if (StringUtils.isBlank(valueInGramOrMl)) {
                 return StringUtils.EMPTY;
             }
-            if (valueInGramOrMl.isEmpty() || unit.equals(Units.UNIT_GRAM)) {
+            if (unit.equals(Units.UNIT_GRAM) || Float.isNaN(value)) {
                 return valueInGramOrMl;
             }
-            float value = Float.parseFloat(valueInGramOrMl);
-            value = UnitUtils.convertFromGram(value, unit);
-            return getRoundNumber(value);
+            return getRoundNumber(UnitUtils.convertFromGram(value, unit));
         }
 
         public String getKey() {
@@ -416,18 +559,15 @@ public class Nutriments implements Serializable {
          * @return nutriment value for a given amount of this product
          */
         public String getForAnyValue(float userSetServing, String otherUnit) {
-            String strValue = getFor100gInUnits();
-            if (strValue.isEmpty() || strValue.contains("%")) {
-                return strValue;
+            if (for100gInUnits.isEmpty() || for100gInUnits.contains("%")) {
+                return for100gInUnits;
             }
-            try {
-                float valueFor100g = Float.parseFloat(strValue);
-                float portionInGram = UnitUtils.convertToGrams(userSetServing, otherUnit);
-                return getRoundNumber(valueFor100g / 100 * portionInGram);
-            } catch (NumberFormatException fmt) {
-                Log.w(Nutriments.class.getSimpleName(), "getForAnyValue can't parse value " + strValue, fmt);
+            if (Float.isNaN(value100gInUnits)) {
+                Log.w(Nutriments.class.getSimpleName(), "getForAnyValue can't parse value " + for100gInUnits);
+                return StringUtils.EMPTY;
             }
-            return StringUtils.EMPTY;
+            float portionInGram = UnitUtils.convertToGrams(userSetServing, otherUnit);
+            return getRoundNumber(value100gInUnits / 100 * portionInGram);
         }
     }
 }
@@ -21,7 +21,6 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -94,7 +93,7 @@ public class Product implements Serializable {
     @JsonProperty(ApiFields.Keys.IMAGE_URL)
     private String imageUrl;
     @JsonProperty(ApiFields.Keys.INGREDIENTS)
-    private final List<LinkedHashMap<String, String>> ingredients = new ArrayList<>();
+    private ProductIngredients ingredients = ProductIngredients.EMPTY;
     @JsonProperty(ApiFields.Keys.INGREDIENTS_ANALYSIS_TAGS)
     private final List<String> ingredientsAnalysisTags = new ArrayList<>();
     @JsonProperty(ApiFields.Keys.INGREDIENTS_MAY_PALM_OIL_N)
@@ -743,8 +742,9 @@ public class Product implements Serializable {
         return ingredientsAnalysisTags;
     }
 
-    public List<LinkedHashMap<String, String>> getIngredients() {
-        return ingredients;
+    @NonNull
+    public ProductIngredients getIngredients() {
+        return ingredients != null ? ingredients : ProductIngredients.EMPTY;
     }
 
     /**
@@ -0,0 +1,121 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import openfoodfacts.github.scrachx.openfood.network.ApiFields;
+import openfoodfacts.github.scrachx.openfood.utils.JsonUtils;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
+
+/**
+ * Reference to a product kept by the {@link ProductRegistry}, passed in the extras of the intents and in the arguments
+ * of the fragments instead of the product itself.
+ * <p>
+ * Besides the id of the product in the registry, it keeps a few fields of the product: if the process was killed
+ * meanwhile, the registry has lost the product and a stub is rebuilt from them.
+ */
+public class ProductHandle implements Parcelable {
+    @NonNull
+    private final String id;
+    private final long status;
+    @Nullable
+    private final String code;
+    @Nullable
+    private final String lang;
+    @Nullable
+    private final String productName;
+    @Nullable
+    private final String brands;
+
+    public ProductHandle(@NonNull String id, @NonNull ProductState state) {
+        this.id = id;
+        this.status = state.getStatus();
+        Product product = state.getProduct();
+        if (product != null) {
+            this.code = product.getCode();
+            this.lang = product.getLang();
+            this.productName = product.getProductName();
+            this.brands = product.getBrands();
+        } else {
+            this.code = state.getCode();
+            this.lang = null;
+            this.productName = null;
+            this.brands = null;
+        }
+    }
+
+    protected ProductHandle(Parcel in) {
+        this.id = in.readString();
+        this.status = in.readLong();
+        this.code = in.readString();
+        this.lang = in.readString();
+        this.productName = in.readString();
+        this.brands = in.readString();
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return a state holding a product with only the fields kept by this handle
+     */
+    @NonNull
+    public ProductState toStubState() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(ApiFields.Keys.BARCODE, code);
+        fields.put(ApiFields.Keys.LANG, lang);
+        fields.put(ApiFields.Keys.PRODUCT_NAME, productName);
+        fields.put(ApiFields.Keys.BRANDS, brands);
+        Product product = JsonUtils.getSharedMapper().convertValue(fields, Product.class);
+        return new ProductState().withStatus(status).withCode(code).withProduct(product);
+    }
+
+    /**
+     * Parcelable implementation
+     */
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(this.id);
+        dest.writeLong(this.status);
+        dest.writeString(this.code);
+        dest.writeString(this.lang);
+        dest.writeString(this.productName);
+        dest.writeString(this.brands);
+    }
+
+    public static final Creator<ProductHandle> CREATOR = new Creator<ProductHandle>() {
+        @Override
+        public ProductHandle createFromParcel(Parcel source) {
+            return new ProductHandle(source);
+        }
+
+        @Override
+        public ProductHandle[] newArray(int size) {
+            return new ProductHandle[size];
+        }
+    };
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ProductHandle{" + id + ", " + code + '}';
+    }
+}
@@ -0,0 +1,104 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ingredients of a product, with the positions of the ones having each {@link IngredientAnalysisStatus status} for
+ * each {@link IngredientAnalysis}, computed once when the product is deserialized.
+ * <p>
+ * Only the ingredients of the product are indexed, not the ingredients of its compound ingredients.
+ */
+public final class ProductIngredients implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int STATUS_COUNT = IngredientAnalysisStatus.values().length;
+    public static final ProductIngredients EMPTY = new ProductIngredients(Collections.emptyList());
+    private final List<AnalyzedIngredient> ingredients;
+    /**
+     * Positions in {@link #ingredients}, by {@link #indexOf(IngredientAnalysis, IngredientAnalysisStatus)}
+     */
+    private final int[][] positions;
+
+    private ProductIngredients(@NonNull List<AnalyzedIngredient> ingredients) {
+        this.ingredients = ingredients;
+        this.positions = new int[IngredientAnalysis.values().length * STATUS_COUNT][];
+        int[] counts = new int[positions.length];
+        for (AnalyzedIngredient ingredient : ingredients) {
+            for (IngredientAnalysis analysis : IngredientAnalysis.values()) {
+                counts[indexOf(analysis, ingredient.getStatus(analysis))]++;
+            }
+        }
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new int[counts[i]];
+        }
+        Arrays.fill(counts, 0);
+        for (int position = 0; position < ingredients.size(); position++) {
+            for (IngredientAnalysis analysis : IngredientAnalysis.values()) {
+                int index = indexOf(analysis, ingredients.get(position).getStatus(analysis));
+                positions[index][counts[index]++] = position;
+            }
+        }
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    @NonNull
+    public static ProductIngredients of(@Nullable List<AnalyzedIngredient> ingredients) {
+        if (ingredients == null || ingredients.isEmpty()) {
+            return EMPTY;
+        }
+        List<AnalyzedIngredient> nonNullIngredients = new ArrayList<>(ingredients.size());
+        for (AnalyzedIngredient ingredient : ingredients) {
+            if (ingredient != null) {
+                nonNullIngredients.add(ingredient);
+            }
+        }
+        return new ProductIngredients(Collections.unmodifiableList(nonNullIngredients));
+    }
+
+    @JsonValue
+    @NonNull
+    public List<AnalyzedIngredient> getIngredients() {
+        return ingredients;
+    }
+
+    /**
+     * @return the ingredients having the status for the analysis, in the order of the product
+     */
+    @NonNull
+    public List<AnalyzedIngredient> getIngredients(@NonNull IngredientAnalysis analysis, @NonNull IngredientAnalysisStatus status) {
+        final int[] matching = positions[indexOf(analysis, status)];
+        return new AbstractList<AnalyzedIngredient>() {
+            @Override
+            public AnalyzedIngredient get(int index) {
+                return ingredients.get(matching[index]);
+            }
+
+            @Override
+            public int size() {
+                return matching.length;
+            }
+        };
+    }
+
+    public boolean isEmpty() {
+        return ingredients.isEmpty();
+    }
+
+    public int size() {
+        return ingredients.size();
+    }
+
+    private static int indexOf(IngredientAnalysis analysis, IngredientAnalysisStatus status) {
+        return analysis.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+}
@@ -0,0 +1,120 @@
+package openfoodfacts.github.scrachx.openfood.models.entities;
+
+import org.greenrobot.greendao.annotation.Entity;
+import org.greenrobot.greendao.annotation.Id;
+import org.greenrobot.greendao.annotation.Index;
+import org.greenrobot.greendao.annotation.Keep;
+import org.greenrobot.greendao.annotation.NotNull;
+
+/**
+ * Last response of the API for a product, as raw json, with the validators sent by the server
+ * so that it can be revalidated with a conditional request.
+ */
+@Entity(indexes = {
+    @Index(value = "barcode", unique = true),
+    @Index(value = "fetchedAt")
+})
+public class CachedProduct {
+    @Id(autoincrement = true)
+    private Long id;
+    @NotNull
+    private String barcode;
+    /**
+     * Language of the localized fields which were requested.
+     */
+    @NotNull
+    private String languageCode;
+    @NotNull
+    private String json;
+    private String etag;
+    private String lastModified;
+    /**
+     * Time of the last response of the server, in milliseconds, either the full product or a "not modified".
+     */
+    private long fetchedAt;
+    /**
+     * Length of the json, used to bound the size of the cache.
+     */
+    private int size;
+
+    @Keep
+    public CachedProduct(Long id, @NotNull String barcode, @NotNull String languageCode, @NotNull String json, String etag,
+                         String lastModified, long fetchedAt, int size) {
+        this.id = id;
+        this.barcode = barcode;
+        this.languageCode = languageCode;
+        this.json = json;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.fetchedAt = fetchedAt;
+        this.size = size;
+    }
+
+    @Keep
+    public CachedProduct() {
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getBarcode() {
+        return this.barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public String getLanguageCode() {
+        return this.languageCode;
+    }
+
+    public void setLanguageCode(String languageCode) {
+        this.languageCode = languageCode;
+    }
+
+    public String getJson() {
+        return this.json;
+    }
+
+    public void setJson(String json) {
+        this.json = json;
+    }
+
+    public String getEtag() {
+        return this.etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return this.lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public long getFetchedAt() {
+        return this.fetchedAt;
+    }
+
+    public void setFetchedAt(long fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -4,45 +4,69 @@ import android.text.TextUtils;
 import android.util.Base64;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 import org.greenrobot.greendao.annotation.Entity;
 import org.greenrobot.greendao.annotation.Generated;
 import org.greenrobot.greendao.annotation.Id;
 import org.greenrobot.greendao.annotation.Index;
+import org.greenrobot.greendao.annotation.Keep;
+import org.greenrobot.greendao.annotation.Transient;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 import openfoodfacts.github.scrachx.openfood.utils.FileUtils;
+import openfoodfacts.github.scrachx.openfood.utils.JsonUtils;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 @Entity(indexes = {
     @Index(value = "barcode", unique = true)
 })
 
-public class OfflineSavedProduct implements Serializable {
+public class OfflineSavedProduct implements Serializable, Uploadable {
     private static final long serialVersionUID = 1L;
+    /**
+     * Base64 never produces this character, so it tells the json format apart from the legacy one.
+     */
+    private static final String JSON_DETAILS_PREFIX = "{";
+    private static final ObjectReader DETAILS_READER = JsonUtils.readFor(new TypeReference<HashMap<String, String>>() {});
+    private static final ObjectWriter DETAILS_WRITER = JsonUtils.writerFor(Map.class);
     @Id
     private Long id;
     private String barcode;
     private String productDetails;
     @Index
     private boolean isDataUploaded;
+    private int uploadAttempts;
+    private long nextUploadAttempt;
+    /**
+     * Decoded {@link #productDetails}, lazily filled by {@link #getDetails()}.
+     */
+    @Transient
+    private transient Map<String, String> detailsMap;
 
-    @Generated(hash = 39695213)
-    public OfflineSavedProduct(Long id, String barcode, String productDetails, boolean isDataUploaded) {
+    @Keep
+    public OfflineSavedProduct(Long id, String barcode, String productDetails, boolean isDataUploaded, int uploadAttempts,
+                               long nextUploadAttempt) {
         this.id = id;
         this.barcode = barcode;
         this.productDetails = productDetails;
         this.isDataUploaded = isDataUploaded;
+        this.uploadAttempts = uploadAttempts;
+        this.nextUploadAttempt = nextUploadAttempt;
     }
 
     @Generated(hash = 403273060)
@@ -57,62 +81,64 @@ public class OfflineSavedProduct implements Serializable {
         this.barcode = barcode;
     }
 
+    /**
+     * @return a copy of the product details, callers are free to modify it (it is not saved until
+     * {@link #setProductDetailsMap(Map)} is called), or null if there are no details.
+     */
+    @Nullable
     public HashMap<String, String> getProductDetailsMap() {
-        if (this.getProductDetails() != null) {
-            ByteArrayInputStream bis = new ByteArrayInputStream(Base64.decode(this.productDetails, Base64.DEFAULT));
-            try {
-                ObjectInputStream in = new ObjectInputStream(bis);
-                try {
-                    @SuppressWarnings("unchecked")
-                    HashMap<String, String> hashMap = (HashMap<String, String>) in.readObject();
-                    return hashMap;
-                } catch (ClassNotFoundException e) {
-                    Log.e(OfflineSavedProduct.class.getSimpleName(), "getProductDetailsMap", e);
-                }
-            } catch (IOException e) {
-                Log.e(OfflineSavedProduct.class.getSimpleName(), "getProductDetailsMap", e);
-            }
+        Map<String, String> details = getDetails();
+        return details != null ? new HashMap<>(details) : null;
+    }
+
+    /**
+     * Decodes the stored details once and keeps them until they are set again.
+     */
+    @Nullable
+    private Map<String, String> getDetails() {
+        if (detailsMap == null && productDetails != null) {
+            detailsMap = decodeDetails(productDetails);
         }
-        return null;
+        return detailsMap;
     }
 
     @Nullable
     public String getLanguage() {
-        return getProductDetailsMap().get(ApiFields.Keys.LANG);
+        return getDetailsOrEmpty().get(ApiFields.Keys.LANG);
     }
 
     @Nullable
     public String getName() {
-        HashMap<String, String> map = getProductDetailsMap();
+        Map<String, String> map = getDetailsOrEmpty();
         String language = Utils.firstNotEmpty(map.get(ApiFields.Keys.LANG), "en");
         return Utils.firstNotEmpty(map.get(ApiFields.Keys.lcProductNameKey(language)), map.get(ApiFields.Keys.lcProductNameKey("en")));
     }
 
     @Nullable
     public String getIngredients() {
-        HashMap<String, String> map = getProductDetailsMap();
+        Map<String, String> map = getDetailsOrEmpty();
         String language = Utils.firstNotEmpty(map.get(ApiFields.Keys.LANG), "en");
         return Utils.firstNotEmpty(map.get(ApiFields.Keys.lcIngredientsKey(language)), map.get(ApiFields.Keys.lcIngredientsKey("en")));
     }
 
     @Nullable
     public String getImageFront() {
-        return getProductDetailsMap().get(ApiFields.Keys.IMAGE_FRONT);
+        return getDetailsOrEmpty().get(ApiFields.Keys.IMAGE_FRONT);
     }
 
     @Nullable
     public String getImageIngredients() {
-        return getProductDetailsMap().get(ApiFields.Keys.IMAGE_INGREDIENTS);
+        return getDetailsOrEmpty().get(ApiFields.Keys.IMAGE_INGREDIENTS);
     }
 
     @Nullable
     public String getImageNutrition() {
-        return getProductDetailsMap().get(ApiFields.Keys.IMAGE_NUTRITION);
+        return getDetailsOrEmpty().get(ApiFields.Keys.IMAGE_NUTRITION);
     }
 
     @Nullable
     public String getImageFrontLocalUrl() {
-        String localUrl = getProductDetailsMap().get(ApiFields.Keys.IMAGE_FRONT);
+        String localUrl = getDetailsOrEmpty().get(ApiFields.Keys.IMAGE_FRONT);
         if (!TextUtils.isEmpty(localUrl)) {
             return FileUtils.LOCALE_FILE_SCHEME + localUrl;
         }
@@ -120,15 +146,8 @@ public class OfflineSavedProduct implements Serializable {
     }
 
     public void setProductDetailsMap(Map<String, String> detailsMap) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try {
-            ObjectOutputStream out = new ObjectOutputStream(bos);
-            out.writeObject(detailsMap);
-            out.flush();
-            this.productDetails = Base64.encodeToString(bos.toByteArray(), Base64.DEFAULT);
-        } catch (IOException e) {
-            Log.e(OfflineSavedProduct.class.getSimpleName(), "setProductDetailsMap", e);
-        }
+        this.productDetails = encodeDetails(detailsMap);
+        this.detailsMap = detailsMap != null ? new HashMap<>(detailsMap) : null;
     }
 
     public String getProductDetails() {
@@ -137,6 +156,7 @@ public class OfflineSavedProduct implements Serializable {
 
     public void setProductDetails(String productDetails) {
         this.productDetails = productDetails;
+        this.detailsMap = null;
     }
 
     public Long getId() {
@@ -155,13 +175,90 @@ public class OfflineSavedProduct implements Serializable {
         this.isDataUploaded = isDataUploaded;
     }
 
+    @Override
+    public int getUploadAttempts() {
+        return this.uploadAttempts;
+    }
+
+    @Override
+    public void setUploadAttempts(int uploadAttempts) {
+        this.uploadAttempts = uploadAttempts;
+    }
+
+    @Override
+    public long getNextUploadAttempt() {
+        return this.nextUploadAttempt;
+    }
+
+    @Override
+    public void setNextUploadAttempt(long nextUploadAttempt) {
+        this.nextUploadAttempt = nextUploadAttempt;
+    }
+
+    @NonNull
+    private Map<String, String> getDetailsOrEmpty() {
+        Map<String, String> details = getDetails();
+        return details != null ? details : Collections.emptyMap();
+    }
+
+    /**
+     * Encodes the details in the current storage format, a json object of strings.
+     */
+    @Nullable
+    public static String encodeDetails(@Nullable Map<String, String> detailsMap) {
+        if (detailsMap == null) {
+            return null;
+        }
+        try {
+            return DETAILS_WRITER.writeValueAsString(detailsMap);
+        } catch (JsonProcessingException e) {
+            Log.e(OfflineSavedProduct.class.getSimpleName(), "encodeDetails", e);
+            return null;
+        }
+    }
+
+    /**
+     * Decodes details stored in the current json format or in the legacy format
+     * (Base64 of a java serialized HashMap, used before schema version 20).
+     */
+    @Nullable
+    public static HashMap<String, String> decodeDetails(@Nullable String productDetails) {
+        if (productDetails == null) {
+            return null;
+        }
+        if (isJsonDetails(productDetails)) {
+            try {
+                return DETAILS_READER.readValue(productDetails);
+            } catch (IOException e) {
+                Log.e(OfflineSavedProduct.class.getSimpleName(), "decodeDetails", e);
+                return null;
+            }
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(Base64.decode(productDetails, Base64.DEFAULT)))) {
+            @SuppressWarnings("unchecked")
+            HashMap<String, String> hashMap = (HashMap<String, String>) in.readObject();
+            return hashMap;
+        } catch (IOException | ClassNotFoundException | IllegalArgumentException e) {
+            Log.e(OfflineSavedProduct.class.getSimpleName(), "decodeDetails", e);
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the details are stored in the json format, false for the legacy format.
+     */
+    public static boolean isJsonDetails(@NonNull String productDetails) {
+        return productDetails.startsWith(JSON_DETAILS_PREFIX);
+    }
+
     @Override
     public String toString() {
         return "OfflineSavedProduct{" +
             "id=" + id +
             ", barcode='" + barcode + '\'' +
             ", isDataUploaded=" + isDataUploaded +
-            ", map='" + getProductDetailsMap().toString() + '\'' +
+            ", uploadAttempts=" + uploadAttempts +
+            ", map='" + getDetails() + '\'' +
             '}';
     }
 }
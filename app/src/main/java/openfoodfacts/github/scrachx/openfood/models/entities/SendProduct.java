@@ -154,7 +154,7 @@ SendProduct implements Serializable {
 
     /**
      * Compress the image according to the {@link ProductImageField}.
-     * Add a "_small" prefix in the image name after the compression
+     * The compressed image is kept in the cache directory, see {@link Utils#compressImage(String)}
      *
      * @param field
      */
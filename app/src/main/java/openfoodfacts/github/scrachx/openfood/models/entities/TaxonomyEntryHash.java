@@ -0,0 +1,68 @@
+package openfoodfacts.github.scrachx.openfood.models.entities;
+
+import org.greenrobot.greendao.annotation.Entity;
+import org.greenrobot.greendao.annotation.Id;
+import org.greenrobot.greendao.annotation.Index;
+import org.greenrobot.greendao.annotation.Keep;
+import org.greenrobot.greendao.annotation.NotNull;
+
+/**
+ * Hash of the content of one taxonomy entry (names, parents, children...) as it was last written to the database.
+ * Used to only write the entries which changed when a taxonomy is downloaded again.
+ */
+@Entity(indexes = {
+    @Index(value = "taxonomy, tag", unique = true)
+})
+public class TaxonomyEntryHash {
+    @Id(autoincrement = true)
+    private Long id;
+    @NotNull
+    private String taxonomy;
+    @NotNull
+    private String tag;
+    private long hash;
+
+    @Keep
+    public TaxonomyEntryHash(Long id, @NotNull String taxonomy, @NotNull String tag, long hash) {
+        this.id = id;
+        this.taxonomy = taxonomy;
+        this.tag = tag;
+        this.hash = hash;
+    }
+
+    @Keep
+    public TaxonomyEntryHash() {
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTaxonomy() {
+        return this.taxonomy;
+    }
+
+    public void setTaxonomy(String taxonomy) {
+        this.taxonomy = taxonomy;
+    }
+
+    public String getTag() {
+        return this.tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public long getHash() {
+        return this.hash;
+    }
+
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+}
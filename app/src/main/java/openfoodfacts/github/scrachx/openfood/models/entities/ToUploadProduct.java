@@ -4,6 +4,7 @@ import org.greenrobot.greendao.annotation.Entity;
 import org.greenrobot.greendao.annotation.Generated;
 import org.greenrobot.greendao.annotation.Id;
 import org.greenrobot.greendao.annotation.Index;
+import org.greenrobot.greendao.annotation.Keep;
 
 import openfoodfacts.github.scrachx.openfood.models.ProductImageField;
 
@@ -13,13 +14,15 @@ import openfoodfacts.github.scrachx.openfood.models.ProductImageField;
 @Entity(indexes = {
     @Index(value = "id", unique = true)
 })
-public class ToUploadProduct {
+public class ToUploadProduct implements Uploadable {
     @Id
     private Long id;
     private String barcode;
     private String imageFilePath;
     private boolean uploaded = false;
     private String field;
+    private int uploadAttempts;
+    private long nextUploadAttempt;
 
     public ToUploadProduct(String barcode, String imageFilePath, String field) {
         this.barcode = barcode;
@@ -27,14 +30,21 @@ public class ToUploadProduct {
         this.field = field;
     }
 
-    @Generated(hash = 499343655)
     public ToUploadProduct(Long id, String barcode, String imageFilePath,
                            boolean uploaded, String field) {
+        this(id, barcode, imageFilePath, uploaded, field, 0, 0);
+    }
+
+    @Keep
+    public ToUploadProduct(Long id, String barcode, String imageFilePath,
+                           boolean uploaded, String field, int uploadAttempts, long nextUploadAttempt) {
         this.id = id;
         this.barcode = barcode;
         this.imageFilePath = imageFilePath;
         this.uploaded = uploaded;
         this.field = field;
+        this.uploadAttempts = uploadAttempts;
+        this.nextUploadAttempt = nextUploadAttempt;
     }
 
     @Generated(hash = 1993491654)
@@ -81,6 +91,26 @@ public class ToUploadProduct {
         return field;
     }
 
+    @Override
+    public int getUploadAttempts() {
+        return this.uploadAttempts;
+    }
+
+    @Override
+    public void setUploadAttempts(int uploadAttempts) {
+        this.uploadAttempts = uploadAttempts;
+    }
+
+    @Override
+    public long getNextUploadAttempt() {
+        return this.nextUploadAttempt;
+    }
+
+    @Override
+    public void setNextUploadAttempt(long nextUploadAttempt) {
+        this.nextUploadAttempt = nextUploadAttempt;
+    }
+
     public ProductImageField getProductField() {
         switch (field) {
             case "front":
@@ -0,0 +1,18 @@
+package openfoodfacts.github.scrachx.openfood.models.entities;
+
+/**
+ * Entity waiting to be uploaded, which keeps its failed attempts so that the uploads can be retried with a backoff,
+ * even after the app was restarted.
+ */
+public interface Uploadable {
+    int getUploadAttempts();
+
+    void setUploadAttempts(int uploadAttempts);
+
+    /**
+     * @return the time in milliseconds before which the upload should not be retried
+     */
+    long getNextUploadAttempt();
+
+    void setNextUploadAttempt(long nextUploadAttempt);
+}
@@ -1,5 +1,8 @@
 package openfoodfacts.github.scrachx.openfood.models.entities.category;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -7,11 +10,11 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import openfoodfacts.github.scrachx.openfood.utils.DeserializerHelper;
+import openfoodfacts.github.scrachx.openfood.utils.TaxonomyStreamParser;
 
 /*
  * Created by Lobster on 03.03.18.
@@ -29,24 +32,34 @@ public class CategoriesWrapperDeserializer extends StdDeserializer<CategoriesWra
     public CategoriesWrapper deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
         List<CategoryResponse> categories = new ArrayList<>();
 
-        JsonNode mainNode = jp.getCodec().readTree(jp);
-        Iterator<Map.Entry<String, JsonNode>> mainNodeIterator = mainNode.fields();
-
-        while (mainNodeIterator.hasNext()) {
-            Map.Entry<String, JsonNode> subNode = mainNodeIterator.next();
-            JsonNode namesNode = subNode.getValue().get(DeserializerHelper.NAMES_KEY);
-            if (namesNode != null) {
-                Map<String, String> names = DeserializerHelper.extractMapFromJsonNode(namesNode);
-                if (subNode.getValue().has(DeserializerHelper.WIKIDATA_KEY)) {
-                    categories.add(new CategoryResponse(subNode.getKey(), names, subNode.getValue().get(DeserializerHelper.WIKIDATA_KEY).toString()));
-                } else {
-                    categories.add(new CategoryResponse(subNode.getKey(), names));
-                }
+        TaxonomyStreamParser.forEachEntry(jp, (tag, entry) -> {
+            CategoryResponse category = parseEntry(tag, entry);
+            if (category != null) {
+                categories.add(category);
             }
-        }
+        });
 
         CategoriesWrapper wrapper = new CategoriesWrapper();
         wrapper.setCategories(categories);
         return wrapper;
     }
+
+    /**
+     * Parses one entry of categories.json
+     *
+     * @return null if the entry has no names
+     */
+    @Nullable
+    public static CategoryResponse parseEntry(@NonNull String tag, @NonNull JsonNode entry) {
+        JsonNode namesNode = entry.get(DeserializerHelper.NAMES_KEY);
+        if (namesNode == null) {
+            return null;
+        }
+        Map<String, String> names = DeserializerHelper.extractMapFromJsonNode(namesNode);
+        if (entry.has(DeserializerHelper.WIKIDATA_KEY)) {
+            return new CategoryResponse(tag, names, entry.get(DeserializerHelper.WIKIDATA_KEY).toString());
+        } else {
+            return new CategoryResponse(tag, names);
+        }
+    }
 }
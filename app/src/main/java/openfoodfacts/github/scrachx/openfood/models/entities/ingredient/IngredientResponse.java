@@ -1,7 +1,5 @@
 package openfoodfacts.github.scrachx.openfood.models.entities.ingredient;
 
-import android.util.Log;
-
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -27,7 +25,6 @@ public class IngredientResponse {
      * @param wikiDataCode Code to look up ingredient in wikidata
      */
     public IngredientResponse(String uniqueIngredientId, Map<String, String> names, List<String> parents, List<String> children, String wikiDataCode) {
-        Log.i("INFO", "IngredientResponse(" + uniqueIngredientId + ", " + names.toString() + ", " + wikiDataCode + ")");
         this.uniqueIngredientID = uniqueIngredientId;
         this.names = names;
         this.parents = parents;
@@ -42,7 +39,6 @@ public class IngredientResponse {
      * @return The newly constructed Ingredient object.
      */
     public Ingredient map() {
-        Log.i("INFO", "IngredientResponse.map()");
         Ingredient ingredient;
         if (isWikiDataIdPresent) {
             ingredient = new Ingredient(uniqueIngredientID, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), wikiDataCode);
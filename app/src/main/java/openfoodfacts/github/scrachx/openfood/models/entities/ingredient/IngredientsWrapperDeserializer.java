@@ -1,5 +1,8 @@
 package openfoodfacts.github.scrachx.openfood.models.entities.ingredient;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -7,11 +10,11 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import openfoodfacts.github.scrachx.openfood.utils.DeserializerHelper;
+import openfoodfacts.github.scrachx.openfood.utils.TaxonomyStreamParser;
 
 /**
  * Custom deserializer for {@link IngredientsWrapper IngredientsWrapper}
@@ -27,25 +30,34 @@ public class IngredientsWrapperDeserializer extends StdDeserializer<IngredientsW
     public IngredientsWrapper deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
         List<IngredientResponse> ingredients = new ArrayList<>();
 
-        JsonNode mainNode = jp.getCodec().readTree(jp);
-        Iterator<Map.Entry<String, JsonNode>> mainNodeIterator = mainNode.fields();
-
-        while (mainNodeIterator.hasNext()) {
-            Map.Entry<String, JsonNode> subNode = mainNodeIterator.next();
-            JsonNode namesNode = subNode.getValue().get(DeserializerHelper.NAMES_KEY);
-
-            if (namesNode != null) {
-                Map<String, String> names = DeserializerHelper.extractMapFromJsonNode(namesNode);
-                List<String> parents = DeserializerHelper.extractChildNodeAsText(subNode, DeserializerHelper.PARENTS_KEY);
-                List<String> children = DeserializerHelper.extractChildNodeAsText(subNode, DeserializerHelper.CHILDREN_KEY);
-                String wikiData = (Boolean) subNode.getValue().has(DeserializerHelper.WIKIDATA_KEY) ? subNode.getValue().get(DeserializerHelper.WIKIDATA_KEY).toString() : null;
-                ingredients.add(new IngredientResponse(subNode.getKey(), names, parents, children, wikiData));
+        TaxonomyStreamParser.forEachEntry(jp, (tag, entry) -> {
+            IngredientResponse ingredient = parseEntry(tag, entry);
+            if (ingredient != null) {
+                ingredients.add(ingredient);
             }
-        }
+        });
 
         IngredientsWrapper wrapper = new IngredientsWrapper();
         wrapper.setIngredients(ingredients);
 
         return wrapper;
     }
+
+    /**
+     * Parses one entry of ingredients.json
+     *
+     * @return null if the entry has no names
+     */
+    @Nullable
+    public static IngredientResponse parseEntry(@NonNull String tag, @NonNull JsonNode entry) {
+        JsonNode namesNode = entry.get(DeserializerHelper.NAMES_KEY);
+        if (namesNode == null) {
+            return null;
+        }
+        Map<String, String> names = DeserializerHelper.extractMapFromJsonNode(namesNode);
+        List<String> parents = DeserializerHelper.extractChildNodeAsText(entry, DeserializerHelper.PARENTS_KEY);
+        List<String> children = DeserializerHelper.extractChildNodeAsText(entry, DeserializerHelper.CHILDREN_KEY);
+        String wikiData = entry.has(DeserializerHelper.WIKIDATA_KEY) ? entry.get(DeserializerHelper.WIKIDATA_KEY).toString() : null;
+        return new IngredientResponse(tag, names, parents, children, wikiData);
+    }
 }
@@ -5,7 +5,6 @@ import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.network.services.AnalysisDataAPI;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
 import openfoodfacts.github.scrachx.openfood.network.services.RobotoffAPI;
-import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.jackson.JacksonConverterFactory;
@@ -74,7 +73,7 @@ public class CommonApiManager {
     private AnalysisDataAPI createProductApiService() {
         analysisDataApi = new Retrofit.Builder()
             .baseUrl(BuildConfig.HOST)
-            .client(Utils.httpClientBuilder())
+            .client(HttpClientManager.getHttpClient())
             .addConverterFactory(jacksonConverterFactory)
             .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
             .build()
@@ -89,7 +88,7 @@ public class CommonApiManager {
     private RobotoffAPI createRobotoffApiService() {
         robotoffApi = new Retrofit.Builder()
             .baseUrl("https://robotoff.openfoodfacts.org")
-            .client(Utils.httpClientBuilder())
+            .client(HttpClientManager.getHttpClient())
             .addConverterFactory(jacksonConverterFactory)
             .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
             .build()
@@ -104,7 +103,7 @@ public class CommonApiManager {
     private ProductsAPI createOpenFoodApiService() {
         productsApi = new Retrofit.Builder()
             .baseUrl(BuildConfig.HOST)
-            .client(Utils.httpClientBuilder())
+            .client(HttpClientManager.getHttpClient())
             .addConverterFactory(jacksonConverterFactory)
             .addCallAdapterFactory(RxJava2CallAdapterFactory.createWithScheduler(Schedulers.io()))
             .build()
@@ -0,0 +1,166 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import openfoodfacts.github.scrachx.openfood.models.HistoryProduct;
+import openfoodfacts.github.scrachx.openfood.models.HistoryProductDao;
+import openfoodfacts.github.scrachx.openfood.models.Product;
+import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
+import openfoodfacts.github.scrachx.openfood.utils.Utils;
+
+/**
+ * Refreshes the products of the scan history by chunks of barcodes, each chunk being fetched with a single search
+ * request and saved in a single transaction. A few chunks are fetched at the same time.
+ */
+public class HistoryProductSync {
+    /**
+     * Barcodes per request, kept small enough for the url to stay short.
+     */
+    static final int CHUNK_SIZE = 100;
+    /**
+     * Requests running at the same time.
+     */
+    static final int MAX_CONCURRENT_CHUNKS = 3;
+    static final String FIELDS = "code,product_name,brands,quantity,image_small_url,selected_images,nutrition_grade_fr";
+    private static final String LOG_TAG = HistoryProductSync.class.getSimpleName();
+    private final ProductsAPI api;
+    private final HistoryProductDao historyProductDao;
+    private final String languageCode;
+
+    public HistoryProductSync(@NonNull ProductsAPI api, @NonNull HistoryProductDao historyProductDao, @NonNull String languageCode) {
+        this.api = api;
+        this.historyProductDao = historyProductDao;
+        this.languageCode = languageCode;
+    }
+
+    /**
+     * Refreshes all the history. The chunks which could not be fetched are skipped.
+     *
+     * @return the progress, emitted after each chunk
+     */
+    @NonNull
+    public Observable<Progress> syncAll() {
+        return Single.fromCallable(historyProductDao::loadAll)
+            .subscribeOn(Schedulers.io())
+            .flatMapObservable(this::sync);
+    }
+
+    @NonNull
+    Observable<Progress> sync(@NonNull List<HistoryProduct> historyProducts) {
+        final List<List<HistoryProduct>> chunks = chunk(historyProducts, CHUNK_SIZE);
+        final int total = historyProducts.size();
+        return Observable.fromIterable(chunks)
+            .flatMapSingle(this::syncChunk, false, MAX_CONCURRENT_CHUNKS)
+            .scan(new Progress(0, 0, total), Progress::add)
+            .skip(1);
+    }
+
+    private Single<Progress> syncChunk(@NonNull List<HistoryProduct> chunk) {
+        List<String> barcodes = new ArrayList<>(chunk.size());
+        for (HistoryProduct historyProduct : chunk) {
+            barcodes.add(historyProduct.getBarcode());
+        }
+        return api.getProductsByBarcodes(TextUtils.join(",", barcodes), FIELDS, chunk.size(), Utils.getUserAgent(Utils.HEADER_USER_AGENT_SEARCH))
+            .subscribeOn(Schedulers.io())
+            .observeOn(Schedulers.io())
+            .map(search -> {
+                List<HistoryProduct> updated = applyUpdates(chunk, search.getProducts(), languageCode);
+                historyProductDao.updateInTx(updated);
+                return new Progress(chunk.size(), 0, 0);
+            })
+            .onErrorReturn(e -> {
+                Log.w(LOG_TAG, "Could not refresh " + chunk.size() + " history products", e);
+                return new Progress(chunk.size(), chunk.size(), 0);
+            });
+    }
+
+    /**
+     * Copies the fields of the fetched products to the history products with the same barcode.
+     *
+     * @return the history products which were updated
+     */
+    @NonNull
+    static List<HistoryProduct> applyUpdates(@NonNull List<HistoryProduct> historyProducts, @NonNull List<Product> products,
+                                             @NonNull String languageCode) {
+        Map<String, Product> productsByBarcode = new HashMap<>();
+        for (Product product : products) {
+            productsByBarcode.put(product.getCode(), product);
+        }
+        List<HistoryProduct> updated = new ArrayList<>();
+        for (HistoryProduct historyProduct : historyProducts) {
+            Product product = productsByBarcode.get(historyProduct.getBarcode());
+            if (product == null) {
+                continue;
+            }
+            historyProduct.setTitle(product.getProductName());
+            historyProduct.setBrands(product.getBrands());
+            historyProduct.setUrl(product.getImageSmallUrl(languageCode));
+            historyProduct.setQuantity(product.getQuantity());
+            historyProduct.setNutritionGrade(product.getNutritionGradeFr());
+            updated.add(historyProduct);
+        }
+        return updated;
+    }
+
+    @NonNull
+    static <T> List<List<T>> chunk(@NonNull List<T> items, int size) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<T>> chunks = new ArrayList<>((items.size() + size - 1) / size);
+        for (int i = 0; i < items.size(); i += size) {
+            chunks.add(new ArrayList<>(items.subList(i, Math.min(i + size, items.size()))));
+        }
+        return chunks;
+    }
+
+    /**
+     * Number of history products processed so far.
+     */
+    public static class Progress {
+        private final int done;
+        private final int failed;
+        private final int total;
+
+        Progress(int done, int failed, int total) {
+            this.done = done;
+            this.failed = failed;
+            this.total = total;
+        }
+
+        Progress add(@NonNull Progress chunk) {
+            return new Progress(done + chunk.done, failed + chunk.failed, total);
+        }
+
+        public int getDone() {
+            return done;
+        }
+
+        /**
+         * @return the number of products which could not be fetched, they are part of {@link #getDone()}
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isComplete() {
+            return done == total;
+        }
+    }
+}
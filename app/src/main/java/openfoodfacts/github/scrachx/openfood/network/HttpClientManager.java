@@ -0,0 +1,109 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.CipherSuite;
+import okhttp3.ConnectionPool;
+import okhttp3.ConnectionSpec;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.TlsVersion;
+import okhttp3.logging.HttpLoggingInterceptor;
+import openfoodfacts.github.scrachx.openfood.BuildConfig;
+import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
+import openfoodfacts.github.scrachx.openfood.network.metrics.MetricsEventListener;
+import openfoodfacts.github.scrachx.openfood.utils.Utils;
+
+/**
+ * Holds the {@link OkHttpClient} shared by the whole app.
+ * <p>
+ * All the API services, the file downloads and Picasso go through the same connection pool and dispatcher,
+ * so connections (and TLS sessions) to our servers are reused from one request to the other. Clients needing
+ * other settings must be derived from the shared one with {@link OkHttpClient#newBuilder()}, which keeps the
+ * pool and the dispatcher.
+ * <p>
+ * The timings of the calls are recorded in {@link openfoodfacts.github.scrachx.openfood.network.metrics.NetworkMetrics}.
+ */
+public final class HttpClientManager {
+    /**
+     * Maximum size of the disk cache for the responses of the API.
+     */
+    public static final long CACHE_MAX_SIZE = 20L * 1024 * 1024;
+    /**
+     * Maximum number of concurrent requests to a same host, OkHttp defaults to 5.
+     */
+    public static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final String CACHE_DIR = "http";
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static volatile OkHttpClient httpClient;
+
+    private HttpClientManager() {
+        // utility class
+    }
+
+    /**
+     * @return the client shared by the app, with a disk cache in the cache directory of the application
+     */
+    @NonNull
+    public static OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            synchronized (HttpClientManager.class) {
+                if (httpClient == null) {
+                    Context context = OFFApplication.getInstance();
+                    httpClient = createHttpClient(context == null ? null : new File(context.getCacheDir(), CACHE_DIR), MAX_REQUESTS_PER_HOST);
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    /**
+     * @param cacheDir directory of the disk cache, or null for no cache
+     * @param maxRequestsPerHost maximum number of concurrent requests to a same host
+     */
+    @NonNull
+    static OkHttpClient createHttpClient(@Nullable File cacheDir, int maxRequestsPerHost) {
+        // Our servers don't support TLS 1.3 therefore we need to create custom connectionSpec
+        // with the correct ciphers to support network requests successfully on Android 7
+        ConnectionSpec connectionSpecModernTLS = new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS)
+            .tlsVersions(TlsVersion.TLS_1_2)
+            .cipherSuites(
+                CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256,
+                CipherSuite.TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384,
+                CipherSuite.TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256,
+                CipherSuite.TLS_DHE_RSA_WITH_AES_256_GCM_SHA384,
+                CipherSuite.TLS_DHE_RSA_WITH_AES_128_GCM_SHA256)
+            .build();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+            .connectTimeout(Utils.CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+            .readTimeout(Utils.RW_TIMEOUT, TimeUnit.MILLISECONDS)
+            .writeTimeout(Utils.RW_TIMEOUT, TimeUnit.MILLISECONDS)
+            .connectionSpecs(Arrays.asList(connectionSpecModernTLS, ConnectionSpec.COMPATIBLE_TLS))
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .dispatcher(dispatcher)
+            .eventListenerFactory(MetricsEventListener.FACTORY);
+        if (cacheDir != null) {
+            builder.cache(new Cache(cacheDir, CACHE_MAX_SIZE));
+        }
+
+        if (BuildConfig.DEBUG) {
+            builder.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY));
+        } else {
+            builder.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BASIC));
+        }
+        return builder.build();
+    }
+}
@@ -18,6 +18,7 @@ import org.jetbrains.annotations.Contract;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,13 +26,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
 import io.reactivex.Completable;
 import io.reactivex.Single;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
@@ -43,6 +44,7 @@ import openfoodfacts.github.scrachx.openfood.features.product.edit.ProductEditAc
 import openfoodfacts.github.scrachx.openfood.features.product.view.ProductViewActivity;
 import openfoodfacts.github.scrachx.openfood.images.ImageKeyHelper;
 import openfoodfacts.github.scrachx.openfood.images.ProductImage;
+import openfoodfacts.github.scrachx.openfood.jobs.UploadEngine;
 import openfoodfacts.github.scrachx.openfood.models.HistoryProduct;
 import openfoodfacts.github.scrachx.openfood.models.HistoryProductDao;
 import openfoodfacts.github.scrachx.openfood.models.Product;
@@ -50,15 +52,19 @@ import openfoodfacts.github.scrachx.openfood.models.ProductImageField;
 import openfoodfacts.github.scrachx.openfood.models.ProductIngredient;
 import openfoodfacts.github.scrachx.openfood.models.ProductState;
 import openfoodfacts.github.scrachx.openfood.models.Search;
+import openfoodfacts.github.scrachx.openfood.models.entities.CachedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.ToUploadProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.ToUploadProductDao;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
 import openfoodfacts.github.scrachx.openfood.utils.InstallationUtils;
+import openfoodfacts.github.scrachx.openfood.utils.JsonUtils;
 import openfoodfacts.github.scrachx.openfood.utils.LocaleHelper;
+import openfoodfacts.github.scrachx.openfood.utils.ProductRegistry;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import retrofit2.Call;
 import retrofit2.Callback;
+import retrofit2.HttpException;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
@@ -70,7 +76,8 @@ import retrofit2.converter.scalars.ScalarsConverterFactory;
  */
 public class OpenFoodAPIClient {
     public static final String MIME_TEXT = "text/plain";
-    public static final String PNG_EXT = ".png\"";
+    public static final String JPG_EXT = ".jpg\"";
+    private static final String LOG_TAG = OpenFoodAPIClient.class.getSimpleName();
     private Disposable historySyncDisp;
     private final HistoryProductDao mHistoryProductDao;
     private final ToUploadProductDao mToUploadProductDao;
@@ -94,7 +101,7 @@ public class OpenFoodAPIClient {
         if (customApiUrl != null) {
             api = new Retrofit.Builder()
                 .baseUrl(customApiUrl)
-                .client(Utils.httpClientBuilder())
+                .client(HttpClientManager.getHttpClient())
                 .addConverterFactory(ScalarsConverterFactory.create())
                 .addConverterFactory(JacksonConverterFactory.create())
                 .addCallAdapterFactory(RxJava2CallAdapterFactory.createWithScheduler(Schedulers.io()))
@@ -188,27 +195,104 @@ public class OpenFoodAPIClient {
         mHistoryProductDao.insertOrReplace(hp);
     }
 
+    /**
+     * Gets the product from the server. If it is in the {@link ProductCache} the request is conditional,
+     * and the cached product is returned if it did not change or if the server cannot be reached.
+     */
     public Single<ProductState> getProductStateFull(final String barcode, String customHeader) {
-        return api.getProductByBarcodeSingle(barcode, getAllFields(), Utils.getUserAgent(customHeader))
+        final String languageCode = LocaleHelper.getLanguage(context);
+        return Single.fromCallable(() -> Optional.ofNullable(ProductCache.getInstance().get(barcode, languageCode)))
+            .flatMap(cachedProduct -> fetchProductState(barcode, languageCode, customHeader, cachedProduct.orElse(null)))
             .subscribeOn(Schedulers.io());
     }
 
     public Single<ProductState> getProductStateFull(final String barcode) {
-        return api.getProductByBarcodeSingle(barcode, getAllFields(), Utils.getUserAgent(Utils.HEADER_USER_AGENT_SEARCH))
+        return getProductStateFull(barcode, Utils.HEADER_USER_AGENT_SEARCH);
+    }
+
+    /**
+     * Returns the product from the {@link ProductCache} if it is there, and asks the server in the background if
+     * it changed so that the next call gets the new version. Falls back to {@link #getProductStateFull(String, String)}.
+     */
+    public Single<ProductState> getProductStateCacheFirst(final String barcode, String customHeader) {
+        return getProductStateCacheFirst(barcode, ProductFieldsProfile.FULL, customHeader);
+    }
+
+    /**
+     * Same as {@link #getProductStateCacheFirst(String, String)}, but only the fields of the profile are requested
+     * when the product is not cached. The product returned may have more fields than asked.
+     * <p>
+     * The responses of a profile which is not cacheable are not stored, as the cache only holds full products,
+     * but a cached full product is still served instead, and shown if the server is unreachable.
+     */
+    public Single<ProductState> getProductStateCacheFirst(final String barcode, ProductFieldsProfile profile, String customHeader) {
+        final String languageCode = LocaleHelper.getLanguage(context);
+        return Single.fromCallable(() -> Optional.ofNullable(ProductCache.getInstance().get(barcode, languageCode)))
+            .flatMap(cachedProduct -> {
+                final long now = System.currentTimeMillis();
+                if (cachedProduct.isPresent() && ProductCache.isServable(cachedProduct.get(), now)) {
+                    ProductState cachedState = ProductCache.getInstance().read(cachedProduct.get());
+                    if (cachedState != null) {
+                        if (ProductCache.needsRevalidation(cachedProduct.get(), now)) {
+                            fetchProductState(barcode, languageCode, customHeader, cachedProduct.get())
+                                .subscribe(state -> Log.d(LOG_TAG, "Product " + barcode + " revalidated"),
+                                    e -> Log.w(LOG_TAG, "Could not revalidate product " + barcode, e));
+                        }
+                        return Single.just(cachedState);
+                    }
+                }
+                if (!profile.isCacheable()) {
+                    return api.getProductByBarcodeSingle(barcode, getFields(profile), Utils.getUserAgent(customHeader))
+                        .onErrorResumeNext(e -> getCachedStateIfOffline(barcode, cachedProduct.orElse(null), e));
+                }
+                return fetchProductState(barcode, languageCode, customHeader, cachedProduct.orElse(null));
+            })
             .subscribeOn(Schedulers.io());
     }
 
-    private String getAllFields() {
-        String[] allFields = context.getResources().getStringArray(R.array.product_all_fields_array);
-        String[] fieldsToLocalize = context.getResources().getStringArray(R.array.fields_array);
+    private Single<ProductState> fetchProductState(String barcode, String languageCode, String customHeader, @Nullable CachedProduct cachedProduct) {
+        final ProductCache productCache = ProductCache.getInstance();
+        return api.getProductByBarcodeIfModified(barcode, getFields(ProductFieldsProfile.FULL), Utils.getUserAgent(customHeader),
+            cachedProduct == null ? null : cachedProduct.getEtag(),
+            cachedProduct == null ? null : cachedProduct.getLastModified())
+            .map(response -> {
+                if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED && cachedProduct != null) {
+                    ProductState cachedState = productCache.read(cachedProduct);
+                    if (cachedState != null) {
+                        productCache.touch(cachedProduct);
+                        return cachedState;
+                    }
+                }
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new HttpException(response);
+                }
+                final String json = response.body().string();
+                final ProductState state = JsonUtils.readFor(ProductState.class).readValue(json);
+                if (state.getStatus() == 1) {
+                    productCache.put(barcode, languageCode, json, response.headers().get("ETag"), response.headers().get("Last-Modified"));
+                } else {
+                    productCache.invalidate(barcode);
+                }
+                return state;
+            })
+            .onErrorResumeNext(e -> getCachedStateIfOffline(barcode, cachedProduct, e))
+            .subscribeOn(Schedulers.io());
+    }
 
-        Set<String> fields = new HashSet<>(Arrays.asList(allFields));
-        String langCode = LocaleHelper.getLanguage(OFFApplication.getInstance().getApplicationContext());
-        for (String fieldToLocalize : fieldsToLocalize) {
-            fields.add(fieldToLocalize + "_" + langCode);
-            fields.add(fieldToLocalize + "_en");
+    /**
+     * @return the cached product, even if expired, when the server is unreachable, else the error
+     */
+    private static Single<ProductState> getCachedStateIfOffline(String barcode, @Nullable CachedProduct cachedProduct, Throwable e) {
+        ProductState cachedState = cachedProduct == null || !(e instanceof IOException) ? null : ProductCache.getInstance().read(cachedProduct);
+        if (cachedState != null) {
+            Log.i(LOG_TAG, "Server unreachable, showing cached product " + barcode, e);
+            return Single.just(cachedState);
         }
-        return StringUtils.join(fields, ',');
+        return Single.error(e);
+    }
+
+    private String getFields(ProductFieldsProfile profile) {
+        return profile.getFields(context, LocaleHelper.getLanguage(OFFApplication.getInstance().getApplicationContext()));
     }
 
     public MaterialDialog.Builder productNotFoundDialogBuilder(Activity activity, String barcode) {
@@ -224,7 +308,7 @@ public class OpenFoodAPIClient {
                     Product pd = new Product();
                     pd.setCode(barcode);
                     st.setProduct(pd);
-                    intent.putExtra("state", st);
+                    ProductRegistry.putState(intent, ProductEditActivity.KEY_STATE, st);
                     activity.startActivity(intent);
                     activity.finish();
                 }
@@ -279,7 +363,7 @@ public class OpenFoodAPIClient {
      */
     // TODO: This is not part of the client, move it to another class (preferably a utility class)
     public void openProduct(final String barcode, final Activity activity, @Nullable final Consumer<ProductState> callback) {
-        api.getProductByBarcode(barcode, getAllFields(), Utils.getUserAgent(Utils.HEADER_USER_AGENT_SEARCH)).enqueue(new Callback<ProductState>() {
+        api.getProductByBarcode(barcode, getFields(ProductFieldsProfile.FULL), Utils.getUserAgent(Utils.HEADER_USER_AGENT_SEARCH)).enqueue(new Callback<ProductState>() {
             @Override
             public void onResponse(@NonNull Call<ProductState> call, @NonNull Response<ProductState> response) {
                 if (activity == null && callback == null) {
@@ -440,16 +524,16 @@ public class OpenFoodAPIClient {
         imgMap.put("code", image.getCode());
         imgMap.put("imagefield", image.getField());
         if (image.getImguploadFront() != null) {
-            imgMap.put("imgupload_front\"; filename=\"front_" + lang + PNG_EXT, image.getImguploadFront());
+            imgMap.put("imgupload_front\"; filename=\"front_" + lang + JPG_EXT, image.getImguploadFront());
         }
         if (image.getImguploadIngredients() != null) {
-            imgMap.put("imgupload_ingredients\"; filename=\"ingredients_" + lang + PNG_EXT, image.getImguploadIngredients());
+            imgMap.put("imgupload_ingredients\"; filename=\"ingredients_" + lang + JPG_EXT, image.getImguploadIngredients());
         }
         if (image.getImguploadNutrition() != null) {
-            imgMap.put("imgupload_nutrition\"; filename=\"nutrition_" + lang + PNG_EXT, image.getImguploadNutrition());
+            imgMap.put("imgupload_nutrition\"; filename=\"nutrition_" + lang + JPG_EXT, image.getImguploadNutrition());
         }
         if (image.getImguploadOther() != null) {
-            imgMap.put("imgupload_other\"; filename=\"other_" + lang + PNG_EXT, image.getImguploadOther());
+            imgMap.put("imgupload_other\"; filename=\"other_" + lang + JPG_EXT, image.getImguploadOther());
         }
 
         // Attribute the upload to the connected user
@@ -477,49 +561,42 @@ public class OpenFoodAPIClient {
     }
 
     /**
-     * upload images in offline mode
+     * upload images in offline mode, a few at the same time, the failed ones being retried with a backoff
      *
      * @return ListenableFuture
      */
     public Completable uploadOfflineImages() {
-        return Single.fromCallable(() -> {
-            List<ToUploadProduct> toUploadProductList = mToUploadProductDao.queryBuilder()
-                .where(ToUploadProductDao.Properties.Uploaded.eq(false))
-                .list();
-
-            int totalSize = toUploadProductList.size();
-            List<Completable> imagesUploading = new ArrayList<>();
-            for (int i = 0; i < totalSize; i++) {
-                ToUploadProduct uploadProduct = toUploadProductList.get(i);
-                File imageFile;
-                try {
-                    imageFile = new File(uploadProduct.getImageFilePath());
-                } catch (Exception e) {
-                    Log.e("OfflineUploadingTask", "doInBackground", e);
-                    continue;
-                }
-                ProductImage productImage = new ProductImage(uploadProduct.getBarcode(),
-                    uploadProduct.getProductField(), imageFile);
-                imagesUploading.add(api.saveImageSingle(OpenFoodAPIClient.this.getUploadableMap(productImage))
-                    .flatMapCompletable((Function<JsonNode, Completable>) jsonNode -> {
-                        if (jsonNode != null) {
-                            Log.d("onResponse", jsonNode.toString());
-                            if (!jsonNode.isObject()) {
-                                return Completable.error(new IOException("jsonNode is not an object"));
-                            } else if (jsonNode.get(ApiFields.Keys.STATUS).asText().contains(ApiFields.Defaults.STATUS_NOT_OK)) {
-                                mToUploadProductDao.delete(uploadProduct);
-                                return Completable.error(new IOException(ApiFields.Defaults.STATUS_NOT_OK));
-                            } else {
-                                mToUploadProductDao.delete(uploadProduct);
-                                return Completable.complete();
-                            }
-                        } else {
-                            return Completable.error(new IOException("jsonNode is null"));
-                        }
-                    }));
-            }
-            return imagesUploading;
-        }).flatMapCompletable(Completable::merge);
+        return Single.fromCallable(() -> mToUploadProductDao.queryBuilder()
+            .where(ToUploadProductDao.Properties.Uploaded.eq(false))
+            .list())
+            .flatMap(toUploadProducts -> new UploadEngine<ToUploadProduct>(UploadEngine.DEFAULT_PARALLELISM,
+                this::uploadOfflineImage,
+                mToUploadProductDao::update)
+                .upload(toUploadProducts))
+            .flatMapCompletable(result -> {
+                Log.d("OfflineUploadingTask", "Offline images upload: " + result);
+                return result.getFailed() > 0 ? Completable.error(new IOException(result.getFailed() + " images not uploaded")) : Completable.complete();
+            });
+    }
+
+    private Completable uploadOfflineImage(@NonNull ToUploadProduct uploadProduct) {
+        return Completable.defer(() -> {
+            ProductImage productImage = new ProductImage(uploadProduct.getBarcode(),
+                uploadProduct.getProductField(), new File(uploadProduct.getImageFilePath()));
+            return api.saveImageSingle(getUploadableMap(productImage))
+                .flatMapCompletable(jsonNode -> {
+                    Log.d("onResponse", jsonNode.toString());
+                    if (!jsonNode.isObject()) {
+                        return Completable.error(new IOException("jsonNode is not an object"));
+                    }
+                    if (jsonNode.get(ApiFields.Keys.STATUS).asText().contains(ApiFields.Defaults.STATUS_NOT_OK)) {
+                        // Rejected by the server, sending it again would not help
+                        Log.w("OfflineUploadingTask", "Image of " + uploadProduct.getBarcode() + " rejected: " + jsonNode);
+                    }
+                    mToUploadProductDao.delete(uploadProduct);
+                    return Completable.complete();
+                });
+        });
     }
 
     public Single<Search> getProductsByPackaging(final String packaging, final int page) {
@@ -616,41 +693,22 @@ public class OpenFoodAPIClient {
         return api.getProductsByOrigin(origin, page, FIELDS_TO_FETCH_FACETS);
     }
 
+    /**
+     * Refreshes the products of the history by chunks, the history is marked as synced once every chunk was fetched.
+     */
     public void syncOldHistory() {
         if (historySyncDisp != null) {
             historySyncDisp.dispose();
         }
-        historySyncDisp = Completable.fromAction(() -> {
-            List<HistoryProduct> historyProducts = mHistoryProductDao.loadAll();
-            int size = historyProducts.size();
-            for (int i = 0; i < size; i++) {
-                HistoryProduct historyProduct = historyProducts.get(i);
-                api.getShortProductByBarcode(historyProduct.getBarcode(), Utils.getUserAgent(Utils.HEADER_USER_AGENT_SEARCH)).enqueue(new Callback<ProductState>() {
-                    @Override
-                    public void onResponse(@NonNull Call<ProductState> call, @NonNull Response<ProductState> response) {
-                        final ProductState s = response.body();
-
-                        if (s != null && s.getStatus() != 0) {
-                            Product product = s.getProduct();
-                            HistoryProduct hp = new HistoryProduct(product.getProductName(), product.getBrands(),
-                                product.getImageSmallUrl(LocaleHelper.getLanguage(OFFApplication.getInstance())),
-                                product.getCode(), product.getQuantity(), product.getNutritionGradeFr());
-                            Log.d("syncOldHistory", hp.toString());
-
-                            hp.setLastSeen(historyProduct.getLastSeen());
-                            mHistoryProductDao.insertOrReplace(hp);
-                        }
-
-                        context.getSharedPreferences("prefs", 0).edit().putBoolean("is_old_history_data_synced", true).apply();
-                    }
-
-                    @Override
-                    public void onFailure(@NonNull Call<ProductState> call, @NonNull Throwable t) {
-                        // ignored
-                    }
-                });
-            }
-        }).subscribeOn(Schedulers.io()).subscribe();
+        historySyncDisp = new HistoryProductSync(api, mHistoryProductDao, LocaleHelper.getLanguage(OFFApplication.getInstance()))
+            .syncAll()
+            .lastElement()
+            .subscribe(progress -> {
+                Log.d(LOG_TAG, String.format("History synced: %d/%d, %d failed", progress.getDone(), progress.getTotal(), progress.getFailed()));
+                if (progress.getFailed() == 0) {
+                    context.getSharedPreferences("prefs", 0).edit().putBoolean("is_old_history_data_synced", true).apply();
+                }
+            }, e -> Log.e(LOG_TAG, "Could not sync the history", e));
     }
 
     public Single<Search> getInfoAddedIncompleteProductsSingle(String contributor, final int page) {
@@ -0,0 +1,184 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
+import openfoodfacts.github.scrachx.openfood.models.HistoryProductDao;
+import openfoodfacts.github.scrachx.openfood.models.ProductState;
+import openfoodfacts.github.scrachx.openfood.models.entities.CachedProduct;
+import openfoodfacts.github.scrachx.openfood.models.entities.CachedProductDao;
+import openfoodfacts.github.scrachx.openfood.utils.JsonUtils;
+
+/**
+ * Local store of the last API response for the products the user has seen, so that scanning a product again
+ * shows it without waiting for the network. The responses are kept with their ETag and Last-Modified headers
+ * to be revalidated with conditional requests.
+ * <p>
+ * Only the products in the scan history are kept once they are older than a day, entries not refreshed for
+ * {@link #MAX_AGE_MS} are removed and the oldest ones are removed when the total size exceeds {@link #MAX_SIZE}.
+ */
+public class ProductCache {
+    /**
+     * Entries are not revalidated if they were fetched less than this ago.
+     */
+    public static final long REVALIDATE_AFTER_MS = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * Entries older than this are not shown before the server has been asked, and are evicted.
+     */
+    public static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(30);
+    /**
+     * Entries for products which are not in the history are evicted after this time.
+     */
+    public static final long NOT_IN_HISTORY_MAX_AGE_MS = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Maximum total length of the cached json.
+     */
+    public static final long MAX_SIZE = 10L * 1024 * 1024;
+    private static final String LOG_TAG = ProductCache.class.getSimpleName();
+    private static ProductCache instance;
+    private final CachedProductDao cachedProductDao;
+
+    private ProductCache() {
+        cachedProductDao = OFFApplication.getDaoSession().getCachedProductDao();
+    }
+
+    public static synchronized ProductCache getInstance() {
+        if (instance == null) {
+            instance = new ProductCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the entry of the product if it was fetched in the given language, null otherwise
+     */
+    @Nullable
+    public CachedProduct get(@NonNull String barcode, @NonNull String languageCode) {
+        CachedProduct cachedProduct = cachedProductDao.queryBuilder()
+            .where(CachedProductDao.Properties.Barcode.eq(barcode))
+            .unique();
+        if (cachedProduct == null || !languageCode.equals(cachedProduct.getLanguageCode())) {
+            return null;
+        }
+        return cachedProduct;
+    }
+
+    /**
+     * @return the product state of the entry, or null if it cannot be read, in which case the entry is removed
+     */
+    @Nullable
+    public ProductState read(@NonNull CachedProduct cachedProduct) {
+        try {
+            return JsonUtils.readFor(ProductState.class).readValue(cachedProduct.getJson());
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Could not read cached product " + cachedProduct.getBarcode(), e);
+            cachedProductDao.delete(cachedProduct);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the last response of the server for a product and evicts the entries not worth keeping anymore.
+     */
+    public void put(@NonNull String barcode, @NonNull String languageCode, @NonNull String json, @Nullable String etag, @Nullable String lastModified) {
+        CachedProduct cachedProduct = cachedProductDao.queryBuilder()
+            .where(CachedProductDao.Properties.Barcode.eq(barcode))
+            .unique();
+        if (cachedProduct == null) {
+            cachedProduct = new CachedProduct();
+            cachedProduct.setBarcode(barcode);
+        }
+        cachedProduct.setLanguageCode(languageCode);
+        cachedProduct.setJson(json);
+        cachedProduct.setEtag(etag);
+        cachedProduct.setLastModified(lastModified);
+        cachedProduct.setFetchedAt(System.currentTimeMillis());
+        cachedProduct.setSize(json.length());
+        cachedProductDao.insertOrReplace(cachedProduct);
+        evict();
+    }
+
+    /**
+     * Marks an entry as fresh, after the server answered it was not modified.
+     */
+    public void touch(@NonNull CachedProduct cachedProduct) {
+        cachedProduct.setFetchedAt(System.currentTimeMillis());
+        cachedProductDao.update(cachedProduct);
+    }
+
+    /**
+     * Removes a product, to be called when it has been modified by the user.
+     */
+    public void invalidate(@NonNull String barcode) {
+        cachedProductDao.queryBuilder()
+            .where(CachedProductDao.Properties.Barcode.eq(barcode))
+            .buildDelete()
+            .executeDeleteWithoutDetachingEntities();
+    }
+
+    public void clear() {
+        cachedProductDao.deleteAll();
+    }
+
+    /**
+     * @return true if the entry can be shown before the server has been asked
+     */
+    public static boolean isServable(@NonNull CachedProduct cachedProduct, long now) {
+        return now - cachedProduct.getFetchedAt() < MAX_AGE_MS;
+    }
+
+    /**
+     * @return true if the server should be asked whether the product changed
+     */
+    public static boolean needsRevalidation(@NonNull CachedProduct cachedProduct, long now) {
+        return now - cachedProduct.getFetchedAt() >= REVALIDATE_AFTER_MS;
+    }
+
+    /**
+     * Removes the expired entries, the entries not in the history and, if the cache is still too large,
+     * the least recently fetched ones.
+     */
+    void evict() {
+        final long now = System.currentTimeMillis();
+        final String table = CachedProductDao.TABLENAME;
+        final String fetchedAt = CachedProductDao.Properties.FetchedAt.columnName;
+        final String barcode = CachedProductDao.Properties.Barcode.columnName;
+        final String size = CachedProductDao.Properties.Size.columnName;
+
+        cachedProductDao.queryBuilder()
+            .where(CachedProductDao.Properties.FetchedAt.lt(now - MAX_AGE_MS))
+            .buildDelete()
+            .executeDeleteWithoutDetachingEntities();
+        // NOT IN would match nothing once the history has a null barcode
+        cachedProductDao.getDatabase().execSQL(String.format("DELETE FROM %1$s WHERE %2$s < ? AND NOT EXISTS (SELECT 1 FROM %4$s h WHERE h.%5$s = %1$s.%3$s)",
+            table, fetchedAt, barcode, HistoryProductDao.TABLENAME, HistoryProductDao.Properties.Barcode.columnName),
+            new Object[]{now - NOT_IN_HISTORY_MAX_AGE_MS});
+
+        // Keeps the most recently fetched entries which fit in the cache
+        long totalSize = 0;
+        Long oldestKept = null;
+        try (Cursor cursor = cachedProductDao.getDatabase().rawQuery(String.format("SELECT %s, %s FROM %s ORDER BY %s DESC",
+            fetchedAt, size, table, fetchedAt), null)) {
+            while (cursor.moveToNext()) {
+                totalSize += cursor.getInt(1);
+                if (totalSize > MAX_SIZE) {
+                    break;
+                }
+                oldestKept = cursor.getLong(0);
+            }
+        }
+        if (totalSize > MAX_SIZE) {
+            cachedProductDao.queryBuilder()
+                .where(oldestKept == null ? CachedProductDao.Properties.Id.isNotNull() : CachedProductDao.Properties.FetchedAt.lt(oldestKept))
+                .buildDelete()
+                .executeDeleteWithoutDetachingEntities();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import androidx.annotation.ArrayRes;
+import androidx.annotation.NonNull;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import openfoodfacts.github.scrachx.openfood.R;
+
+/**
+ * Fields of a product requested from the API, depending on the screen which shows it.
+ * <p>
+ * The field list is built once per language and kept, the fields being sorted so that the url of a product
+ * is always the same and can be cached.
+ */
+public enum ProductFieldsProfile {
+    /**
+     * What the scanner shows before the product is expanded.
+     */
+    QUICK_VIEW(R.array.product_quick_view_fields_array, R.array.product_quick_view_localized_fields_array, true, false),
+    /**
+     * Everything the product screen and the comparison can show.
+     */
+    FULL(R.array.product_all_fields_array, R.array.fields_array, true, true),
+    /**
+     * Texts edited in a given language, without falling back to the default language.
+     */
+    EDIT(0, R.array.product_edit_localized_fields_array, false, false);
+    @ArrayRes
+    private final int fieldsRes;
+    @ArrayRes
+    private final int localizedFieldsRes;
+    private final boolean withDefaultLanguage;
+    private final boolean cacheable;
+    private final Map<String, String> fieldsByLanguage = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheable true if the responses have every field a screen may need, and can then be kept in the
+     *     {@link ProductCache}
+     */
+    ProductFieldsProfile(@ArrayRes int fieldsRes, @ArrayRes int localizedFieldsRes, boolean withDefaultLanguage, boolean cacheable) {
+        this.fieldsRes = fieldsRes;
+        this.localizedFieldsRes = localizedFieldsRes;
+        this.withDefaultLanguage = withDefaultLanguage;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * @return true if the responses for this profile are kept in the {@link ProductCache}
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return the value of the fields parameter of the API for this profile
+     */
+    @NonNull
+    public String getFields(@NonNull Context context, @NonNull String languageCode) {
+        String fields = fieldsByLanguage.get(languageCode);
+        if (fields == null) {
+            Resources resources = context.getResources();
+            fields = buildFields(
+                fieldsRes == 0 ? Collections.emptyList() : Arrays.asList(resources.getStringArray(fieldsRes)),
+                Arrays.asList(resources.getStringArray(localizedFieldsRes)),
+                languageCode,
+                withDefaultLanguage);
+            fieldsByLanguage.put(languageCode, fields);
+        }
+        return fields;
+    }
+
+    @NonNull
+    static String buildFields(@NonNull Iterable<String> fields, @NonNull Iterable<String> localizedFields,
+                              @NonNull String languageCode, boolean withDefaultLanguage) {
+        Set<String> result = new TreeSet<>();
+        for (String field : fields) {
+            result.add(field);
+        }
+        for (String field : localizedFields) {
+            result.add(field + "_" + languageCode);
+            if (withDefaultLanguage) {
+                result.add(field + "_" + ApiFields.Defaults.DEFAULT_LANGUAGE);
+            }
+        }
+        return StringUtils.join(result, ',');
+    }
+}
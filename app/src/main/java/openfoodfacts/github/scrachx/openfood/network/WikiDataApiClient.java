@@ -14,7 +14,6 @@ import io.reactivex.schedulers.Schedulers;
 import okhttp3.OkHttpClient;
 import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.network.services.WikidataAPI;
-import openfoodfacts.github.scrachx.openfood.utils.Utils;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -29,7 +28,7 @@ import retrofit2.converter.jackson.JacksonConverterFactory;
  * @since 14.03.18
  */
 public class WikiDataApiClient {
-    private static final OkHttpClient httpClient = Utils.httpClientBuilder();
+    private static final OkHttpClient httpClient = HttpClientManager.getHttpClient();
     private final WikidataAPI wikidataAPI;
 
     public WikiDataApiClient() {
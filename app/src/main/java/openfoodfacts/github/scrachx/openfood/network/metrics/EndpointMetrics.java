@@ -0,0 +1,50 @@
+package openfoodfacts.github.scrachx.openfood.network.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings and sizes of the calls to an endpoint. Durations are in milliseconds, sizes in bytes.
+ */
+public class EndpointMetrics {
+    final Histogram dns = new Histogram(Histogram.DURATION_BOUNDS);
+    final Histogram connect = new Histogram(Histogram.DURATION_BOUNDS);
+    final Histogram tls = new Histogram(Histogram.DURATION_BOUNDS);
+    /**
+     * From the start of the call to the response headers.
+     */
+    final Histogram timeToFirstByte = new Histogram(Histogram.DURATION_BOUNDS);
+    final Histogram total = new Histogram(Histogram.DURATION_BOUNDS);
+    final Histogram requestBytes = new Histogram(Histogram.SIZE_BOUNDS);
+    final Histogram responseBytes = new Histogram(Histogram.SIZE_BOUNDS);
+    final AtomicLong failures = new AtomicLong();
+
+    public Histogram getTotal() {
+        return total;
+    }
+
+    public Histogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @NonNull
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("failures", failures.get());
+        map.put("total_ms", total.toMap());
+        map.put("ttfb_ms", timeToFirstByte.toMap());
+        map.put("dns_ms", dns.toMap());
+        map.put("connect_ms", connect.toMap());
+        map.put("tls_ms", tls.toMap());
+        map.put("request_bytes", requestBytes.toMap());
+        map.put("response_bytes", responseBytes.toMap());
+        return map;
+    }
+}
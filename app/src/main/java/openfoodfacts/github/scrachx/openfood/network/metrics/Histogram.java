@@ -0,0 +1,94 @@
+package openfoodfacts.github.scrachx.openfood.network.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts values in fixed buckets, so that its memory does not grow with the number of values.
+ */
+public class Histogram {
+    /**
+     * Upper bounds of the buckets of durations, in milliseconds.
+     */
+    static final long[] DURATION_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000};
+    /**
+     * Upper bounds of the buckets of sizes, in bytes.
+     */
+    static final long[] SIZE_BOUNDS = {256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304};
+    private final long[] bounds;
+    /**
+     * One more than the bounds, for the values larger than the last bound.
+     */
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    Histogram(@NonNull long[] bounds) {
+        this.bounds = bounds;
+        this.counts = new long[bounds.length + 1];
+    }
+
+    public synchronized void record(long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket of the percentile, or the maximum for the last bucket
+     */
+    public synchronized long getPercentile(int percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (count * percentile + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return i < bounds.length ? Math.min(bounds[i], max) : max;
+            }
+        }
+        return max;
+    }
+
+    @NonNull
+    synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", count);
+        map.put("mean", getMean());
+        map.put("p50", getPercentile(50));
+        map.put("p90", getPercentile(90));
+        map.put("p99", getPercentile(99));
+        map.put("max", max);
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                buckets.put(i < bounds.length ? "<=" + bounds[i] : ">" + bounds[bounds.length - 1], counts[i]);
+            }
+        }
+        map.put("buckets", buckets);
+        return map;
+    }
+}
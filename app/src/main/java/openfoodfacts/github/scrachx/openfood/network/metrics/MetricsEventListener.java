@@ -0,0 +1,129 @@
+package openfoodfacts.github.scrachx.openfood.network.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/**
+ * Measures the phases of a call and records them in the {@link NetworkMetrics} of its endpoint when it ends.
+ * A new listener is created for each call by {@link #FACTORY}.
+ */
+public class MetricsEventListener extends EventListener {
+    public static final EventListener.Factory FACTORY = call -> new MetricsEventListener(NetworkMetrics.getInstance());
+    private final NetworkMetrics metrics;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestBytes;
+    private long responseBytes;
+    private long dnsMs = -1;
+    private long connectMs = -1;
+    private long tlsMs = -1;
+    private long timeToFirstByteMs = -1;
+
+    MetricsEventListener(@NonNull NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStart = now();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = now();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+        dnsMs = now() - dnsStart;
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+        connectStart = now();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = now();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        tlsMs = now() - secureConnectStart;
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        connectMs = now() - connectStart;
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestBytes += byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        // Only the first response counts, not the ones after a redirect
+        if (timeToFirstByteMs < 0) {
+            timeToFirstByteMs = now() - callStart;
+        }
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        responseBytes += byteCount;
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        record(call, false);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        record(call, true);
+    }
+
+    private void record(@NonNull Call call, boolean failed) {
+        EndpointMetrics endpointMetrics = metrics.get(NetworkMetrics.getEndpoint(call.request()));
+        if (failed) {
+            endpointMetrics.failures.incrementAndGet();
+            return;
+        }
+        endpointMetrics.total.record(now() - callStart);
+        // The phases are missing when a pooled connection or the cache was used
+        if (dnsMs >= 0) {
+            endpointMetrics.dns.record(dnsMs);
+        }
+        if (connectMs >= 0) {
+            endpointMetrics.connect.record(connectMs);
+        }
+        if (tlsMs >= 0) {
+            endpointMetrics.tls.record(tlsMs);
+        }
+        if (timeToFirstByteMs >= 0) {
+            endpointMetrics.timeToFirstByte.record(timeToFirstByteMs);
+        }
+        endpointMetrics.requestBytes.record(requestBytes);
+        endpointMetrics.responseBytes.record(responseBytes);
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
@@ -0,0 +1,132 @@
+package openfoodfacts.github.scrachx.openfood.network.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import okhttp3.Request;
+import openfoodfacts.github.scrachx.openfood.utils.JsonUtils;
+import retrofit2.Invocation;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Timings and sizes of the http calls made by the app, grouped by endpoint, kept in memory until the app is killed.
+ * They are filled by {@link MetricsEventListener}.
+ */
+public class NetworkMetrics {
+    /**
+     * Parts of the paths which are identifiers, like barcodes or page numbers.
+     */
+    private static final Pattern NUMBER_SEGMENT = Pattern.compile("/\\d+(?=/|\\.|$)");
+    /**
+     * Number of segments kept from the paths of the calls which are not made by a Retrofit service, like the images
+     * loaded by Picasso: the rest of the path is different for each product or image.
+     */
+    private static final int MAX_PATH_SEGMENTS = 2;
+    /**
+     * Bound of the endpoints, the calls of any further endpoint are counted in {@link #OTHER_ENDPOINT}.
+     */
+    static final int MAX_ENDPOINTS = 64;
+    static final String OTHER_ENDPOINT = "other";
+    private static final NetworkMetrics INSTANCE = new NetworkMetrics();
+    private final ConcurrentHashMap<String, EndpointMetrics> metricsByEndpoint = new ConcurrentHashMap<>();
+
+    NetworkMetrics() {
+    }
+
+    @NonNull
+    public static NetworkMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @NonNull
+    public EndpointMetrics get(@NonNull String endpoint) {
+        EndpointMetrics metrics = metricsByEndpoint.get(endpoint);
+        if (metrics == null) {
+            if (metricsByEndpoint.size() >= MAX_ENDPOINTS && !OTHER_ENDPOINT.equals(endpoint)) {
+                return get(OTHER_ENDPOINT);
+            }
+            metrics = new EndpointMetrics();
+            EndpointMetrics previous = metricsByEndpoint.putIfAbsent(endpoint, metrics);
+            if (previous != null) {
+                metrics = previous;
+            }
+        }
+        return metrics;
+    }
+
+    public void clear() {
+        metricsByEndpoint.clear();
+    }
+
+    /**
+     * @return the metrics of all the endpoints, sorted by endpoint
+     */
+    @NonNull
+    public String toJson() throws JsonProcessingException {
+        Map<String, Object> map = new TreeMap<>();
+        for (Map.Entry<String, EndpointMetrics> entry : metricsByEndpoint.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return JsonUtils.getSharedMapper().writerWithDefaultPrettyPrinter().writeValueAsString(map);
+    }
+
+    /**
+     * @return the template of the url of the request, like "GET api/v0/product/{barcode}.json" for the calls of
+     * the Retrofit services, or the first segments of the path with the numbers replaced for the other calls, like
+     * "GET static.openfoodfacts.org /images/products/*"
+     */
+    @NonNull
+    static String getEndpoint(@NonNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            String template = getTemplate(invocation.method());
+            if (template != null) {
+                return request.method() + " " + request.url().host() + " " + template;
+            }
+        }
+        StringBuilder path = new StringBuilder();
+        List<String> segments = request.url().encodedPathSegments();
+        for (int i = 0; i < segments.size() && i < MAX_PATH_SEGMENTS; i++) {
+            path.append('/').append(segments.get(i));
+        }
+        if (segments.size() > MAX_PATH_SEGMENTS) {
+            path.append("/*");
+        }
+        return request.method() + " " + request.url().host() + " " + NUMBER_SEGMENT.matcher(path).replaceAll("/{n}");
+    }
+
+    @Nullable
+    private static String getTemplate(@NonNull Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation instanceof GET) {
+                return ((GET) annotation).value();
+            } else if (annotation instanceof POST) {
+                return ((POST) annotation).value();
+            } else if (annotation instanceof PUT) {
+                return ((PUT) annotation).value();
+            } else if (annotation instanceof DELETE) {
+                return ((DELETE) annotation).value();
+            } else if (annotation instanceof PATCH) {
+                return ((PATCH) annotation).value();
+            } else if (annotation instanceof HEAD) {
+                return ((HEAD) annotation).value();
+            }
+        }
+        return null;
+    }
+}
@@ -7,6 +7,7 @@ package openfoodfacts.github.scrachx.openfood.network.services;
 import java.util.List;
 
 import io.reactivex.Single;
+import okhttp3.ResponseBody;
 import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditivesWrapper;
 import openfoodfacts.github.scrachx.openfood.models.entities.allergen.AllergensWrapper;
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistag.AnalysisTagsWrapper;
@@ -17,6 +18,7 @@ import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.Ingredie
 import openfoodfacts.github.scrachx.openfood.models.entities.label.LabelsWrapper;
 import openfoodfacts.github.scrachx.openfood.models.entities.tag.TagsWrapper;
 import retrofit2.http.GET;
+import retrofit2.http.Streaming;
 
 /**
  * API calls for loading static multilingual data
@@ -51,6 +53,13 @@ public interface AnalysisDataAPI {
     @GET(INGREDIENTS_JSON)
     Single<IngredientsWrapper> getIngredients();
 
+    /**
+     * Raw body of ingredients.json, to be read with {@link openfoodfacts.github.scrachx.openfood.utils.TaxonomyStreamParser}
+     */
+    @Streaming
+    @GET(INGREDIENTS_JSON)
+    Single<ResponseBody> streamIngredients();
+
     @GET(ADDITIVES_JSON)
     Single<AdditivesWrapper> getAdditives();
 
@@ -60,6 +69,13 @@ public interface AnalysisDataAPI {
     @GET(CATEGORIES_JSON)
     Single<CategoriesWrapper> getCategories();
 
+    /**
+     * Raw body of categories.json, to be read with {@link openfoodfacts.github.scrachx.openfood.utils.TaxonomyStreamParser}
+     */
+    @Streaming
+    @GET(CATEGORIES_JSON)
+    Single<ResponseBody> streamCategories();
+
     @GET(TAGS_JSON)
     Single<TagsWrapper> getTags();
 
@@ -64,16 +64,34 @@ public interface ProductsAPI {
                                                    @Query("fields") String fields,
                                                    @Header("User-Agent") String header);
 
+    /**
+     * Gets the raw json of a product, only if it changed since the given validators.
+     * The response has no body and a 304 code if it did not change.
+     *
+     * @param etag ETag of the cached response, or null
+     * @param lastModified Last-Modified of the cached response, or null
+     */
+    @GET("api/v0/product/{barcode}.json")
+    Single<Response<ResponseBody>> getProductByBarcodeIfModified(@Path("barcode") String barcode,
+                                                                 @Query("fields") String fields,
+                                                                 @Header("User-Agent") String header,
+                                                                 @Header("If-None-Match") String etag,
+                                                                 @Header("If-Modified-Since") String lastModified);
+
     @FormUrlEncoded
     @POST("cgi/product_jqm2.pl")
     Single<ProductState> saveProductSingle(@Field(ApiFields.Keys.BARCODE) String code,
                                            @FieldMap Map<String, String> parameters,
                                            @Field(ApiFields.Keys.USER_COMMENT) String comment);
 
-    @Deprecated
-    @GET("api/v0/product/{barcode}.json?fields=image_small_url,product_name,brands,quantity,image_url,nutrition_grade_fr,code")
-    Call<ProductState> getShortProductByBarcode(@Path("barcode") String barcode,
-                                                @Header("User-Agent") String header);
+    /**
+     * @param barcodes comma separated barcodes, all the products are returned if the page is large enough
+     */
+    @GET("api/v2/search")
+    Single<Search> getProductsByBarcodes(@Query("code") String barcodes,
+                                         @Query("fields") String fields,
+                                         @Query("page_size") int pageSize,
+                                         @Header("User-Agent") String header);
 
     @GET("cgi/search.pl?search_simple=1&json=1&action=process")
     Single<Search> searchProductByName(@Query("fields") String fields,
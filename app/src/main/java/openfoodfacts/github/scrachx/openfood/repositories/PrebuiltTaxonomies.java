@@ -0,0 +1,238 @@
+package openfoodfacts.github.scrachx.openfood.repositories;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.greenrobot.greendao.database.Database;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import openfoodfacts.github.scrachx.openfood.models.DaoMaster;
+import openfoodfacts.github.scrachx.openfood.models.InvalidBarcodeDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.TaxonomyEntryHashDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.allergen.AllergenDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.allergen.AllergenNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.analysistag.AnalysisTagDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.analysistag.AnalysisTagNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfigDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.country.CountryDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.country.CountryNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsRelationDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.label.LabelDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.label.LabelNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.tag.TagDao;
+import openfoodfacts.github.scrachx.openfood.utils.Utils;
+
+/**
+ * Imports the taxonomies from a prebuilt SQLite snapshot shipped in the flavor assets,
+ * so that the first launch does not have to download and parse every taxonomy.
+ * <p>
+ * The snapshot ({@value #ASSET_NAME}) contains the taxonomy tables with the same columns as the app database,
+ * a {@value #INFO_TABLE} table with the server last modified date of each taxonomy, and its user_version
+ * is the {@link DaoMaster#SCHEMA_VERSION} it was built with. It is produced with {@link #exportSnapshot(Database, SharedPreferences, File)}
+ * from a database where all the taxonomies of the flavor have been downloaded, by the generate&lt;Flavor&gt;TaxonomySnapshot
+ * Gradle tasks which write it to src/&lt;flavor&gt;/assets.
+ * <p>
+ * The last modified date of the snapshot is stored as the last download date, so {@link TaxonomiesManager}
+ * only downloads the taxonomies changed on the server since the snapshot was built.
+ */
+public class PrebuiltTaxonomies {
+    public static final String ASSET_NAME = "taxonomies.db";
+    private static final String INFO_TABLE = "SNAPSHOT_INFO";
+    private static final String SNAPSHOT_SCHEMA = "snapshot";
+    private static final String PREF_IMPORTED = "taxonomy_prebuilt_imported";
+    private static final String LOG_TAG = PrebuiltTaxonomies.class.getSimpleName();
+    /**
+     * Tables of each taxonomy, the first one is used to check if the taxonomy is already in the database.
+     */
+    private static final Map<Taxonomy, String[]> TABLES = new EnumMap<>(Taxonomy.class);
+
+    static {
+        TABLES.put(Taxonomy.LABEL, new String[]{LabelDao.TABLENAME, LabelNameDao.TABLENAME});
+        TABLES.put(Taxonomy.COUNTRY, new String[]{CountryDao.TABLENAME, CountryNameDao.TABLENAME});
+        TABLES.put(Taxonomy.CATEGORY, new String[]{CategoryDao.TABLENAME, CategoryNameDao.TABLENAME});
+        TABLES.put(Taxonomy.ADDITIVE, new String[]{AdditiveDao.TABLENAME, AdditiveNameDao.TABLENAME});
+        TABLES.put(Taxonomy.INGREDIENT, new String[]{IngredientDao.TABLENAME, IngredientNameDao.TABLENAME, IngredientsRelationDao.TABLENAME});
+        TABLES.put(Taxonomy.ALLERGEN, new String[]{AllergenDao.TABLENAME, AllergenNameDao.TABLENAME});
+        TABLES.put(Taxonomy.ANALYSIS_TAGS, new String[]{AnalysisTagDao.TABLENAME, AnalysisTagNameDao.TABLENAME});
+        TABLES.put(Taxonomy.ANALYSIS_TAG_CONFIG, new String[]{AnalysisTagConfigDao.TABLENAME});
+        TABLES.put(Taxonomy.TAGS, new String[]{TagDao.TABLENAME});
+        TABLES.put(Taxonomy.INVALID_BARCODES, new String[]{InvalidBarcodeDao.TABLENAME});
+    }
+
+    private PrebuiltTaxonomies() {
+    }
+
+    /**
+     * @return true if the flavor ships a prebuilt snapshot
+     */
+    public static boolean hasSnapshot(@NonNull Context context) {
+        try {
+            String[] assets = context.getAssets().list("");
+            return assets != null && Arrays.asList(assets).contains(ASSET_NAME);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Copies the taxonomies of the prebuilt snapshot into the database, once per install.
+     * Only the activated taxonomies which are still empty are imported. Does nothing if the flavor has no snapshot.
+     *
+     * @return the number of imported taxonomies
+     */
+    public static int importIfNeeded(@NonNull Context context, @NonNull Database db, @NonNull SharedPreferences settings) {
+        if (settings.getBoolean(PREF_IMPORTED, false) || settings.getBoolean(Utils.FORCE_REFRESH_TAXONOMIES, false)) {
+            return 0;
+        }
+
+        File snapshot = new File(context.getCacheDir(), ASSET_NAME);
+        int imported = 0;
+        try {
+            copyAsset(context, snapshot);
+            imported = importSnapshot(db, snapshot, settings);
+        } catch (FileNotFoundException e) {
+            Log.i(LOG_TAG, "No prebuilt taxonomies for this flavor");
+        } catch (IOException | RuntimeException e) {
+            Log.e(LOG_TAG, "Could not import prebuilt taxonomies", e);
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            snapshot.delete();
+        }
+        // Even if it failed, the taxonomies will be downloaded as before
+        settings.edit().putBoolean(PREF_IMPORTED, true).apply();
+        return imported;
+    }
+
+    private static int importSnapshot(@NonNull Database db, @NonNull File snapshot, @NonNull SharedPreferences settings) {
+        final long start = System.currentTimeMillis();
+        db.execSQL("ATTACH DATABASE ? AS " + SNAPSHOT_SCHEMA, new Object[]{snapshot.getAbsolutePath()});
+        try {
+            int snapshotVersion = queryInt(db, "PRAGMA " + SNAPSHOT_SCHEMA + ".user_version");
+            if (snapshotVersion != DaoMaster.SCHEMA_VERSION) {
+                Log.w(LOG_TAG, "Prebuilt taxonomies are for schema " + snapshotVersion + ", ignoring them");
+                return 0;
+            }
+
+            Map<Taxonomy, Long> lastModifiedDates = new EnumMap<>(Taxonomy.class);
+            try (Cursor cursor = db.rawQuery("SELECT TAXONOMY, LAST_MODIFIED FROM " + SNAPSHOT_SCHEMA + "." + INFO_TABLE, null)) {
+                while (cursor.moveToNext()) {
+                    try {
+                        lastModifiedDates.put(Taxonomy.valueOf(cursor.getString(0)), cursor.getLong(1));
+                    } catch (IllegalArgumentException e) {
+                        Log.w(LOG_TAG, "Unknown taxonomy in snapshot: " + cursor.getString(0));
+                    }
+                }
+            }
+
+            SharedPreferences.Editor editor = settings.edit();
+            int imported = 0;
+            db.beginTransaction();
+            try {
+                for (Map.Entry<Taxonomy, Long> entry : lastModifiedDates.entrySet()) {
+                    Taxonomy taxonomy = entry.getKey();
+                    String[] tables = TABLES.get(taxonomy);
+                    if (tables == null
+                        || !settings.getBoolean(taxonomy.getDownloadActivatePreferencesId(), false)
+                        || queryInt(db, "SELECT COUNT(*) FROM main." + tables[0]) > 0) {
+                        continue;
+                    }
+                    for (String table : tables) {
+                        db.execSQL("INSERT OR REPLACE INTO main." + table + " SELECT * FROM " + SNAPSHOT_SCHEMA + "." + table);
+                    }
+                    if (hasTable(db, TaxonomyEntryHashDao.TABLENAME)) {
+                        // Ids are left out as other taxonomies may already have hashes
+                        db.execSQL("INSERT OR REPLACE INTO main." + TaxonomyEntryHashDao.TABLENAME + " (TAXONOMY, TAG, HASH)"
+                                + " SELECT TAXONOMY, TAG, HASH FROM " + SNAPSHOT_SCHEMA + "." + TaxonomyEntryHashDao.TABLENAME + " WHERE TAXONOMY = ?",
+                            new Object[]{taxonomy.name()});
+                    }
+                    editor.putLong(taxonomy.getLastDownloadTimeStampPreferenceId(), entry.getValue());
+                    imported++;
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            editor.apply();
+            Log.i(LOG_TAG, "Imported " + imported + " prebuilt taxonomies in " + (System.currentTimeMillis() - start) + "ms");
+            return imported;
+        } finally {
+            db.execSQL("DETACH DATABASE " + SNAPSHOT_SCHEMA);
+        }
+    }
+
+    /**
+     * Writes the taxonomies of the database into a snapshot file, to be shipped as the {@value #ASSET_NAME} asset of a flavor.
+     * The last download dates of the settings are used as the last modified date of each taxonomy.
+     *
+     * @param db a database where all the taxonomies of the flavor are downloaded
+     * @param out the snapshot file, replaced if it exists
+     */
+    public static void exportSnapshot(@NonNull Database db, @NonNull SharedPreferences settings, @NonNull File out) {
+        if (out.exists() && !out.delete()) {
+            throw new IllegalStateException("Cannot replace " + out);
+        }
+        db.execSQL("ATTACH DATABASE ? AS " + SNAPSHOT_SCHEMA, new Object[]{out.getAbsolutePath()});
+        try {
+            db.execSQL("CREATE TABLE " + SNAPSHOT_SCHEMA + "." + INFO_TABLE + " (TAXONOMY TEXT PRIMARY KEY, LAST_MODIFIED INTEGER NOT NULL)");
+            for (Map.Entry<Taxonomy, String[]> entry : TABLES.entrySet()) {
+                long lastModified = settings.getLong(entry.getKey().getLastDownloadTimeStampPreferenceId(), 0L);
+                if (lastModified == 0L) {
+                    continue;
+                }
+                for (String table : entry.getValue()) {
+                    db.execSQL("CREATE TABLE " + SNAPSHOT_SCHEMA + "." + table + " AS SELECT * FROM main." + table);
+                }
+                db.execSQL("INSERT INTO " + SNAPSHOT_SCHEMA + "." + INFO_TABLE + " VALUES (?, ?)", new Object[]{entry.getKey().name(), lastModified});
+            }
+            db.execSQL("CREATE TABLE " + SNAPSHOT_SCHEMA + "." + TaxonomyEntryHashDao.TABLENAME + " AS SELECT * FROM main." + TaxonomyEntryHashDao.TABLENAME);
+            db.execSQL("PRAGMA " + SNAPSHOT_SCHEMA + ".user_version = " + DaoMaster.SCHEMA_VERSION);
+        } finally {
+            db.execSQL("DETACH DATABASE " + SNAPSHOT_SCHEMA);
+        }
+    }
+
+    /**
+     * SQLite can only attach files, so the asset is first copied to the cache.
+     */
+    private static void copyAsset(@NonNull Context context, @NonNull File destination) throws IOException {
+        try (InputStream in = context.getAssets().open(ASSET_NAME);
+             OutputStream out = new FileOutputStream(destination)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static boolean hasTable(@NonNull Database db, String table) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM " + SNAPSHOT_SCHEMA + ".sqlite_master WHERE type = 'table' AND name = ?", new String[]{table})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    private static int queryInt(@NonNull Database db, String sql) {
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+}
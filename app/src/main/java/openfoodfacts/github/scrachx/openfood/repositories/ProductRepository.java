@@ -17,22 +17,37 @@
 package openfoodfacts.github.scrachx.openfood.repositories;
 
 import android.content.SharedPreferences;
+import android.database.Cursor;
 import android.util.Base64;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import com.squareup.picasso.Picasso;
 
 import org.apache.commons.lang.StringUtils;
+import org.greenrobot.greendao.AbstractDao;
+import org.greenrobot.greendao.Property;
 import org.greenrobot.greendao.database.Database;
 import org.greenrobot.greendao.query.WhereCondition;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import io.reactivex.Maybe;
 import io.reactivex.Single;
+import okhttp3.ResponseBody;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.models.AnnotationAnswer;
 import openfoodfacts.github.scrachx.openfood.models.AnnotationResponse;
@@ -41,6 +56,8 @@ import openfoodfacts.github.scrachx.openfood.models.InvalidBarcode;
 import openfoodfacts.github.scrachx.openfood.models.InvalidBarcodeDao;
 import openfoodfacts.github.scrachx.openfood.models.Question;
 import openfoodfacts.github.scrachx.openfood.models.QuestionsState;
+import openfoodfacts.github.scrachx.openfood.models.entities.TaxonomyEntryHash;
+import openfoodfacts.github.scrachx.openfood.models.entities.TaxonomyEntryHashDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.additive.Additive;
 import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveName;
@@ -59,11 +76,12 @@ import openfoodfacts.github.scrachx.openfood.models.entities.analysistag.Analysi
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfig;
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfigDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.analysistagconfig.AnalysisTagConfigsWrapper;
-import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoriesWrapper;
+import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoriesWrapperDeserializer;
 import openfoodfacts.github.scrachx.openfood.models.entities.category.Category;
 import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryName;
 import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.category.CategoryResponse;
 import openfoodfacts.github.scrachx.openfood.models.entities.country.CountriesWrapper;
 import openfoodfacts.github.scrachx.openfood.models.entities.country.Country;
 import openfoodfacts.github.scrachx.openfood.models.entities.country.CountryDao;
@@ -73,9 +91,10 @@ import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.Ingredie
 import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientName;
 import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientNameDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientResponse;
 import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsRelation;
 import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsRelationDao;
-import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsWrapper;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsWrapperDeserializer;
 import openfoodfacts.github.scrachx.openfood.models.entities.label.Label;
 import openfoodfacts.github.scrachx.openfood.models.entities.label.LabelDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.label.LabelName;
@@ -88,6 +107,9 @@ import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 import openfoodfacts.github.scrachx.openfood.network.CommonApiManager;
 import openfoodfacts.github.scrachx.openfood.network.services.AnalysisDataAPI;
 import openfoodfacts.github.scrachx.openfood.network.services.RobotoffAPI;
+import openfoodfacts.github.scrachx.openfood.utils.InvalidBarcodeFilter;
+import openfoodfacts.github.scrachx.openfood.utils.SuggestionIndex;
+import openfoodfacts.github.scrachx.openfood.utils.TaxonomyStreamParser;
 
 /**
  * This is a repository class which implements repository interface.
@@ -119,6 +141,14 @@ public class ProductRepository {
     private final AnalysisDataAPI productApi;
     private final RobotoffAPI robotoffApi;
     private final TagDao tagDao;
+    private final TaxonomyEntryHashDao taxonomyEntryHashDao;
+    private final TaxonomyNameCache nameCache = new TaxonomyNameCache(TaxonomyNameCache.DEFAULT_MAX_SIZE);
+    @Nullable
+    private volatile InvalidBarcodeFilter invalidBarcodeFilter;
+    /**
+     * Suggestion indexes already built, keyed by {@link #getSuggestionIndexKey(Taxonomy, String)}
+     */
+    private final Map<String, SuggestionIndex> suggestionIndexes = new ConcurrentHashMap<>();
 
     /**
      * A method used to get instance from the repository.
@@ -133,6 +163,23 @@ public class ProductRepository {
         return instance;
     }
 
+    /**
+     * @return the cache of translated taxonomy names, to read its hit and miss counts
+     */
+    public TaxonomyNameCache getNameCache() {
+        return nameCache;
+    }
+
+    /**
+     * Drops everything cached in memory from the taxonomies, to be called when they are written
+     * to the database without going through this repository.
+     */
+    public void clearTaxonomyCaches() {
+        nameCache.clear();
+        invalidBarcodeFilter = null;
+        suggestionIndexes.clear();
+    }
+
     /**
      * Constructor of the class which is used to initialize objects.
      */
@@ -160,6 +207,7 @@ public class ProductRepository {
         analysisTagDao = daoSession.getAnalysisTagDao();
         analysisTagNameDao = daoSession.getAnalysisTagNameDao();
         analysisTagConfigDao = daoSession.getAnalysisTagConfigDao();
+        taxonomyEntryHashDao = daoSession.getTaxonomyEntryHashDao();
     }
 
     /**
@@ -202,6 +250,108 @@ public class ProductRepository {
         return TaxonomiesManager.getTaxonomyData(Taxonomy.INVALID_BARCODES, this, true, invalidBarcodeDao);
     }
 
+    /**
+     * Loads the invalid barcodes from the local database into memory, only the first time.
+     *
+     * @return The in memory set of invalid barcodes
+     */
+    public Single<InvalidBarcodeFilter> getInvalidBarcodeFilter() {
+        return Single.fromCallable(() -> {
+            InvalidBarcodeFilter filter = invalidBarcodeFilter;
+            if (filter == null) {
+                List<String> barcodes = new ArrayList<>();
+                try (Cursor cursor = db.rawQuery(String.format("SELECT %s FROM %s",
+                    InvalidBarcodeDao.Properties.Barcode.columnName, InvalidBarcodeDao.TABLENAME), null)) {
+                    while (cursor.moveToNext()) {
+                        barcodes.add(cursor.getString(0));
+                    }
+                }
+                filter = InvalidBarcodeFilter.of(barcodes);
+                invalidBarcodeFilter = filter;
+                Log.i(TAG, "Loaded " + filter.size() + " invalid barcodes in memory");
+            }
+            return filter;
+        });
+    }
+
+    /**
+     * Loads the names of a taxonomy in a language from the local database into a suggestion index, only the first
+     * time. The packager codes ({@link Taxonomy#TAGS}) do not depend on the language, and are weighted by their number
+     * of products.
+     *
+     * @param taxonomy one of {@link Taxonomy#CATEGORY}, {@link Taxonomy#LABEL}, {@link Taxonomy#COUNTRY} and
+     *     {@link Taxonomy#TAGS}
+     * @return the in memory index of the names, empty if the taxonomy is not downloaded yet
+     */
+    public Single<SuggestionIndex> getSuggestionIndex(Taxonomy taxonomy, String languageCode) {
+        return Single.fromCallable(() -> {
+            final String key = getSuggestionIndexKey(taxonomy, languageCode);
+            SuggestionIndex index = suggestionIndexes.get(key);
+            if (index == null) {
+                index = loadSuggestionIndex(taxonomy, languageCode);
+                suggestionIndexes.put(key, index);
+                Log.i(TAG, "Loaded " + index.size() + " suggestions for " + key);
+            }
+            return index;
+        });
+    }
+
+    private static String getSuggestionIndexKey(Taxonomy taxonomy, String languageCode) {
+        return taxonomy == Taxonomy.TAGS ? taxonomy.name() + ":" : taxonomy.name() + ":" + languageCode;
+    }
+
+    private SuggestionIndex loadSuggestionIndex(Taxonomy taxonomy, String languageCode) {
+        final String tableName;
+        final String nameColumn;
+        final String languageColumn;
+        switch (taxonomy) {
+            case CATEGORY:
+                tableName = CategoryNameDao.TABLENAME;
+                nameColumn = CategoryNameDao.Properties.Name.columnName;
+                languageColumn = CategoryNameDao.Properties.LanguageCode.columnName;
+                break;
+            case LABEL:
+                tableName = LabelNameDao.TABLENAME;
+                nameColumn = LabelNameDao.Properties.Name.columnName;
+                languageColumn = LabelNameDao.Properties.LanguageCode.columnName;
+                break;
+            case COUNTRY:
+                tableName = CountryNameDao.TABLENAME;
+                nameColumn = CountryNameDao.Properties.Name.columnName;
+                languageColumn = CountryNameDao.Properties.LanguageCode.columnName;
+                break;
+            case TAGS:
+                return loadPackagerCodesSuggestionIndex();
+            default:
+                throw new IllegalArgumentException("No suggestions for the taxonomy " + taxonomy);
+        }
+        List<String> names = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(String.format("SELECT %s FROM %s WHERE %s = ?", nameColumn, tableName, languageColumn),
+            new String[]{languageCode})) {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+        }
+        return SuggestionIndex.of(names);
+    }
+
+    private SuggestionIndex loadPackagerCodesSuggestionIndex() {
+        List<String> names = new ArrayList<>();
+        List<Integer> products = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(String.format("SELECT %s, %s FROM %s",
+            TagDao.Properties.Name.columnName, TagDao.Properties.Products.columnName, TagDao.TABLENAME), null)) {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+                products.add(cursor.isNull(1) ? 0 : cursor.getInt(1));
+            }
+        }
+        int[] weights = new int[products.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = products.get(i);
+        }
+        return SuggestionIndex.of(names, weights);
+    }
+
     Single<List<InvalidBarcode>> loadInvalidBarcodes(long lastModifiedDate) {
         return productApi.getInvalidBarcodes()
             .map(strings -> {
@@ -261,22 +411,32 @@ public class ProductRepository {
     /**
      * Load categories from the server or local database
      *
-     * @return The list of categories.
+     * @return Always an empty list: categories are streamed into the local database, query it to get them.
      */
     public Single<List<Category>> reloadCategoriesFromServer() {
         return TaxonomiesManager.getTaxonomyData(Taxonomy.CATEGORY, this, true, categoryDao);
     }
 
+    /**
+     * Download categories if the local database is empty.
+     *
+     * @return Always an empty list: categories are streamed into the local database, query it to get them.
+     */
     public Single<List<Category>> getCategories() {
         return TaxonomiesManager.getTaxonomyData(Taxonomy.CATEGORY, this, false, categoryDao);
     }
 
     Single<List<Category>> loadCategories(Long lastModifiedDate) {
-        return productApi.getCategories()
-            .map(CategoriesWrapper::map)
-            .doOnSuccess(categories -> {
-                saveCategories(categories);
+        return productApi.streamCategories()
+            .map(body -> {
+                int count = syncTaxonomyToDb(Taxonomy.CATEGORY, body, (tag, entry) -> {
+                    CategoryResponse category = CategoriesWrapperDeserializer.parseEntry(tag, entry);
+                    return category != null ? category.map() : null;
+                }, this::insertCategories, this::deleteCategories);
+                detachAll(categoryDao, categoryNameDao);
+                Log.i(TAG, "Wrote " + count + " new or changed categories into the database");
                 updateLastDownloadDateInSettings(Taxonomy.CATEGORY, lastModifiedDate);
+                return Collections.<Category>emptyList();
             });
     }
 
@@ -316,19 +476,168 @@ public class ProductRepository {
      * else if database is empty, download the file and fill database,
      * else return the content from the local database.
      *
-     * @return The ingredients in the product.
+     * @return Always an empty list: ingredients are streamed into the local database, query it to get them.
      */
     public Single<List<Ingredient>> reloadIngredientsFromServer() {
         return TaxonomiesManager.getTaxonomyData(Taxonomy.INGREDIENT, this, true, ingredientDao);
     }
 
     Single<List<Ingredient>> loadIngredients(long lastModifiedDate) {
-        return productApi.getIngredients()
-            .map(IngredientsWrapper::map)
-            .doOnSuccess(ingredients -> {
-                saveIngredients(ingredients);
+        return productApi.streamIngredients()
+            .map(body -> {
+                int count = syncTaxonomyToDb(Taxonomy.INGREDIENT, body, (tag, entry) -> {
+                    IngredientResponse ingredient = IngredientsWrapperDeserializer.parseEntry(tag, entry);
+                    return ingredient != null ? ingredient.map() : null;
+                }, this::insertIngredients, this::deleteIngredients);
+                detachAll(ingredientDao, ingredientNameDao, ingredientsRelationDao);
+                Log.i(TAG, "Wrote " + count + " new or changed ingredients into the database");
                 updateLastDownloadDateInSettings(Taxonomy.INGREDIENT, lastModifiedDate);
+                return Collections.<Ingredient>emptyList();
+            });
+    }
+
+    /**
+     * Reads a taxonomy json body entry by entry and writes it to the local database by batches,
+     * all in one transaction. Only one batch of entities is kept in memory at a time.
+     * <p>
+     * This is an incremental sync: the content hash of each entry is compared to the one stored
+     * at the previous sync ({@link TaxonomyEntryHash}). Unchanged entries are skipped, changed ones
+     * have their old rows deleted before being written again, and tags which disappeared from the
+     * taxonomy are deleted. Call {@link #clearTaxonomyHashes(Taxonomy)} to force a full write.
+     *
+     * @param taxonomy the taxonomy to sync
+     * @param body the taxonomy json, closed when done
+     * @param mapper converts a taxonomy entry into an entity
+     * @param writer inserts a batch of entities, without opening a transaction
+     * @param deleter deletes the rows of a batch of tags, without opening a transaction
+     * @return the number of entities written
+     */
+    private <T> int syncTaxonomyToDb(Taxonomy taxonomy,
+                                     ResponseBody body,
+                                     TaxonomyStreamParser.EntryMapper<T> mapper,
+                                     TaxonomyStreamParser.BatchConsumer<T> writer,
+                                     TaxonomyStreamParser.BatchConsumer<String> deleter) throws IOException {
+        final Map<String, Long> previousHashes = getTaxonomyHashes(taxonomy);
+        final List<String> changedTags = new ArrayList<>();
+        final List<TaxonomyEntryHash> newHashes = new ArrayList<>();
+
+        db.beginTransaction();
+        try (ResponseBody responseBody = body) {
+            int count = TaxonomyStreamParser.parseInBatches(responseBody.byteStream(), (tag, entry) -> {
+                final long hash = TaxonomyStreamParser.contentHash(entry);
+                final Long previousHash = previousHashes.get(tag);
+                if (previousHash != null && previousHash == hash) {
+                    previousHashes.remove(tag);
+                    return null;
+                }
+                T item = mapper.map(tag, entry);
+                if (item != null) {
+                    previousHashes.remove(tag);
+                    if (previousHash != null) {
+                        changedTags.add(tag);
+                    }
+                    newHashes.add(new TaxonomyEntryHash(null, taxonomy.name(), tag, hash));
+                }
+                return item;
+            }, TaxonomyStreamParser.DEFAULT_BATCH_SIZE, batch -> {
+                if (!changedTags.isEmpty()) {
+                    deleter.accept(changedTags);
+                    changedTags.clear();
+                }
+                writer.accept(batch);
+                bulkInsertOrReplace(taxonomyEntryHashDao, newHashes);
+                newHashes.clear();
             });
+
+            // What is left was not in the new taxonomy anymore
+            List<String> removedTags = new ArrayList<>(previousHashes.keySet());
+            for (int start = 0; start < removedTags.size(); start += TaxonomyStreamParser.DEFAULT_BATCH_SIZE) {
+                List<String> chunk = removedTags.subList(start, Math.min(removedTags.size(), start + TaxonomyStreamParser.DEFAULT_BATCH_SIZE));
+                deleter.accept(chunk);
+                taxonomyEntryHashDao.queryBuilder()
+                    .where(TaxonomyEntryHashDao.Properties.Taxonomy.eq(taxonomy.name()),
+                        TaxonomyEntryHashDao.Properties.Tag.in(chunk))
+                    .buildDelete().executeDeleteWithoutDetachingEntities();
+            }
+            Log.i(TAG, "Sync of " + taxonomy + ": " + count + " new or changed, " + removedTags.size() + " removed");
+
+            db.setTransactionSuccessful();
+            return count;
+        } finally {
+            db.endTransaction();
+            taxonomyEntryHashDao.detachAll();
+        }
+    }
+
+    /**
+     * @return the content hashes of the entries of the taxonomy written at the last sync, by tag
+     */
+    private Map<String, Long> getTaxonomyHashes(Taxonomy taxonomy) {
+        List<TaxonomyEntryHash> hashes = taxonomyEntryHashDao.queryBuilder()
+            .where(TaxonomyEntryHashDao.Properties.Taxonomy.eq(taxonomy.name()))
+            .list();
+        Map<String, Long> hashesByTag = new HashMap<>(hashes.size() * 2);
+        for (TaxonomyEntryHash hash : hashes) {
+            hashesByTag.put(hash.getTag(), hash.getHash());
+        }
+        taxonomyEntryHashDao.detachAll();
+        return hashesByTag;
+    }
+
+    /**
+     * Forget the content hashes of a taxonomy, so that the next sync writes every entry.
+     */
+    void clearTaxonomyHashes(Taxonomy taxonomy) {
+        taxonomyEntryHashDao.queryBuilder()
+            .where(TaxonomyEntryHashDao.Properties.Taxonomy.eq(taxonomy.name()))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
+        taxonomyEntryHashDao.detachAll();
+    }
+
+    /**
+     * Saves a taxonomy in one transaction, by chunks of {@link TaxonomyStreamParser#DEFAULT_BATCH_SIZE} entities.
+     * Errors are logged and the transaction is rolled back.
+     *
+     * @param entities the entities to save
+     * @param writer inserts a chunk of entities, without opening a transaction
+     * @param logTag used to log errors
+     */
+    private <T> void saveInChunks(List<T> entities, TaxonomyStreamParser.BatchConsumer<T> writer, String logTag) {
+        db.beginTransaction();
+        try {
+            for (int start = 0; start < entities.size(); start += TaxonomyStreamParser.DEFAULT_BATCH_SIZE) {
+                int end = Math.min(entities.size(), start + TaxonomyStreamParser.DEFAULT_BATCH_SIZE);
+                writer.accept(entities.subList(start, end));
+            }
+
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, logTag, e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Writes entities with a single compiled INSERT OR REPLACE statement.
+     * <p>
+     * Entities are not attached to the identity scope and their key is not read back,
+     * which avoids one identity scope lookup and update per row during taxonomy imports.
+     * Call {@link #detachAll(AbstractDao[])} after the import so that no stale entity is served from the scope.
+     */
+    private static <T> void bulkInsertOrReplace(AbstractDao<T, ?> dao, List<T> entities) {
+        if (!entities.isEmpty()) {
+            dao.insertOrReplaceInTx(entities, false);
+        }
+    }
+
+    /**
+     * Clears the identity scope of the given daos, to be called after a bulk import.
+     */
+    private static void detachAll(AbstractDao<?, ?>... daos) {
+        for (AbstractDao<?, ?> dao : daos) {
+            dao.detachAll();
+        }
     }
 
     /**
@@ -338,6 +647,11 @@ public class ProductRepository {
      * @param lastDownload Date of last update on Long format
      */
     private void updateLastDownloadDateInSettings(Taxonomy taxonomy, long lastDownload) {
+        nameCache.invalidate(taxonomy);
+        if (taxonomy == Taxonomy.INVALID_BARCODES) {
+            invalidBarcodeFilter = null;
+        }
+        suggestionIndexes.keySet().removeIf(key -> key.startsWith(taxonomy.name() + ":"));
         SharedPreferences mSettings = OFFApplication.getInstance().getSharedPreferences("prefs", 0);
         mSettings.edit().putLong(taxonomy.getLastDownloadTimeStampPreferenceId(), lastDownload).apply();
         Log.i(TAG, "Set lastDownload of " + taxonomy + " to " + lastDownload);
@@ -351,21 +665,15 @@ public class ProductRepository {
      *     Label and LabelName has One-To-Many relationship, therefore we need to save them separately.
      */
     private void saveLabels(List<Label> labels) {
-        db.beginTransaction();
-        try {
-            for (Label label : labels) {
-                labelDao.insertOrReplace(label);
-                for (LabelName labelName : label.getNames()) {
-                    labelNameDao.insertOrReplace(labelName);
-                }
+        saveInChunks(labels, chunk -> {
+            List<LabelName> names = new ArrayList<>();
+            for (Label label : chunk) {
+                names.addAll(label.getNames());
             }
-
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveLabels", e);
-        } finally {
-            db.endTransaction();
-        }
+            bulkInsertOrReplace(labelDao, chunk);
+            bulkInsertOrReplace(labelNameDao, names);
+        }, "saveLabels");
+        detachAll(labelDao, labelNameDao);
     }
 
     /**
@@ -395,21 +703,15 @@ public class ProductRepository {
      *     Allergen and AllergenName has One-To-Many relationship, therefore we need to save them separately.
      */
     void saveAllergens(List<Allergen> allergens) {
-        db.beginTransaction();
-        try {
-            for (Allergen allergen : allergens) {
-                allergenDao.insertOrReplace(allergen);
-                for (AllergenName allergenName : allergen.getNames()) {
-                    allergenNameDao.insertOrReplace(allergenName);
-                }
+        saveInChunks(allergens, chunk -> {
+            List<AllergenName> names = new ArrayList<>();
+            for (Allergen allergen : chunk) {
+                names.addAll(allergen.getNames());
             }
-
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveAllergens", e);
-        } finally {
-            db.endTransaction();
-        }
+            bulkInsertOrReplace(allergenDao, chunk);
+            bulkInsertOrReplace(allergenNameDao, names);
+        }, "saveAllergens");
+        detachAll(allergenDao, allergenNameDao);
     }
 
     /**
@@ -420,21 +722,15 @@ public class ProductRepository {
      *     Additive and AdditiveName has One-To-Many relationship, therefore we need to save them separately.
      */
     private void saveAdditives(List<Additive> additives) {
-        db.beginTransaction();
-        try {
-            for (Additive additive : additives) {
-                additiveDao.insertOrReplace(additive);
-                for (AdditiveName allergenName : additive.getNames()) {
-                    additiveNameDao.insertOrReplace(allergenName);
-                }
+        saveInChunks(additives, chunk -> {
+            List<AdditiveName> names = new ArrayList<>();
+            for (Additive additive : chunk) {
+                names.addAll(additive.getNames());
             }
-
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveAdditives", e);
-        } finally {
-            db.endTransaction();
-        }
+            bulkInsertOrReplace(additiveDao, chunk);
+            bulkInsertOrReplace(additiveNameDao, names);
+        }, "saveAdditives");
+        detachAll(additiveDao, additiveNameDao);
     }
 
     /**
@@ -445,46 +741,41 @@ public class ProductRepository {
      *     Country and CountryName has One-To-Many relationship, therefore we need to save them separately.
      */
     private void saveCountries(List<Country> countries) {
-        db.beginTransaction();
-        try {
-            for (Country country : countries) {
-                countryDao.insertOrReplace(country);
-                for (CountryName countryName : country.getNames()) {
-                    countryNameDao.insertOrReplace(countryName);
-                }
+        saveInChunks(countries, chunk -> {
+            List<CountryName> names = new ArrayList<>();
+            for (Country country : chunk) {
+                names.addAll(country.getNames());
             }
-
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveCountries", e);
-        } finally {
-            db.endTransaction();
-        }
+            bulkInsertOrReplace(countryDao, chunk);
+            bulkInsertOrReplace(countryNameDao, names);
+        }, "saveCountries");
+        detachAll(countryDao, countryNameDao);
     }
 
     /**
-     * Categories saving to local database
+     * Categories saving to local database, must be called inside a transaction.
      *
      * @param categories The list of categories to be saved.
      *     <p>
      *     Category and CategoryName has One-To-Many relationship, therefore we need to save them separately.
      */
-    private void saveCategories(List<Category> categories) {
-        db.beginTransaction();
-        try {
-            for (Category category : categories) {
-                categoryDao.insertOrReplace(category);
-                for (CategoryName categoryName : category.getNames()) {
-                    categoryNameDao.insertOrReplace(categoryName);
-                }
-            }
-
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveCategories", e);
-        } finally {
-            db.endTransaction();
+    private void insertCategories(List<Category> categories) {
+        List<CategoryName> names = new ArrayList<>();
+        for (Category category : categories) {
+            names.addAll(category.getNames());
         }
+        bulkInsertOrReplace(categoryDao, categories);
+        bulkInsertOrReplace(categoryNameDao, names);
+    }
+
+    /**
+     * Deletes categories and their names by tag, must be called inside a transaction.
+     */
+    private void deleteCategories(List<String> tags) {
+        categoryDao.queryBuilder().where(CategoryDao.Properties.Tag.in(tags))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
+        categoryNameDao.queryBuilder().where(CategoryNameDao.Properties.CategoryTag.in(tags))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
     }
 
     /**
@@ -510,27 +801,39 @@ public class ProductRepository {
      *     Ingredient and IngredientName has One-To-Many relationship, therefore we need to save them separately.
      */
     private void saveIngredients(List<Ingredient> ingredients) {
-        db.beginTransaction();
-        try {
-            for (Ingredient ingredient : ingredients) {
-                ingredientDao.insertOrReplace(ingredient);
-                for (IngredientName ingredientName : ingredient.getNames()) {
-                    ingredientNameDao.insertOrReplace(ingredientName);
-                }
-                for (IngredientsRelation ingredientsRelation : ingredient.getParents()) {
-                    ingredientsRelationDao.insertOrReplace(ingredientsRelation);
-                }
-                for (IngredientsRelation ingredientsRelation : ingredient.getChildren()) {
-                    ingredientsRelationDao.insertOrReplace(ingredientsRelation);
-                }
-            }
+        saveInChunks(ingredients, this::insertIngredients, "saveIngredients");
+        detachAll(ingredientDao, ingredientNameDao, ingredientsRelationDao);
+    }
 
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveIngredients", e);
-        } finally {
-            db.endTransaction();
+    /**
+     * Writes ingredients, their names and relations, must be called inside a transaction.
+     */
+    private void insertIngredients(List<Ingredient> ingredients) {
+        List<IngredientName> names = new ArrayList<>();
+        List<IngredientsRelation> relations = new ArrayList<>();
+        for (Ingredient ingredient : ingredients) {
+            names.addAll(ingredient.getNames());
+            relations.addAll(ingredient.getParents());
+            relations.addAll(ingredient.getChildren());
         }
+        bulkInsertOrReplace(ingredientDao, ingredients);
+        bulkInsertOrReplace(ingredientNameDao, names);
+        bulkInsertOrReplace(ingredientsRelationDao, relations);
+    }
+
+    /**
+     * Deletes ingredients, their names and the relations they are part of by tag, must be called inside a transaction.
+     */
+    private void deleteIngredients(List<String> tags) {
+        ingredientDao.queryBuilder().where(IngredientDao.Properties.Tag.in(tags))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
+        ingredientNameDao.queryBuilder().where(IngredientNameDao.Properties.IngredientTag.in(tags))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
+        // Two queries to stay under the SQLite limit of bound variables
+        ingredientsRelationDao.queryBuilder().where(IngredientsRelationDao.Properties.ParentTag.in(tags))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
+        ingredientsRelationDao.queryBuilder().where(IngredientsRelationDao.Properties.ChildTag.in(tags))
+            .buildDelete().executeDeleteWithoutDetachingEntities();
     }
 
     /**
@@ -570,11 +873,11 @@ public class ProductRepository {
      */
     public Single<LabelName> getLabelByTagAndLanguageCode(String labelTag, String languageCode) {
         return Single.fromCallable(() -> {
-            LabelName labelName = labelNameDao.queryBuilder()
+            LabelName labelName = nameCache.get(Taxonomy.LABEL, labelTag, languageCode, () -> labelNameDao.queryBuilder()
                 .where(
                     LabelNameDao.Properties.LabelTag.eq(labelTag),
                     LabelNameDao.Properties.LanguageCode.eq(languageCode)
-                ).unique();
+                ).unique());
 
             return labelName != null ? labelName : new LabelName();
         });
@@ -599,11 +902,11 @@ public class ProductRepository {
      */
     public Single<AdditiveName> getAdditiveByTagAndLanguageCode(String additiveTag, String languageCode) {
         return Single.fromCallable(() -> {
-            AdditiveName additiveName = additiveNameDao.queryBuilder()
+            AdditiveName additiveName = nameCache.get(Taxonomy.ADDITIVE, additiveTag, languageCode, () -> additiveNameDao.queryBuilder()
                 .where(
                     AdditiveNameDao.Properties.AdditiveTag.eq(additiveTag),
                     AdditiveNameDao.Properties.LanguageCode.eq(languageCode)
-                ).unique();
+                ).unique());
 
             return additiveName != null ? additiveName : new AdditiveName();
         });
@@ -638,11 +941,11 @@ public class ProductRepository {
      */
     public Single<CategoryName> getCategoryByTagAndLanguageCode(String categoryTag, String languageCode) {
         return Single.fromCallable(() -> {
-            CategoryName categoryName = categoryNameDao.queryBuilder()
+            CategoryName categoryName = nameCache.get(Taxonomy.CATEGORY, categoryTag, languageCode, () -> categoryNameDao.queryBuilder()
                 .where(
                     CategoryNameDao.Properties.CategoryTag.eq(categoryTag),
                     CategoryNameDao.Properties.LanguageCode.eq(languageCode)
-                ).unique();
+                ).unique());
 
             if (categoryName != null) {
                 return categoryName;
@@ -701,11 +1004,11 @@ public class ProductRepository {
             if (allergens != null) {
                 List<AllergenName> allergenNames = new ArrayList<>();
                 for (Allergen allergen : allergens) {
-                    AllergenName name = allergenNameDao.queryBuilder()
+                    AllergenName name = nameCache.get(Taxonomy.ALLERGEN, allergen.getTag(), languageCode, () -> allergenNameDao.queryBuilder()
                         .where(
                             AllergenNameDao.Properties.AllergenTag.eq(allergen.getTag()),
                             AllergenNameDao.Properties.LanguageCode.eq(languageCode)
-                        ).unique();
+                        ).unique());
 
                     if (name != null) {
                         allergenNames.add(name);
@@ -741,10 +1044,10 @@ public class ProductRepository {
      */
     public Single<AllergenName> getAllergenByTagAndLanguageCode(String allergenTag, String languageCode) {
         return Single.fromCallable(() -> {
-            AllergenName allergenName = allergenNameDao.queryBuilder()
+            AllergenName allergenName = nameCache.get(Taxonomy.ALLERGEN, allergenTag, languageCode, () -> allergenNameDao.queryBuilder()
                 .where(AllergenNameDao.Properties.AllergenTag.eq(allergenTag),
                     AllergenNameDao.Properties.LanguageCode.eq(languageCode))
-                .unique();
+                .unique());
 
             if (allergenName != null) {
                 return allergenName;
@@ -768,6 +1071,163 @@ public class ProductRepository {
         return getAllergenByTagAndLanguageCode(allergenTag, ApiFields.Defaults.DEFAULT_LANGUAGE);
     }
 
+    /**
+     * Loads translated labels from the local database by tags, in one query per
+     * {@link TaxonomyStreamParser#DEFAULT_BATCH_SIZE} tags. Labels not translated in the language
+     * are loaded in the default language, labels not found at all are skipped.
+     *
+     * @param labelTags unique Ids of labels
+     * @param languageCode is a 2-digit language code
+     * @return The translated labels, in the order of the tags
+     */
+    public Single<List<LabelName>> getLabelNames(Collection<String> labelTags, String languageCode) {
+        return Single.fromCallable(() -> {
+            Map<String, LabelName> namesByTag = getNamesByTags(Taxonomy.LABEL, labelNameDao, LabelNameDao.Properties.LabelTag,
+                LabelNameDao.Properties.LanguageCode, LabelName::getLabelTag, LabelName::getLanguageCode, labelTags, languageCode);
+            return orderByTags(labelTags, namesByTag, null);
+        });
+    }
+
+    /**
+     * Loads translated additives from the local database by tags, see {@link #getLabelNames(Collection, String)}.
+     *
+     * @param additiveTags unique Ids of additives
+     * @param languageCode is a 2-digit language code
+     * @return The translated additives, in the order of the tags
+     */
+    public Single<List<AdditiveName>> getAdditiveNames(Collection<String> additiveTags, String languageCode) {
+        return Single.fromCallable(() -> {
+            Map<String, AdditiveName> namesByTag = getNamesByTags(Taxonomy.ADDITIVE, additiveNameDao, AdditiveNameDao.Properties.AdditiveTag,
+                AdditiveNameDao.Properties.LanguageCode, AdditiveName::getAdditiveTag, AdditiveName::getLanguageCode, additiveTags, languageCode);
+            return orderByTags(additiveTags, namesByTag, null);
+        });
+    }
+
+    /**
+     * Loads translated categories from the local database by tags, see {@link #getLabelNames(Collection, String)}.
+     * Categories not found at all are returned with their tag as name.
+     *
+     * @param categoryTags unique Ids of categories
+     * @param languageCode is a 2-digit language code
+     * @return The translated categories, in the order of the tags
+     */
+    public Single<List<CategoryName>> getCategoryNames(Collection<String> categoryTags, String languageCode) {
+        return Single.fromCallable(() -> {
+            Map<String, CategoryName> namesByTag = getNamesByTags(Taxonomy.CATEGORY, categoryNameDao, CategoryNameDao.Properties.CategoryTag,
+                CategoryNameDao.Properties.LanguageCode, CategoryName::getCategoryTag, CategoryName::getLanguageCode, categoryTags, languageCode);
+            return orderByTags(categoryTags, namesByTag, tag -> {
+                CategoryName emptyCategoryName = new CategoryName();
+                emptyCategoryName.setName(tag);
+                emptyCategoryName.setCategoryTag(tag);
+                emptyCategoryName.setIsWikiDataIdPresent(false);
+                return emptyCategoryName;
+            });
+        });
+    }
+
+    /**
+     * Loads translated allergens from the local database by tags, see {@link #getLabelNames(Collection, String)}.
+     * Allergens not found at all are returned with their tag as name.
+     *
+     * @param allergenTags unique Ids of allergens
+     * @param languageCode is a 2-digit language code
+     * @return The translated allergens, in the order of the tags
+     */
+    public Single<List<AllergenName>> getAllergenNames(Collection<String> allergenTags, String languageCode) {
+        return Single.fromCallable(() -> {
+            Map<String, AllergenName> namesByTag = getNamesByTags(Taxonomy.ALLERGEN, allergenNameDao, AllergenNameDao.Properties.AllergenTag,
+                AllergenNameDao.Properties.LanguageCode, AllergenName::getAllergenTag, AllergenName::getLanguageCode, allergenTags, languageCode);
+            return orderByTags(allergenTags, namesByTag, tag -> {
+                AllergenName emptyAllergenName = new AllergenName();
+                emptyAllergenName.setName(tag);
+                emptyAllergenName.setAllergenTag(tag);
+                emptyAllergenName.setIsWikiDataIdPresent(false);
+                return emptyAllergenName;
+            });
+        });
+    }
+
+    /**
+     * Loads the names of taxonomy entries by tags in the given language or else in the default language.
+     * Names are looked up in the {@link TaxonomyNameCache} first, the other tags are loaded
+     * with one query per chunk of tags and cached.
+     *
+     * @return the name found for each tag, in the given language if there is one
+     */
+    private <T> Map<String, T> getNamesByTags(Taxonomy taxonomy,
+                                              AbstractDao<T, ?> nameDao,
+                                              Property tagProperty,
+                                              Property languageCodeProperty,
+                                              Function<T, String> tagGetter,
+                                              Function<T, String> languageCodeGetter,
+                                              Collection<String> tags,
+                                              String languageCode) {
+        final String defaultLanguageCode = ApiFields.Defaults.DEFAULT_LANGUAGE;
+        final Map<String, T> namesByTag = new HashMap<>();
+        final List<String> tagsToLoad = new ArrayList<>();
+        for (String tag : new LinkedHashSet<>(tags)) {
+            Optional<T> inLanguage = nameCache.getIfPresent(taxonomy, tag, languageCode);
+            if (inLanguage != null && inLanguage.isPresent()) {
+                namesByTag.put(tag, inLanguage.get());
+                continue;
+            }
+            Optional<T> inDefaultLanguage = inLanguage != null ? nameCache.getIfPresent(taxonomy, tag, defaultLanguageCode) : null;
+            if (inDefaultLanguage != null) {
+                inDefaultLanguage.ifPresent(name -> namesByTag.put(tag, name));
+            } else {
+                tagsToLoad.add(tag);
+            }
+        }
+
+        for (int start = 0; start < tagsToLoad.size(); start += TaxonomyStreamParser.DEFAULT_BATCH_SIZE) {
+            List<String> chunk = tagsToLoad.subList(start, Math.min(tagsToLoad.size(), start + TaxonomyStreamParser.DEFAULT_BATCH_SIZE));
+            Map<String, T> inLanguage = new HashMap<>();
+            Map<String, T> inDefaultLanguage = new HashMap<>();
+            for (T name : nameDao.queryBuilder()
+                .where(tagProperty.in(chunk),
+                    languageCodeProperty.in(languageCode, defaultLanguageCode))
+                .list()) {
+                if (languageCode.equals(languageCodeGetter.apply(name))) {
+                    inLanguage.put(tagGetter.apply(name), name);
+                } else {
+                    inDefaultLanguage.put(tagGetter.apply(name), name);
+                }
+            }
+            for (String tag : chunk) {
+                T name = inLanguage.get(tag);
+                nameCache.put(taxonomy, tag, languageCode, name);
+                if (!languageCode.equals(defaultLanguageCode)) {
+                    nameCache.put(taxonomy, tag, defaultLanguageCode, inDefaultLanguage.get(tag));
+                }
+                if (name == null) {
+                    name = inDefaultLanguage.get(tag);
+                }
+                if (name != null) {
+                    namesByTag.put(tag, name);
+                }
+            }
+        }
+        return namesByTag;
+    }
+
+    /**
+     * @param fallback creates the value of tags missing from the map, missing tags are skipped if null
+     * @return the values of the map in the order of the tags
+     */
+    private static <T> List<T> orderByTags(Collection<String> tags, Map<String, T> valuesByTag, @Nullable Function<String, T> fallback) {
+        List<T> values = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            T value = valuesByTag.get(tag);
+            if (value == null && fallback != null) {
+                value = fallback.apply(tag);
+            }
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
     /**
      * Loads Robotoff question from the local database by code and lang of question.
      *
@@ -837,21 +1297,15 @@ public class ProductRepository {
      *     AnalysisTag and AnalysisTagName has One-To-Many relationship, therefore we need to save them separately.
      */
     private void saveAnalysisTags(List<AnalysisTag> analysisTags) {
-        db.beginTransaction();
-        try {
-            for (AnalysisTag analysisTag : analysisTags) {
-                analysisTagDao.insertOrReplace(analysisTag);
-                for (AnalysisTagName analysisTagName : analysisTag.getNames()) {
-                    analysisTagNameDao.insertOrReplace(analysisTagName);
-                }
+        saveInChunks(analysisTags, chunk -> {
+            List<AnalysisTagName> names = new ArrayList<>();
+            for (AnalysisTag analysisTag : chunk) {
+                names.addAll(analysisTag.getNames());
             }
-
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "saveAnalysisTags", e);
-        } finally {
-            db.endTransaction();
-        }
+            bulkInsertOrReplace(analysisTagDao, chunk);
+            bulkInsertOrReplace(analysisTagNameDao, names);
+        }, "saveAnalysisTags");
+        detachAll(analysisTagDao, analysisTagNameDao);
     }
 
     public Single<List<AnalysisTagConfig>> reloadAnalysisTagConfigsFromServer() {
@@ -882,33 +1336,25 @@ public class ProductRepository {
         }
     }
 
-    private void updateAnalysisTagConfig(final AnalysisTagConfig analysisTagConfig, String languageCode) {
-        if (analysisTagConfig != null) {
-            AnalysisTagName analysisTagName = analysisTagNameDao.queryBuilder()
-                .where(AnalysisTagNameDao.Properties.AnalysisTag.eq(analysisTagConfig.getAnalysisTag()),
-                    AnalysisTagNameDao.Properties.LanguageCode.eq(languageCode))
-                .unique();
-            if (analysisTagName == null) {
-                analysisTagName = analysisTagNameDao.queryBuilder()
-                    .where(AnalysisTagNameDao.Properties.AnalysisTag.eq(analysisTagConfig.getAnalysisTag()),
-                        AnalysisTagNameDao.Properties.LanguageCode.eq(ApiFields.Defaults.DEFAULT_LANGUAGE))
-                    .unique();
-            }
-
-            analysisTagConfig.setName(analysisTagName);
+    /**
+     * Sets the translated names and type names of analysis tag configs, with one query for all the names.
+     */
+    private void updateAnalysisTagConfigs(final List<AnalysisTagConfig> analysisTagConfigs, String languageCode) {
+        if (analysisTagConfigs.isEmpty()) {
+            return;
+        }
+        Set<String> tags = new HashSet<>();
+        for (AnalysisTagConfig analysisTagConfig : analysisTagConfigs) {
+            tags.add(analysisTagConfig.getAnalysisTag());
+            tags.add("en:" + analysisTagConfig.getType());
+        }
+        Map<String, AnalysisTagName> namesByTag = getNamesByTags(Taxonomy.ANALYSIS_TAGS, analysisTagNameDao, AnalysisTagNameDao.Properties.AnalysisTag,
+            AnalysisTagNameDao.Properties.LanguageCode, AnalysisTagName::getAnalysisTag, AnalysisTagName::getLanguageCode, tags, languageCode);
 
-            String type = "en:" + analysisTagConfig.getType();
-            AnalysisTagName analysisTagTypeName = analysisTagNameDao.queryBuilder()
-                .where(AnalysisTagNameDao.Properties.AnalysisTag.eq(type),
-                    AnalysisTagNameDao.Properties.LanguageCode.eq(languageCode))
-                .unique();
-            if (analysisTagTypeName == null) {
-                analysisTagTypeName = analysisTagNameDao.queryBuilder()
-                    .where(AnalysisTagNameDao.Properties.AnalysisTag.eq(type),
-                        AnalysisTagNameDao.Properties.LanguageCode.eq(ApiFields.Defaults.DEFAULT_LANGUAGE))
-                    .unique();
-            }
+        for (AnalysisTagConfig analysisTagConfig : analysisTagConfigs) {
+            analysisTagConfig.setName(namesByTag.get(analysisTagConfig.getAnalysisTag()));
 
+            AnalysisTagName analysisTagTypeName = namesByTag.get("en:" + analysisTagConfig.getType());
             analysisTagConfig.setTypeName(analysisTagTypeName != null ? analysisTagTypeName.getName() : analysisTagConfig.getType());
         }
     }
@@ -923,20 +1369,42 @@ public class ProductRepository {
             AnalysisTagConfig analysisTagConfig = analysisTagConfigDao.queryBuilder()
                 .where(AnalysisTagConfigDao.Properties.AnalysisTag.eq(analysisTag))
                 .unique();
-            updateAnalysisTagConfig(analysisTagConfig, languageCode);
+            if (analysisTagConfig != null) {
+                updateAnalysisTagConfigs(Collections.singletonList(analysisTagConfig), languageCode);
+            }
             return analysisTagConfig;
         });
     }
 
+    /**
+     * Loads the analysis tag configs of a list of tags, with their translated names.
+     *
+     * @return the configs found, in the order of the tags
+     */
+    public Single<List<AnalysisTagConfig>> getAnalysisTagConfigs(Collection<String> analysisTags, String languageCode) {
+        return Single.fromCallable(() -> {
+            Map<String, AnalysisTagConfig> configsByTag = new HashMap<>();
+            List<String> distinctTags = new ArrayList<>(new LinkedHashSet<>(analysisTags));
+            for (int start = 0; start < distinctTags.size(); start += TaxonomyStreamParser.DEFAULT_BATCH_SIZE) {
+                List<String> chunk = distinctTags.subList(start, Math.min(distinctTags.size(), start + TaxonomyStreamParser.DEFAULT_BATCH_SIZE));
+                for (AnalysisTagConfig analysisTagConfig : analysisTagConfigDao.queryBuilder()
+                    .where(AnalysisTagConfigDao.Properties.AnalysisTag.in(chunk))
+                    .list()) {
+                    configsByTag.put(analysisTagConfig.getAnalysisTag(), analysisTagConfig);
+                }
+            }
+            List<AnalysisTagConfig> analysisTagConfigs = orderByTags(analysisTags, configsByTag, null);
+            updateAnalysisTagConfigs(analysisTagConfigs, languageCode);
+            return analysisTagConfigs;
+        });
+    }
+
     public Single<List<AnalysisTagConfig>> getUnknownAnalysisTagConfigsByLanguageCode(String languageCode) {
         return Single.fromCallable(() -> {
             List<AnalysisTagConfig> analysisTagConfigs = analysisTagConfigDao.queryBuilder()
                 .where(new WhereCondition.StringCondition(AnalysisTagConfigDao.Properties.AnalysisTag.columnName + " LIKE \"%unknown%\"")).list();
 
-            for (AnalysisTagConfig analysisTagConfig : analysisTagConfigs
-            ) {
-                updateAnalysisTagConfig(analysisTagConfig, languageCode);
-            }
+            updateAnalysisTagConfigs(analysisTagConfigs, languageCode);
             return analysisTagConfigs;
         });
     }
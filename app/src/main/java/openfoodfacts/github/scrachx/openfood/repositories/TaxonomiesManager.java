@@ -9,39 +9,56 @@ import org.greenrobot.greendao.AbstractDao;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.text.SimpleDateFormat;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.Request;
+import okhttp3.Response;
 import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
+import openfoodfacts.github.scrachx.openfood.network.HttpClientManager;
 import openfoodfacts.github.scrachx.openfood.utils.DaoUtils;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
 public class TaxonomiesManager {
     public static final long TAXONOMY_NO_INTERNET = -9999L;
+    /**
+     * Taxonomies checked less than this ago are not checked again, they rarely change more than once a day.
+     */
+    public static final long CHECK_INTERVAL_MS = TimeUnit.HOURS.toMillis(12);
     private static final String LOG_TAG = TaxonomiesManager.class.getSimpleName();
 
     private TaxonomiesManager() {
     }
 
     /**
-     * Get the last modified date of the taxonomy.json file on the server.
+     * Get the last modified date of the taxonomy.json file on the server, with a HEAD request sent through the
+     * shared http client, so that the connection to the server is reused by all the taxonomies.
      *
      * @param taxonomy The taxonomy to check
-     * @return The timestamp of the last changes date of the taxonomy.json on the server
+     * @param localDownloadTime time of the local data, sent as If-Modified-Since, or 0 if there is none
+     * @return The timestamp of the last changes date of the taxonomy.json on the server,
+     *     localDownloadTime if it did not change since then,
      *     or {@link #TAXONOMY_NO_INTERNET} if there is no connection to the server.
      */
-    static Single<Long> getLastModifiedDateFromServer(@NonNull Taxonomy taxonomy) {
+    static Single<Long> getLastModifiedDateFromServer(@NonNull Taxonomy taxonomy, long localDownloadTime) {
         return Single.fromCallable(() -> {
             long lastModifiedDate;
-            final String baseUrl = BuildConfig.OFWEBSITE;
-            final URL taxoUrl = new URL(baseUrl + taxonomy.getJsonUrl());
-            try {
-                HttpURLConnection httpCon = (HttpURLConnection) taxoUrl.openConnection();
-                lastModifiedDate = httpCon.getLastModified();
-                httpCon.disconnect();
+            Request.Builder request = new Request.Builder()
+                .url(BuildConfig.OFWEBSITE + taxonomy.getJsonUrl())
+                .head();
+            if (localDownloadTime > 0) {
+                request.header("If-Modified-Since", formatHttpDate(localDownloadTime));
+            }
+            try (Response response = HttpClientManager.getHttpClient().newCall(request.build()).execute()) {
+                lastModifiedDate = getLastModifiedDate(response, localDownloadTime);
             } catch (IOException e) {
                 //Problem
                 Log.e(LOG_TAG, String.format(
@@ -51,7 +68,32 @@ public class TaxonomiesManager {
             }
             Log.i(LOG_TAG, String.format("Last modified date for taxonomy \"%s\" is %d", taxonomy, lastModifiedDate));
             return lastModifiedDate;
-        });
+        }).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * @return the Last-Modified date of the response, localDownloadTime if it was not modified, or 0 if unknown
+     */
+    static long getLastModifiedDate(@NonNull Response response, long localDownloadTime) {
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return localDownloadTime;
+        }
+        Date lastModified = response.headers().getDate("Last-Modified");
+        return lastModified == null ? 0 : lastModified.getTime();
+    }
+
+    @NonNull
+    static String formatHttpDate(long time) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(time));
+    }
+
+    /**
+     * @return true if the server should be asked again if the taxonomy changed
+     */
+    static boolean isCheckDue(long lastCheckTime, long now, long checkInterval) {
+        return now - lastCheckTime >= checkInterval || now < lastCheckTime;
     }
 
     /**
@@ -85,6 +127,11 @@ public class TaxonomiesManager {
             // Table is empty, no need check for update, just load taxonomy
             return download(taxonomy, repository);
         } else if (checkUpdate) {
+            // Don't ask the server again if it was asked recently
+            long lastCheckTime = mSettings.getLong(taxonomy.getLastCheckTimeStampPreferenceId(), 0L);
+            if (!isCheckDue(lastCheckTime, System.currentTimeMillis(), CHECK_INTERVAL_MS)) {
+                return Single.just(Collections.emptyList());
+            }
             // Get local last downloaded time
             long localDownloadTime = mSettings.getLong(taxonomy.getLastDownloadTimeStampPreferenceId(), 0L);
             // We need to check for update. Test if file on server is more recent than last download.
@@ -94,20 +141,34 @@ public class TaxonomiesManager {
     }
 
     private static <T> Single<List<T>> download(Taxonomy taxonomy, ProductRepository repository) {
-        return getLastModifiedDateFromServer(taxonomy).flatMap(lastModifiedDate -> {
+        return getLastModifiedDateFromServer(taxonomy, 0).flatMap(lastModifiedDate -> {
             if (lastModifiedDate != TAXONOMY_NO_INTERNET) {
-                return DaoUtils.logDownload(taxonomy.load(repository, lastModifiedDate), taxonomy);
+                // Local data is missing or outdated: write every entry, not only the ones which changed
+                repository.clearTaxonomyHashes(taxonomy);
+                return DaoUtils.logDownload(taxonomy.<T>load(repository, lastModifiedDate), taxonomy)
+                    .doOnSuccess(list -> saveLastCheckTime(taxonomy));
             }
             return Single.just(Collections.emptyList());
         });
     }
 
     private static <T> Single<List<T>> checkAndDownloadIfNewer(Taxonomy taxonomy, ProductRepository repository, long localDownloadTime) {
-        return getLastModifiedDateFromServer(taxonomy).flatMap(lastModifiedDateFromServer -> {
+        return getLastModifiedDateFromServer(taxonomy, localDownloadTime).flatMap(lastModifiedDateFromServer -> {
             if (lastModifiedDateFromServer == 0 || lastModifiedDateFromServer > localDownloadTime) {
-                return DaoUtils.logDownload(taxonomy.load(repository, lastModifiedDateFromServer), taxonomy);
+                return DaoUtils.logDownload(taxonomy.<T>load(repository, lastModifiedDateFromServer), taxonomy)
+                    .doOnSuccess(list -> saveLastCheckTime(taxonomy));
+            }
+            if (lastModifiedDateFromServer != TAXONOMY_NO_INTERNET) {
+                // Up to date
+                saveLastCheckTime(taxonomy);
             }
             return Single.just(Collections.emptyList());
         });
     }
+
+    private static void saveLastCheckTime(@NonNull Taxonomy taxonomy) {
+        OFFApplication.getInstance().getSharedPreferences("prefs", 0).edit()
+            .putLong(taxonomy.getLastCheckTimeStampPreferenceId(), System.currentTimeMillis())
+            .apply();
+    }
 }
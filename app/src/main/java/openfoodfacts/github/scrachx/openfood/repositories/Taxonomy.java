@@ -107,6 +107,13 @@ public enum Taxonomy {
         return "taxonomy_lastDownloadTimeStamp_" + name();
     }
 
+    /**
+     * @return the key of the time when the server was last asked if the taxonomy changed
+     */
+    public String getLastCheckTimeStampPreferenceId() {
+        return "taxonomy_lastCheckTimeStamp_" + name();
+    }
+
     public String getDownloadActivatePreferencesId() {
         return "taxonomy_download_" + name();
     }
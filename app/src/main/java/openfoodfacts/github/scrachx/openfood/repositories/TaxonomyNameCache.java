@@ -0,0 +1,167 @@
+package openfoodfacts.github.scrachx.openfood.repositories;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size bounded, least recently used cache of translated taxonomy names (labels, categories, additives...),
+ * keyed by taxonomy, tag and language code.
+ * <p>
+ * Names missing from the database are cached too, so that looking for a translation which does not exist
+ * does not hit the database again. The cache must be invalidated when a taxonomy is written again.
+ */
+public class TaxonomyNameCache {
+    public static final int DEFAULT_MAX_SIZE = 2000;
+    private final int maxSize;
+    /**
+     * Guarded by itself. Values are empty when the name is not in the database.
+     */
+    private final LinkedHashMap<Key, Optional<?>> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public TaxonomyNameCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<Key, Optional<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Optional<?>> eldest) {
+                return size() > TaxonomyNameCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return null if the name is not cached, an empty {@link Optional} if it is cached as missing from the database
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> getIfPresent(@NonNull Taxonomy taxonomy, @NonNull String tag, @NonNull String languageCode) {
+        Optional<?> value;
+        synchronized (entries) {
+            value = entries.get(new Key(taxonomy, tag, languageCode));
+        }
+        if (value != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return (Optional<T>) value;
+    }
+
+    /**
+     * @param name the name loaded from the database, or null if there is none
+     */
+    public <T> void put(@NonNull Taxonomy taxonomy, @NonNull String tag, @NonNull String languageCode, @Nullable T name) {
+        synchronized (entries) {
+            entries.put(new Key(taxonomy, tag, languageCode), Optional.ofNullable(name));
+        }
+    }
+
+    /**
+     * Returns the cached name, or loads it with the loader and caches it.
+     * The loader is called without holding the lock, so concurrent misses on the same key may both load it.
+     *
+     * @param loader loads the name from the database, returns null if there is none
+     */
+    @Nullable
+    public <T> T get(@NonNull Taxonomy taxonomy, @NonNull String tag, @NonNull String languageCode, @NonNull Callable<T> loader) throws Exception {
+        Optional<T> cached = getIfPresent(taxonomy, tag, languageCode);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        T name = loader.call();
+        put(taxonomy, tag, languageCode, name);
+        return name;
+    }
+
+    /**
+     * Removes all the names of a taxonomy, to be called when it is reloaded.
+     */
+    public void invalidate(@NonNull Taxonomy taxonomy) {
+        synchronized (entries) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().taxonomy == taxonomy) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "TaxonomyNameCache{" +
+            "size=" + size() +
+            ", maxSize=" + maxSize +
+            ", hits=" + getHitCount() +
+            ", misses=" + getMissCount() +
+            '}';
+    }
+
+    private static final class Key {
+        private final Taxonomy taxonomy;
+        private final String tag;
+        private final String languageCode;
+
+        Key(Taxonomy taxonomy, String tag, String languageCode) {
+            this.taxonomy = taxonomy;
+            this.tag = tag;
+            this.languageCode = languageCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return taxonomy == key.taxonomy && tag.equals(key.tag) && languageCode.equals(key.languageCode);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = taxonomy.hashCode();
+            result = 31 * result + tag.hashCode();
+            result = 31 * result + languageCode.hashCode();
+            return result;
+        }
+    }
+}
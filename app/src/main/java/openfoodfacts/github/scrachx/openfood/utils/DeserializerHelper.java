@@ -49,8 +49,18 @@ public class DeserializerHelper {
      * @param key get the JsonNode for the given key
      */
     public static List<String> extractChildNodeAsText(Map.Entry<String, JsonNode> subNode, String key) {
+        return extractChildNodeAsText(subNode.getValue(), key);
+    }
+
+    /**
+     * Extracts child nodes from a taxonomy entry
+     *
+     * @param entry the taxonomy entry node
+     * @param key get the JsonNode for the given key
+     */
+    public static List<String> extractChildNodeAsText(JsonNode entry, String key) {
         List<String> stringList = new ArrayList<>();
-        JsonNode jsonNode = subNode.getValue().get(key);
+        JsonNode jsonNode = entry.get(key);
         if (jsonNode != null) {
             Iterator<JsonNode> parentsElementsIterator = jsonNode.elements();
             while (parentsElementsIterator.hasNext()) {
@@ -1,7 +1,5 @@
 package openfoodfacts.github.scrachx.openfood.utils;
 
-import android.os.Bundle;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
@@ -15,11 +13,7 @@ public class FragmentUtils {
 
     @Nullable
     public static ProductState getStateFromArguments(@NonNull Fragment fragment) {
-        final Bundle args = fragment.getArguments();
-        if (args == null) {
-            return null;
-        }
-        return (ProductState) args.getSerializable("state");
+        return ProductRegistry.getState(fragment.getArguments(), "state");
     }
 
     @NonNull
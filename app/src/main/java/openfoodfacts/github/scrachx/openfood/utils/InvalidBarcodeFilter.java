@@ -0,0 +1,84 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * In memory set of the invalid barcodes, so that scanned barcodes can be checked on each decoded frame
+ * without querying the database.
+ * <p>
+ * Numeric barcodes (nearly all of them) are stored as a sorted array of longs, with their length
+ * so that leading zeros are not lost. The others are kept in a hash set.
+ */
+public final class InvalidBarcodeFilter {
+    public static final InvalidBarcodeFilter EMPTY = new InvalidBarcodeFilter(new long[0], Collections.emptySet());
+    /**
+     * Longer numeric barcodes do not fit in a long with their length.
+     */
+    private static final int MAX_PACKED_LENGTH = 17;
+    private static final int LENGTH_BITS = 5;
+    private final long[] packedBarcodes;
+    private final Set<String> otherBarcodes;
+
+    private InvalidBarcodeFilter(long[] packedBarcodes, Set<String> otherBarcodes) {
+        this.packedBarcodes = packedBarcodes;
+        this.otherBarcodes = otherBarcodes;
+    }
+
+    @NonNull
+    public static InvalidBarcodeFilter of(@NonNull Collection<String> barcodes) {
+        long[] packed = new long[barcodes.size()];
+        int packedCount = 0;
+        Set<String> others = new HashSet<>();
+        for (String barcode : barcodes) {
+            long packedBarcode = pack(barcode);
+            if (packedBarcode >= 0) {
+                packed[packedCount++] = packedBarcode;
+            } else if (barcode != null) {
+                others.add(barcode);
+            }
+        }
+        packed = Arrays.copyOf(packed, packedCount);
+        Arrays.sort(packed);
+        return new InvalidBarcodeFilter(packed, others.isEmpty() ? Collections.emptySet() : others);
+    }
+
+    public boolean contains(@Nullable String barcode) {
+        if (barcode == null) {
+            return false;
+        }
+        long packedBarcode = pack(barcode);
+        if (packedBarcode >= 0) {
+            return Arrays.binarySearch(packedBarcodes, packedBarcode) >= 0;
+        }
+        return otherBarcodes.contains(barcode);
+    }
+
+    public int size() {
+        return packedBarcodes.length + otherBarcodes.size();
+    }
+
+    /**
+     * @return the digits of the barcode followed by its length, or -1 if the barcode is not numeric or too long
+     */
+    private static long pack(@Nullable String barcode) {
+        if (barcode == null || barcode.isEmpty() || barcode.length() > MAX_PACKED_LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < barcode.length(); i++) {
+            char c = barcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (value << LENGTH_BITS) | barcode.length();
+    }
+}
@@ -0,0 +1,248 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import androidx.annotation.NonNull;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Finds all the occurrences of a set of words or phrases in a text in a single pass, whatever the number of
+ * patterns (Aho-Corasick automaton). The matching ignores the case and only matches whole words.
+ * <p>
+ * Building the automaton costs more than a search, so the matchers are kept by {@link #forPatterns(Collection, String)}.
+ */
+public class MultiPatternMatcher {
+    private static final int CACHE_SIZE = 8;
+    private static final Map<String, MultiPatternMatcher> CACHE = new LinkedHashMap<String, MultiPatternMatcher>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MultiPatternMatcher> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    /**
+     * Transitions of each state while the automaton is built, the root being state 0.
+     */
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<Integer> failures = new ArrayList<>();
+    /**
+     * Lengths of the patterns ending at each state, including the ones reached through the failure links.
+     */
+    private final List<int[]> outputs = new ArrayList<>();
+    /**
+     * Characters of the transitions of each state, sorted for a binary search, with their target in {@link #targets}.
+     * The search uses these rather than the maps to avoid boxing a character for each lookup.
+     */
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] failureStates;
+
+    public MultiPatternMatcher(@NonNull Collection<String> patterns) {
+        addState();
+        for (String pattern : patterns) {
+            if (!pattern.isEmpty()) {
+                addPattern(pattern);
+            }
+        }
+        buildFailures();
+
+        int states = transitions.size();
+        keys = new char[states][];
+        targets = new int[states][];
+        failureStates = new int[states];
+        for (int state = 0; state < states; state++) {
+            List<Character> chars = new ArrayList<>(transitions.get(state).keySet());
+            Collections.sort(chars);
+            keys[state] = new char[chars.size()];
+            targets[state] = new int[chars.size()];
+            for (int i = 0; i < chars.size(); i++) {
+                keys[state][i] = chars.get(i);
+                targets[state][i] = transitions.get(state).get(chars.get(i));
+            }
+            failureStates[state] = failures.get(state);
+        }
+        transitions.clear();
+        failures.clear();
+    }
+
+    /**
+     * @param languageCode language of the patterns, the same patterns in another language give another matcher
+     * @return a matcher for the patterns, shared with the previous callers which asked for the same ones
+     */
+    @NonNull
+    public static MultiPatternMatcher forPatterns(@NonNull Collection<String> patterns, @NonNull String languageCode) {
+        String key = languageCode + '\n' + StringUtils.join(new TreeSet<>(patterns), '\n');
+        synchronized (CACHE) {
+            MultiPatternMatcher matcher = CACHE.get(key);
+            if (matcher == null) {
+                matcher = new MultiPatternMatcher(patterns);
+                CACHE.put(key, matcher);
+            }
+            return matcher;
+        }
+    }
+
+    /**
+     * @return the occurrences of the patterns, sorted and not overlapping: when two occurrences overlap, the one
+     * starting first is kept, or the longest if they start at the same position
+     */
+    @NonNull
+    public List<Match> findAll(@NonNull CharSequence text) {
+        List<Match> candidates = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = getTransition(state, c);
+            while (next < 0 && state != 0) {
+                state = failureStates[state];
+                next = getTransition(state, c);
+            }
+            state = Math.max(next, 0);
+            for (int length : outputs.get(state)) {
+                int start = i - length + 1;
+                if (isWordStart(text, start) && isWordEnd(text, i + 1)) {
+                    candidates.add(new Match(start, i + 1));
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Collections.sort(candidates, (m1, m2) -> m1.start != m2.start ? Integer.compare(m1.start, m2.start) : Integer.compare(m2.end, m1.end));
+        List<Match> matches = new ArrayList<>();
+        int lastEnd = -1;
+        for (Match candidate : candidates) {
+            if (candidate.start >= lastEnd) {
+                matches.add(candidate);
+                lastEnd = candidate.end;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the target of the transition, or -1 if the state has none for this character
+     */
+    private int getTransition(int state, char c) {
+        int index = Arrays.binarySearch(keys[state], c);
+        return index < 0 ? -1 : targets[state][index];
+    }
+
+    private void addPattern(@NonNull String pattern) {
+        int state = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = Character.toLowerCase(pattern.charAt(i));
+            Integer next = transitions.get(state).get(c);
+            if (next == null) {
+                next = addState();
+                transitions.get(state).put(c, next);
+            }
+            state = next;
+        }
+        outputs.set(state, append(outputs.get(state), pattern.length()));
+    }
+
+    private int addState() {
+        transitions.add(new HashMap<>());
+        failures.add(0);
+        outputs.add(new int[0]);
+        return transitions.size() - 1;
+    }
+
+    /**
+     * Links each state to the state of its longest suffix, in breadth first order so that the suffixes are done first.
+     */
+    private void buildFailures() {
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                int child = transition.getValue();
+                queue.add(child);
+                int failure = failures.get(state);
+                Integer next = transitions.get(failure).get(transition.getKey());
+                while (next == null && failure != 0) {
+                    failure = failures.get(failure);
+                    next = transitions.get(failure).get(transition.getKey());
+                }
+                int childFailure = next == null || next == child ? 0 : next;
+                failures.set(child, childFailure);
+                for (int length : outputs.get(childFailure)) {
+                    outputs.set(child, append(outputs.get(child), length));
+                }
+            }
+        }
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, values.length);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static boolean isWordStart(@NonNull CharSequence text, int start) {
+        return start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+    }
+
+    private static boolean isWordEnd(@NonNull CharSequence text, int end) {
+        return end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+    }
+
+    /**
+     * Occurrence of a pattern in a text.
+     */
+    public static class Match {
+        private final int start;
+        private final int end;
+
+        Match(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return the index after the last character of the occurrence
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Match)) {
+                return false;
+            }
+            Match match = (Match) o;
+            return start == match.start && end == match.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * start + end;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Match{" + start + ", " + end + '}';
+        }
+    }
+}
@@ -12,8 +12,11 @@ import org.greenrobot.greendao.database.Database;
 
 import openfoodfacts.github.scrachx.openfood.models.DaoMaster;
 import openfoodfacts.github.scrachx.openfood.models.InvalidBarcodeDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.CachedProductDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProductDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.ProductListsDao;
+import openfoodfacts.github.scrachx.openfood.models.entities.TaxonomyEntryHashDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.ToUploadProductDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.YourListedProductDao;
 import openfoodfacts.github.scrachx.openfood.models.entities.additive.AdditiveDao;
@@ -178,6 +181,50 @@ public class OFFDatabaseHelper extends DaoMaster.OpenHelper {
                 db.execSQL("ALTER TABLE COUNTRY ADD COLUMN 'CC3' TEXT");
                 break;
             }
+            case 19:
+                TaxonomyEntryHashDao.createTable(db, true);
+                break;
+            case 20:
+                migrateOfflineProductDetailsToJson(db);
+                break;
+            case 21:
+                db.execSQL("CREATE INDEX IF NOT EXISTS IDX_HISTORY_PRODUCT_LAST_SEEN ON HISTORY_PRODUCT (LAST_SEEN DESC);");
+                break;
+            case 22:
+                CachedProductDao.createTable(db, true);
+                break;
+            case 23:
+                for (String table : new String[]{OfflineSavedProductDao.TABLENAME, ToUploadProductDao.TABLENAME}) {
+                    db.execSQL(String.format("ALTER TABLE %s ADD COLUMN 'UPLOAD_ATTEMPTS' INTEGER NOT NULL DEFAULT 0;", table));
+                    db.execSQL(String.format("ALTER TABLE %s ADD COLUMN 'NEXT_UPLOAD_ATTEMPT' INTEGER NOT NULL DEFAULT 0;", table));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Rewrites the details of the offline products from java serialization to json.
+     * <p>
+     * The details which cannot be decoded are left untouched rather than lost, they are still decoded when read.
+     */
+    static void migrateOfflineProductDetailsToJson(@NonNull Database db) {
+        final String table = OfflineSavedProductDao.TABLENAME;
+        final String idColumn = OfflineSavedProductDao.Properties.Id.columnName;
+        final String detailsColumn = OfflineSavedProductDao.Properties.ProductDetails.columnName;
+        try (Cursor cursor = db.rawQuery(String.format("SELECT %s, %s FROM %s", idColumn, detailsColumn, table), null)) {
+            while (cursor.moveToNext()) {
+                final String details = cursor.getString(1);
+                if (details == null || OfflineSavedProduct.isJsonDetails(details)) {
+                    continue;
+                }
+                final String jsonDetails = OfflineSavedProduct.encodeDetails(OfflineSavedProduct.decodeDetails(details));
+                if (jsonDetails == null) {
+                    Log.w("greenDAO", "Could not migrate the details of the offline product " + cursor.getLong(0));
+                    continue;
+                }
+                db.execSQL(String.format("UPDATE %s SET %s = ? WHERE %s = ?", table, detailsColumn, idColumn),
+                    new Object[]{jsonDetails, cursor.getLong(0)});
+            }
         }
     }
 
@@ -3,29 +3,31 @@ package openfoodfacts.github.scrachx.openfood.utils;
 import android.text.TextUtils;
 import android.util.Log;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
 import org.greenrobot.eventbus.EventBus;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import io.reactivex.Completable;
 import io.reactivex.Single;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
 import openfoodfacts.github.scrachx.openfood.images.ProductImage;
+import openfoodfacts.github.scrachx.openfood.jobs.UploadEngine;
 import openfoodfacts.github.scrachx.openfood.models.ProductImageField;
-import openfoodfacts.github.scrachx.openfood.models.ProductState;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProduct;
 import openfoodfacts.github.scrachx.openfood.models.entities.OfflineSavedProductDao;
 import openfoodfacts.github.scrachx.openfood.models.eventbus.ProductNeedsRefreshEvent;
 import openfoodfacts.github.scrachx.openfood.network.ApiFields;
 import openfoodfacts.github.scrachx.openfood.network.CommonApiManager;
 import openfoodfacts.github.scrachx.openfood.network.OpenFoodAPIClient;
+import openfoodfacts.github.scrachx.openfood.network.ProductCache;
 import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
 
 public class OfflineProductService {
@@ -70,41 +72,58 @@ public class OfflineProductService {
     }
 
     /**
+     * Uploads the offline products, a few at the same time. The products which fail are retried with a backoff.
+     *
      * @return true if there is still products to upload, false otherwise
      */
     public Single<Boolean> uploadAll(boolean includeImages) {
-        return Single.fromCallable(() -> {
-            final List<OfflineSavedProduct> listSaveProduct = OfflineProductService.getListOfflineProducts();
-
-            for (final OfflineSavedProduct product : listSaveProduct) {
-                if (TextUtils.isEmpty(product.getBarcode())) {
-                    Log.d(LOG_TAG, "Ignore product because empty barcode: " + product.toString());
-                    continue;
-                }
-
-                Log.d(LOG_TAG, "Start treating of product " + product.toString());
+        return Single.fromCallable(() -> getProductsToUpload(includeImages))
+            .flatMap(products -> new UploadEngine<OfflineSavedProduct>(UploadEngine.DEFAULT_PARALLELISM,
+                product -> upload(product, includeImages),
+                product -> getOfflineProductDAO().insertOrReplace(product))
+                .upload(products))
+            .map(result -> {
+                Log.d(LOG_TAG, "Offline products upload with includeImages " + includeImages + ": " + result);
+                return result.hasRemaining();
+            });
+    }
 
-                try {
-                    boolean ok = addProductToServerIfNeeded(product);
+    private static List<OfflineSavedProduct> getProductsToUpload(boolean includeImages) {
+        final List<OfflineSavedProduct> products = new ArrayList<>();
+        for (OfflineSavedProduct product : includeImages ? getListOfflineProducts() : getListOfflineProductsWithoutDataSynced()) {
+            if (TextUtils.isEmpty(product.getBarcode())) {
+                Log.d(LOG_TAG, "Ignore product because empty barcode: " + product.toString());
+                continue;
+            }
+            products.add(product);
+        }
+        return products;
+    }
 
-                    if (includeImages) {
-                        ok = ok && uploadImageIfNeeded(product, ProductImageField.FRONT);
-                        ok = ok && uploadImageIfNeeded(product, ProductImageField.INGREDIENTS);
-                        ok = ok && uploadImageIfNeeded(product, ProductImageField.NUTRITION);
+    /**
+     * Uploads what is left of a product, each step being saved so that the upload resumes from there.
+     */
+    private Completable upload(OfflineSavedProduct product, boolean includeImages) {
+        Log.d(LOG_TAG, "Start treating of product " + product.toString());
 
-                        if (ok) {
-                            OfflineProductService.getOfflineProductDAO().deleteByKey(product.getId());
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.e(LOG_TAG, "Error getting the product", e);
-                }
-            }
-            if (includeImages) {
-                return !OfflineProductService.getListOfflineProducts().isEmpty();
-            }
-            return !OfflineProductService.getListOfflineProductsWithoutDataSynced().isEmpty();
-        });
+        // Decoded once for all the steps, which update it
+        final Map<String, String> productDetails = product.getProductDetailsMap();
+        if (productDetails == null) {
+            return Completable.error(new IOException("No details for product " + product.getBarcode()));
+        }
+        Completable upload = addProductToServerIfNeeded(product, productDetails);
+        if (includeImages) {
+            return upload
+                .andThen(uploadImageIfNeeded(product, productDetails, ProductImageField.FRONT))
+                .andThen(uploadImageIfNeeded(product, productDetails, ProductImageField.INGREDIENTS))
+                .andThen(uploadImageIfNeeded(product, productDetails, ProductImageField.NUTRITION))
+                .andThen(Completable.fromAction(() -> getOfflineProductDAO().deleteByKey(product.getId())));
+        }
+        return upload.andThen(Completable.fromAction(() -> {
+            product.setUploadAttempts(0);
+            product.setNextUploadAttempt(0);
+            getOfflineProductDAO().insertOrReplace(product);
+        }));
     }
 
     /**
@@ -112,54 +131,47 @@ public class OfflineProductService {
      *
      * @param product The offline product to be uploaded to the server.
      */
-    private boolean addProductToServerIfNeeded(OfflineSavedProduct product) {
-        if (product.getIsDataUploaded()) {
-            return true;
-        }
-
-        HashMap<String, String> productDetails = product.getProductDetailsMap();
-        // Remove the images from the HashMap before uploading the product details
-        productDetails.remove(ApiFields.Keys.IMAGE_FRONT);
-        productDetails.remove(ApiFields.Keys.IMAGE_INGREDIENTS);
-        productDetails.remove(ApiFields.Keys.IMAGE_NUTRITION);
-        // Remove the status of the images from the HashMap before uploading the product details
-        productDetails.remove(ApiFields.Keys.IMAGE_FRONT_UPLOADED);
-        productDetails.remove(ApiFields.Keys.IMAGE_INGREDIENTS_UPLOADED);
-        productDetails.remove(ApiFields.Keys.IMAGE_NUTRITION_UPLOADED);
-
-        Iterator<Map.Entry<String, String>> it = productDetails.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, String> entry = it.next();
-            if (TextUtils.isEmpty(entry.getValue())) {
-                //remove null values
-                it.remove();
+    private Completable addProductToServerIfNeeded(OfflineSavedProduct product, Map<String, String> details) {
+        return Completable.defer(() -> {
+            if (product.getIsDataUploaded()) {
+                return Completable.complete();
             }
-        }
-
-        Log.d(LOG_TAG, product.getBarcode() + " Uploading data: " + productDetails.toString());
-
-        try {
-            ProductState productState = apiClient
-                .saveProductSingle(product.getBarcode(), productDetails, OpenFoodAPIClient.getCommentToUpload())
-                .blockingGet();
 
-            boolean isResponseOk = productState.getStatus() == 1;
-
-            if (isResponseOk) {
-                product.setIsDataUploaded(true);
-                OfflineProductService.getOfflineProductDAO().insertOrReplace(product);
-                Log.i(LOG_TAG, "product " + product.getBarcode() + " uploaded");
+            Map<String, String> productDetails = new HashMap<>(details);
+            // Remove the images from the HashMap before uploading the product details
+            productDetails.remove(ApiFields.Keys.IMAGE_FRONT);
+            productDetails.remove(ApiFields.Keys.IMAGE_INGREDIENTS);
+            productDetails.remove(ApiFields.Keys.IMAGE_NUTRITION);
+            // Remove the status of the images from the HashMap before uploading the product details
+            productDetails.remove(ApiFields.Keys.IMAGE_FRONT_UPLOADED);
+            productDetails.remove(ApiFields.Keys.IMAGE_INGREDIENTS_UPLOADED);
+            productDetails.remove(ApiFields.Keys.IMAGE_NUTRITION_UPLOADED);
+
+            Iterator<Map.Entry<String, String>> it = productDetails.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, String> entry = it.next();
+                if (TextUtils.isEmpty(entry.getValue())) {
+                    //remove null values
+                    it.remove();
+                }
+            }
 
-                EventBus.getDefault().post(new ProductNeedsRefreshEvent(product.getBarcode()));
+            Log.d(LOG_TAG, product.getBarcode() + " Uploading data: " + productDetails.toString());
 
-                return true;
-            } else {
-                Log.i(LOG_TAG, "could not upload product?");
-            }
-        } catch (Exception e) {
-            Log.e(LOG_TAG, e.getMessage(), e);
-        }
-        return false;
+            return apiClient.saveProductSingle(product.getBarcode(), productDetails, OpenFoodAPIClient.getCommentToUpload())
+                .flatMapCompletable(productState -> {
+                    if (productState.getStatus() != 1) {
+                        return Completable.error(new IOException("could not upload product " + product.getBarcode()));
+                    }
+                    product.setIsDataUploaded(true);
+                    OfflineProductService.getOfflineProductDAO().insertOrReplace(product);
+                    Log.i(LOG_TAG, "product " + product.getBarcode() + " uploaded");
+
+                    ProductCache.getInstance().invalidate(product.getBarcode());
+                    EventBus.getDefault().post(new ProductNeedsRefreshEvent(product.getBarcode()));
+                    return Completable.complete();
+                });
+        });
     }
 
     private static String imageTypeFromImageField(ProductImageField imageField) {
@@ -174,64 +186,56 @@ public class OfflineProductService {
         return "other";
     }
 
-    private static boolean needImageUpload(HashMap<String, String> productDetails, String imageType) {
+    private static boolean needImageUpload(Map<String, String> productDetails, String imageType) {
         boolean imageUploaded = "true".equals(productDetails.get("image_" + imageType + "_uploaded"));
         String imageFilePath = productDetails.get("image_" + imageType);
         return !imageUploaded && !TextUtils.isEmpty(imageFilePath);
     }
 
-    private boolean uploadImageIfNeeded(OfflineSavedProduct product, ProductImageField imageField) {
-        String imageType = imageTypeFromImageField(imageField);
+    private Completable uploadImageIfNeeded(OfflineSavedProduct product, Map<String, String> productDetails, ProductImageField imageField) {
+        return Completable.defer(() -> {
+            String imageType = imageTypeFromImageField(imageField);
+            String code = product.getBarcode();
+            String imageFilePath = productDetails.get("image_" + imageType);
 
-        String code = product.getBarcode();
-        HashMap<String, String> productDetails = product.getProductDetailsMap();
+            if (imageFilePath == null || !needImageUpload(productDetails, imageType)) {
+                // no need or nothing to upload
+                Log.d(LOG_TAG, "No need to upload image_" + imageType + " for product " + code);
+                return Completable.complete();
+            }
 
-        String imageFilePath = productDetails.get("image_" + imageType);
+            Log.d(LOG_TAG, "Uploading image_" + imageType + " for product " + code);
 
-        if (imageFilePath == null || !needImageUpload(productDetails, imageType)) {
-            // no need or nothing to upload
-            Log.d(LOG_TAG, "No need to upload image_" + imageType + " for product " + code);
-            return true;
-        }
+            Map<String, RequestBody> imgMap = createRequestBodyMap(code, productDetails, imageField);
+            RequestBody image = ProductImage.createImageRequest(new File(imageFilePath));
+            imgMap.put("imgupload_" + imageType + "\"; filename=\"" + imageType + "_" + product.getLanguage() + ".jpg\"", image);
 
-        Log.d(LOG_TAG, "Uploading image_" + imageType + " for product " + code);
-
-        Map<String, RequestBody> imgMap = createRequestBodyMap(code, productDetails, imageField);
-        RequestBody image = ProductImage.createImageRequest(new File(imageFilePath));
-        imgMap.put("imgupload_" + imageType + "\"; filename=\"" + imageType + "_" + product.getLanguage() + ".png\"", image);
-
-        try {
-            JsonNode jsonNode = apiClient.saveImageSingle(imgMap)
-                .blockingGet();
-            String status = jsonNode.get("status").asText();
-            if (status.equals("status not ok")) {
-                String error = jsonNode.get("error").asText();
-                if (error.equals("This picture has already been sent.")) {
-                    productDetails.put("image_" + imageType + "_uploaded", "true");
-                    product.setProductDetailsMap(productDetails);
-                    getOfflineProductDAO().insertOrReplace(product);
-                    return true;
+            return apiClient.saveImageSingle(imgMap).flatMapCompletable(jsonNode -> {
+                String status = jsonNode.get("status").asText();
+                boolean alreadySent = false;
+                if (status.equals("status not ok")) {
+                    String error = jsonNode.get("error").asText();
+                    alreadySent = error.equals("This picture has already been sent.");
+                    if (!alreadySent) {
+                        return Completable.error(new IOException("Error uploading " + imageType + ": " + error));
+                    }
                 }
-                Log.e(LOG_TAG, "Error uploading " + imageType + ": " + error);
-                return false;
-            }
-
-            productDetails.put("image_" + imageType + "_uploaded", "true");
-            product.setProductDetailsMap(productDetails);
-            getOfflineProductDAO().insertOrReplace(product);
-
-            Log.d(LOG_TAG, "Uploaded image_" + imageType + " for product " + code);
 
-            EventBus.getDefault().post(new ProductNeedsRefreshEvent(code));
+                productDetails.put("image_" + imageType + "_uploaded", "true");
+                product.setProductDetailsMap(productDetails);
+                getOfflineProductDAO().insertOrReplace(product);
 
-            return true;
-        } catch (Exception e) {
-            Log.e(LOG_TAG, e.getMessage(), e);
-            return false;
-        }
+                if (!alreadySent) {
+                    Log.d(LOG_TAG, "Uploaded image_" + imageType + " for product " + code);
+                    ProductCache.getInstance().invalidate(code);
+                    EventBus.getDefault().post(new ProductNeedsRefreshEvent(code));
+                }
+                return Completable.complete();
+            });
+        });
     }
 
-    private static Map<String, RequestBody> createRequestBodyMap(String code, HashMap<String, String> productDetails, ProductImageField front) {
+    private static Map<String, RequestBody> createRequestBodyMap(String code, Map<String, String> productDetails, ProductImageField front) {
         Map<String, RequestBody> imgMap = new HashMap<>();
         RequestBody barcode = RequestBody.create(MediaType.parse(OpenFoodAPIClient.MIME_TEXT), code);
         RequestBody imageField = RequestBody.create(MediaType.parse(OpenFoodAPIClient.MIME_TEXT), front.toString() + '_' + productDetails.get("lang"));
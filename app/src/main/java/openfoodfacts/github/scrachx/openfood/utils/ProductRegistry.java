@@ -0,0 +1,183 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import openfoodfacts.github.scrachx.openfood.models.Product;
+import openfoodfacts.github.scrachx.openfood.models.ProductHandle;
+import openfoodfacts.github.scrachx.openfood.models.ProductState;
+
+/**
+ * Keeps in memory the products handed from a screen to another, so that only a {@link ProductHandle} goes through the
+ * intents and the fragment arguments. Serializing a whole product at each transition was slow, and big products did
+ * not fit in a binder transaction.
+ * <p>
+ * The screens share the same product instances, which must then not be modified. A product is kept until the screen
+ * which got its handle releases it when finishing, and the fragments of a screen are given the handle of the screen
+ * rather than a new one. A product which is not found anymore, after the process was killed, is replaced by a stub
+ * rebuilt from its handle.
+ */
+public class ProductRegistry {
+    private static ProductRegistry instance;
+    private final Map<String, ProductState> states = new HashMap<>();
+
+    ProductRegistry() {
+    }
+
+    public static synchronized ProductRegistry getInstance() {
+        if (instance == null) {
+            instance = new ProductRegistry();
+        }
+        return instance;
+    }
+
+    @NonNull
+    public synchronized ProductHandle register(@NonNull ProductState state) {
+        ProductHandle handle = new ProductHandle(UUID.randomUUID().toString(), state);
+        states.put(handle.getId(), state);
+        return handle;
+    }
+
+    @NonNull
+    public ProductHandle register(@NonNull Product product) {
+        return register(new ProductState().withStatus(1).withCode(product.getCode()).withProduct(product));
+    }
+
+    /**
+     * @return the registered state, or a stub if the registry lost it
+     */
+    @Nullable
+    public synchronized ProductState getState(@Nullable ProductHandle handle) {
+        if (handle == null) {
+            return null;
+        }
+        ProductState state = states.get(handle.getId());
+        return state != null ? state : handle.toStubState();
+    }
+
+    @Nullable
+    public Product getProduct(@Nullable ProductHandle handle) {
+        ProductState state = getState(handle);
+        return state != null ? state.getProduct() : null;
+    }
+
+    /**
+     * @return false if the product of the handle was lost, and {@link #getState(ProductHandle)} returns a stub
+     */
+    public synchronized boolean isRegistered(@Nullable ProductHandle handle) {
+        return handle != null && states.containsKey(handle.getId());
+    }
+
+    /**
+     * Replaces the state of a handle, so that the screens and fragments having this handle get the new state.
+     *
+     * @return a handle with the same id, with the fields of the new state for the stub
+     */
+    @NonNull
+    public synchronized ProductHandle update(@NonNull ProductHandle handle, @NonNull ProductState state) {
+        states.put(handle.getId(), state);
+        return new ProductHandle(handle.getId(), state);
+    }
+
+    public synchronized void release(@Nullable ProductHandle handle) {
+        if (handle != null) {
+            states.remove(handle.getId());
+        }
+    }
+
+    public static void putState(@NonNull Intent intent, @NonNull String key, @Nullable ProductState state) {
+        intent.putExtra(key, state != null ? getInstance().register(state) : null);
+    }
+
+    public static void putState(@NonNull Bundle bundle, @NonNull String key, @Nullable ProductState state) {
+        bundle.putParcelable(key, state != null ? getInstance().register(state) : null);
+    }
+
+    public static void putProduct(@NonNull Intent intent, @NonNull String key, @Nullable Product product) {
+        intent.putExtra(key, product != null ? getInstance().register(product) : null);
+    }
+
+    public static void putProduct(@NonNull Bundle bundle, @NonNull String key, @Nullable Product product) {
+        bundle.putParcelable(key, product != null ? getInstance().register(product) : null);
+    }
+
+    public static void putProducts(@NonNull Intent intent, @NonNull String key, @NonNull List<Product> products) {
+        ArrayList<ProductHandle> handles = new ArrayList<>(products.size());
+        for (Product product : products) {
+            handles.add(getInstance().register(product));
+        }
+        intent.putParcelableArrayListExtra(key, handles);
+    }
+
+    /**
+     * Replaces the state of the extra, keeping its handle, or registers it if there is none.
+     */
+    public static void updateState(@NonNull Intent intent, @NonNull String key, @NonNull ProductState state) {
+        ProductHandle handle = intent.getParcelableExtra(key);
+        intent.putExtra(key, handle != null ? getInstance().update(handle, state) : getInstance().register(state));
+    }
+
+    /**
+     * Replaces the state of the argument, keeping its handle, or registers it if there is none.
+     */
+    public static void updateState(@NonNull Bundle bundle, @NonNull String key, @NonNull ProductState state) {
+        ProductHandle handle = bundle.getParcelable(key);
+        bundle.putParcelable(key, handle != null ? getInstance().update(handle, state) : getInstance().register(state));
+    }
+
+    @Nullable
+    public static ProductState getState(@Nullable Bundle bundle, @NonNull String key) {
+        return bundle != null ? getInstance().getState((ProductHandle) bundle.getParcelable(key)) : null;
+    }
+
+    @Nullable
+    public static Product getProduct(@Nullable Bundle bundle, @NonNull String key) {
+        return bundle != null ? getInstance().getProduct((ProductHandle) bundle.getParcelable(key)) : null;
+    }
+
+    /**
+     * @return null if there is no such list
+     */
+    @Nullable
+    public static ArrayList<Product> getProducts(@Nullable Bundle bundle, @NonNull String key) {
+        ArrayList<ProductHandle> handles = bundle != null ? bundle.getParcelableArrayList(key) : null;
+        if (handles == null) {
+            return null;
+        }
+        ArrayList<Product> products = new ArrayList<>(handles.size());
+        for (ProductHandle handle : handles) {
+            products.add(getInstance().getProduct(handle));
+        }
+        return products;
+    }
+
+    /**
+     * Releases the product of the given extra, to be called by the screen which got it when it finishes.
+     */
+    public static void release(@Nullable Bundle bundle, @NonNull String key) {
+        if (bundle != null) {
+            getInstance().release((ProductHandle) bundle.getParcelable(key));
+        }
+    }
+
+    /**
+     * Releases the products of the given list extra, to be called by the screen which got it when it finishes.
+     */
+    public static void releaseAll(@Nullable Bundle bundle, @NonNull String key) {
+        ArrayList<ProductHandle> handles = bundle != null ? bundle.getParcelableArrayList(key) : null;
+        if (handles != null) {
+            for (ProductHandle handle : handles) {
+                getInstance().release(handle);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * How the scan history and the product lists are sorted. The key is what is saved in the preferences.
+ */
+public enum ProductSortType {
+    NONE("none"),
+    TITLE("title"),
+    BRAND("brand"),
+    GRADE("grade"),
+    TIME("time"),
+    BARCODE("barcode");
+    /**
+     * Products without nutrition grade are sorted with the ones graded E.
+     */
+    public static final String DEFAULT_GRADE = "E";
+    private final String key;
+
+    ProductSortType(String key) {
+        this.key = key;
+    }
+
+    @NonNull
+    public static ProductSortType fromKey(@Nullable String key) {
+        for (ProductSortType type : ProductSortType.values()) {
+            if (type.getKey().equals(key)) {
+                return type;
+            }
+        }
+        return NONE;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
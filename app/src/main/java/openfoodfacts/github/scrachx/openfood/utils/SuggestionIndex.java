@@ -0,0 +1,225 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * In memory index of the names of a taxonomy, to suggest names while the user types without querying the
+ * database or filtering the whole list on each keystroke.
+ * <p>
+ * The names are matched by the prefix of any of their words, ignoring case and accents. Each word start is
+ * referenced by the entry and the offset in its normalized name, and these references are sorted so that the
+ * ones matching a prefix are found by binary search. The suggestions are ranked by weight (the popularity of
+ * the entry when it is known), then names starting with the prefix first, then shorter names first.
+ */
+public final class SuggestionIndex {
+    public static final SuggestionIndex EMPTY = new SuggestionIndex(new String[0], new String[0], new int[0], new int[0], new int[0]);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private final String[] names;
+    private final String[] normalizedNames;
+    private final int[] weights;
+    /**
+     * Entry of each word start, sorted with {@link #offsets} by the normalized name from the word start
+     */
+    private final int[] entries;
+    private final int[] offsets;
+
+    private SuggestionIndex(String[] names, String[] normalizedNames, int[] weights, int[] entries, int[] offsets) {
+        this.names = names;
+        this.normalizedNames = normalizedNames;
+        this.weights = weights;
+        this.entries = entries;
+        this.offsets = offsets;
+    }
+
+    @NonNull
+    public static SuggestionIndex of(@NonNull List<String> names) {
+        return of(names, null);
+    }
+
+    /**
+     * @param names the names to suggest, null and blank names are ignored
+     * @param weights the popularity of each name, or null if it is unknown
+     */
+    @NonNull
+    public static SuggestionIndex of(@NonNull List<String> names, @Nullable int[] weights) {
+        if (weights != null && weights.length != names.size()) {
+            throw new IllegalArgumentException("Expected " + names.size() + " weights, got " + weights.length);
+        }
+        List<String> keptNames = new ArrayList<>(names.size());
+        List<String> keptNormalizedNames = new ArrayList<>(names.size());
+        int[] keptWeights = new int[names.size()];
+        List<long[]> wordStarts = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name == null || name.trim().isEmpty()) {
+                continue;
+            }
+            String normalizedName = normalize(name);
+            int entry = keptNames.size();
+            keptNames.add(name);
+            keptNormalizedNames.add(normalizedName);
+            keptWeights[entry] = weights != null ? weights[i] : 0;
+            for (int offset = 0; offset < normalizedName.length(); offset++) {
+                if (isWordStart(normalizedName, offset)) {
+                    wordStarts.add(new long[]{entry, offset});
+                }
+            }
+        }
+        if (keptNames.isEmpty()) {
+            return EMPTY;
+        }
+        String[] normalizedNames = keptNormalizedNames.toArray(new String[0]);
+        Collections.sort(wordStarts, (a, b) -> compareFrom(normalizedNames[(int) a[0]], (int) a[1], normalizedNames[(int) b[0]], (int) b[1]));
+        int[] entries = new int[wordStarts.size()];
+        int[] offsets = new int[wordStarts.size()];
+        for (int i = 0; i < wordStarts.size(); i++) {
+            entries[i] = (int) wordStarts.get(i)[0];
+            offsets[i] = (int) wordStarts.get(i)[1];
+        }
+        return new SuggestionIndex(keptNames.toArray(new String[0]), normalizedNames, Arrays.copyOf(keptWeights, keptNames.size()),
+            entries, offsets);
+    }
+
+    /**
+     * @return the names having a word starting with the prefix, the best ranked first
+     */
+    @NonNull
+    public List<String> find(@Nullable CharSequence prefix, int limit) {
+        if (prefix == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String key = normalize(prefix.toString());
+        int start = 0;
+        while (start < key.length() && Character.isWhitespace(key.charAt(start))) {
+            start++;
+        }
+        if (start == key.length()) {
+            return Collections.emptyList();
+        }
+        key = key.substring(start);
+
+        // Best ranked matches first, at most limit of them
+        int[] bestEntries = new int[limit];
+        int[] bestOffsets = new int[limit];
+        int count = 0;
+        for (int i = firstMatch(key); i < entries.length && normalizedNames[entries[i]].startsWith(key, offsets[i]); i++) {
+            int entry = entries[i];
+            int offset = offsets[i];
+            int existing = indexOf(bestEntries, count, entry);
+            if (existing >= 0) {
+                if (offset != 0) {
+                    continue;
+                }
+                // Same entry matched again from its start, which ranks better
+                System.arraycopy(bestEntries, existing + 1, bestEntries, existing, count - existing - 1);
+                System.arraycopy(bestOffsets, existing + 1, bestOffsets, existing, count - existing - 1);
+                count--;
+            } else if (count == limit && compareRank(entry, offset, bestEntries[count - 1], bestOffsets[count - 1]) >= 0) {
+                continue;
+            }
+            int position = count < limit ? count : limit - 1;
+            while (position > 0 && compareRank(entry, offset, bestEntries[position - 1], bestOffsets[position - 1]) < 0) {
+                if (position < limit) {
+                    bestEntries[position] = bestEntries[position - 1];
+                    bestOffsets[position] = bestOffsets[position - 1];
+                }
+                position--;
+            }
+            bestEntries[position] = entry;
+            bestOffsets[position] = offset;
+            count = Math.min(count + 1, limit);
+        }
+
+        List<String> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            suggestions.add(names[bestEntries[i]]);
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return the number of names in the index
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the text in lower case, without accents
+     */
+    @NonNull
+    static String normalize(@NonNull String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+            .toLowerCase(Locale.ROOT)
+            .replace("œ", "oe")
+            .replace("æ", "ae")
+            .replace("ß", "ss");
+    }
+
+    private static boolean isWordStart(String text, int offset) {
+        return Character.isLetterOrDigit(text.charAt(offset)) && (offset == 0 || !Character.isLetterOrDigit(text.charAt(offset - 1)));
+    }
+
+    /**
+     * @return the position of the first word start not before the key
+     */
+    private int firstMatch(String key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareFrom(normalizedNames[entries[middle]], offsets[middle], key, 0) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compareFrom(String a, int offsetA, String b, int offsetB) {
+        int lengthA = a.length() - offsetA;
+        int lengthB = b.length() - offsetB;
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            char charA = a.charAt(offsetA + i);
+            char charB = b.charAt(offsetB + i);
+            if (charA != charB) {
+                return charA - charB;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private int compareRank(int entryA, int offsetA, int entryB, int offsetB) {
+        if (weights[entryA] != weights[entryB]) {
+            return weights[entryA] > weights[entryB] ? -1 : 1;
+        }
+        if ((offsetA == 0) != (offsetB == 0)) {
+            return offsetA == 0 ? -1 : 1;
+        }
+        if (names[entryA].length() != names[entryB].length()) {
+            return names[entryA].length() - names[entryB].length();
+        }
+        return normalizedNames[entryA].compareTo(normalizedNames[entryB]);
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
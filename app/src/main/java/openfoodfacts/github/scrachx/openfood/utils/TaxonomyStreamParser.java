@@ -0,0 +1,125 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token based reader for taxonomy json files (ingredients.json, categories.json...).
+ * <p>
+ * Taxonomy files are one big object where each field is a tag and its value the entry.
+ * Instead of building a tree of the whole file, only one entry at a time is materialized,
+ * so the memory used is bounded by the size of an entry (or of a batch of entries).
+ */
+public class TaxonomyStreamParser {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private TaxonomyStreamParser() {
+        // Utility class
+    }
+
+    /**
+     * Called for each entry of the taxonomy.
+     */
+    public interface EntryCallback {
+        void onEntry(@NonNull String tag, @NonNull JsonNode entry) throws IOException;
+    }
+
+    /**
+     * Maps a taxonomy entry to an object, or returns null to skip it.
+     */
+    public interface EntryMapper<T> {
+        @Nullable
+        T map(@NonNull String tag, @NonNull JsonNode entry);
+    }
+
+    /**
+     * Receives the mapped entries by batches. The list is reused after the call, do not keep it.
+     */
+    public interface BatchConsumer<T> {
+        void accept(@NonNull List<T> batch);
+    }
+
+    /**
+     * Iterates over the entries of the taxonomy object the parser is on (or just before).
+     * The parser must have a codec.
+     *
+     * @return the number of entries read
+     */
+    public static int forEachEntry(@NonNull JsonParser jp, @NonNull EntryCallback callback) throws IOException {
+        JsonToken token = jp.currentToken();
+        if (token == null) {
+            token = jp.nextToken();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(jp, "Expected a taxonomy object, got " + token);
+        }
+
+        int count = 0;
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            final String tag = jp.getCurrentName();
+            if (jp.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode entry = jp.readValueAsTree();
+                callback.onEntry(tag, entry);
+                count++;
+            } else {
+                jp.skipChildren();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 64 bits FNV-1a hash of the content of a taxonomy entry, used to detect which entries changed between two downloads.
+     */
+    public static long contentHash(@NonNull JsonNode entry) {
+        final String content = entry.toString();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Reads a taxonomy from a stream and sends the mapped entries to the consumer in batches of batchSize.
+     *
+     * @return the number of mapped entries
+     */
+    public static <T> int parseInBatches(@NonNull InputStream inputStream,
+                                         @NonNull EntryMapper<T> mapper,
+                                         int batchSize,
+                                         @NonNull BatchConsumer<T> consumer) throws IOException {
+        final List<T> batch = new ArrayList<>(batchSize);
+        final int[] mapped = {0};
+        try (JsonParser jp = JsonUtils.getSharedMapper().getFactory().createParser(inputStream)) {
+            forEachEntry(jp, (tag, entry) -> {
+                T item = mapper.map(tag, entry);
+                if (item == null) {
+                    return;
+                }
+                batch.add(item);
+                mapped[0]++;
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch.clear();
+                }
+            });
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+        return mapped[0];
+    }
+}
@@ -25,7 +25,6 @@ import android.content.SharedPreferences;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
@@ -62,8 +61,6 @@ import androidx.work.OneTimeWorkRequest;
 import androidx.work.WorkManager;
 
 import com.afollestad.materialdialogs.MaterialDialog;
-import com.squareup.picasso.OkHttp3Downloader;
-import com.squareup.picasso.Picasso;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -72,23 +69,12 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-import okhttp3.CipherSuite;
-import okhttp3.ConnectionSpec;
-import okhttp3.OkHttpClient;
-import okhttp3.TlsVersion;
-import okhttp3.logging.HttpLoggingInterceptor;
 import openfoodfacts.github.scrachx.openfood.BuildConfig;
 import openfoodfacts.github.scrachx.openfood.R;
 import openfoodfacts.github.scrachx.openfood.app.OFFApplication;
@@ -97,6 +83,7 @@ import openfoodfacts.github.scrachx.openfood.customtabs.WebViewFallback;
 import openfoodfacts.github.scrachx.openfood.features.LoginActivity;
 import openfoodfacts.github.scrachx.openfood.features.scan.ContinuousScanActivity;
 import openfoodfacts.github.scrachx.openfood.features.search.ProductSearchActivity;
+import openfoodfacts.github.scrachx.openfood.images.ImagePreparer;
 import openfoodfacts.github.scrachx.openfood.jobs.SavedProductUploadWorker;
 import openfoodfacts.github.scrachx.openfood.models.DaoSession;
 import openfoodfacts.github.scrachx.openfood.models.Product;
@@ -184,58 +171,17 @@ public class Utils {
         }
     }
 
+    /**
+     * @return the path of the image to upload for the photo, see {@link ImagePreparer}
+     */
     public static String compressImage(String fileUrl) {
-        Bitmap decodedBitmap = decodeFile(new File(fileUrl));
-        if (decodedBitmap == null) {
-            Log.e("COMPRESS_IMAGE", fileUrl + " not found");
-            return null;
-        }
-
-        File smallFileFront = new File(fileUrl.replace(".png", "_small.png"));
-
-        try (OutputStream fOutFront = new FileOutputStream(smallFileFront)) {
-            decodedBitmap.compress(Bitmap.CompressFormat.PNG, 100, fOutFront);
-        } catch (IOException e) {
-            Log.e("COMPRESS_IMAGE", e.getMessage(), e);
-        }
-        return smallFileFront.toString();
+        return ImagePreparer.prepare(new File(fileUrl)).getPath();
     }
 
     public static int getColor(Context context, int id) {
         return ContextCompat.getColor(context, id);
     }
 
-    /**
-     * Decodes image and scales it to reduce memory consumption
-     */
-    @Nullable
-    private static Bitmap decodeFile(@NonNull File f) {
-        try {
-            // Decode image size
-            BitmapFactory.Options o = new BitmapFactory.Options();
-            o.inJustDecodeBounds = true;
-            BitmapFactory.decodeStream(new FileInputStream(f), null, o);
-
-            // The new size we want to scale to
-            final int REQUIRED_SIZE = 1200;
-
-            // Find the correct scale value. It should be the power of 2.
-            int scale = 1;
-            while (o.outWidth / scale / 2 >= REQUIRED_SIZE &&
-                o.outHeight / scale / 2 >= REQUIRED_SIZE) {
-                scale *= 2;
-            }
-
-            // Decode with inSampleSize
-            BitmapFactory.Options o2 = new BitmapFactory.Options();
-            o2.inSampleSize = scale;
-            return BitmapFactory.decodeStream(new FileInputStream(f), null, o2);
-        } catch (FileNotFoundException e) {
-            Log.e(Utils.class.getSimpleName(), "decodeFile " + f, e);
-        }
-        return null;
-    }
-
     /**
      * Check if a certain application is installed on a device.
      *
@@ -523,39 +469,6 @@ public class Utils {
         isUploadJobInitialised = true;
     }
 
-    public static OkHttpClient httpClientBuilder() {
-        // Our servers don't support TLS 1.3 therefore we need to create custom connectionSpec
-        // with the correct ciphers to support network requests successfully on Android 7
-        ConnectionSpec connectionSpecModernTLS = new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS)
-            .tlsVersions(TlsVersion.TLS_1_2)
-            .cipherSuites(
-                CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256,
-                CipherSuite.TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384,
-                CipherSuite.TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256,
-                CipherSuite.TLS_DHE_RSA_WITH_AES_256_GCM_SHA384,
-                CipherSuite.TLS_DHE_RSA_WITH_AES_128_GCM_SHA256)
-            .build();
-
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-            .connectTimeout(CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
-            .readTimeout(RW_TIMEOUT, TimeUnit.MILLISECONDS)
-            .writeTimeout(RW_TIMEOUT, TimeUnit.MILLISECONDS)
-            .connectionSpecs(Arrays.asList(connectionSpecModernTLS, ConnectionSpec.COMPATIBLE_TLS));
-
-        if (BuildConfig.DEBUG) {
-            builder.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY));
-        } else {
-            builder.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BASIC));
-        }
-        return builder.build();
-    }
-
-    public static Picasso picassoBuilder(Context context) {
-        return new Picasso.Builder(context)
-            .downloader(new OkHttp3Downloader(Utils.httpClientBuilder()))
-            .build();
-    }
-
     public static boolean isUserLoggedIn(@NonNull Context context) {
         final SharedPreferences settings = context.getSharedPreferences("login", 0);
         final String login = settings.getString("user", "");
@@ -0,0 +1,53 @@
+package openfoodfacts.github.scrachx.openfood.features.product.view.ingredients;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import openfoodfacts.github.scrachx.openfood.models.entities.allergen.AllergenName;
+import openfoodfacts.github.scrachx.openfood.utils.MultiPatternMatcher;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for the highlighting of the allergens of {@link IngredientsProductFragment}
+ */
+public class IngredientsProductFragmentTest {
+    private static final List<String> ALLERGEN_TAGS = Arrays.asList("en:milk", "en:gluten", "en:sesame-seeds");
+
+    @Test
+    public void getAllergenNames_noLocalizedNames_namesFromTags() {
+        Set<String> names = IngredientsProductFragment.getAllergenNames(ALLERGEN_TAGS, Collections.emptyList());
+
+        assertThat(names).containsExactly("milk", "gluten", "sesame seeds");
+        assertThat(findAll(names, "Wheat flour (gluten), skimmed MILK powder, sesame seeds")).containsExactly("gluten", "MILK", "sesame seeds")
+            .inOrder();
+    }
+
+    @Test
+    public void getAllergenNames_localizedNames_highlightNonEnglishText() {
+        List<AllergenName> frenchNames = Arrays.asList(
+            new AllergenName("en:milk", "fr", "Lait"),
+            new AllergenName("en:sesame-seeds", "fr", "Graines de sésame"),
+            // Name not found in the language, replaced by its tag
+            new AllergenName("en:gluten", "fr", "en:gluten"));
+
+        Set<String> names = IngredientsProductFragment.getAllergenNames(ALLERGEN_TAGS, frenchNames);
+
+        assertThat(names).containsExactly("Lait", "Graines de sésame", "milk", "gluten", "sesame seeds");
+        assertThat(findAll(names, "Farine de blé (gluten), lait écrémé en poudre, graines de sésame"))
+            .containsExactly("gluten", "lait", "graines de sésame").inOrder();
+    }
+
+    private static List<String> findAll(Set<String> names, String text) {
+        List<String> found = new ArrayList<>();
+        for (MultiPatternMatcher.Match match : new MultiPatternMatcher(names).findAll(text)) {
+            found.add(text.substring(match.getStart(), match.getEnd()));
+        }
+        return found;
+    }
+}
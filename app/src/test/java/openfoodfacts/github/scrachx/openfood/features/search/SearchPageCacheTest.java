@@ -0,0 +1,94 @@
+package openfoodfacts.github.scrachx.openfood.features.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Single;
+import openfoodfacts.github.scrachx.openfood.models.Search;
+import openfoodfacts.github.scrachx.openfood.utils.SearchType;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link SearchPageCache}
+ */
+public class SearchPageCacheTest {
+    private static final long TTL = 1000;
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SearchPageCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new SearchPageCache(TTL, 2, now::get);
+    }
+
+    @Test
+    public void get_samePage_loadedOnce() {
+        Search first = cache.get(key(1), this::load).blockingGet();
+        Search second = cache.get(key(1), this::load).blockingGet();
+
+        assertThat(second).isSameInstanceAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_expiredPage_loadedAgain() {
+        cache.get(key(1), this::load).blockingGet();
+        now.addAndGet(TTL);
+        cache.get(key(1), this::load).blockingGet();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void get_failedPage_notCached() {
+        cache.get(key(1), () -> Single.error(new IOException())).blockingGet(new Search());
+        cache.get(key(1), this::load).blockingGet();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_tooManyPages_evictsLeastRecentlyUsed() {
+        cache.get(key(1), this::load).blockingGet();
+        cache.get(key(2), this::load).blockingGet();
+        cache.get(key(1), this::load).blockingGet();
+        cache.get(key(3), this::load).blockingGet();
+        cache.get(key(1), this::load).blockingGet();
+        cache.get(key(2), this::load).blockingGet();
+
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void invalidate_removesAllPagesOfSearch() {
+        cache.get(key(1), this::load).blockingGet();
+        cache.get(key(2), this::load).blockingGet();
+        cache.invalidate(key(1));
+        cache.get(key(2), this::load).blockingGet();
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void key_otherLanguage_notSameSearch() {
+        SearchPageCache.Key french = new SearchPageCache.Key(SearchType.BRAND, "ferrero", 0, 1, "fr");
+
+        assertThat(french).isNotEqualTo(key(1));
+        assertThat(key(1)).isEqualTo(key(1));
+    }
+
+    private static SearchPageCache.Key key(int page) {
+        return new SearchPageCache.Key(SearchType.BRAND, "ferrero", 0, page, "en");
+    }
+
+    private Single<Search> load() {
+        loads.incrementAndGet();
+        return Single.just(new Search());
+    }
+}
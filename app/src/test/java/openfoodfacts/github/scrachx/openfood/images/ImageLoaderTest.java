@@ -0,0 +1,27 @@
+package openfoodfacts.github.scrachx.openfood.images;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link ImageLoader}
+ */
+public class ImageLoaderTest {
+    private static final String BASE_URL = "https://static.openfoodfacts.org/images/products/301/762/042/2003/front_fr.248";
+
+    @Test
+    public void getUrlForSize_replacesSize() {
+        assertThat(ImageLoader.getUrlForSize(BASE_URL + ".400.jpg", ImageSize.SMALL)).isEqualTo(BASE_URL + ".200.jpg");
+        assertThat(ImageLoader.getUrlForSize(BASE_URL + ".200.jpg", ImageSize.THUMB)).isEqualTo(BASE_URL + ".100.jpg");
+        assertThat(ImageLoader.getUrlForSize(BASE_URL + ".full.jpg", ImageSize.DISPLAY)).isEqualTo(BASE_URL + ".400.jpg");
+    }
+
+    @Test
+    public void getUrlForSize_keepsOtherUrls() {
+        String localFile = "file:///storage/emulated/0/Pictures/1600000000000-front.jpg";
+
+        assertThat(ImageLoader.getUrlForSize(localFile, ImageSize.SMALL)).isEqualTo(localFile);
+        assertThat(ImageLoader.getUrlForSize(null, ImageSize.SMALL)).isNull();
+    }
+}
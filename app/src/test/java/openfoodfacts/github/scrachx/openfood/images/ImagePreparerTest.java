@@ -0,0 +1,63 @@
+package openfoodfacts.github.scrachx.openfood.images;
+
+import android.media.ExifInterface;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link ImagePreparer}
+ */
+public class ImagePreparerTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void calculateInSampleSize_keepsAtLeastMaxSize() {
+        assertThat(ImagePreparer.calculateInSampleSize(1000, 800, 2000)).isEqualTo(1);
+        assertThat(ImagePreparer.calculateInSampleSize(4000, 3000, 2000)).isEqualTo(2);
+        assertThat(ImagePreparer.calculateInSampleSize(3000, 4000, 2000)).isEqualTo(2);
+        assertThat(ImagePreparer.calculateInSampleSize(9000, 6000, 2000)).isEqualTo(4);
+    }
+
+    @Test
+    public void getScale_fitsLargestSide() {
+        assertThat(ImagePreparer.getScale(1000, 800, 2000)).isEqualTo(1f);
+        assertThat(ImagePreparer.getScale(3000, 4000, 2000)).isEqualTo(0.5f);
+    }
+
+    @Test
+    public void getRotation_fromExifOrientation() {
+        assertThat(ImagePreparer.getRotation(ExifInterface.ORIENTATION_NORMAL)).isEqualTo(0);
+        assertThat(ImagePreparer.getRotation(ExifInterface.ORIENTATION_ROTATE_90)).isEqualTo(90);
+        assertThat(ImagePreparer.getRotation(ExifInterface.ORIENTATION_ROTATE_180)).isEqualTo(180);
+        assertThat(ImagePreparer.getRotation(ExifInterface.ORIENTATION_ROTATE_270)).isEqualTo(270);
+    }
+
+    @Test
+    public void getCacheName_changesWithPhoto() throws Exception {
+        File photo = folder.newFile("photo.jpg");
+        String name = ImagePreparer.getCacheName(photo);
+
+        try (OutputStream out = new FileOutputStream(photo)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+
+        assertThat(name).endsWith(".jpg");
+        assertThat(ImagePreparer.getCacheName(photo)).isNotEqualTo(name);
+    }
+
+    @Test
+    public void prepare_missingPhoto_returnsPhoto() {
+        File photo = new File(folder.getRoot(), "missing.jpg");
+
+        assertThat(ImagePreparer.prepare(photo, folder.getRoot())).isEqualTo(photo);
+    }
+}
@@ -0,0 +1,94 @@
+package openfoodfacts.github.scrachx.openfood.jobs;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import openfoodfacts.github.scrachx.openfood.models.entities.ToUploadProduct;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link UploadEngine}
+ */
+public class UploadEngineTest {
+    @Test
+    public void getBackoff_doublesUpToMax() {
+        assertThat(UploadEngine.getBackoff(0)).isEqualTo(0);
+        assertThat(UploadEngine.getBackoff(1)).isEqualTo(UploadEngine.INITIAL_BACKOFF_MS);
+        assertThat(UploadEngine.getBackoff(2)).isEqualTo(2 * UploadEngine.INITIAL_BACKOFF_MS);
+        assertThat(UploadEngine.getBackoff(3)).isEqualTo(4 * UploadEngine.INITIAL_BACKOFF_MS);
+        assertThat(UploadEngine.getBackoff(100)).isEqualTo(UploadEngine.MAX_BACKOFF_MS);
+    }
+
+    @Test
+    public void upload_failedItem_getsBackoffAndIsSaved() {
+        ToUploadProduct ok = new ToUploadProduct("1", "/a.jpg", "front");
+        ToUploadProduct failing = new ToUploadProduct("2", "/b.jpg", "front");
+        List<ToUploadProduct> saved = Collections.synchronizedList(new ArrayList<>());
+        long before = System.currentTimeMillis();
+
+        UploadEngine.Result result = new UploadEngine<ToUploadProduct>(2,
+            item -> item == failing ? Completable.error(new IOException()) : Completable.complete(),
+            saved::add)
+            .upload(Arrays.asList(ok, failing))
+            .blockingGet();
+
+        assertThat(result.getUploaded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.hasRemaining()).isTrue();
+        assertThat(saved).containsExactly(failing);
+        assertThat(failing.getUploadAttempts()).isEqualTo(1);
+        assertThat(failing.getNextUploadAttempt()).isAtLeast(before + UploadEngine.INITIAL_BACKOFF_MS);
+        assertThat(ok.getUploadAttempts()).isEqualTo(0);
+    }
+
+    @Test
+    public void upload_itemInBackoff_isDeferred() {
+        ToUploadProduct waiting = new ToUploadProduct("1", "/a.jpg", "front");
+        waiting.setNextUploadAttempt(System.currentTimeMillis() + 60_000);
+        AtomicInteger uploads = new AtomicInteger();
+
+        UploadEngine.Result result = new UploadEngine<ToUploadProduct>(1,
+            item -> Completable.fromAction(uploads::incrementAndGet),
+            item -> {
+            })
+            .upload(Collections.singletonList(waiting))
+            .blockingGet();
+
+        assertThat(uploads.get()).isEqualTo(0);
+        assertThat(result.getDeferred()).isEqualTo(1);
+        assertThat(result.hasRemaining()).isTrue();
+    }
+
+    @Test
+    public void upload_neverExceedsParallelism() {
+        List<ToUploadProduct> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new ToUploadProduct(String.valueOf(i), "/a.jpg", "front"));
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        UploadEngine.Result result = new UploadEngine<ToUploadProduct>(3,
+            item -> Completable.fromAction(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+            }),
+            item -> {
+            })
+            .upload(items)
+            .blockingGet();
+
+        assertThat(result.getUploaded()).isEqualTo(20);
+        assertThat(result.hasRemaining()).isFalse();
+        assertThat(maxRunning.get()).isAtMost(3);
+    }
+}
@@ -3,6 +3,7 @@ package openfoodfacts.github.scrachx.openfood.models;
 import org.junit.Before;
 import org.junit.Test;
 
+import openfoodfacts.github.scrachx.openfood.utils.Modifier;
 import openfoodfacts.github.scrachx.openfood.utils.UnitUtils;
 import openfoodfacts.github.scrachx.openfood.utils.Utils;
 
@@ -99,4 +100,80 @@ public class NutrimentsTest {
     public void containsWithNonExistentElement_returnsFalse() {
         assertThat(nutriments.contains(Nutriments.VITAMIN_B1)).isFalse();
     }
+
+    @Test
+    public void getKnownNutriment_valuesParsedAndConverted() {
+        nutriments.setAdditionalProperty(Nutriments.SODIUM, 0.4);
+        nutriments.setAdditionalProperty(Nutriments.SODIUM + "_100g", 0.4);
+        nutriments.setAdditionalProperty(Nutriments.SODIUM + "_serving", "0.12");
+        nutriments.setAdditionalProperty(Nutriments.SODIUM + "_unit", Units.UNIT_MILLIGRAM);
+
+        Nutriments.Nutriment nutriment = nutriments.get(Nutriments.SODIUM);
+
+        assertThat(nutriments.get100g(Nutriments.SODIUM)).isEqualTo("0.4");
+        assertThat(nutriments.get100gValue(Nutriments.SODIUM)).isEqualTo(0.4f);
+        assertThat(nutriments.getServingValue(Nutriments.SODIUM)).isEqualTo(0.12f);
+        assertThat(nutriment.getFor100gInUnits()).isEqualTo(Utils.getRoundNumber(400));
+        assertThat(nutriment.getValueFor100gInUnits()).isEqualTo(400f);
+        assertThat(nutriment.getForServingInUnits()).isEqualTo(Utils.getRoundNumber(120));
+        assertThat(nutriment.getForAnyValue(1, Units.UNIT_KILOGRAM)).isEqualTo(Utils.getRoundNumber(4000));
+    }
+
+    @Test
+    public void getKnownNutriment_sameInstanceUntilModified() {
+        nutriments.setAdditionalProperty(Nutriments.FAT, "12");
+        nutriments.setAdditionalProperty(Nutriments.FAT + "_100g", "12");
+
+        Nutriments.Nutriment nutriment = nutriments.get(Nutriments.FAT);
+
+        assertThat(nutriments.get(Nutriments.FAT)).isSameInstanceAs(nutriment);
+        nutriments.setAdditionalProperty(Nutriments.FAT + "_100g", "13");
+        assertThat(nutriments.get(Nutriments.FAT).getFor100gInUnits()).isEqualTo("13");
+    }
+
+    @Test
+    public void getKnownNutriment_notANumber_rawValue() {
+        nutriments.setAdditionalProperty(Nutriments.FAT, "traces");
+        nutriments.setAdditionalProperty(Nutriments.FAT + "_100g", "traces");
+        nutriments.setAdditionalProperty(Nutriments.FAT + "_unit", Units.UNIT_MILLIGRAM);
+
+        Nutriments.Nutriment nutriment = nutriments.get(Nutriments.FAT);
+
+        assertThat(nutriments.get100gValue(Nutriments.FAT)).isNaN();
+        assertThat(nutriment.getFor100gInUnits()).isEqualTo("traces");
+        assertThat(nutriment.getForAnyValue(1, Units.UNIT_KILOGRAM)).isEmpty();
+    }
+
+    @Test
+    public void getUnitAndModifier_knownNutriment() {
+        nutriments.setAdditionalProperty(Nutriments.VITAMIN_C + "_modifier", "<");
+        nutriments.setAdditionalProperty(Nutriments.VITAMIN_D + "_unit", "µg");
+
+        assertThat(nutriments.getModifier(Nutriments.VITAMIN_C)).isEqualTo("<");
+        assertThat(nutriments.getUnit(Nutriments.VITAMIN_C)).isEqualTo(Nutriments.DEFAULT_UNIT);
+        assertThat(nutriments.getUnit(Nutriments.VITAMIN_D)).isEqualTo("µg");
+        assertThat(nutriments.getModifier(Nutriments.VITAMIN_D)).isEqualTo(Modifier.DEFAULT_MODIFIER);
+    }
+
+    @Test
+    public void getUnit_unusualUnitOfKnownNutriment() {
+        nutriments.setAdditionalProperty(Nutriments.CAFFEINE + "_unit", "ppm");
+
+        assertThat(nutriments.getUnit(Nutriments.CAFFEINE)).isEqualTo("ppm");
+        assertThat(nutriments.getAdditionalProperties()).containsEntry(Nutriments.CAFFEINE + "_unit", "ppm");
+    }
+
+    @Test
+    public void getAdditionalProperties_allFields() {
+        nutriments.setAdditionalProperty(Nutriments.SALT, "1.2");
+        nutriments.setAdditionalProperty(Nutriments.SALT + "_100g", "1.2");
+        nutriments.setAdditionalProperty(Nutriments.SALT + "_unit", Units.UNIT_GRAM);
+        nutriments.setAdditionalProperty(NUTRIMENT_100G_KEY, NUTRIMENT_100G);
+
+        assertThat(nutriments.getAdditionalProperties()).containsExactly(
+            Nutriments.SALT, "1.2",
+            Nutriments.SALT + "_100g", "1.2",
+            Nutriments.SALT + "_unit", Units.UNIT_GRAM,
+            NUTRIMENT_100G_KEY, NUTRIMENT_100G);
+    }
 }
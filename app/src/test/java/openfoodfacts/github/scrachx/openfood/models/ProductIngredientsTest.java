@@ -0,0 +1,93 @@
+package openfoodfacts.github.scrachx.openfood.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link ProductIngredients}
+ */
+public class ProductIngredientsTest {
+    private static final String PRODUCT_JSON = "{\"ingredients\": ["
+        + "{\"id\": \"en:sugar\", \"text\": \"Sugar\", \"vegan\": \"yes\", \"vegetarian\": \"yes\", \"percent\": 45},"
+        + "{\"id\": \"en:palm-oil\", \"text\": \"palm oil\", \"vegan\": \"yes\", \"vegetarian\": \"yes\", \"from_palm_oil\": \"yes\"},"
+        + "{\"id\": \"en:milk-chocolate\", \"text\": \"milk chocolate\", \"vegan\": \"no\", \"vegetarian\": \"yes\", \"percent\": \"12.5\","
+        + " \"ingredients\": [{\"id\": \"en:cocoa-butter\", \"text\": \"cocoa butter\", \"vegan\": \"yes\"},"
+        + " {\"id\": \"en:milk\", \"text\": \"milk\", \"vegan\": \"no\"}]},"
+        + "{\"id\": \"en:e471\", \"text\": \"E471\", \"vegan\": \"maybe\", \"vegetarian\": \"maybe\", \"from_palm_oil\": \"maybe\","
+        + " \"rank\": 4, \"has_sub_ingredients\": \"no\"},"
+        + "{\"id\": \"en:flavouring\", \"text\": \"flavouring\", \"vegan\": \"en:unexpected\"}"
+        + "]}";
+
+    @Test
+    public void getIngredients_deserializedTree() throws IOException {
+        ProductIngredients ingredients = deserialize(PRODUCT_JSON).getIngredients();
+
+        assertThat(ingredients.size()).isEqualTo(5);
+        AnalyzedIngredient chocolate = ingredients.getIngredients().get(2);
+        assertThat(chocolate.getId()).isEqualTo("en:milk-chocolate");
+        assertThat(chocolate.getText()).isEqualTo("milk chocolate");
+        assertThat(chocolate.getPercent()).isEqualTo("12.5");
+        assertThat(chocolate.getIngredients()).hasSize(2);
+        assertThat(chocolate.getIngredients().get(1).getStatus(IngredientAnalysis.VEGAN)).isEqualTo(IngredientAnalysisStatus.NO);
+        assertThat(chocolate.getIngredients().get(1).getIngredients()).isEmpty();
+        assertThat(ingredients.getIngredients().get(0).getPercent()).isEqualTo("45");
+    }
+
+    @Test
+    public void getStatus_missingOrUnexpected_unknown() throws IOException {
+        ProductIngredients ingredients = deserialize(PRODUCT_JSON).getIngredients();
+
+        AnalyzedIngredient flavouring = ingredients.getIngredients().get(4);
+        assertThat(flavouring.getStatus(IngredientAnalysis.VEGAN)).isEqualTo(IngredientAnalysisStatus.UNKNOWN);
+        assertThat(flavouring.getStatus(IngredientAnalysis.FROM_PALM_OIL)).isEqualTo(IngredientAnalysisStatus.UNKNOWN);
+    }
+
+    @Test
+    public void getIngredients_byAnalysisAndStatus() throws IOException {
+        ProductIngredients ingredients = deserialize(PRODUCT_JSON).getIngredients();
+
+        assertThat(texts(ingredients.getIngredients(IngredientAnalysis.VEGAN, IngredientAnalysisStatus.NO)))
+            .containsExactly("milk chocolate");
+        assertThat(texts(ingredients.getIngredients(IngredientAnalysis.VEGAN, IngredientAnalysisStatus.YES)))
+            .containsExactly("Sugar", "palm oil").inOrder();
+        assertThat(texts(ingredients.getIngredients(IngredientAnalysis.FROM_PALM_OIL, IngredientAnalysisStatus.MAYBE)))
+            .containsExactly("E471");
+        assertThat(texts(ingredients.getIngredients(IngredientAnalysis.FROM_PALM_OIL, IngredientAnalysisStatus.UNKNOWN)))
+            .containsExactly("Sugar", "milk chocolate", "flavouring").inOrder();
+        assertThat(ingredients.getIngredients(IngredientAnalysis.VEGETARIAN, IngredientAnalysisStatus.NO)).isEmpty();
+    }
+
+    @Test
+    public void getIngredients_noIngredients_empty() throws IOException {
+        assertThat(deserialize("{}").getIngredients().isEmpty()).isTrue();
+        assertThat(deserialize("{\"ingredients\": null}").getIngredients().isEmpty()).isTrue();
+        assertThat(deserialize("{\"ingredients\": []}").getIngredients()).isSameInstanceAs(ProductIngredients.EMPTY);
+        assertThat(ProductIngredients.EMPTY.getIngredients(IngredientAnalysis.VEGAN, IngredientAnalysisStatus.MAYBE)).isEmpty();
+    }
+
+    @Test
+    public void fromKey() {
+        assertThat(IngredientAnalysis.fromKey("from_palm_oil")).isEqualTo(IngredientAnalysis.FROM_PALM_OIL);
+        assertThat(IngredientAnalysis.fromKey("not an analysis")).isNull();
+        assertThat(IngredientAnalysis.fromKey(null)).isNull();
+    }
+
+    private static Product deserialize(String json) throws IOException {
+        return new ObjectMapper().readValue(json, Product.class);
+    }
+
+    private static List<String> texts(List<AnalyzedIngredient> ingredients) {
+        List<String> texts = new ArrayList<>();
+        for (AnalyzedIngredient ingredient : ingredients) {
+            texts.add(ingredient.getText());
+        }
+        return texts;
+    }
+}
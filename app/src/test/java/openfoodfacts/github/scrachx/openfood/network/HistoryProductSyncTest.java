@@ -0,0 +1,62 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import openfoodfacts.github.scrachx.openfood.models.HistoryProduct;
+import openfoodfacts.github.scrachx.openfood.models.Product;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link HistoryProductSync}
+ */
+public class HistoryProductSyncTest {
+    @Test
+    public void chunk_splitsInOrder() {
+        List<List<Integer>> chunks = HistoryProductSync.chunk(Arrays.asList(1, 2, 3, 4, 5), 2);
+
+        assertThat(chunks).containsExactly(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5)).inOrder();
+    }
+
+    @Test
+    public void chunk_emptyList_noChunk() {
+        assertThat(HistoryProductSync.chunk(Collections.emptyList(), 2)).isEmpty();
+    }
+
+    @Test
+    public void chunk_largeHistory_fewRequests() {
+        List<Integer> items = Collections.nCopies(2000, 0);
+
+        assertThat(HistoryProductSync.chunk(items, HistoryProductSync.CHUNK_SIZE)).hasSize(20);
+    }
+
+    @Test
+    public void applyUpdates_onlyFetchedProducts() {
+        HistoryProduct fetched = new HistoryProduct("old", "brand", null, "123", null, null);
+        HistoryProduct missing = new HistoryProduct("missing", "brand", null, "456", null, null);
+        Product product = new Product();
+        product.setCode("123");
+
+        List<HistoryProduct> updated = HistoryProductSync.applyUpdates(Arrays.asList(fetched, missing),
+            Collections.singletonList(product), "en");
+
+        assertThat(updated).containsExactly(fetched);
+        assertThat(fetched.getTitle()).isNull();
+        assertThat(missing.getTitle()).isEqualTo("missing");
+    }
+
+    @Test
+    public void progress_add_keepsTotal() {
+        HistoryProductSync.Progress progress = new HistoryProductSync.Progress(0, 0, 150)
+            .add(new HistoryProductSync.Progress(100, 0, 0))
+            .add(new HistoryProductSync.Progress(50, 50, 0));
+
+        assertThat(progress.getDone()).isEqualTo(150);
+        assertThat(progress.getFailed()).isEqualTo(50);
+        assertThat(progress.isComplete()).isTrue();
+    }
+}
@@ -0,0 +1,46 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import okhttp3.OkHttpClient;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link HttpClientManager}
+ */
+public class HttpClientManagerTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void createHttpClient_hasCacheAndPerHostLimit() throws Exception {
+        File cacheDir = folder.newFolder("http");
+
+        OkHttpClient client = HttpClientManager.createHttpClient(cacheDir, 3);
+
+        assertThat(client.cache()).isNotNull();
+        assertThat(client.cache().directory()).isEqualTo(cacheDir);
+        assertThat(client.cache().maxSize()).isEqualTo(HttpClientManager.CACHE_MAX_SIZE);
+        assertThat(client.dispatcher().getMaxRequestsPerHost()).isEqualTo(3);
+    }
+
+    @Test
+    public void createHttpClient_withoutCacheDir() {
+        assertThat(HttpClientManager.createHttpClient(null, HttpClientManager.MAX_REQUESTS_PER_HOST).cache()).isNull();
+    }
+
+    @Test
+    public void derivedClients_shareConnectionsAndDispatcher() {
+        OkHttpClient client = HttpClientManager.createHttpClient(null, HttpClientManager.MAX_REQUESTS_PER_HOST);
+
+        OkHttpClient derived = client.newBuilder().cache(null).build();
+
+        assertThat(derived.connectionPool()).isSameInstanceAs(client.connectionPool());
+        assertThat(derived.dispatcher()).isSameInstanceAs(client.dispatcher());
+    }
+}
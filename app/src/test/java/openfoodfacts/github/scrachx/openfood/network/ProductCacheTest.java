@@ -0,0 +1,41 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import openfoodfacts.github.scrachx.openfood.models.entities.CachedProduct;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link ProductCache}
+ */
+public class ProductCacheTest {
+    private static final long NOW = 1_600_000_000_000L;
+
+    @Test
+    public void recentEntry_isServedWithoutRevalidation() {
+        CachedProduct cachedProduct = fetchedAgo(TimeUnit.SECONDS.toMillis(10));
+
+        assertThat(ProductCache.isServable(cachedProduct, NOW)).isTrue();
+        assertThat(ProductCache.needsRevalidation(cachedProduct, NOW)).isFalse();
+    }
+
+    @Test
+    public void olderEntry_isServedAndRevalidated() {
+        CachedProduct cachedProduct = fetchedAgo(TimeUnit.DAYS.toMillis(2));
+
+        assertThat(ProductCache.isServable(cachedProduct, NOW)).isTrue();
+        assertThat(ProductCache.needsRevalidation(cachedProduct, NOW)).isTrue();
+    }
+
+    @Test
+    public void expiredEntry_isNotServed() {
+        assertThat(ProductCache.isServable(fetchedAgo(ProductCache.MAX_AGE_MS), NOW)).isFalse();
+    }
+
+    private static CachedProduct fetchedAgo(long ageMs) {
+        return new CachedProduct(1L, "3017620422003", "en", "{}", "\"etag\"", null, NOW - ageMs, 2);
+    }
+}
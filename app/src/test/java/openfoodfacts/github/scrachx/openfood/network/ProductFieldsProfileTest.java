@@ -0,0 +1,53 @@
+package openfoodfacts.github.scrachx.openfood.network;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link ProductFieldsProfile}
+ */
+public class ProductFieldsProfileTest {
+    @Test
+    public void buildFields_sortedWithoutDuplicates() {
+        String fields = ProductFieldsProfile.buildFields(
+            Arrays.asList("quantity", "code", "brands", "code"),
+            Collections.singletonList("product_name"),
+            "fr",
+            true);
+
+        assertThat(fields).isEqualTo("brands,code,product_name_en,product_name_fr,quantity");
+    }
+
+    @Test
+    public void buildFields_defaultLanguage_notDuplicated() {
+        String fields = ProductFieldsProfile.buildFields(
+            Collections.singletonList("code"),
+            Collections.singletonList("product_name"),
+            ApiFields.Defaults.DEFAULT_LANGUAGE,
+            true);
+
+        assertThat(fields).isEqualTo("code,product_name_" + ApiFields.Defaults.DEFAULT_LANGUAGE);
+    }
+
+    @Test
+    public void buildFields_withoutDefaultLanguage_onlyRequestedLanguage() {
+        String fields = ProductFieldsProfile.buildFields(
+            Collections.emptyList(),
+            Arrays.asList("product_name", "ingredients_text"),
+            "de",
+            false);
+
+        assertThat(fields).isEqualTo("ingredients_text_de,product_name_de");
+    }
+
+    @Test
+    public void isCacheable_onlyFull() {
+        assertThat(ProductFieldsProfile.FULL.isCacheable()).isTrue();
+        assertThat(ProductFieldsProfile.QUICK_VIEW.isCacheable()).isFalse();
+        assertThat(ProductFieldsProfile.EDIT.isCacheable()).isFalse();
+    }
+}
@@ -0,0 +1,82 @@
+package openfoodfacts.github.scrachx.openfood.network.metrics;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import okhttp3.Request;
+import openfoodfacts.github.scrachx.openfood.network.services.ProductsAPI;
+import retrofit2.Invocation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link NetworkMetrics} and {@link Histogram}
+ */
+public class NetworkMetricsTest {
+    @Test
+    public void getEndpoint_retrofitCall_usesTemplate() throws Exception {
+        Request request = new Request.Builder()
+            .url("https://world.openfoodfacts.org/api/v2/search?code=1,2")
+            .tag(Invocation.class, Invocation.of(
+                ProductsAPI.class.getMethod("getProductsByBarcodes", String.class, String.class, int.class, String.class),
+                Collections.emptyList()))
+            .build();
+
+        assertThat(NetworkMetrics.getEndpoint(request)).isEqualTo("GET world.openfoodfacts.org api/v2/search");
+    }
+
+    @Test
+    public void getEndpoint_otherCall_pathPrefix() {
+        Request image = new Request.Builder()
+            .url("https://static.openfoodfacts.org/images/products/301/762/042/2003/front_fr.4.400.jpg")
+            .build();
+        Request page = new Request.Builder()
+            .url("https://world.openfoodfacts.org/product/3017620422003")
+            .build();
+
+        assertThat(NetworkMetrics.getEndpoint(image)).isEqualTo("GET static.openfoodfacts.org /images/products/*");
+        assertThat(NetworkMetrics.getEndpoint(page)).isEqualTo("GET world.openfoodfacts.org /product/{n}");
+    }
+
+    @Test
+    public void get_tooManyEndpoints_other() {
+        NetworkMetrics metrics = new NetworkMetrics();
+        for (int i = 0; i < NetworkMetrics.MAX_ENDPOINTS; i++) {
+            metrics.get("GET host api" + i);
+        }
+
+        EndpointMetrics other = metrics.get("GET host another api");
+
+        assertThat(other).isSameInstanceAs(metrics.get(NetworkMetrics.OTHER_ENDPOINT));
+        assertThat(other).isSameInstanceAs(metrics.get("GET host yet another api"));
+        assertThat(metrics.get("GET host api0")).isNotSameInstanceAs(other);
+    }
+
+    @Test
+    public void histogram_percentiles_areBucketBounds() {
+        Histogram histogram = new Histogram(Histogram.DURATION_BOUNDS);
+        for (int i = 0; i < 9; i++) {
+            histogram.record(15);
+        }
+        histogram.record(1500);
+
+        assertThat(histogram.getCount()).isEqualTo(10);
+        assertThat(histogram.getPercentile(50)).isEqualTo(20);
+        assertThat(histogram.getPercentile(90)).isEqualTo(20);
+        assertThat(histogram.getPercentile(99)).isEqualTo(1500);
+        assertThat(histogram.getMax()).isEqualTo(1500);
+        assertThat(histogram.getMean()).isEqualTo((9 * 15 + 1500) / 10);
+    }
+
+    @Test
+    public void toJson_containsEndpoints() throws Exception {
+        NetworkMetrics metrics = new NetworkMetrics();
+        metrics.get("GET host api").total.record(120);
+
+        String json = metrics.toJson();
+
+        assertThat(json).contains("\"GET host api\"");
+        assertThat(json).contains("\"total_ms\"");
+    }
+}
@@ -0,0 +1,66 @@
+package openfoodfacts.github.scrachx.openfood.repositories;
+
+import org.junit.Test;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link TaxonomiesManager}
+ */
+public class TaxonomiesManagerTest {
+    private static final long INTERVAL = TaxonomiesManager.CHECK_INTERVAL_MS;
+
+    @Test
+    public void isCheckDue_withinInterval_false() {
+        assertThat(TaxonomiesManager.isCheckDue(1000, 1000 + INTERVAL - 1, INTERVAL)).isFalse();
+    }
+
+    @Test
+    public void isCheckDue_afterInterval_true() {
+        assertThat(TaxonomiesManager.isCheckDue(1000, 1000 + INTERVAL, INTERVAL)).isTrue();
+        assertThat(TaxonomiesManager.isCheckDue(0, System.currentTimeMillis(), INTERVAL)).isTrue();
+    }
+
+    @Test
+    public void isCheckDue_clockWentBack_true() {
+        assertThat(TaxonomiesManager.isCheckDue(5000, 1000, INTERVAL)).isTrue();
+    }
+
+    @Test
+    public void formatHttpDate_rfc1123() {
+        assertThat(TaxonomiesManager.formatHttpDate(784111777000L)).isEqualTo("Sun, 06 Nov 1994 08:49:37 GMT");
+    }
+
+    @Test
+    public void getLastModifiedDate_notModified_localTime() {
+        assertThat(TaxonomiesManager.getLastModifiedDate(response(304, null), 1234L)).isEqualTo(1234L);
+    }
+
+    @Test
+    public void getLastModifiedDate_modified_headerTime() {
+        Response response = response(200, "Sun, 06 Nov 1994 08:49:37 GMT");
+
+        assertThat(TaxonomiesManager.getLastModifiedDate(response, 1234L)).isEqualTo(784111777000L);
+    }
+
+    @Test
+    public void getLastModifiedDate_noHeader_zero() {
+        assertThat(TaxonomiesManager.getLastModifiedDate(response(200, null), 1234L)).isEqualTo(0L);
+    }
+
+    private static Response response(int code, String lastModified) {
+        Response.Builder builder = new Response.Builder()
+            .request(new Request.Builder().url("https://world.openfoodfacts.org/data/taxonomies/labels.json").head().build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message("");
+        if (lastModified != null) {
+            builder.header("Last-Modified", lastModified);
+        }
+        return builder.build();
+    }
+}
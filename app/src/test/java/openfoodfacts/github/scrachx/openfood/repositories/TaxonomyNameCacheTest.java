@@ -0,0 +1,87 @@
+package openfoodfacts.github.scrachx.openfood.repositories;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link TaxonomyNameCache}
+ */
+public class TaxonomyNameCacheTest {
+    private TaxonomyNameCache cache;
+
+    @Before
+    public void setup() {
+        cache = new TaxonomyNameCache(3);
+    }
+
+    @Test
+    public void get_loadsOnlyOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            String name = cache.get(Taxonomy.LABEL, "en:organic", "fr", () -> {
+                loads.incrementAndGet();
+                return "bio";
+            });
+            assertThat(name).isEqualTo("bio");
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void get_cachesMissingNames() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(Taxonomy.LABEL, "en:organic", "xx", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Optional<String> cached = cache.getIfPresent(Taxonomy.LABEL, "en:organic", "xx");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cached).isNotNull();
+        assertThat(cached.isPresent()).isFalse();
+    }
+
+    @Test
+    public void keys_includeTaxonomyAndLanguage() {
+        cache.put(Taxonomy.LABEL, "en:e330", "en", "label");
+
+        assertThat(cache.<String>getIfPresent(Taxonomy.ADDITIVE, "en:e330", "en")).isNull();
+        assertThat(cache.<String>getIfPresent(Taxonomy.LABEL, "en:e330", "fr")).isNull();
+        assertThat(cache.<String>getIfPresent(Taxonomy.LABEL, "en:e330", "en")).isEqualTo(Optional.of("label"));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        cache.put(Taxonomy.LABEL, "en:a", "en", "a");
+        cache.put(Taxonomy.LABEL, "en:b", "en", "b");
+        cache.put(Taxonomy.LABEL, "en:c", "en", "c");
+        // Makes en:b the eldest entry
+        cache.getIfPresent(Taxonomy.LABEL, "en:a", "en");
+        cache.put(Taxonomy.LABEL, "en:d", "en", "d");
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.<String>getIfPresent(Taxonomy.LABEL, "en:b", "en")).isNull();
+        assertThat(cache.<String>getIfPresent(Taxonomy.LABEL, "en:a", "en")).isNotNull();
+    }
+
+    @Test
+    public void invalidate_removesOnlyThatTaxonomy() {
+        cache.put(Taxonomy.LABEL, "en:organic", "en", "organic");
+        cache.put(Taxonomy.CATEGORY, "en:milks", "en", "milks");
+
+        cache.invalidate(Taxonomy.LABEL);
+
+        assertThat(cache.<String>getIfPresent(Taxonomy.LABEL, "en:organic", "en")).isNull();
+        assertThat(cache.<String>getIfPresent(Taxonomy.CATEGORY, "en:milks", "en")).isNotNull();
+    }
+}
@@ -0,0 +1,48 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link InvalidBarcodeFilter}
+ */
+public class InvalidBarcodeFilterTest {
+    @Test
+    public void contains_numericBarcodes() {
+        InvalidBarcodeFilter filter = InvalidBarcodeFilter.of(Arrays.asList("3017620422003", "5449000000996", "0000000000000"));
+
+        assertThat(filter.size()).isEqualTo(3);
+        assertThat(filter.contains("5449000000996")).isTrue();
+        assertThat(filter.contains("0000000000000")).isTrue();
+        assertThat(filter.contains("3017620425035")).isFalse();
+    }
+
+    @Test
+    public void contains_keepsLeadingZeros() {
+        InvalidBarcodeFilter filter = InvalidBarcodeFilter.of(Collections.singletonList("0012345"));
+
+        assertThat(filter.contains("0012345")).isTrue();
+        assertThat(filter.contains("12345")).isFalse();
+        assertThat(filter.contains("012345")).isFalse();
+    }
+
+    @Test
+    public void contains_nonNumericAndLongBarcodes() {
+        InvalidBarcodeFilter filter = InvalidBarcodeFilter.of(Arrays.asList("abc-123", "123456789012345678901"));
+
+        assertThat(filter.contains("abc-123")).isTrue();
+        assertThat(filter.contains("123456789012345678901")).isTrue();
+        assertThat(filter.contains("abc")).isFalse();
+    }
+
+    @Test
+    public void empty_containsNothing() {
+        assertThat(InvalidBarcodeFilter.EMPTY.contains("3017620422003")).isFalse();
+        assertThat(InvalidBarcodeFilter.EMPTY.contains(null)).isFalse();
+        assertThat(InvalidBarcodeFilter.EMPTY.contains("")).isFalse();
+    }
+}
@@ -0,0 +1,103 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link MultiPatternMatcher}
+ */
+public class MultiPatternMatcherTest {
+    private static final String INGREDIENTS = "Sugar, palm oil, hazelnuts (13%), skimmed MILK powder (8.7%), fat-reduced cocoa (7.4%), "
+        + "emulsifier: lecithins (SOYA), vanillin, wheat flour, sesame seeds, eggs, mustard, celery, lupin, ";
+
+    @Test
+    public void findAll_ignoresCase() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Collections.singletonList("Milk"));
+
+        assertThat(matcher.findAll("milk, MILK, mIlK")).containsExactly(match(0, 4), match(6, 10), match(12, 16)).inOrder();
+    }
+
+    @Test
+    public void findAll_onlyWholeWords() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Collections.singletonList("egg"));
+
+        assertThat(matcher.findAll("eggplant, nutmegg, egg.")).containsExactly(match(19, 22));
+    }
+
+    @Test
+    public void findAll_multiWordPattern() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList("sesame seeds", "sesame"));
+
+        assertThat(matcher.findAll("sesame, sesame seeds")).containsExactly(match(0, 6), match(8, 20)).inOrder();
+    }
+
+    @Test
+    public void findAll_overlappingPatterns_leftmostLongestKept() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList("milk", "skimmed milk", "milk powder"));
+
+        assertThat(matcher.findAll("skimmed milk powder")).containsExactly(match(0, 12));
+        assertThat(matcher.findAll("milk powder")).containsExactly(match(0, 11));
+    }
+
+    @Test
+    public void findAll_patternsSharingSuffixes() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList("he", "she", "hers", "his"));
+
+        assertThat(matcher.findAll("ushers she his hers he")).containsExactly(match(7, 10), match(11, 14), match(15, 19), match(20, 22))
+            .inOrder();
+    }
+
+    @Test
+    public void findAll_noPatterns_noMatches() {
+        assertThat(new MultiPatternMatcher(Collections.emptyList()).findAll(INGREDIENTS)).isEmpty();
+        assertThat(new MultiPatternMatcher(Collections.singletonList("")).findAll(INGREDIENTS)).isEmpty();
+    }
+
+    @Test
+    public void forPatterns_samePatterns_sameMatcher() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.forPatterns(Arrays.asList("milk", "soya"), "en");
+
+        assertThat(MultiPatternMatcher.forPatterns(Arrays.asList("soya", "milk"), "en")).isSameInstanceAs(matcher);
+        assertThat(MultiPatternMatcher.forPatterns(Arrays.asList("soya", "milk"), "fr")).isNotSameInstanceAs(matcher);
+    }
+
+    @Test
+    public void findAll_sameMatchesAsTokenMatching() {
+        List<String> allergens = Arrays.asList("milk", "soya", "wheat", "eggs", "mustard", "celery", "lupin", "gluten", "fish", "peanuts",
+            "sesame", "sulphites", "molluscs", "crustaceans", "hazelnuts");
+        String text = INGREDIENTS + INGREDIENTS.toUpperCase();
+
+        assertThat(new MultiPatternMatcher(allergens).findAll(text)).isEqualTo(findAllByTokens(text, allergens));
+    }
+
+    private static MultiPatternMatcher.Match match(int start, int end) {
+        return new MultiPatternMatcher.Match(start, end);
+    }
+
+    /**
+     * The matching formerly done by the ingredients fragment: each token is compared to every allergen.
+     */
+    private static List<MultiPatternMatcher.Match> findAllByTokens(CharSequence text, List<String> allergens) {
+        List<MultiPatternMatcher.Match> matches = new ArrayList<>();
+        Matcher tokens = Pattern.compile("[\\p{L}\\p{Nd}(),.-]+").matcher(text);
+        while (tokens.find()) {
+            String token = tokens.group();
+            String word = token.replaceAll("[(),.-]+", "");
+            for (String allergen : allergens) {
+                if (word.equalsIgnoreCase(allergen)) {
+                    int start = tokens.start() + token.indexOf(word);
+                    matches.add(new MultiPatternMatcher.Match(start, start + word.length()));
+                }
+            }
+        }
+        return matches;
+    }
+}
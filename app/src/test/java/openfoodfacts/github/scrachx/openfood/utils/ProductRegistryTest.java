@@ -0,0 +1,108 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import openfoodfacts.github.scrachx.openfood.models.Product;
+import openfoodfacts.github.scrachx.openfood.models.ProductHandle;
+import openfoodfacts.github.scrachx.openfood.models.ProductState;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link ProductRegistry}
+ */
+public class ProductRegistryTest {
+    private ProductRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new ProductRegistry();
+    }
+
+    @Test
+    public void getProduct_registered_sameInstance() {
+        Product product = product("123", "Chocolate");
+
+        ProductHandle handle = registry.register(product);
+
+        assertThat(registry.isRegistered(handle)).isTrue();
+        assertThat(registry.getProduct(handle)).isSameInstanceAs(product);
+        assertThat(registry.getState(handle).getCode()).isEqualTo("123");
+        assertThat(registry.getState(handle).getStatus()).isEqualTo(1);
+    }
+
+    @Test
+    public void getState_registered_sameInstance() {
+        ProductState state = new ProductState().withStatus(1).withProduct(product("123", "Chocolate"));
+
+        assertThat(registry.getState(registry.register(state))).isSameInstanceAs(state);
+    }
+
+    @Test
+    public void getProduct_manyRegistered_notEvicted() {
+        Product first = product("1", "First");
+        ProductHandle handle = registry.register(first);
+        for (int i = 0; i < 100; i++) {
+            registry.register(product(String.valueOf(i), "Other"));
+        }
+
+        assertThat(registry.isRegistered(handle)).isTrue();
+        assertThat(registry.getProduct(handle)).isSameInstanceAs(first);
+    }
+
+    @Test
+    public void update_sameHandle_newState() {
+        ProductHandle handle = registry.register(product("1", "First"));
+        ProductState state = new ProductState().withStatus(1).withProduct(product("2", "Second"));
+
+        ProductHandle updated = registry.update(handle, state);
+
+        assertThat(updated.getId()).isEqualTo(handle.getId());
+        assertThat(updated.getCode()).isEqualTo("2");
+        assertThat(registry.getState(handle)).isSameInstanceAs(state);
+    }
+
+    @Test
+    public void getProduct_released_stub() {
+        Product product = product("123", "Chocolate");
+        ProductHandle handle = registry.register(product);
+
+        registry.release(handle);
+
+        assertThat(registry.isRegistered(handle)).isFalse();
+        assertThat(registry.getProduct(handle)).isNotSameInstanceAs(product);
+        assertThat(registry.getProduct(handle).getCode()).isEqualTo("123");
+        assertThat(registry.getProduct(handle).getProductName()).isEqualTo("Chocolate");
+        assertThat(registry.getProduct(handle).getLang()).isEqualTo("en");
+    }
+
+    @Test
+    public void register_sameProductTwice_distinctHandles() {
+        Product product = product("123", "Chocolate");
+
+        ProductHandle first = registry.register(product);
+        ProductHandle second = registry.register(product);
+        registry.release(first);
+
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThat(registry.getProduct(second)).isSameInstanceAs(product);
+    }
+
+    @Test
+    public void getState_noHandle_null() {
+        assertThat(registry.getState(null)).isNull();
+        assertThat(registry.getProduct(null)).isNull();
+    }
+
+    private static Product product(String code, String name) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("code", code);
+        fields.put("product_name", name);
+        fields.put("lang", "en");
+        return JsonUtils.getSharedMapper().convertValue(fields, Product.class);
+    }
+}
@@ -0,0 +1,98 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link SuggestionIndex}
+ */
+public class SuggestionIndexTest {
+    private static final List<String> CATEGORIES = Arrays.asList("Chocolats noirs", "Chocolats", "Pâtes à tartiner au chocolat",
+        "Boissons chaudes", "Crèmes dessert", "Œufs", "Biscuits au chocolat", "Chocolats au lait");
+
+    @Test
+    public void find_ignoresCaseAndAccents() {
+        SuggestionIndex index = SuggestionIndex.of(CATEGORIES);
+
+        assertThat(index.find("CREME", 10)).containsExactly("Crèmes dessert");
+        assertThat(index.find("pâtes", 10)).containsExactly("Pâtes à tartiner au chocolat");
+        assertThat(index.find("oeu", 10)).containsExactly("Œufs");
+    }
+
+    @Test
+    public void find_wordPrefixes_namesStartingWithPrefixFirst() {
+        SuggestionIndex index = SuggestionIndex.of(CATEGORIES);
+
+        assertThat(index.find("choc", 10)).containsExactly("Chocolats", "Chocolats noirs", "Chocolats au lait",
+            "Biscuits au chocolat", "Pâtes à tartiner au chocolat").inOrder();
+        assertThat(index.find("chocolats a", 10)).containsExactly("Chocolats au lait");
+    }
+
+    @Test
+    public void find_heavierFirst() {
+        SuggestionIndex index = SuggestionIndex.of(Arrays.asList("EMB 01001", "EMB 01002", "EMB 01003"), new int[]{2, 30, 0});
+
+        assertThat(index.find("emb 0100", 10)).containsExactly("EMB 01002", "EMB 01001", "EMB 01003").inOrder();
+        assertThat(index.find("emb", 1)).containsExactly("EMB 01002");
+    }
+
+    @Test
+    public void find_sameNameMatchedTwice_once() {
+        SuggestionIndex index = SuggestionIndex.of(Arrays.asList("Lait de lait", "Laitages"));
+
+        assertThat(index.find("lait", 10)).containsExactly("Laitages", "Lait de lait").inOrder();
+    }
+
+    @Test
+    public void find_noMatch_empty() {
+        SuggestionIndex index = SuggestionIndex.of(CATEGORIES);
+
+        assertThat(index.find("zzz", 10)).isEmpty();
+        assertThat(index.find("  ", 10)).isEmpty();
+        assertThat(index.find(null, 10)).isEmpty();
+        assertThat(SuggestionIndex.EMPTY.find("choc", 10)).isEmpty();
+        assertThat(SuggestionIndex.of(Collections.singletonList(null)).size()).isEqualTo(0);
+    }
+
+    @Test
+    public void find_sameMatchesAsFullScan() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add(String.format(Locale.ROOT, "%s %s %d", CATEGORIES.get(i % CATEGORIES.size()), Integer.toString(i, 36), i));
+        }
+        SuggestionIndex index = SuggestionIndex.of(names);
+
+        for (String prefix : new String[]{"c", "ch", "cho", "choc", "b", "bo", "p", "a3"}) {
+            assertThat(index.find(prefix, names.size())).containsExactlyElementsIn(findByScan(names, prefix));
+        }
+    }
+
+    /**
+     * @return the names starting with the prefix or having a word starting with it, by comparing each of them
+     */
+    private static List<String> findByScan(List<String> names, String prefix) {
+        String key = SuggestionIndex.normalize(prefix);
+        List<String> matches = new ArrayList<>();
+        for (String name : names) {
+            String normalizedName = SuggestionIndex.normalize(name);
+            if (normalizedName.startsWith(key)) {
+                matches.add(name);
+                continue;
+            }
+            for (String word : normalizedName.split(" ")) {
+                if (word.startsWith(key)) {
+                    matches.add(name);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}
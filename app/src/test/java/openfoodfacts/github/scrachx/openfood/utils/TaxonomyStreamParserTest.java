@@ -0,0 +1,125 @@
+package openfoodfacts.github.scrachx.openfood.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.Ingredient;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientResponse;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsWrapper;
+import openfoodfacts.github.scrachx.openfood.models.entities.ingredient.IngredientsWrapperDeserializer;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests for {@link TaxonomyStreamParser}
+ */
+public class TaxonomyStreamParserTest {
+    private static final String FIXTURE = "mock_ingredients_taxonomy.json";
+    /**
+     * How many times the fixture entries are repeated to get more entries than a batch.
+     */
+    private static final int PAYLOAD_COPIES = 100;
+
+    @Test
+    public void parseInBatches_sendsFixedSizeBatches() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+
+        int count = TaxonomyStreamParser.parseInBatches(fixtureStream(), IngredientsWrapperDeserializer::parseEntry, 3, batch -> {
+            batchSizes.add(batch.size());
+            for (IngredientResponse response : batch) {
+                tags.add(response.getUniqueIngredientID());
+            }
+        });
+
+        // The entry without names is skipped
+        assertThat(count).isEqualTo(8);
+        assertThat(batchSizes).containsExactly(3, 3, 2).inOrder();
+        assertThat(tags).containsAtLeast("en:sugar", "en:milk", "en:e330").inOrder();
+        assertThat(tags).doesNotContain("en:unnamed-entry");
+    }
+
+    @Test
+    public void parseInBatches_mapsLikeWrapperDeserializer() throws IOException {
+        IngredientsWrapper wrapper = JsonUtils.readFor(IngredientsWrapper.class).readValue(fixtureStream());
+        List<Ingredient> expected = wrapper.map();
+
+        List<Ingredient> streamed = new ArrayList<>();
+        TaxonomyStreamParser.parseInBatches(fixtureStream(), TaxonomyStreamParserTest::mapIngredient, 2, streamed::addAll);
+
+        assertThat(streamed).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(streamed.get(i).getTag()).isEqualTo(expected.get(i).getTag());
+            assertThat(streamed.get(i).getWikiDataId()).isEqualTo(expected.get(i).getWikiDataId());
+            assertThat(streamed.get(i).getNames()).hasSize(expected.get(i).getNames().size());
+            assertThat(streamed.get(i).getParents()).hasSize(expected.get(i).getParents().size());
+            assertThat(streamed.get(i).getChildren()).hasSize(expected.get(i).getChildren().size());
+        }
+    }
+
+    @Test
+    public void contentHash_changesOnlyWithContent() throws IOException {
+        JsonNode fixture = JsonUtils.getSharedMapper().readTree(fixtureStream());
+        JsonNode sameSugar = JsonUtils.getSharedMapper().readTree(fixture.get("en:sugar").toString());
+        ObjectNode renamedSugar = fixture.get("en:sugar").deepCopy();
+        ((ObjectNode) renamedSugar.get("name")).put("fr", "sucre blanc");
+
+        long hash = TaxonomyStreamParser.contentHash(fixture.get("en:sugar"));
+        assertThat(TaxonomyStreamParser.contentHash(sameSugar)).isEqualTo(hash);
+        assertThat(TaxonomyStreamParser.contentHash(renamedSugar)).isNotEqualTo(hash);
+        assertThat(TaxonomyStreamParser.contentHash(fixture.get("en:milk"))).isNotEqualTo(hash);
+    }
+
+    @Test
+    public void parseInBatches_repeatedEntries_allWritten() throws IOException {
+        final byte[] payload = buildPayload(PAYLOAD_COPIES);
+        List<String> tags = new ArrayList<>();
+
+        int count = TaxonomyStreamParser.parseInBatches(new ByteArrayInputStream(payload), TaxonomyStreamParserTest::mapIngredient,
+            TaxonomyStreamParser.DEFAULT_BATCH_SIZE, batch -> {
+                for (Ingredient ingredient : batch) {
+                    tags.add(ingredient.getTag());
+                }
+            });
+
+        // The entry without names is skipped in every copy
+        assertThat(count).isEqualTo(8 * PAYLOAD_COPIES);
+        assertThat(tags).hasSize(count);
+        assertThat(tags).containsNoDuplicates();
+        assertThat(tags).containsAtLeast("en:sugar-0", "en:milk-0", "en:sugar-" + (PAYLOAD_COPIES - 1));
+        assertThat(tags).doesNotContain("en:unnamed-entry-0");
+    }
+
+    private static Ingredient mapIngredient(String tag, JsonNode entry) {
+        IngredientResponse response = IngredientsWrapperDeserializer.parseEntry(tag, entry);
+        return response != null ? response.map() : null;
+    }
+
+    private ByteArrayInputStream fixtureStream() throws IOException {
+        return new ByteArrayInputStream(FileTestUtils.readTextFileFromResources(FIXTURE, getClass().getClassLoader())
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] buildPayload(int copies) throws IOException {
+        JsonNode fixture = JsonUtils.getSharedMapper().readTree(fixtureStream());
+        ObjectNode large = JsonUtils.getSharedMapper().createObjectNode();
+        for (int i = 0; i < copies; i++) {
+            Iterator<Map.Entry<String, JsonNode>> fields = fixture.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                large.set(field.getKey() + "-" + i, field.getValue());
+            }
+        }
+        return JsonUtils.getSharedMapper().writeValueAsBytes(large);
+    }
+}